@@ -0,0 +1,73 @@
+package com.ligero.benchmarks;
+
+import com.ligero.jdbc.Jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk insert into an in-memory H2 table: one {@code insert()} per row (in
+ * one transaction, so only the statement round trips differ) against
+ * {@code batch()} and {@code batchInsert()}. A networked database widens the
+ * gap by a round trip per row. Run with {@code ./gradlew :benchmarks:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JdbcBatchBenchmark {
+
+    private static final String INSERT = "insert into items(name, qty) values (?, ?)";
+
+    @Param({"1000", "10000"})
+    int rows;
+
+    private Jdbc db;
+    private List<Object[]> params;
+
+    @Setup
+    public void setUp() {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:batch;DB_CLOSE_DELAY=-1");
+        db = new Jdbc(ds);
+        db.update("create table if not exists items(id bigint auto_increment primary key, name varchar(50), qty int)");
+        params = IntStream.range(0, rows).mapToObj(i -> new Object[] {"item-" + i, i}).toList();
+    }
+
+    @Setup(Level.Invocation)
+    public void truncate() {
+        db.update("truncate table items");
+    }
+
+    @Benchmark
+    public long rowByRow() {
+        return db.tx(tx -> {
+            long last = 0;
+            for (Object[] row : params) {
+                last = tx.insert(INSERT, row);
+            }
+            return last;
+        });
+    }
+
+    @Benchmark
+    public long batch() {
+        return db.batch(INSERT, params);
+    }
+
+    @Benchmark
+    public long[] batchInsert() {
+        return db.batchInsert(INSERT, params);
+    }
+}
@@ -0,0 +1,73 @@
+package com.ligero.benchmarks;
+
+import com.ligero.jdbc.Jdbc;
+import com.ligero.jdbc.RowMapper;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * A 1,000-row query mapped to records from an in-memory H2 table: a mapper
+ * reading columns by label on every row against a
+ * {@link RowMapper#compiled compiled} one that resolves them to indexes once
+ * per query. Run with {@code ./gradlew :benchmarks:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JdbcQueryBenchmark {
+
+    record Order(long id, String customer, int quantity, BigDecimal total, boolean paid) {
+    }
+
+    private static final String SQL = "select id, customer, quantity, total, paid from orders where id <= ?";
+
+    private static final RowMapper<Order> BY_LABEL = r -> new Order(r.getLong("id"), r.getString("customer"),
+        r.getInt("quantity"), r.getBigDecimal("total"), r.getBoolean("paid"));
+
+    private static final RowMapper<Order> COMPILED = RowMapper.compiled(columns -> {
+        int id = columns.index("id");
+        int customer = columns.index("customer");
+        int quantity = columns.index("quantity");
+        int total = columns.index("total");
+        int paid = columns.index("paid");
+        return r -> new Order(r.getLong(id), r.getString(customer), r.getInt(quantity), r.getBigDecimal(total),
+            r.getBoolean(paid));
+    });
+
+    private Jdbc db;
+
+    @Setup
+    public void setUp() {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:query;DB_CLOSE_DELAY=-1");
+        db = new Jdbc(ds);
+        db.update("create table if not exists orders(id bigint primary key, customer varchar(50), "
+            + "quantity int, total decimal(10, 2), paid boolean)");
+        db.update("truncate table orders");
+        db.batch("insert into orders values (?, ?, ?, ?, ?)", IntStream.rangeClosed(1, 1_000)
+            .mapToObj(i -> new Object[] {(long) i, "customer-" + i, i % 7, BigDecimal.valueOf(i, 2), i % 2 == 0})
+            .toList());
+    }
+
+    @Benchmark
+    public List<Order> byLabel() {
+        return db.query(SQL, BY_LABEL, 1_000L);
+    }
+
+    @Benchmark
+    public List<Order> compiled() {
+        return db.query(SQL, COMPILED, 1_000L);
+    }
+}
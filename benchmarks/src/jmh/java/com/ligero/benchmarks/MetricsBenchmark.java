@@ -0,0 +1,65 @@
+package com.ligero.benchmarks;
+
+import com.ligero.middleware.InMemoryMetricsCollector;
+import com.ligero.middleware.LatencyHistogram;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contended cost of recording a request: one {@link LatencyHistogram} shared by
+ * every thread, and {@link InMemoryMetricsCollector#record} on one hot route and
+ * spread over 50. Latencies are drawn from 50µs–50ms so many buckets are live.
+ * Run with {@code ./gradlew :benchmarks:jmh}; add {@code -prof gc} to confirm
+ * the steady state allocates nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(8)
+public class MetricsBenchmark {
+
+    private static final int ROUTES = 50;
+
+    private LatencyHistogram histogram;
+    private InMemoryMetricsCollector collector;
+    private String[] routes;
+
+    @Setup
+    public void setUp() {
+        histogram = new LatencyHistogram();
+        collector = new InMemoryMetricsCollector();
+        routes = new String[ROUTES];
+        for (int i = 0; i < ROUTES; i++) {
+            routes[i] = "/api/v1/resource" + i + "/{id}";
+        }
+    }
+
+    private static long randomLatency() {
+        return ThreadLocalRandom.current().nextLong(50_000, 50_000_000);
+    }
+
+    @Benchmark
+    public void histogramRecord() {
+        histogram.record(randomLatency());
+    }
+
+    @Benchmark
+    public void collectorHotRoute() {
+        collector.record("GET", "/api/v1/users/{id}", 200, randomLatency());
+    }
+
+    @Benchmark
+    public void collectorManyRoutes() {
+        collector.record("GET", routes[ThreadLocalRandom.current().nextInt(ROUTES)], 200, randomLatency());
+    }
+}
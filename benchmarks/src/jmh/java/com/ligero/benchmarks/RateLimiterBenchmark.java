@@ -0,0 +1,63 @@
+package com.ligero.benchmarks;
+
+import com.ligero.middleware.TokenBucketStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contended cost of {@link TokenBucketStore#tryAcquire}: every thread on one hot
+ * key (CAS contention), spread over 10k keys (map lookups), and the
+ * constant-memory approximate mode. Run with {@code ./gradlew :benchmarks:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(8)
+public class RateLimiterBenchmark {
+
+    private static final int KEYS = 10_000;
+
+    private TokenBucketStore exact;
+    private TokenBucketStore approximate;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        // large enough that the benchmark measures bookkeeping, not refusals
+        exact = new TokenBucketStore(Long.MAX_VALUE / 1_000_000_000L, 1_000_000_000);
+        approximate = TokenBucketStore.approximate(Long.MAX_VALUE / 1_000_000_000L, 1_000_000_000, 4 * KEYS);
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    private String randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(KEYS)];
+    }
+
+    @Benchmark
+    public boolean hotKey() {
+        return exact.tryAcquire("10.0.0.1");
+    }
+
+    @Benchmark
+    public boolean manyKeys() {
+        return exact.tryAcquire(randomKey());
+    }
+
+    @Benchmark
+    public boolean manyKeysApproximate() {
+        return approximate.tryAcquire(randomKey());
+    }
+}
@@ -0,0 +1,116 @@
+package com.ligero;
+
+import com.ligero.http.HttpResponse;
+import com.ligero.spi.BodyMapper;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Counts the body bytes written through a response, for the
+ * {@code bytesOut} field of {@code HTTP_REQUEST} events. Only wrapped around
+ * requests that are being recorded.
+ */
+final class CountingResponse implements HttpResponse {
+
+    private final HttpResponse delegate;
+    private final BodyMapper bodyMapper;
+    private long bytes;
+
+    CountingResponse(HttpResponse delegate, BodyMapper bodyMapper) {
+        this.delegate = delegate;
+        this.bodyMapper = bodyMapper;
+    }
+
+    long bytes() {
+        return bytes;
+    }
+
+    @Override
+    public HttpResponse status(int statusCode) {
+        delegate.status(statusCode);
+        return this;
+    }
+
+    @Override
+    public int getStatus() {
+        return delegate.getStatus();
+    }
+
+    @Override
+    public HttpResponse header(String name, String value) {
+        delegate.header(name, value);
+        return this;
+    }
+
+    @Override
+    public HttpResponse contentType(String contentType) {
+        delegate.contentType(contentType);
+        return this;
+    }
+
+    @Override
+    public HttpResponse send(String body) {
+        delegate.send(body);
+        bytes += utf8Length(body);
+        return this;
+    }
+
+    @Override
+    public HttpResponse json(Object object) {
+        if (bodyMapper == null) {
+            // the engine will fail without a mapper; let it report that
+            delegate.json(object);
+            return this;
+        }
+        return contentType("application/json").send(bodyMapper.writeJson(object));
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return new FilterOutputStream(delegate.getOutputStream()) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                bytes++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                bytes += len;
+            }
+        };
+    }
+
+    @Override
+    public HttpResponse redirect(String url, int statusCode) {
+        delegate.redirect(url, statusCode);
+        return this;
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return delegate.isCommitted();
+    }
+
+    @Override
+    public void end() {
+        delegate.end();
+    }
+
+    private static long utf8Length(String s) {
+        if (s == null) {
+            return 0;
+        }
+        long length = s.length();
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) {
+                return s.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        return length;
+    }
+}
@@ -9,11 +9,13 @@ import com.ligero.http.HttpRequest;
 import com.ligero.http.HttpResponse;
 import com.ligero.http.MethodNotAllowedException;
 import com.ligero.http.NotFoundException;
+import com.ligero.http.RequestTimings;
 import com.ligero.middleware.Middleware;
 import com.ligero.middleware.MiddlewarePipeline;
 import com.ligero.router.Router;
 import com.ligero.spi.BodyMapper;
 import com.ligero.spi.EngineConfig;
+import com.ligero.spi.EventRecorder;
 import com.ligero.spi.ServerEngine;
 import com.ligero.spi.TemplateEngine;
 
@@ -28,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -71,7 +74,10 @@ public final class Ligero implements AutoCloseable {
     private ServerEngine engine;
     private BodyMapper bodyMapper;
     private TemplateEngine templateEngine;
+    private EventRecorder eventRecorder;
     private volatile boolean started;
+    private double timingSampleRate;
+    private boolean serverTimingHeader;
 
     private Ligero(LigeroConfig config) {
         this.config = config;
@@ -228,6 +234,24 @@ public final class Ligero implements AutoCloseable {
         return this;
     }
 
+    /**
+     * Times the phases of a {@code sampleRate} fraction of requests (parse,
+     * headers, middleware self time, route match, handler, body mapping,
+     * templates, response write) into {@link RequestTimings} on the
+     * {@link Context}; {@code MetricsMiddleware} aggregates them per route.
+     * With {@code serverTimingHeader}, sampled responses also carry a
+     * {@code Server-Timing} header — browsers show it in their dev tools, so
+     * only enable it where exposing internal timings is acceptable.
+     */
+    public Ligero requestTimings(double sampleRate, boolean serverTimingHeader) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate must be within [0, 1]");
+        }
+        this.timingSampleRate = sampleRate;
+        this.serverTimingHeader = serverTimingHeader;
+        return this;
+    }
+
     // ------------------------------------------------------------------
     // Infrastructure injection (SPI overrides, mainly for tests)
     // ------------------------------------------------------------------
@@ -247,6 +271,16 @@ public final class Ligero implements AutoCloseable {
         return this;
     }
 
+    /**
+     * Emits request, middleware and template events to {@code recorder}
+     * regardless of the {@code ligero.jfr} setting (which otherwise loads one
+     * through {@link ServiceLoader}).
+     */
+    public Ligero eventRecorder(EventRecorder eventRecorder) {
+        this.eventRecorder = eventRecorder;
+        return this;
+    }
+
     /**
      * Attaches a started {@link com.ligero.beans.Beans} container: every bean
      * becomes available to handlers via {@code ctx.get(type)}.
@@ -310,6 +344,15 @@ public final class Ligero implements AutoCloseable {
         if (templateEngine == null) {
             templateEngine = ServiceLoader.load(TemplateEngine.class).findFirst().orElse(null);
         }
+        if (eventRecorder == null && config.flightRecorder()) {
+            eventRecorder = ServiceLoader.load(EventRecorder.class).findFirst().orElse(null);
+            if (eventRecorder == null) {
+                log.warn("ligero.jfr is on but no EventRecorder was found; add ligero-jfr to the classpath");
+            }
+        }
+        if (eventRecorder != null && templateEngine != null) {
+            templateEngine = recorded(templateEngine, eventRecorder);
+        }
 
         EngineConfig engineConfig = new EngineConfig(
             config.host(), config.port(), config.maxBodyBytes(), config.virtualThreads(),
@@ -375,10 +418,25 @@ public final class Ligero implements AutoCloseable {
             pipeline.add(com.ligero.middleware.SecurityHeadersMiddleware.defaults());
         }
         pipeline.addAll(middlewares);
-        Handler chain = MiddlewarePipeline.compose(pipeline, this::dispatch);
-        return (request, response) -> {
+        EventRecorder recorder = eventRecorder;
+        Handler chain = MiddlewarePipeline.compose(pipeline, this::dispatch, recorder);
+        int layers = pipeline.size();
+        double sampleRate = timingSampleRate;
+        boolean serverTiming = serverTimingHeader;
+        return (request, engineResponse) -> {
+            RequestTimings timings = sampled(sampleRate)
+                ? new RequestTimings(request, layers, serverTiming) : null;
+            EventRecorder.Event event = recorder != null && recorder.isEnabled(EventRecorder.Type.HTTP_REQUEST)
+                ? recorder.begin(EventRecorder.Type.HTTP_REQUEST) : null;
+            CountingResponse counting = event == null ? null : new CountingResponse(engineResponse, bodyMapper);
+            HttpResponse base = counting == null ? engineResponse : counting;
+            HttpResponse response = timings == null ? base : timings.wrap(base);
             Context ctx = new Context(request, response, config.contextPath(), bodyMapper,
                 templateEngine, services);
+            if (timings != null) {
+                ctx.timings(timings);
+                timings.contextReady();
+            }
             try {
                 chain.handle(ctx);
             } catch (Throwable t) {
@@ -387,10 +445,56 @@ public final class Ligero implements AutoCloseable {
                 if (!response.isCommitted()) {
                     response.end();
                 }
+                if (timings != null) {
+                    timings.complete();
+                }
+                if (event != null) {
+                    commitRequestEvent(event, ctx, counting);
+                }
+            }
+        };
+    }
+
+    private static void commitRequestEvent(EventRecorder.Event event, Context ctx, CountingResponse response) {
+        String route = ctx.attribute(MATCHED_ROUTE_ATTRIBUTE);
+        String contentLength = ctx.header("Content-Length");
+        event.set("method", ctx.method())
+            .set("path", ctx.path())
+            .set("route", route)
+            .set("status", response.getStatus())
+            .set("bytesIn", contentLength == null ? -1L : parseLength(contentLength))
+            .set("bytesOut", response.bytes())
+            .commit();
+    }
+
+    private static long parseLength(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private static TemplateEngine recorded(TemplateEngine engine, EventRecorder recorder) {
+        return (templateName, model) -> {
+            if (!recorder.isEnabled(EventRecorder.Type.TEMPLATE_RENDER)) {
+                return engine.render(templateName, model);
+            }
+            EventRecorder.Event event = recorder.begin(EventRecorder.Type.TEMPLATE_RENDER);
+            String html = null;
+            try {
+                html = engine.render(templateName, model);
+                return html;
+            } finally {
+                event.set("template", templateName).set("chars", html == null ? -1L : html.length()).commit();
             }
         };
     }
 
+    private static boolean sampled(double sampleRate) {
+        return sampleRate > 0 && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
     /** Terminal pipeline step: route matching and 404/405 semantics. */
     private void dispatch(Context ctx) throws Exception {
         String method = ctx.method();
@@ -400,11 +504,26 @@ public final class Ligero implements AutoCloseable {
             throw new NotFoundException("No route matches " + method + " " + path);
         }
 
+        RequestTimings timings = ctx.timings();
+        long matchStart = timings == null ? 0L : System.nanoTime();
         Router.RouteMatch match = router.match(method, path);
+        if (timings != null) {
+            timings.add(RequestTimings.Phase.ROUTE_MATCH, System.nanoTime() - matchStart);
+        }
         if (match != null) {
             ctx.pathParams().putAll(match.params());
             ctx.attribute(MATCHED_ROUTE_ATTRIBUTE, match.routePath());
-            match.handler().handle(ctx);
+            ctx.routeMatched(match.routePath());
+            if (timings == null) {
+                match.handler().handle(ctx);
+                return;
+            }
+            long handlerStart = System.nanoTime();
+            try {
+                match.handler().handle(ctx);
+            } finally {
+                timings.add(RequestTimings.Phase.HANDLER, System.nanoTime() - handlerStart);
+            }
             return;
         }
 
@@ -1,7 +1,13 @@
 package com.ligero.cache;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 /**
@@ -15,9 +21,13 @@ import java.util.function.Function;
  * <pre>{@code
  * Cache<String, User> users = new InMemoryCache<>();
  * User u = users.get(id, Duration.ofMinutes(10), this::loadUser); // load-through + TTL
+ * Map<String, User> many = users.getAll(ids, Duration.ofMinutes(10), repo::findByIds); // one bulk load
  * users.evict(id);
  * }</pre>
  *
+ * <p>Refresh-ahead and negative caching are configured per cache with a
+ * {@link CachePolicy}.</p>
+ *
  * @param <K> key type
  * @param <V> value type
  */
@@ -38,6 +48,64 @@ public interface Cache<K, V> {
     /** Returns the cached value, computing and caching it with {@code ttl} if absent. */
     V get(K key, Duration ttl, Function<? super K, ? extends V> loader);
 
+    /**
+     * Asynchronous load-through: the returned future completes with the cached
+     * value, or with the value {@code loader} computes on a virtual thread (cached
+     * with no expiry). The caller never blocks on the load.
+     */
+    default CompletableFuture<V> getAsync(K key, Function<? super K, ? extends V> loader) {
+        return getAsync(key, null, loader);
+    }
+
+    /** Asynchronous load-through, caching a computed value with {@code ttl}. */
+    default CompletableFuture<V> getAsync(K key, Duration ttl, Function<? super K, ? extends V> loader) {
+        return CompletableFuture.supplyAsync(() -> get(key, ttl, loader), Thread::startVirtualThread);
+    }
+
+    /** Bulk load-through with no expiry; see {@link #getAll(Collection, Duration, Function)}. */
+    default Map<K, V> getAll(Collection<? extends K> keys,
+                             Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> bulkLoader) {
+        return getAll(keys, null, bulkLoader);
+    }
+
+    /**
+     * Returns the values for {@code keys}: hits come from the cache and all misses
+     * are loaded with a <i>single</i> {@code bulkLoader} call (one {@code IN (...)}
+     * query instead of N), then cached with {@code ttl}. Keys the loader does not
+     * return are absent from the result. Iteration follows the order of {@code keys}.
+     */
+    default Map<K, V> getAll(Collection<? extends K> keys, Duration ttl,
+                             Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> bulkLoader) {
+        Map<K, V> found = new LinkedHashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        for (K key : keys) {
+            Optional<V> hit = get(key);
+            if (hit.isPresent()) {
+                found.put(key, hit.get());
+            } else {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<? extends K, ? extends V> loaded = bulkLoader.apply(missing);
+            for (K key : missing) {
+                V value = loaded.get(key);
+                if (value != null) {
+                    put(key, value, ttl);
+                    found.put(key, value);
+                }
+            }
+        }
+        Map<K, V> ordered = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = found.get(key);
+            if (value != null) {
+                ordered.put(key, value);
+            }
+        }
+        return ordered;
+    }
+
     /** Removes the entry for {@code key}, if any. */
     void evict(K key);
 
@@ -0,0 +1,77 @@
+package com.ligero.cache;
+
+import java.time.Duration;
+
+/**
+ * Load-through behaviour shared by the {@link Cache} implementations: refresh-ahead
+ * and negative caching. Immutable; each method returns a new policy.
+ *
+ * <ul>
+ *   <li><b>refresh after write</b> — once an entry is older than the given age, a
+ *       load-through {@code get} still returns the cached (stale) value immediately
+ *       and a single background virtual thread reloads it. Callers never wait on a
+ *       hot key's reload; only a fully expired entry is loaded synchronously.</li>
+ *   <li><b>cache absent</b> — when the loader returns {@code null}, remember that
+ *       for the given TTL so a missing row is not looked up again on every call.
+ *       Without it, {@code null} results are not cached.</li>
+ * </ul>
+ *
+ * <pre>{@code
+ * Cache<String, User> users = new InMemoryCache<>(CachePolicy.defaults()
+ *     .refreshAfterWrite(Duration.ofMinutes(8))   // TTL 10 min: reload in the last 2
+ *     .cacheAbsent(Duration.ofSeconds(30)));
+ * }</pre>
+ */
+public final class CachePolicy {
+
+    private static final CachePolicy DEFAULTS = new CachePolicy(0L, null);
+
+    private final long refreshAfterNanos;
+    private final Duration absentTtl;
+
+    private CachePolicy(long refreshAfterNanos, Duration absentTtl) {
+        this.refreshAfterNanos = refreshAfterNanos;
+        this.absentTtl = absentTtl;
+    }
+
+    /** No refresh-ahead, {@code null} results not cached. */
+    public static CachePolicy defaults() {
+        return DEFAULTS;
+    }
+
+    /** Reloads entries in the background once they are older than {@code age}. */
+    public CachePolicy refreshAfterWrite(Duration age) {
+        if (age == null || age.isZero() || age.isNegative()) {
+            throw new IllegalArgumentException("refreshAfterWrite must be positive");
+        }
+        return new CachePolicy(age.toNanos(), absentTtl);
+    }
+
+    /** Caches {@code null} loader results for {@code ttl}. */
+    public CachePolicy cacheAbsent(Duration ttl) {
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            throw new IllegalArgumentException("cacheAbsent ttl must be positive");
+        }
+        return new CachePolicy(refreshAfterNanos, ttl);
+    }
+
+    /** Whether refresh-ahead is enabled. */
+    public boolean refreshes() {
+        return refreshAfterNanos > 0L;
+    }
+
+    /** Age after which an entry is refreshed in the background ({@code 0} = never). */
+    public long refreshAfterNanos() {
+        return refreshAfterNanos;
+    }
+
+    /** Whether {@code null} loader results are cached. */
+    public boolean cachesAbsent() {
+        return absentTtl != null;
+    }
+
+    /** TTL of a cached {@code null} result, or {@code null} when they are not cached. */
+    public Duration absentTtl() {
+        return absentTtl;
+    }
+}
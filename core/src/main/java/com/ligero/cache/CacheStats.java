@@ -0,0 +1,17 @@
+package com.ligero.cache;
+
+/**
+ * A point-in-time view of a cache's counters.
+ *
+ * @param hits      lookups served from the cache
+ * @param misses    lookups that had to go further (loader or a remote tier)
+ * @param evictions entries dropped to honour a size bound or an invalidation
+ */
+public record CacheStats(long hits, long misses, long evictions) {
+
+    /** Hits over lookups, {@code 0.0} before the first lookup. */
+    public double hitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
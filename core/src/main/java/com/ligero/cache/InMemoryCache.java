@@ -1,7 +1,16 @@
 package com.ligero.cache;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
@@ -11,48 +20,78 @@ import java.util.function.Function;
  * thread; pair it with a {@code Scheduler} task if you want periodic cleanup of
  * entries that are never read again.
  *
+ * <p>With a {@link CachePolicy} it also refreshes ageing entries ahead of expiry
+ * (one background virtual thread per key, stale value served meanwhile) and
+ * remembers {@code null} loads. Concurrent {@link #getAsync} calls for the same
+ * missing key share a single load.</p>
+ *
  * @param <K> key type
  * @param <V> value type
  */
 public final class InMemoryCache<K, V> implements Cache<K, V> {
 
-    private record Entry<V>(V value, long expiresAtNanos) {
+    private static final Logger log = LoggerFactory.getLogger(InMemoryCache.class);
+
+    /** A {@code null} value marks a cached absent result (negative caching). */
+    private record Entry<V>(V value, long writtenAtNanos, long expiresAtNanos) {
         boolean isLive(long now) {
             return expiresAtNanos == 0L || now < expiresAtNanos;
         }
     }
 
     private final ConcurrentHashMap<K, Entry<V>> store = new ConcurrentHashMap<>();
+    private final Set<K> refreshing = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private final CachePolicy policy;
+
+    public InMemoryCache() {
+        this(CachePolicy.defaults());
+    }
+
+    public InMemoryCache(CachePolicy policy) {
+        this.policy = policy;
+    }
 
-    private static long deadline(Duration ttl) {
+    private static long deadline(long now, Duration ttl) {
         if (ttl == null || ttl.isZero() || ttl.isNegative()) {
             return 0L; // no expiry
         }
-        return System.nanoTime() + ttl.toNanos();
+        return now + ttl.toNanos();
     }
 
-    @Override
-    public Optional<V> get(K key) {
+    /** The entry to store for a loaded value, or {@code null} when nothing should be cached. */
+    private Entry<V> loadedEntry(V value, Duration ttl) {
         long now = System.nanoTime();
-        Entry<V> entry = store.get(key);
-        if (entry == null) {
-            return Optional.empty();
+        if (value != null) {
+            return new Entry<>(value, now, deadline(now, ttl));
         }
-        if (!entry.isLive(now)) {
+        return policy.cachesAbsent() ? new Entry<>(null, now, deadline(now, policy.absentTtl())) : null;
+    }
+
+    private Entry<V> liveEntry(K key, long now) {
+        Entry<V> entry = store.get(key);
+        if (entry != null && !entry.isLive(now)) {
             store.remove(key, entry); // drop only if unchanged
-            return Optional.empty();
+            return null;
         }
-        return Optional.ofNullable(entry.value());
+        return entry;
+    }
+
+    @Override
+    public Optional<V> get(K key) {
+        Entry<V> entry = liveEntry(key, System.nanoTime());
+        return entry == null ? Optional.empty() : Optional.ofNullable(entry.value());
     }
 
     @Override
     public void put(K key, V value) {
-        store.put(key, new Entry<>(value, 0L));
+        store.put(key, new Entry<>(value, System.nanoTime(), 0L));
     }
 
     @Override
     public void put(K key, V value, Duration ttl) {
-        store.put(key, new Entry<>(value, deadline(ttl)));
+        long now = System.nanoTime();
+        store.put(key, new Entry<>(value, now, deadline(now, ttl)));
     }
 
     @Override
@@ -65,6 +104,7 @@ public final class InMemoryCache<K, V> implements Cache<K, V> {
         long now = System.nanoTime();
         Entry<V> current = store.get(key);
         if (current != null && current.isLive(now)) {
+            refreshIfStale(key, current, now, ttl, loader);
             return current.value();
         }
         // compute() so concurrent callers for the same key load at most once
@@ -72,9 +112,94 @@ public final class InMemoryCache<K, V> implements Cache<K, V> {
             if (existing != null && existing.isLive(System.nanoTime())) {
                 return existing;
             }
-            return new Entry<>(loader.apply(k), deadline(ttl));
+            return loadedEntry(loader.apply(k), ttl);
+        });
+        return computed == null ? null : computed.value();
+    }
+
+    private void refreshIfStale(K key, Entry<V> current, long now, Duration ttl,
+                                Function<? super K, ? extends V> loader) {
+        if (!policy.refreshes() || now - current.writtenAtNanos() < policy.refreshAfterNanos()
+            || !refreshing.add(key)) {
+            return;
+        }
+        Thread.startVirtualThread(() -> {
+            try {
+                Entry<V> fresh = loadedEntry(loader.apply(key), ttl);
+                if (fresh == null) {
+                    store.remove(key, current);
+                } else {
+                    store.replace(key, current, fresh); // unless evicted or overwritten meanwhile
+                }
+            } catch (RuntimeException e) {
+                log.warn("Background refresh of cache key {} failed; keeping the stale value", key, e);
+            } finally {
+                refreshing.remove(key);
+            }
         });
-        return computed.value();
+    }
+
+    @Override
+    public CompletableFuture<V> getAsync(K key, Duration ttl, Function<? super K, ? extends V> loader) {
+        long now = System.nanoTime();
+        Entry<V> current = store.get(key);
+        if (current != null && current.isLive(now)) {
+            refreshIfStale(key, current, now, ttl, loader);
+            return CompletableFuture.completedFuture(current.value());
+        }
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return inFlight; // join the load already running for this key
+        }
+        Thread.startVirtualThread(() -> {
+            try {
+                future.complete(get(key, ttl, loader));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                loading.remove(key, future);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public Map<K, V> getAll(Collection<? extends K> keys, Duration ttl,
+                            Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> bulkLoader) {
+        long now = System.nanoTime();
+        Map<K, V> found = new LinkedHashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        for (K key : keys) {
+            Entry<V> entry = liveEntry(key, now);
+            if (entry == null) {
+                missing.add(key);
+            } else if (entry.value() != null) {
+                found.put(key, entry.value());
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+        Map<? extends K, ? extends V> loaded = bulkLoader.apply(missing);
+        for (K key : missing) {
+            V value = loaded.get(key);
+            Entry<V> entry = loadedEntry(value, ttl);
+            if (entry != null) {
+                store.put(key, entry);
+            }
+            if (value != null) {
+                found.put(key, value);
+            }
+        }
+        Map<K, V> ordered = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = found.get(key);
+            if (value != null) {
+                ordered.put(key, value);
+            }
+        }
+        return ordered;
     }
 
     @Override
@@ -29,6 +29,9 @@ import java.util.function.Function;
  *                       automatically: security headers on every response and
  *                       request-path hygiene checks (default true; disable
  *                       explicitly if you provide your own)
+ * @param flightRecorder emit JDK Flight Recorder events for requests,
+ *                       middleware and template rendering through
+ *                       {@code ligero-jfr} (default false)
  */
 public record LigeroConfig(
     String host,
@@ -39,7 +42,8 @@ public record LigeroConfig(
     boolean gzip,
     int gzipMinBytes,
     Duration shutdownGrace,
-    boolean secureDefaults) {
+    boolean secureDefaults,
+    boolean flightRecorder) {
 
     public static final String PROPERTIES_RESOURCE = "ligero.properties";
 
@@ -72,6 +76,7 @@ public record LigeroConfig(
         private Integer gzipMinBytes;
         private Duration shutdownGrace;
         private Boolean secureDefaults;
+        private Boolean flightRecorder;
         private Map<String, String> env = System.getenv();
         private Properties classpathProperties;
         private Config config;
@@ -122,6 +127,12 @@ public record LigeroConfig(
             return this;
         }
 
+        /** Emits JDK Flight Recorder events through {@code ligero-jfr}. */
+        public Builder flightRecorder(boolean flightRecorder) {
+            this.flightRecorder = flightRecorder;
+            return this;
+        }
+
         /** Overrides the environment source — intended for tests. */
         public Builder environment(Map<String, String> env) {
             this.env = env;
@@ -148,7 +159,9 @@ public record LigeroConfig(
                 resolve(shutdownGrace, "LIGERO_SHUTDOWN_GRACE_SECONDS", "server.shutdownGraceSeconds", "ligero.shutdownGraceSeconds", cfg, props,
                     s -> Duration.ofSeconds(Long.parseLong(s)), Duration.ofSeconds(10)),
                 resolve(secureDefaults, "LIGERO_SECURE_DEFAULTS", "security.secureDefaults", "ligero.secureDefaults", cfg, props,
-                    Boolean::parseBoolean, true));
+                    Boolean::parseBoolean, true),
+                resolve(flightRecorder, "LIGERO_JFR", "observability.jfr", "ligero.jfr", cfg, props,
+                    Boolean::parseBoolean, false));
         }
 
         /**
@@ -1,8 +1,10 @@
 package com.ligero.http;
 
+import com.ligero.middleware.TracingMiddleware;
 import com.ligero.router.PathNormalizer;
 import com.ligero.spi.BodyMapper;
 import com.ligero.spi.TemplateEngine;
+import com.ligero.spi.Tracer;
 import com.ligero.validation.BodyValidator;
 
 import java.io.InputStream;
@@ -13,6 +15,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Per-request context handed to {@link Handler handlers} and
@@ -43,6 +46,8 @@ public final class Context {
     private Map<String, List<String>> formParams;
     private byte[] cachedBodyBytes;
     private Multipart multipart;
+    private RequestTimings timings;
+    private List<Consumer<String>> routeListeners;
 
     public Context(HttpRequest request, HttpResponse response, String contextPath,
                    BodyMapper bodyMapper, TemplateEngine templateEngine) {
@@ -184,7 +189,17 @@ public final class Context {
 
     /** Deserializes the JSON request body. Requires a {@link BodyMapper} on the classpath. */
     public <T> T body(Class<T> type) {
-        return requireBodyMapper().readJson(request.getBodyAsString(), type);
+        BodyMapper mapper = requireBodyMapper();
+        if (timings == null) {
+            return mapper.readJson(request.getBodyAsString(), type);
+        }
+        String body = request.getBodyAsString();
+        long start = System.nanoTime();
+        try {
+            return mapper.readJson(body, type);
+        } finally {
+            timings.add(RequestTimings.Phase.BODY_READ, System.nanoTime() - start);
+        }
     }
 
     /** Deserializes the body and returns a validator to declare constraints on it. */
@@ -245,7 +260,19 @@ public final class Context {
 
     public Context json(Object body) {
         attributes.put(RESPONSE_BODY_ATTRIBUTE, body);
-        response.json(body);
+        if (timings == null || bodyMapper == null) {
+            response.json(body);
+            return this;
+        }
+        // serialize here rather than in the engine so BODY_WRITE and WRITE are timed apart
+        long start = System.nanoTime();
+        String json;
+        try {
+            json = bodyMapper.writeJson(body);
+        } finally {
+            timings.add(RequestTimings.Phase.BODY_WRITE, System.nanoTime() - start);
+        }
+        response.contentType("application/json").send(json);
         return this;
     }
 
@@ -290,7 +317,17 @@ public final class Context {
             throw new IllegalStateException(
                 "No TemplateEngine found. Add a ligero-template-* module to the classpath.");
         }
-        return html(templateEngine.render(templateName, model));
+        long start = timings == null ? 0L : System.nanoTime();
+        String html;
+        try (Tracer.Span span = TracingMiddleware.currentSpan().startChild("render " + templateName)) {
+            span.setAttribute("ligero.template", templateName);
+            html = templateEngine.render(templateName, model);
+        } finally {
+            if (timings != null) {
+                timings.add(RequestTimings.Phase.TEMPLATE, System.nanoTime() - start);
+            }
+        }
+        return html(html);
     }
 
     /** Starts a Server-Sent Events stream; the response is committed. */
@@ -312,6 +349,48 @@ public final class Context {
         return (T) attributes.get(key);
     }
 
+    // ------------------------------------------------------------------
+    // Timings
+    // ------------------------------------------------------------------
+
+    /** Phase timings of this request, or {@code null} when it was not sampled. */
+    public RequestTimings timings() {
+        return timings;
+    }
+
+    /** Attaches phase timings (done by the framework for sampled requests). */
+    public Context timings(RequestTimings timings) {
+        this.timings = timings;
+        return this;
+    }
+
+    // ------------------------------------------------------------------
+    // Routing
+    // ------------------------------------------------------------------
+
+    /**
+     * Calls {@code listener} with the matched route pattern (e.g.
+     * {@code /users/{id}}) once the router has matched this request, before
+     * its handler runs. Lets middleware that wraps the router act on the
+     * route rather than the raw path.
+     */
+    public Context onRouteMatched(Consumer<String> listener) {
+        if (routeListeners == null) {
+            routeListeners = new ArrayList<>(2);
+        }
+        routeListeners.add(listener);
+        return this;
+    }
+
+    /** Notifies {@link #onRouteMatched} listeners (done by the framework). */
+    public void routeMatched(String route) {
+        if (routeListeners != null) {
+            for (Consumer<String> listener : routeListeners) {
+                listener.accept(route);
+            }
+        }
+    }
+
     // ------------------------------------------------------------------
     // Internals
     // ------------------------------------------------------------------
@@ -71,4 +71,17 @@ public interface HttpRequest {
 
     /** Remote client address (host without port), or {@code null} if unknown. */
     String getRemoteAddress();
+
+    /**
+     * {@link System#nanoTime()} when the engine started receiving this request,
+     * or 0 if the engine does not report it. Used by {@link RequestTimings}.
+     */
+    default long receivedAtNanos() {
+        return 0L;
+    }
+
+    /** Nanoseconds the engine has spent reading the request headers, or 0 if not reported. */
+    default long headerReadNanos() {
+        return 0L;
+    }
 }
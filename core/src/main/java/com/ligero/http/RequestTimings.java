@@ -0,0 +1,323 @@
+package com.ligero.http;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-request phase timings, attached to sampled requests only (see
+ * {@code Ligero.requestTimings}); {@link Context#timings()} is {@code null}
+ * for the rest, so unsampled requests pay a null check per phase.
+ *
+ * <p>Phases are plain {@code long} slots filled from {@link System#nanoTime()}
+ * deltas as the request moves through the framework. They overlap where the
+ * work nests: {@link Phase#HANDLER} includes body mapping and template
+ * rendering done by the handler. {@link Phase#MIDDLEWARE} is the sum of each
+ * middleware's self time (its own work, excluding the rest of the chain);
+ * {@link #middlewareSelfNanos(int)} gives it per middleware.</p>
+ */
+public final class RequestTimings {
+
+    /** A timed phase; {@link #metricName()} is used in metrics and {@code Server-Timing}. */
+    public enum Phase {
+        /** From the engine receiving the request to the {@link Context} being ready. */
+        PARSE("parse"),
+        /** Reading the request headers, as reported by the engine. */
+        HEADERS("headers"),
+        /** Sum of every middleware's self time. */
+        MIDDLEWARE("middleware"),
+        ROUTE_MATCH("route"),
+        HANDLER("handler"),
+        /** {@code BodyMapper} deserialization of the request body. */
+        BODY_READ("body-read"),
+        /** {@code BodyMapper} serialization of the response body. */
+        BODY_WRITE("body-write"),
+        TEMPLATE("template"),
+        /** Writing and flushing the response through the engine. */
+        WRITE("write");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String metricName() {
+            return metricName;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final HttpRequest request;
+    private final long[] phases = new long[PHASES.length];
+    /** Inclusive time of each pipeline layer; the last one is the terminal handler. */
+    private final long[] layers;
+    private final boolean serverTiming;
+    private final long startNanos;
+    private List<Runnable> completionListeners;
+
+    /**
+     * @param request      the engine's request, for the timestamps it reports
+     * @param middlewares  number of middlewares in the pipeline
+     * @param serverTiming whether to send a {@code Server-Timing} header
+     */
+    public RequestTimings(HttpRequest request, int middlewares, boolean serverTiming) {
+        this.request = request;
+        this.layers = new long[middlewares + 1];
+        this.serverTiming = serverTiming;
+        this.startNanos = request.receivedAtNanos() != 0L ? request.receivedAtNanos() : System.nanoTime();
+    }
+
+    /** Adds {@code nanos} to a phase. */
+    public void add(Phase phase, long nanos) {
+        phases[phase.ordinal()] += nanos;
+    }
+
+    /** Time recorded for a phase so far. */
+    public long nanos(Phase phase) {
+        return switch (phase) {
+            case HEADERS -> phases[Phase.HEADERS.ordinal()] + request.headerReadNanos();
+            case MIDDLEWARE -> middlewareNanos();
+            default -> phases[phase.ordinal()];
+        };
+    }
+
+    /** Records the inclusive time of pipeline layer {@code index} (called by {@code MiddlewarePipeline}). */
+    public void layer(int index, long nanos) {
+        if (index < layers.length) {
+            layers[index] += nanos;
+        }
+    }
+
+    /** Self time of the middleware at {@code index}: its own time minus the rest of the chain. */
+    public long middlewareSelfNanos(int index) {
+        return Math.max(0L, layers[index] - layers[index + 1]);
+    }
+
+    /** Number of middlewares timed. */
+    public int middlewareCount() {
+        return layers.length - 1;
+    }
+
+    private long middlewareNanos() {
+        long total = 0;
+        for (int i = 0; i < layers.length - 1; i++) {
+            total += middlewareSelfNanos(i);
+        }
+        return total;
+    }
+
+    /** Marks the Context as ready; everything before counts as {@link Phase#PARSE}. */
+    public void contextReady() {
+        add(Phase.PARSE, System.nanoTime() - startNanos);
+    }
+
+    /** Wall time since the engine received the request. */
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Runs {@code listener} once the response is complete, when every phase,
+     * including outer middleware and the final write, has been recorded.
+     */
+    public void onComplete(Runnable listener) {
+        if (completionListeners == null) {
+            completionListeners = new ArrayList<>(2);
+        }
+        completionListeners.add(listener);
+    }
+
+    /** Notifies completion listeners (called once by the framework). */
+    public void complete() {
+        if (completionListeners != null) {
+            completionListeners.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * {@code Server-Timing} header value with the phases recorded so far
+     * (those still running when the response is committed are omitted), plus
+     * {@code total} time up to now, in milliseconds.
+     */
+    public String serverTimingHeader() {
+        StringBuilder header = new StringBuilder(160);
+        for (Phase phase : PHASES) {
+            long nanos = nanos(phase);
+            if (nanos > 0) {
+                appendMetric(header, phase.metricName(), nanos);
+            }
+        }
+        appendMetric(header, "total", elapsedNanos());
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        long micros = nanos / 1_000;
+        header.append(name).append(";dur=").append(micros / 1_000).append('.');
+        long fraction = micros % 1_000;
+        if (fraction < 100) {
+            header.append('0');
+        }
+        if (fraction < 10) {
+            header.append('0');
+        }
+        header.append(fraction);
+    }
+
+    /** Wraps the engine's response so writes are timed and the header is sent on commit. */
+    public HttpResponse wrap(HttpResponse response) {
+        return new TimedResponse(response);
+    }
+
+    /** Times every call that commits or writes the response. */
+    private final class TimedResponse implements HttpResponse {
+        private final HttpResponse delegate;
+
+        TimedResponse(HttpResponse delegate) {
+            this.delegate = delegate;
+        }
+
+        private void beforeCommit() {
+            if (serverTiming && !delegate.isCommitted()) {
+                delegate.header("Server-Timing", serverTimingHeader());
+            }
+        }
+
+        @Override
+        public HttpResponse status(int statusCode) {
+            delegate.status(statusCode);
+            return this;
+        }
+
+        @Override
+        public int getStatus() {
+            return delegate.getStatus();
+        }
+
+        @Override
+        public HttpResponse header(String name, String value) {
+            delegate.header(name, value);
+            return this;
+        }
+
+        @Override
+        public HttpResponse contentType(String contentType) {
+            delegate.contentType(contentType);
+            return this;
+        }
+
+        @Override
+        public HttpResponse send(String body) {
+            beforeCommit();
+            long start = System.nanoTime();
+            try {
+                delegate.send(body);
+            } finally {
+                add(Phase.WRITE, System.nanoTime() - start);
+            }
+            return this;
+        }
+
+        @Override
+        public HttpResponse json(Object object) {
+            beforeCommit();
+            long start = System.nanoTime();
+            try {
+                delegate.json(object);
+            } finally {
+                add(Phase.WRITE, System.nanoTime() - start);
+            }
+            return this;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            beforeCommit();
+            long start = System.nanoTime();
+            try {
+                return new TimedOutputStream(delegate.getOutputStream());
+            } finally {
+                add(Phase.WRITE, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public HttpResponse redirect(String url, int statusCode) {
+            beforeCommit();
+            delegate.redirect(url, statusCode);
+            return this;
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return delegate.isCommitted();
+        }
+
+        @Override
+        public void end() {
+            if (!delegate.isCommitted()) {
+                beforeCommit();
+            }
+            long start = System.nanoTime();
+            try {
+                delegate.end();
+            } finally {
+                add(Phase.WRITE, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private final class TimedOutputStream extends FilterOutputStream {
+
+        TimedOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            long start = System.nanoTime();
+            try {
+                out.write(b);
+            } finally {
+                add(Phase.WRITE, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            try {
+                out.write(b, off, len);
+            } finally {
+                add(Phase.WRITE, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            long start = System.nanoTime();
+            try {
+                out.flush();
+            } finally {
+                add(Phase.WRITE, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            long start = System.nanoTime();
+            try {
+                out.close();
+            } finally {
+                add(Phase.WRITE, System.nanoTime() - start);
+            }
+        }
+    }
+}
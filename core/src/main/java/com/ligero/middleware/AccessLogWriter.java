@@ -0,0 +1,358 @@
+package com.ligero.middleware;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous access-log sink for {@link RequestLoggingMiddleware}: request
+ * threads drop an entry into a bounded ring buffer and return, and one
+ * background thread formats entries in batches and writes them straight to
+ * a file or stdout — no logging framework, no appender lock, no I/O on the
+ * request path.
+ *
+ * <pre>{@code
+ * AccessLogWriter accessLog = AccessLogWriter.builder()
+ *     .file(Path.of("logs/access.log"))
+ *     .json(true)
+ *     .build();
+ * app.use(RequestLoggingMiddleware.builder().writer(accessLog).build());
+ * app.onStop(accessLog::close);
+ * }</pre>
+ *
+ * <p>The buffer is a multi-producer/single-consumer ring of preallocated
+ * slots, each guarded by a sequence number (Vyukov's bounded queue): a
+ * producer claims a slot with one CAS, fills it and publishes it by bumping
+ * its sequence. When the buffer is full the entry is dropped rather than
+ * waiting; drops are counted ({@link #dropped()}) and reported in the log
+ * itself as a {@code droppedEntries} line. So are entries that race
+ * {@link #close()}: whatever the last drain did not write is counted.</p>
+ */
+public final class AccessLogWriter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLogWriter.class);
+
+    /** Default ring size (entries). */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = 2_000_000L;
+
+    private final Slot[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final WritableByteChannel channel;
+    private final boolean ownsChannel;
+    private final boolean json;
+    private final Thread consumer;
+    private volatile boolean closed;
+
+    // consumer-thread state, then close()'s once the consumer has exited
+    private long head;
+    private long reportedDrops;
+    private final StringBuilder buffer = new StringBuilder(BATCH_SIZE * 128);
+
+    private AccessLogWriter(Builder builder) {
+        int capacity = Integer.highestOneBit(builder.capacity - 1) << 1;
+        this.slots = new Slot[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+        this.channel = builder.channel;
+        this.ownsChannel = builder.ownsChannel;
+        this.json = builder.json;
+        this.consumer = Thread.ofPlatform().daemon().name("ligero-access-log").start(this::run);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Queues one entry without blocking; returns {@code false} (and counts a
+     * drop) when the buffer is full or the writer is closed.
+     */
+    public boolean record(String method, String path, int status, long durationMicros, String requestId) {
+        if (closed) {
+            dropped.increment();
+            return false;
+        }
+        long pos;
+        while (true) {
+            pos = tail.get();
+            long delta = sequences.get((int) pos & mask) - pos;
+            if (delta == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+            } else if (delta < 0) {
+                dropped.increment(); // consumer is a full lap behind
+                return false;
+            }
+            // delta > 0: another producer took this slot; reread the tail
+        }
+        int index = (int) pos & mask;
+        Slot slot = slots[index];
+        slot.epochMillis = System.currentTimeMillis();
+        slot.method = method;
+        slot.path = path;
+        slot.status = status;
+        slot.micros = durationMicros;
+        slot.requestId = requestId;
+        sequences.set(index, pos + 1); // publish
+        return true;
+    }
+
+    /** Entries lost so far because the buffer was full (or the writer closed). */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /** Writes out what is queued, stops the background thread and closes the file. */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(consumer);
+        boolean interrupted = false;
+        while (true) {
+            try {
+                consumer.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        // Producers that passed the closed check may still claim slots. Moving the
+        // tail a full lap ahead makes every later claim find the ring full and count
+        // its own drop; the claims before it were never drained, so count them here.
+        long cutoff = tail.getAndAdd(slots.length);
+        dropped.add(cutoff - head);
+        buffer.setLength(0);
+        appendDrops();
+        if (!buffer.isEmpty()) {
+            write(buffer.toString());
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (ownsChannel) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close the access log", e);
+            }
+        }
+    }
+
+    private void run() {
+        while (true) {
+            if (drain() == 0) {
+                if (closed) {
+                    while (drain() > 0) {
+                        // entries published while we were checking
+                    }
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /** Formats and writes up to one batch; returns how many entries it took. */
+    private int drain() {
+        buffer.setLength(0);
+        int count = 0;
+        while (count < BATCH_SIZE) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break; // empty, or the next producer has not published yet
+            }
+            Slot slot = slots[index];
+            format(buffer, json, slot.epochMillis, slot.method, slot.path, slot.status, slot.micros,
+                slot.requestId);
+            buffer.append('\n');
+            slot.method = null;
+            slot.path = null;
+            slot.requestId = null;
+            sequences.set(index, head + slots.length); // free for the next lap
+            head++;
+            count++;
+        }
+        appendDrops();
+        if (!buffer.isEmpty()) {
+            write(buffer.toString());
+        }
+        return count;
+    }
+
+    /** Adds a line for the drops counted since the last one, if any. */
+    private void appendDrops() {
+        long drops = dropped.sum();
+        if (drops > reportedDrops) {
+            buffer.append(json
+                ? "{\"droppedEntries\":" + (drops - reportedDrops) + "}"
+                : "access log dropped " + (drops - reportedDrops) + " entries").append('\n');
+            reportedDrops = drops;
+        }
+    }
+
+    private void write(String text) {
+        ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            log.warn("Could not write the access log", e);
+        }
+    }
+
+    /**
+     * Appends one access-log line (without the newline). {@code epochMillis}
+     * below zero leaves the timestamp out, for sinks that add their own.
+     */
+    static void format(StringBuilder sb, boolean json, long epochMillis, String method, String path,
+                       int status, long micros, String requestId) {
+        if (!json) {
+            if (epochMillis >= 0) {
+                sb.append(Instant.ofEpochMilli(epochMillis)).append(' ');
+            }
+            sb.append(method).append(' ').append(path).append(" -> ").append(status)
+                .append(" (").append(micros).append(" µs)");
+            if (requestId != null) {
+                sb.append(" [").append(requestId).append(']');
+            }
+            return;
+        }
+        sb.append('{');
+        if (epochMillis >= 0) {
+            sb.append("\"time\":\"").append(Instant.ofEpochMilli(epochMillis)).append("\",");
+        }
+        sb.append("\"method\":\"");
+        appendEscaped(sb, method);
+        sb.append("\",\"path\":\"");
+        appendEscaped(sb, path);
+        sb.append("\",\"status\":").append(status).append(",\"durationMicros\":").append(micros);
+        if (requestId != null) {
+            sb.append(",\"requestId\":\"");
+            appendEscaped(sb, requestId);
+            sb.append('"');
+        }
+        sb.append('}');
+    }
+
+    private static void appendEscaped(StringBuilder sb, String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+    }
+
+    /** One preallocated entry; written by its producer before publication, read by the consumer after. */
+    private static final class Slot {
+        long epochMillis;
+        String method;
+        String path;
+        int status;
+        long micros;
+        String requestId;
+    }
+
+    public static final class Builder {
+        private WritableByteChannel channel;
+        private boolean ownsChannel;
+        private boolean json;
+        private int capacity = DEFAULT_CAPACITY;
+
+        private Builder() {
+        }
+
+        /** Appends to {@code file}, creating it (but not its directory) if needed. */
+        public Builder file(Path file) {
+            try {
+                this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open access log " + file, e);
+            }
+            this.ownsChannel = true;
+            return this;
+        }
+
+        /** Writes to the process's standard output (the default); left open on close. */
+        public Builder stdout() {
+            this.channel = Channels.newChannel(new FileOutputStream(FileDescriptor.out));
+            this.ownsChannel = false;
+            return this;
+        }
+
+        /** Writes to {@code channel}, which the writer closes on {@link #close()}. */
+        public Builder channel(WritableByteChannel channel) {
+            this.channel = channel;
+            this.ownsChannel = true;
+            return this;
+        }
+
+        /** One JSON object per line instead of plain text. */
+        public Builder json(boolean json) {
+            this.json = json;
+            return this;
+        }
+
+        /** Ring size in entries, rounded up to a power of two (default 8192). */
+        public Builder capacity(int capacity) {
+            if (capacity < 2 || capacity > 1 << 24) {
+                throw new IllegalArgumentException("capacity must be between 2 and 16777216");
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        public AccessLogWriter build() {
+            if (channel == null) {
+                stdout();
+            }
+            return new AccessLogWriter(this);
+        }
+    }
+}
@@ -2,51 +2,370 @@ package com.ligero.middleware;
 
 import com.ligero.spi.MetricsCollector;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
 
 /**
- * Dependency-free {@link MetricsCollector}: per-route counters and total
- * latency, exposable via {@link #snapshot()} (e.g. from a diagnostics
- * route).
+ * Dependency-free {@link MetricsCollector}: per-route counters, status-class
+ * counts and {@link LatencyHistogram latency histograms} (p50 to p99.9 and max,
+ * both since startup and over a sliding window), exposable via
+ * {@link #snapshot()} (e.g. from a diagnostics route).
+ *
+ * <p>Recording allocates nothing once a route has been seen. At most
+ * {@code maxRoutes} (method, route) pairs are tracked; beyond that, requests
+ * are counted under {@link #OVERFLOW_ROUTE}, so unmatched raw paths from a
+ * scanner cannot grow memory without bound; made-up methods are counted
+ * under {@link #OTHER_METHOD} for the same reason.</p>
+ *
+ * <p>Database connection pools reporting through {@link #recordPool} are
+ * kept apart, by pool name: their connection counts (live when registered
+ * through {@link #registerPool}, else the last reported ones) and the
+ * checkout wait since startup ({@link #pools()}). SQL statements reporting
+ * through {@link #recordQuery} get a latency histogram each, by statement id
+ * ({@link #queries()}), up to {@link #MAX_STATEMENTS}.</p>
+ *
+ * <p>Expose it to Prometheus with {@link MetricsEndpointMiddleware}; the latest
+ * traced request of each route is kept there as an exemplar.</p>
  */
 public final class InMemoryMetricsCollector implements MetricsCollector {
 
-    /** Aggregated numbers for one (method, route) pair. */
-    public record RouteMetrics(long count, long errors, long totalNanos) {
+    /** Default cap on tracked (method, route) pairs. */
+    public static final int DEFAULT_MAX_ROUTES = 1_000;
+    /** Route name that collects requests once {@code maxRoutes} is reached. */
+    public static final String OVERFLOW_ROUTE = "<other>";
+    /** Method name that collects requests whose method is not a standard one. */
+    public static final String OTHER_METHOD = "OTHER";
+
+    private static final Set<String> METHODS =
+        Set.of("GET", "HEAD", "POST", "PUT", "DELETE", "CONNECT", "OPTIONS", "TRACE", "PATCH");
+
+    /** Cap on tracked SQL statements; beyond it they are counted under {@link #OVERFLOW_ROUTE}. */
+    public static final int MAX_STATEMENTS = 1_000;
+
+    static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    /**
+     * Aggregated numbers for one (method, route) pair: counts since startup,
+     * counts per status class ({@code "2xx"}, {@code "4xx"}, ...; classes never
+     * seen are omitted), latency since startup ({@code latency}) and over the
+     * sliding window ({@code recent}), and per-phase latency since startup of
+     * the requests sampled for {@code RequestTimings} ({@code phases}, keyed by
+     * phase name; empty unless timings are enabled).
+     */
+    public record RouteMetrics(long count, long errors, long totalNanos, Map<String, Long> statusClasses,
+                               LatencyHistogram.Snapshot latency, LatencyHistogram.Snapshot recent,
+                               Map<String, LatencyHistogram.Snapshot> phases) {
+
+        public RouteMetrics(long count, long errors, long totalNanos) {
+            this(count, errors, totalNanos, Map.of(), LatencyHistogram.Snapshot.EMPTY,
+                LatencyHistogram.Snapshot.EMPTY, Map.of());
+        }
+
         public long meanMicros() {
             return count == 0 ? 0 : totalNanos / count / 1_000;
         }
     }
 
-    private record Key(String method, String route) {
+    /**
+     * One connection pool: active, idle and pending connections as last
+     * reported, and the time callers waited for a connection since startup.
+     */
+    public record PoolMetrics(int active, int idle, int pending, LatencyHistogram.Snapshot checkoutWait) {
+    }
+
+    /**
+     * One SQL statement: its normalized text and operation, runs and failed
+     * runs, rows read or affected, and latency since startup ({@code latency})
+     * and over the sliding window ({@code recent}).
+     */
+    public record QueryMetrics(String sql, String operation, long count, long errors, long rows,
+                               LatencyHistogram.Snapshot latency, LatencyHistogram.Snapshot recent) {
+    }
+
+    /** A traced request that can be linked from a histogram bucket. */
+    record Exemplar(String traceId, long nanos) {
     }
 
-    private static final class Cell {
+    /** A request phase's histogram within one route. */
+    record Phase(String name, LatencyHistogram histogram) {
+    }
+
+    private static final Phase[] NO_PHASES = {};
+
+    static final class Cell {
+        final String method;
+        final String route;
         final LongAdder count = new LongAdder();
-        final LongAdder errors = new LongAdder();
         final LongAdder totalNanos = new LongAdder();
+        final LongAdder[] statusClasses = new LongAdder[STATUS_CLASSES.length];
+        final LatencyHistogram histogram;
+        /** Copied when a phase is first seen, so a scrape walks it by index without allocating. */
+        volatile Phase[] phases = NO_PHASES;
+        volatile Exemplar exemplar;
+
+        Cell(String method, String route, Duration window, int intervals) {
+            this.method = method;
+            this.route = route;
+            for (int i = 0; i < statusClasses.length; i++) {
+                statusClasses[i] = new LongAdder();
+            }
+            this.histogram = new LatencyHistogram(window, intervals);
+        }
+
+        LatencyHistogram phase(String name) {
+            LatencyHistogram histogram = find(phases, name);
+            if (histogram != null) {
+                return histogram;
+            }
+            synchronized (this) {
+                Phase[] current = phases;
+                histogram = find(current, name);
+                if (histogram == null) {
+                    histogram = LatencyHistogram.unwindowed();
+                    Phase[] grown = Arrays.copyOf(current, current.length + 1);
+                    grown[current.length] = new Phase(name, histogram);
+                    phases = grown;
+                }
+                return histogram;
+            }
+        }
+
+        private static LatencyHistogram find(Phase[] phases, String name) {
+            for (Phase phase : phases) {
+                if (phase.name().equals(name)) {
+                    return phase.histogram();
+                }
+            }
+            return null;
+        }
     }
 
-    private final Map<Key, Cell> cells = new ConcurrentHashMap<>();
+    static final class Pool {
+        final String name;
+        final LatencyHistogram checkoutWait = LatencyHistogram.unwindowed();
+        volatile int active;
+        volatile int idle;
+        volatile int pending;
+        volatile IntSupplier liveActive;
+        volatile IntSupplier liveIdle;
+        volatile IntSupplier livePending;
+
+        Pool(String name) {
+            this.name = name;
+        }
+
+        int active() {
+            IntSupplier live = liveActive;
+            return live != null ? live.getAsInt() : active;
+        }
+
+        int idle() {
+            IntSupplier live = liveIdle;
+            return live != null ? live.getAsInt() : idle;
+        }
+
+        int pending() {
+            IntSupplier live = livePending;
+            return live != null ? live.getAsInt() : pending;
+        }
+    }
+
+    static final class Query {
+        final String id;
+        final String sql;
+        final String operation;
+        final LatencyHistogram histogram;
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        Query(String id, String sql, String operation, Duration window, int intervals) {
+            this.id = id;
+            this.sql = sql;
+            this.operation = operation;
+            this.histogram = new LatencyHistogram(window, intervals);
+        }
+    }
+
+    private final Duration window;
+    private final int intervals;
+    private final int maxRoutes;
+    /** method → route → cell; two levels so a lookup needs no composite key. */
+    private final Map<String, Map<String, Cell>> cells = new ConcurrentHashMap<>();
+    private final AtomicInteger routes = new AtomicInteger();
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private final Map<String, Query> queries = new ConcurrentHashMap<>();
+
+    public InMemoryMetricsCollector() {
+        this(LatencyHistogram.DEFAULT_WINDOW, LatencyHistogram.DEFAULT_INTERVALS, DEFAULT_MAX_ROUTES);
+    }
+
+    /**
+     * @param window    span of {@link RouteMetrics#recent()}
+     * @param intervals steps the window rotates in
+     * @param maxRoutes cap on tracked (method, route) pairs
+     */
+    public InMemoryMetricsCollector(Duration window, int intervals, int maxRoutes) {
+        if (maxRoutes < 1) {
+            throw new IllegalArgumentException("maxRoutes must be >= 1");
+        }
+        LatencyHistogram.intervalNanos(window, intervals); // fail fast on a bad window
+        this.window = window;
+        this.intervals = intervals;
+        this.maxRoutes = maxRoutes;
+    }
 
     @Override
     public void record(String method, String route, int status, long durationNanos) {
-        Cell cell = cells.computeIfAbsent(new Key(method, route), k -> new Cell());
+        record(method, route, status, durationNanos, null);
+    }
+
+    @Override
+    public void record(String method, String route, int status, long durationNanos, String traceId) {
+        Cell cell = cell(method, route);
         cell.count.increment();
         cell.totalNanos.add(durationNanos);
-        if (status >= 500) {
-            cell.errors.increment();
+        cell.statusClasses[Math.clamp(status / 100 - 1, 0, STATUS_CLASSES.length - 1)].increment();
+        cell.histogram.record(durationNanos);
+        if (traceId != null) {
+            cell.exemplar = new Exemplar(traceId, durationNanos);
+        }
+    }
+
+    @Override
+    public void recordPhase(String method, String route, String phase, long nanos) {
+        cell(method, route).phase(phase).record(nanos);
+    }
+
+    @Override
+    public void recordPool(String pool, long waitNanos, int active, int idle, int pending) {
+        Pool state = pools.get(pool);
+        if (state == null) {
+            state = pools.computeIfAbsent(pool, Pool::new);
+        }
+        state.active = active;
+        state.idle = idle;
+        state.pending = pending;
+        state.checkoutWait.record(waitNanos);
+    }
+
+    @Override
+    public void registerPool(String pool, IntSupplier active, IntSupplier idle, IntSupplier pending) {
+        Pool state = pools.computeIfAbsent(pool, Pool::new);
+        state.liveActive = active;
+        state.liveIdle = idle;
+        state.livePending = pending;
+    }
+
+    @Override
+    public void recordQuery(String statement, String sql, String operation, long nanos, long rows) {
+        Query query = queries.get(statement);
+        if (query == null) {
+            query = queries.size() >= MAX_STATEMENTS
+                ? queries.computeIfAbsent(OVERFLOW_ROUTE, id -> new Query(id, OVERFLOW_ROUTE, "", window, intervals))
+                : queries.computeIfAbsent(statement, id -> new Query(id, sql, operation, window, intervals));
+        }
+        query.histogram.record(nanos);
+        if (rows < 0) {
+            query.errors.increment();
+        } else {
+            query.rows.add(rows);
+        }
+    }
+
+    private Cell cell(String requestMethod, String route) {
+        String method = METHODS.contains(requestMethod) ? requestMethod : OTHER_METHOD;
+        Map<String, Cell> byRoute = cells.get(method);
+        if (byRoute == null) {
+            byRoute = cells.computeIfAbsent(method, m -> new ConcurrentHashMap<>());
+        }
+        Cell cell = byRoute.get(route);
+        if (cell != null) {
+            return cell;
+        }
+        if (routes.get() >= maxRoutes) {
+            return byRoute.computeIfAbsent(OVERFLOW_ROUTE, r -> new Cell(method, r, window, intervals));
+        }
+        return byRoute.computeIfAbsent(route, r -> {
+            routes.incrementAndGet();
+            return new Cell(method, r, window, intervals);
+        });
+    }
+
+    /** Visits every route's live counters, without allocating per route. */
+    void forEachCell(Consumer<Cell> visitor) {
+        for (Map<String, Cell> byRoute : cells.values()) {
+            for (Cell cell : byRoute.values()) {
+                visitor.accept(cell);
+            }
         }
     }
 
+    /** Visits every connection pool. */
+    void forEachPool(Consumer<Pool> visitor) {
+        pools.values().forEach(visitor);
+    }
+
+    boolean hasPools() {
+        return !pools.isEmpty();
+    }
+
+    /** Visits every SQL statement. */
+    void forEachQuery(Consumer<Query> visitor) {
+        queries.values().forEach(visitor);
+    }
+
+    boolean hasQueries() {
+        return !queries.isEmpty();
+    }
+
+    /** SQL statements by statement id, sorted. */
+    public Map<String, QueryMetrics> queries() {
+        Map<String, QueryMetrics> snapshot = new TreeMap<>();
+        queries.forEach((id, query) -> {
+            LatencyHistogram.Snapshot latency = query.histogram.cumulative();
+            snapshot.put(id, new QueryMetrics(query.sql, query.operation, latency.count(), query.errors.sum(),
+                query.rows.sum(), latency, query.histogram.snapshot()));
+        });
+        return snapshot;
+    }
+
+    /** Connection pools by name, sorted. */
+    public Map<String, PoolMetrics> pools() {
+        Map<String, PoolMetrics> snapshot = new TreeMap<>();
+        pools.forEach((name, pool) -> snapshot.put(name,
+            new PoolMetrics(pool.active(), pool.idle(), pool.pending(), pool.checkoutWait.cumulative())));
+        return snapshot;
+    }
+
     /** Immutable snapshot keyed by {@code "METHOD route"}. */
     public Map<String, RouteMetrics> snapshot() {
         Map<String, RouteMetrics> snapshot = new TreeMap<>();
-        cells.forEach((key, cell) -> snapshot.put(key.method() + " " + key.route(),
-            new RouteMetrics(cell.count.sum(), cell.errors.sum(), cell.totalNanos.sum())));
+        cells.forEach((method, byRoute) -> byRoute.forEach((route, cell) -> {
+            Map<String, Long> statusClasses = new LinkedHashMap<>();
+            for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                long n = cell.statusClasses[i].sum();
+                if (n > 0) {
+                    statusClasses.put(STATUS_CLASSES[i], n);
+                }
+            }
+            Map<String, LatencyHistogram.Snapshot> phases = new TreeMap<>();
+            for (Phase phase : cell.phases) {
+                phases.put(phase.name(), phase.histogram().cumulative());
+            }
+            snapshot.put(method + " " + route, new RouteMetrics(cell.count.sum(), cell.statusClasses[4].sum(),
+                cell.totalNanos.sum(), Collections.unmodifiableMap(statusClasses), cell.histogram.cumulative(),
+                cell.histogram.snapshot(), Collections.unmodifiableMap(phases)));
+        }));
         return snapshot;
     }
 }
@@ -0,0 +1,276 @@
+package com.ligero.middleware;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrent latency histogram with HDR-style log-linear buckets: every power
+ * of two of nanoseconds is split into 16 linear sub-buckets, so a reported
+ * percentile is within ~6% of the true value (never below it) from 1 ns up to
+ * about half an hour, in 608 buckets.
+ *
+ * <p>Each bucket is a {@link LongAdder}, created the first time a value lands
+ * in it; after that, {@link #record} allocates nothing and contending threads
+ * rarely share a cache line. Two views are kept: since creation
+ * ({@link #cumulative()}) and over a sliding window ({@link #snapshot()}),
+ * made of {@code intervals} slots that are recycled as time moves on — the
+ * window covers the last {@code window} plus the current partial interval.</p>
+ *
+ * <pre>{@code
+ * LatencyHistogram histogram = new LatencyHistogram();
+ * histogram.record(System.nanoTime() - start);
+ * long p99 = histogram.snapshot().p99Nanos();
+ * }</pre>
+ */
+public final class LatencyHistogram {
+
+    /** Default sliding window: one minute, rotated every ten seconds. */
+    public static final Duration DEFAULT_WINDOW = Duration.ofMinutes(1);
+    public static final int DEFAULT_INTERVALS = 6;
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    /** Values from 2^(MAX_EXPONENT + 1) ns (~36 min) up share the last bucket. */
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+
+    /**
+     * Latency summary. Percentiles are bucket upper bounds capped at the
+     * observed maximum; all values are 0 when nothing was recorded.
+     */
+    public record Snapshot(long count, long totalNanos, long maxNanos,
+                           long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos) {
+
+        public static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0, 0);
+
+        public long meanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+    }
+
+    /** One set of counters: the all-time one, or one slot of the window. */
+    private static final class Counts {
+        final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>(BUCKETS);
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong max = new AtomicLong();
+        final AtomicLong epoch = new AtomicLong(Long.MIN_VALUE);
+
+        void record(int index, long nanos) {
+            LongAdder bucket = buckets.get(index);
+            if (bucket == null) {
+                LongAdder created = new LongAdder();
+                bucket = buckets.compareAndExchange(index, null, created);
+                if (bucket == null) {
+                    bucket = created;
+                }
+            }
+            bucket.increment();
+            totalNanos.add(nanos);
+            long seen;
+            while (nanos > (seen = max.get()) && !max.compareAndSet(seen, nanos)) {
+                // retry: another thread raised the max concurrently
+            }
+        }
+
+        /** Zeroes the counters in place (recorders racing with a reset may be lost). */
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                LongAdder bucket = buckets.get(i);
+                if (bucket != null) {
+                    bucket.reset();
+                }
+            }
+            totalNanos.reset();
+            max.set(0);
+        }
+
+        long addTo(long[] counts) {
+            for (int i = 0; i < BUCKETS; i++) {
+                LongAdder bucket = buckets.get(i);
+                if (bucket != null) {
+                    counts[i] += bucket.sum();
+                }
+            }
+            return totalNanos.sum();
+        }
+    }
+
+    private final Counts total = new Counts();
+    private final Counts[] slots;
+    private final long intervalNanos;
+    private final LongSupplier clock;
+
+    /** A histogram with the {@linkplain #DEFAULT_WINDOW default window}. */
+    public LatencyHistogram() {
+        this(DEFAULT_WINDOW, DEFAULT_INTERVALS);
+    }
+
+    /** A histogram whose {@link #snapshot()} covers {@code window}, rotated in {@code intervals} steps. */
+    public LatencyHistogram(Duration window, int intervals) {
+        this(window, intervals, System::nanoTime);
+    }
+
+    LatencyHistogram(Duration window, int intervals, LongSupplier clock) {
+        this.intervalNanos = intervalNanos(window, intervals);
+        this.clock = clock;
+        // one extra slot so the oldest full interval is still there while the newest fills
+        this.slots = new Counts[intervals + 1];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Counts();
+        }
+    }
+
+    private LatencyHistogram(LongSupplier clock) {
+        this.intervalNanos = 1L;
+        this.clock = clock;
+        this.slots = new Counts[0];
+    }
+
+    /** A lighter histogram without a window: {@link #snapshot()} is {@link #cumulative()}. */
+    static LatencyHistogram unwindowed() {
+        return new LatencyHistogram(System::nanoTime);
+    }
+
+    static long intervalNanos(Duration window, int intervals) {
+        if (intervals < 1) {
+            throw new IllegalArgumentException("intervals must be >= 1");
+        }
+        if (window.toNanos() < intervals) {
+            throw new IllegalArgumentException("window must be positive and at least 1ns per interval");
+        }
+        return window.toNanos() / intervals;
+    }
+
+    /** Records one observation; negative values count as 0. */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        int index = indexOf(value);
+        total.record(index, value);
+        if (slots.length == 0) {
+            return;
+        }
+        long epoch = Math.floorDiv(clock.getAsLong(), intervalNanos);
+        Counts slot = slots[(int) Math.floorMod(epoch, (long) slots.length)];
+        long seen = slot.epoch.get();
+        if (seen < epoch && slot.epoch.compareAndSet(seen, epoch)) {
+            slot.reset(); // this slot last held an interval that has left the window
+        }
+        slot.record(index, value);
+    }
+
+    /** Percentiles over the sliding window. */
+    public Snapshot snapshot() {
+        if (slots.length == 0) {
+            return cumulative();
+        }
+        long epoch = Math.floorDiv(clock.getAsLong(), intervalNanos);
+        long[] counts = new long[BUCKETS];
+        long totalNanos = 0;
+        long max = 0;
+        for (Counts slot : slots) {
+            long slotEpoch = slot.epoch.get();
+            if (slotEpoch > epoch - slots.length && slotEpoch <= epoch) {
+                totalNanos += slot.addTo(counts);
+                max = Math.max(max, slot.max.get());
+            }
+        }
+        return summarize(counts, totalNanos, max);
+    }
+
+    /** Percentiles over everything recorded since creation. */
+    public Snapshot cumulative() {
+        long[] counts = new long[BUCKETS];
+        long totalNanos = total.addTo(counts);
+        return summarize(counts, totalNanos, total.max.get());
+    }
+
+    /**
+     * Exposition helper: fills {@code into[j]} with the all-time count of values
+     * in buckets {@code 0..bucketIndexes[j]} (indexes ascending) and returns the
+     * all-time total count. Allocates nothing.
+     */
+    long cumulativeCounts(int[] bucketIndexes, long[] into) {
+        long running = 0;
+        int j = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            LongAdder bucket = total.buckets.get(i);
+            if (bucket != null) {
+                running += bucket.sum();
+            }
+            while (j < bucketIndexes.length && bucketIndexes[j] == i) {
+                into[j++] = running;
+            }
+        }
+        return running;
+    }
+
+    /** All-time count of recorded values, read from the live buckets. Allocates nothing. */
+    long cumulativeCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            LongAdder bucket = total.buckets.get(i);
+            if (bucket != null) {
+                count += bucket.sum();
+            }
+        }
+        return count;
+    }
+
+    /** All-time sum of recorded values. */
+    long cumulativeTotalNanos() {
+        return total.totalNanos.sum();
+    }
+
+    private static Snapshot summarize(long[] counts, long totalNanos, long max) {
+        long count = 0;
+        for (long c : counts) {
+            count += c;
+        }
+        if (count == 0) {
+            return Snapshot.EMPTY;
+        }
+        return new Snapshot(count, totalNanos, max,
+            valueAt(counts, count, 0.5, max), valueAt(counts, count, 0.9, max),
+            valueAt(counts, count, 0.99, max), valueAt(counts, count, 0.999, max));
+    }
+
+    private static long valueAt(long[] counts, long count, double quantile, long max) {
+        long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int indexOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /** Largest value that maps to bucket {@code index}. */
+    static long upperBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        if (index == BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,550 @@
+package com.ligero.middleware;
+
+import com.ligero.cache.CacheStats;
+import com.ligero.http.Context;
+
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Prometheus scrape endpoint for an {@link InMemoryMetricsCollector}, no
+ * Micrometer needed. Answers {@code GET /metrics} in the Prometheus text
+ * format, or in OpenMetrics — with exemplars that link latency buckets to trace
+ * ids — when the scraper accepts {@code application/openmetrics-text}. Every
+ * other request passes through and is counted as in flight, so register it
+ * first.
+ *
+ * <pre>{@code
+ * InMemoryMetricsCollector metrics = new InMemoryMetricsCollector();
+ * app.use(MetricsEndpointMiddleware.builder(metrics)
+ *     .cache("users", usersCache::stats)
+ *     .rateLimiter("api", apiLimiter)
+ *     .build());
+ * app.use(new TracingMiddleware(tracer));   // before metrics, for exemplars
+ * app.use(new MetricsMiddleware(metrics));
+ * }</pre>
+ *
+ * <p>Families: {@code ligero_http_requests_total} (by method, route and status
+ * class), {@code ligero_http_request_duration_seconds} (histogram; bucket
+ * counts are exact to the collector's ~6% bucket precision),
+ * {@code ligero_http_phase_seconds} (count and sum per phase of the requests
+ * sampled for {@code RequestTimings}), {@code ligero_http_requests_in_flight}
+ * (with the bundled engines, also the number of request virtual threads),
+ * {@code ligero_db_pool_connections} and {@code ligero_db_pool_wait_seconds}
+ * (per connection pool reporting to the collector),
+ * {@code ligero_db_query_duration_seconds} (histogram),
+ * {@code ligero_db_query_rows_total} and {@code ligero_db_query_errors_total}
+ * (per SQL statement id and operation),
+ * {@code ligero_cache_*_total},
+ * {@code ligero_ratelimit_rejected_total}, and {@code jvm_memory_*},
+ * {@code jvm_gc_*} and {@code jvm_threads_*}.</p>
+ *
+ * <p>The page is rendered into one byte buffer reused across scrapes (scrapes
+ * are serialized), so its cost in garbage does not grow with the number of
+ * routes.</p>
+ */
+public final class MetricsEndpointMiddleware implements Middleware {
+
+    static final String PROMETHEUS_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    static final String OPENMETRICS_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    /** Prometheus client defaults, 5ms to 10s. */
+    public static final List<Duration> DEFAULT_BUCKETS = List.of(
+        Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25), Duration.ofMillis(50),
+        Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1),
+        Duration.ofMillis(2500), Duration.ofSeconds(5), Duration.ofSeconds(10));
+
+    private final InMemoryMetricsCollector collector;
+    private final String path;
+    private final boolean jvm;
+    private final long[] boundNanos;
+    private final int[] boundIndexes;
+    private final String[] boundLabels;
+    private final String[] cacheNames;
+    private final Supplier<CacheStats>[] caches;
+    private final String[] limiterNames;
+    private final RateLimitMiddleware[] limiters;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final GarbageCollectorMXBean[] collectors =
+        ManagementFactory.getGarbageCollectorMXBeans().toArray(GarbageCollectorMXBean[]::new);
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final LongAdder inFlight = new LongAdder();
+
+    // scrape state, guarded by lock (not synchronized: the write may block a virtual thread)
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Buffer out = new Buffer();
+    private final long[] bucketCounts;
+    private final CacheStats[] cacheStats;
+    private final Consumer<InMemoryMetricsCollector.Cell> requestsWriter = this::writeRequests;
+    private final Consumer<InMemoryMetricsCollector.Cell> durationWriter = this::writeDuration;
+    private final Consumer<InMemoryMetricsCollector.Cell> phaseWriter = this::writePhases;
+    private final Consumer<InMemoryMetricsCollector.Pool> poolConnectionsWriter = this::writePoolConnections;
+    private final Consumer<InMemoryMetricsCollector.Pool> poolWaitWriter = this::writePoolWait;
+    private final Consumer<InMemoryMetricsCollector.Query> queryDurationWriter = this::writeQueryDuration;
+    private final Consumer<InMemoryMetricsCollector.Query> queryRowsWriter = this::writeQueryRows;
+    private final Consumer<InMemoryMetricsCollector.Query> queryErrorsWriter = this::writeQueryErrors;
+    private boolean openMetrics;
+
+    private MetricsEndpointMiddleware(Builder builder) {
+        this.collector = builder.collector;
+        this.path = builder.path;
+        this.jvm = builder.jvm;
+        this.boundNanos = builder.buckets.stream().mapToLong(Duration::toNanos).sorted().distinct().toArray();
+        this.boundIndexes = Arrays.stream(boundNanos).mapToInt(LatencyHistogram::indexOf).toArray();
+        this.boundLabels = Arrays.stream(boundNanos)
+            .mapToObj(nanos -> BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString())
+            .toArray(String[]::new);
+        this.bucketCounts = new long[boundNanos.length];
+        this.cacheNames = builder.cacheNames.toArray(String[]::new);
+        @SuppressWarnings("unchecked")
+        Supplier<CacheStats>[] caches = builder.caches.toArray(Supplier[]::new);
+        this.caches = caches;
+        this.cacheStats = new CacheStats[caches.length];
+        this.limiterNames = builder.limiterNames.toArray(String[]::new);
+        this.limiters = builder.limiters.toArray(RateLimitMiddleware[]::new);
+    }
+
+    public static Builder builder(InMemoryMetricsCollector collector) {
+        return new Builder(collector);
+    }
+
+    /** Endpoint at {@code /metrics} with JVM stats and the default buckets. */
+    public static MetricsEndpointMiddleware of(InMemoryMetricsCollector collector) {
+        return builder(collector).build();
+    }
+
+    @Override
+    public void handle(Context ctx, Chain chain) throws Exception {
+        if (!"GET".equals(ctx.method()) || !path.equals(ctx.path())) {
+            inFlight.increment();
+            try {
+                chain.proceed();
+            } finally {
+                inFlight.decrement();
+            }
+            return;
+        }
+        String accept = ctx.header("Accept");
+        boolean asOpenMetrics = accept != null && accept.contains("application/openmetrics-text");
+        lock.lock();
+        try {
+            render(asOpenMetrics);
+            ctx.status(200).res().contentType(asOpenMetrics ? OPENMETRICS_TYPE : PROMETHEUS_TYPE);
+            try (OutputStream stream = ctx.res().getOutputStream()) {
+                stream.write(out.bytes, 0, out.size);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Renders the whole page into {@link #out}. Caller holds {@link #lock}. */
+    private void render(boolean asOpenMetrics) {
+        openMetrics = asOpenMetrics;
+        out.size = 0;
+
+        type("ligero_http_requests", "counter", "Requests served, by status class.");
+        collector.forEachCell(requestsWriter);
+        type("ligero_http_request_duration_seconds", "histogram", "Request latency.");
+        collector.forEachCell(durationWriter);
+        type("ligero_http_phase_seconds", "summary", "Time spent in each request phase, sampled requests only.");
+        collector.forEachCell(phaseWriter);
+        type("ligero_http_requests_in_flight", "gauge", "Requests currently being served.");
+        out.ascii("ligero_http_requests_in_flight ").decimal(inFlight.sum()).newline();
+
+        if (collector.hasPools()) {
+            type("ligero_db_pool_connections", "gauge", "Database pool connections, by state.");
+            collector.forEachPool(poolConnectionsWriter);
+            type("ligero_db_pool_wait_seconds", "summary", "Time spent waiting for a pooled connection.");
+            collector.forEachPool(poolWaitWriter);
+        }
+        if (collector.hasQueries()) {
+            type("ligero_db_query_duration_seconds", "histogram", "SQL statement latency, by statement id.");
+            collector.forEachQuery(queryDurationWriter);
+            type("ligero_db_query_rows", "counter", "Rows read or affected by SQL statements.");
+            collector.forEachQuery(queryRowsWriter);
+            type("ligero_db_query_errors", "counter", "Failed SQL statements.");
+            collector.forEachQuery(queryErrorsWriter);
+        }
+
+        if (caches.length > 0) {
+            for (int i = 0; i < caches.length; i++) {
+                cacheStats[i] = caches[i].get();
+            }
+            type("ligero_cache_hits", "counter", "Cache hits.");
+            for (int i = 0; i < caches.length; i++) {
+                labelled("ligero_cache_hits_total", "cache", cacheNames[i]).decimal(cacheStats[i].hits()).newline();
+            }
+            type("ligero_cache_misses", "counter", "Cache misses.");
+            for (int i = 0; i < caches.length; i++) {
+                labelled("ligero_cache_misses_total", "cache", cacheNames[i]).decimal(cacheStats[i].misses()).newline();
+            }
+            type("ligero_cache_evictions", "counter", "Cache evictions.");
+            for (int i = 0; i < caches.length; i++) {
+                labelled("ligero_cache_evictions_total", "cache", cacheNames[i])
+                    .decimal(cacheStats[i].evictions()).newline();
+            }
+        }
+        if (limiterNames.length > 0) {
+            type("ligero_ratelimit_rejected", "counter", "Requests refused with 429.");
+            for (int i = 0; i < limiters.length; i++) {
+                labelled("ligero_ratelimit_rejected_total", "limiter", limiterNames[i])
+                    .decimal(limiters[i].rejected()).newline();
+            }
+        }
+        if (jvm) {
+            renderJvm();
+        }
+        if (openMetrics) {
+            out.ascii("# EOF\n");
+        }
+    }
+
+    private void renderJvm() {
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+        MemoryUsage nonHeap = memory.getNonHeapMemoryUsage();
+        type("jvm_memory_used_bytes", "gauge", "Used memory.");
+        labelled("jvm_memory_used_bytes", "area", "heap").decimal(heap.getUsed()).newline();
+        labelled("jvm_memory_used_bytes", "area", "nonheap").decimal(nonHeap.getUsed()).newline();
+        type("jvm_memory_committed_bytes", "gauge", "Committed memory.");
+        labelled("jvm_memory_committed_bytes", "area", "heap").decimal(heap.getCommitted()).newline();
+        labelled("jvm_memory_committed_bytes", "area", "nonheap").decimal(nonHeap.getCommitted()).newline();
+        if (heap.getMax() >= 0) {
+            type("jvm_memory_max_bytes", "gauge", "Maximum heap size.");
+            labelled("jvm_memory_max_bytes", "area", "heap").decimal(heap.getMax()).newline();
+        }
+
+        type("jvm_gc_collections", "counter", "Garbage collections, by collector.");
+        for (GarbageCollectorMXBean gc : collectors) {
+            labelled("jvm_gc_collections_total", "gc", gc.getName()).decimal(Math.max(0, gc.getCollectionCount())).newline();
+        }
+        type("jvm_gc_collection_seconds", "counter", "Time spent in garbage collection, by collector.");
+        for (GarbageCollectorMXBean gc : collectors) {
+            labelled("jvm_gc_collection_seconds_total", "gc", gc.getName())
+                .seconds(Math.max(0, gc.getCollectionTime()) * 1_000_000L).newline();
+        }
+
+        type("jvm_threads_live", "gauge", "Live platform threads.");
+        out.ascii("jvm_threads_live ").decimal(threads.getThreadCount()).newline();
+        type("jvm_threads_daemon", "gauge", "Live daemon platform threads.");
+        out.ascii("jvm_threads_daemon ").decimal(threads.getDaemonThreadCount()).newline();
+        type("jvm_threads_peak", "gauge", "Peak live platform threads.");
+        out.ascii("jvm_threads_peak ").decimal(threads.getPeakThreadCount()).newline();
+    }
+
+    private void writeRequests(InMemoryMetricsCollector.Cell cell) {
+        for (int i = 0; i < cell.statusClasses.length; i++) {
+            long count = cell.statusClasses[i].sum();
+            if (count > 0) {
+                routeLabels("ligero_http_requests_total", cell).ascii(",status=\"")
+                    .ascii(InMemoryMetricsCollector.STATUS_CLASSES[i]).ascii("\"} ").decimal(count).newline();
+            }
+        }
+    }
+
+    private void writeDuration(InMemoryMetricsCollector.Cell cell) {
+        long count = cell.histogram.cumulativeCounts(boundIndexes, bucketCounts);
+        InMemoryMetricsCollector.Exemplar exemplar = openMetrics ? cell.exemplar : null;
+        boolean exemplarWritten = false;
+        for (int j = 0; j < boundNanos.length; j++) {
+            routeLabels("ligero_http_request_duration_seconds_bucket", cell).ascii(",le=\"")
+                .ascii(boundLabels[j]).ascii("\"} ").decimal(bucketCounts[j]);
+            if (exemplar != null && !exemplarWritten && exemplar.nanos() <= boundNanos[j]) {
+                exemplar(exemplar);
+                exemplarWritten = true;
+            }
+            out.newline();
+        }
+        routeLabels("ligero_http_request_duration_seconds_bucket", cell).ascii(",le=\"+Inf\"} ").decimal(count);
+        if (exemplar != null && !exemplarWritten) {
+            exemplar(exemplar);
+        }
+        out.newline();
+        routeLabels("ligero_http_request_duration_seconds_count", cell).ascii("} ").decimal(count).newline();
+        routeLabels("ligero_http_request_duration_seconds_sum", cell).ascii("} ")
+            .seconds(cell.histogram.cumulativeTotalNanos()).newline();
+    }
+
+    private void writePhases(InMemoryMetricsCollector.Cell cell) {
+        for (InMemoryMetricsCollector.Phase phase : cell.phases) {
+            routeLabels("ligero_http_phase_seconds_count", cell).ascii(",phase=\"").ascii(phase.name())
+                .ascii("\"} ").decimal(phase.histogram().cumulativeCount()).newline();
+            routeLabels("ligero_http_phase_seconds_sum", cell).ascii(",phase=\"").ascii(phase.name())
+                .ascii("\"} ").seconds(phase.histogram().cumulativeTotalNanos()).newline();
+        }
+    }
+
+    private void writePoolConnections(InMemoryMetricsCollector.Pool pool) {
+        poolLabels("ligero_db_pool_connections", pool).ascii(",state=\"active\"} ").decimal(pool.active()).newline();
+        poolLabels("ligero_db_pool_connections", pool).ascii(",state=\"idle\"} ").decimal(pool.idle()).newline();
+        poolLabels("ligero_db_pool_connections", pool).ascii(",state=\"pending\"} ").decimal(pool.pending()).newline();
+    }
+
+    private void writePoolWait(InMemoryMetricsCollector.Pool pool) {
+        poolLabels("ligero_db_pool_wait_seconds_count", pool).ascii("} ")
+            .decimal(pool.checkoutWait.cumulativeCount()).newline();
+        poolLabels("ligero_db_pool_wait_seconds_sum", pool).ascii("} ")
+            .seconds(pool.checkoutWait.cumulativeTotalNanos()).newline();
+    }
+
+    private void writeQueryDuration(InMemoryMetricsCollector.Query query) {
+        long count = query.histogram.cumulativeCounts(boundIndexes, bucketCounts);
+        for (int j = 0; j < boundNanos.length; j++) {
+            queryLabels("ligero_db_query_duration_seconds_bucket", query).ascii(",le=\"")
+                .ascii(boundLabels[j]).ascii("\"} ").decimal(bucketCounts[j]).newline();
+        }
+        queryLabels("ligero_db_query_duration_seconds_bucket", query).ascii(",le=\"+Inf\"} ").decimal(count).newline();
+        queryLabels("ligero_db_query_duration_seconds_count", query).ascii("} ").decimal(count).newline();
+        queryLabels("ligero_db_query_duration_seconds_sum", query).ascii("} ")
+            .seconds(query.histogram.cumulativeTotalNanos()).newline();
+    }
+
+    private void writeQueryRows(InMemoryMetricsCollector.Query query) {
+        queryLabels("ligero_db_query_rows_total", query).ascii("} ").decimal(query.rows.sum()).newline();
+    }
+
+    private void writeQueryErrors(InMemoryMetricsCollector.Query query) {
+        queryLabels("ligero_db_query_errors_total", query).ascii("} ").decimal(query.errors.sum()).newline();
+    }
+
+    /** Writes {@code name{statement="…",operation="…"} without closing the brace. */
+    private Buffer queryLabels(String name, InMemoryMetricsCollector.Query query) {
+        return out.ascii(name).ascii("{statement=\"").labelValue(query.id)
+            .ascii("\",operation=\"").labelValue(query.operation).ascii("\"");
+    }
+
+    /** Writes {@code name{pool="…"} without closing the brace. */
+    private Buffer poolLabels(String name, InMemoryMetricsCollector.Pool pool) {
+        return out.ascii(name).ascii("{pool=\"").labelValue(pool.name).ascii("\"");
+    }
+
+    private void exemplar(InMemoryMetricsCollector.Exemplar exemplar) {
+        out.ascii(" # {trace_id=\"").labelValue(exemplar.traceId()).ascii("\"} ").seconds(exemplar.nanos());
+    }
+
+    /** Writes {@code name{method="…",route="…"} without closing the brace. */
+    private Buffer routeLabels(String name, InMemoryMetricsCollector.Cell cell) {
+        return out.ascii(name).ascii("{method=\"").labelValue(cell.method)
+            .ascii("\",route=\"").labelValue(cell.route).ascii("\"");
+    }
+
+    /** Writes {@code name{label="value"} } ready for the sample value. */
+    private Buffer labelled(String name, String label, String value) {
+        return out.ascii(name).ascii("{").ascii(label).ascii("=\"").labelValue(value).ascii("\"} ");
+    }
+
+    /** HELP and TYPE lines; Prometheus 0.0.4 names counter families with their {@code _total} suffix. */
+    private void type(String family, String type, String help) {
+        boolean suffixed = !openMetrics && "counter".equals(type);
+        out.ascii("# HELP ").ascii(family);
+        if (suffixed) {
+            out.ascii("_total");
+        }
+        out.ascii(" ").ascii(help).newline();
+        out.ascii("# TYPE ").ascii(family);
+        if (suffixed) {
+            out.ascii("_total");
+        }
+        out.ascii(" ").ascii(type).newline();
+    }
+
+    /** Growable UTF-8 byte buffer with allocation-free number formatting. */
+    static final class Buffer {
+        byte[] bytes = new byte[16 * 1024];
+        int size;
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        private void put(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        /** Writes {@code s} as UTF-8, unescaped. */
+        Buffer ascii(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    put(c);
+                } else {
+                    utf8(s, i);
+                    if (Character.isHighSurrogate(c) && i + 1 < s.length()) {
+                        i++;
+                    }
+                }
+            }
+            return this;
+        }
+
+        private void utf8(String s, int i) {
+            int cp = s.codePointAt(i);
+            if (cp < 0x800) {
+                put(0xC0 | (cp >> 6));
+                put(0x80 | (cp & 0x3F));
+            } else if (cp < 0x10000) {
+                put(0xE0 | (cp >> 12));
+                put(0x80 | ((cp >> 6) & 0x3F));
+                put(0x80 | (cp & 0x3F));
+            } else {
+                put(0xF0 | (cp >> 18));
+                put(0x80 | ((cp >> 12) & 0x3F));
+                put(0x80 | ((cp >> 6) & 0x3F));
+                put(0x80 | (cp & 0x3F));
+            }
+        }
+
+        /** Writes a label value, escaping backslash, double quote and newline. */
+        Buffer labelValue(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '\\' -> { put('\\'); put('\\'); }
+                    case '"' -> { put('\\'); put('"'); }
+                    case '\n' -> { put('\\'); put('n'); }
+                    default -> {
+                        if (c < 0x80) {
+                            put(c);
+                        } else {
+                            utf8(s, i);
+                            if (Character.isHighSurrogate(c) && i + 1 < s.length()) {
+                                i++;
+                            }
+                        }
+                    }
+                }
+            }
+            return this;
+        }
+
+        Buffer decimal(long value) {
+            if (value == Long.MIN_VALUE) {
+                return ascii("-9223372036854775808");
+            }
+            if (value < 0) {
+                put('-');
+                value = -value;
+            }
+            ensure(19);
+            int start = size;
+            do {
+                bytes[size++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            for (int i = start, j = size - 1; i < j; i++, j--) {
+                byte swap = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = swap;
+            }
+            return this;
+        }
+
+        /** Writes a non-negative nanosecond amount as seconds, e.g. {@code 0.0425}. */
+        Buffer seconds(long nanos) {
+            long value = Math.max(0L, nanos);
+            decimal(value / 1_000_000_000L);
+            long fraction = value % 1_000_000_000L;
+            if (fraction == 0) {
+                return this;
+            }
+            int digits = 9;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            put('.');
+            for (long scale = pow10(digits - 1); scale > 0; scale /= 10) {
+                put((int) ('0' + fraction / scale % 10));
+            }
+            return this;
+        }
+
+        private static long pow10(int exponent) {
+            long result = 1;
+            for (int i = 0; i < exponent; i++) {
+                result *= 10;
+            }
+            return result;
+        }
+
+        Buffer newline() {
+            put('\n');
+            return this;
+        }
+    }
+
+    public static final class Builder {
+        private final InMemoryMetricsCollector collector;
+        private String path = "/metrics";
+        private boolean jvm = true;
+        private List<Duration> buckets = DEFAULT_BUCKETS;
+        private final List<String> cacheNames = new ArrayList<>();
+        private final List<Supplier<CacheStats>> caches = new ArrayList<>();
+        private final List<String> limiterNames = new ArrayList<>();
+        private final List<RateLimitMiddleware> limiters = new ArrayList<>();
+
+        private Builder(InMemoryMetricsCollector collector) {
+            this.collector = collector;
+        }
+
+        public Builder path(String path) {
+            this.path = path;
+            return this;
+        }
+
+        /** Histogram bucket upper bounds (default {@link #DEFAULT_BUCKETS}). */
+        public Builder buckets(Duration... buckets) {
+            if (buckets.length == 0) {
+                throw new IllegalArgumentException("at least one bucket is required");
+            }
+            for (Duration bucket : buckets) {
+                if (bucket.isZero() || bucket.isNegative()) {
+                    throw new IllegalArgumentException("buckets must be positive");
+                }
+            }
+            this.buckets = List.of(buckets);
+            return this;
+        }
+
+        /** Whether to include JVM memory, GC and thread stats (default on). */
+        public Builder jvm(boolean jvm) {
+            this.jvm = jvm;
+            return this;
+        }
+
+        /** Exposes a cache's hit, miss and eviction counts (e.g. {@code nearCache::stats}). */
+        public Builder cache(String name, Supplier<CacheStats> stats) {
+            cacheNames.add(name);
+            caches.add(stats);
+            return this;
+        }
+
+        /** Exposes how many requests a rate limiter has refused. */
+        public Builder rateLimiter(String name, RateLimitMiddleware limiter) {
+            limiterNames.add(name);
+            limiters.add(limiter);
+            return this;
+        }
+
+        public MetricsEndpointMiddleware build() {
+            return new MetricsEndpointMiddleware(this);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.ligero.middleware;
 
 import com.ligero.http.Context;
+import com.ligero.http.RequestTimings;
 import com.ligero.spi.MetricsCollector;
 
 /**
@@ -8,6 +9,12 @@ import com.ligero.spi.MetricsCollector;
  * duration) through the {@link MetricsCollector} SPI. Use
  * {@link InMemoryMetricsCollector} for a dependency-free default or the
  * {@code ligero-metrics-micrometer} adapter for real registries.
+ *
+ * <p>Registered after {@link TracingMiddleware}, each observation also carries
+ * the request's trace id, which collectors can keep as an exemplar. Requests
+ * sampled for {@link RequestTimings} (see {@code Ligero.requestTimings}) also
+ * report each phase through {@link MetricsCollector#recordPhase} once the
+ * response is complete.</p>
  */
 public final class MetricsMiddleware implements Middleware {
 
@@ -22,13 +29,29 @@ public final class MetricsMiddleware implements Middleware {
 
     @Override
     public void handle(Context ctx, Chain chain) throws Exception {
+        RequestTimings timings = ctx.timings();
+        if (timings != null) {
+            timings.onComplete(() -> recordPhases(ctx, timings));
+        }
         long start = System.nanoTime();
         try {
             chain.proceed();
         } finally {
             String route = ctx.attribute(ROUTE_ATTRIBUTE);
             collector.record(ctx.method(), route != null ? route : ctx.path(),
-                ctx.res().getStatus(), System.nanoTime() - start);
+                ctx.res().getStatus(), System.nanoTime() - start,
+                ctx.attribute(TracingMiddleware.TRACE_ID_ATTRIBUTE));
+        }
+    }
+
+    private void recordPhases(Context ctx, RequestTimings timings) {
+        String route = ctx.attribute(ROUTE_ATTRIBUTE);
+        String routeOrPath = route != null ? route : ctx.path();
+        for (RequestTimings.Phase phase : RequestTimings.Phase.values()) {
+            long nanos = timings.nanos(phase);
+            if (nanos > 0) {
+                collector.recordPhase(ctx.method(), routeOrPath, phase.metricName(), nanos);
+            }
         }
     }
 }
@@ -2,6 +2,8 @@ package com.ligero.middleware;
 
 import com.ligero.http.Context;
 import com.ligero.http.Handler;
+import com.ligero.http.RequestTimings;
+import com.ligero.spi.EventRecorder;
 
 import java.util.List;
 
@@ -13,18 +15,62 @@ public final class MiddlewarePipeline {
 
     /**
      * Builds a handler that runs the middlewares in registration order and
-     * finishes with {@code terminal}.
+     * finishes with {@code terminal}. On requests carrying
+     * {@link RequestTimings}, each layer's inclusive time is recorded so
+     * middleware self time can be derived.
      */
     public static Handler compose(List<Middleware> middlewares, Handler terminal) {
-        Handler handler = terminal;
+        return compose(middlewares, terminal, null);
+    }
+
+    /**
+     * Like {@link #compose(List, Handler)}, also emitting a
+     * {@link EventRecorder.Type#MIDDLEWARE} event around each middleware
+     * while {@code recorder} (nullable) has them enabled.
+     */
+    public static Handler compose(List<Middleware> middlewares, Handler terminal, EventRecorder recorder) {
+        Handler handler = timed(middlewares.size(), terminal);
         for (int i = middlewares.size() - 1; i >= 0; i--) {
             Middleware middleware = middlewares.get(i);
             Handler next = handler;
-            handler = ctx -> middleware.handle(ctx, () -> next.handle(ctx));
+            Handler layer = ctx -> middleware.handle(ctx, () -> next.handle(ctx));
+            handler = timed(i, recorder == null ? layer : recorded(recorder, middleware, layer));
         }
         return handler;
     }
 
+    private static Handler recorded(EventRecorder recorder, Middleware middleware, Handler layer) {
+        String name = middleware.getClass().getName();
+        return ctx -> {
+            if (!recorder.isEnabled(EventRecorder.Type.MIDDLEWARE)) {
+                layer.handle(ctx);
+                return;
+            }
+            EventRecorder.Event event = recorder.begin(EventRecorder.Type.MIDDLEWARE);
+            try {
+                layer.handle(ctx);
+            } finally {
+                event.set("middleware", name).set("path", ctx.path()).commit();
+            }
+        };
+    }
+
+    private static Handler timed(int layer, Handler handler) {
+        return ctx -> {
+            RequestTimings timings = ctx.timings();
+            if (timings == null) {
+                handler.handle(ctx);
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                handler.handle(ctx);
+            } finally {
+                timings.layer(layer, System.nanoTime() - start);
+            }
+        };
+    }
+
     /**
      * Wraps a middleware so it only applies to paths under {@code prefix};
      * other requests skip straight to the next element.
@@ -3,6 +3,7 @@ package com.ligero.middleware;
 import com.ligero.http.Context;
 import com.ligero.http.TooManyRequestsException;
 
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 /**
@@ -19,6 +20,7 @@ public final class RateLimitMiddleware implements Middleware {
 
     private final RateLimiterStore store;
     private final Function<Context, String> keyExtractor;
+    private final LongAdder rejected = new LongAdder();
 
     private RateLimitMiddleware(RateLimiterStore store, Function<Context, String> keyExtractor) {
         this.store = store;
@@ -46,8 +48,14 @@ public final class RateLimitMiddleware implements Middleware {
     @Override
     public void handle(Context ctx, Chain chain) throws Exception {
         if (!store.tryAcquire(keyExtractor.apply(ctx))) {
+            rejected.increment();
             throw new TooManyRequestsException("Rate limit exceeded");
         }
         chain.proceed();
     }
+
+    /** Requests refused with 429 since startup. */
+    public long rejected() {
+        return rejected.sum();
+    }
 }
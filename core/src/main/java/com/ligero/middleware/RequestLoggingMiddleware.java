@@ -5,29 +5,53 @@ import com.ligero.http.Context;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Access log middleware: one line per request with method, path, status
  * and duration. {@link #json()} switches to a structured JSON line
  * (machine-parseable access log) that also carries the request id when the
  * {@link RequestIdMiddleware} runs earlier in the pipeline.
+ *
+ * <p>By default lines go through SLF4J on the request thread. Under load,
+ * hand it an {@link AccessLogWriter} so the request only queues the entry
+ * and a background thread does the formatting and I/O; and sample by status
+ * class to keep volume down:</p>
+ *
+ * <pre>{@code
+ * app.use(RequestLoggingMiddleware.builder()
+ *     .writer(AccessLogWriter.builder().file(Path.of("access.log")).json(true).build())
+ *     .sample(2, 0.01)   // 1% of 2xx
+ *     .build());         // everything else, including all 5xx
+ * }</pre>
  */
 public final class RequestLoggingMiddleware implements Middleware {
 
     private static final Logger log = LoggerFactory.getLogger("ligero.access");
 
     private final boolean jsonFormat;
+    private final AccessLogWriter writer;
+    /** Fraction logged per status class, indexed by {@code status / 100}. */
+    private final double[] sampleRatios;
 
     public RequestLoggingMiddleware() {
-        this(false);
+        this(builder());
     }
 
-    private RequestLoggingMiddleware(boolean jsonFormat) {
-        this.jsonFormat = jsonFormat;
+    private RequestLoggingMiddleware(Builder builder) {
+        this.jsonFormat = builder.json;
+        this.writer = builder.writer;
+        this.sampleRatios = builder.sampleRatios.clone();
     }
 
     /** Structured JSON access log. */
     public static RequestLoggingMiddleware json() {
-        return new RequestLoggingMiddleware(true);
+        return builder().json(true).build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
     }
 
     @Override
@@ -37,14 +61,68 @@ public final class RequestLoggingMiddleware implements Middleware {
             chain.proceed();
         } finally {
             long micros = (System.nanoTime() - start) / 1_000;
-            if (jsonFormat) {
+            int status = ctx.res().getStatus();
+            if (sampled(status)) {
                 String requestId = ctx.attribute(RequestIdMiddleware.ATTRIBUTE);
-                log.info("{\"method\":\"{}\",\"path\":\"{}\",\"status\":{},\"durationMicros\":{}{}}",
-                    ctx.method(), ctx.path(), ctx.res().getStatus(), micros,
-                    requestId == null ? "" : ",\"requestId\":\"" + requestId + "\"");
-            } else {
-                log.info("{} {} -> {} ({} µs)", ctx.method(), ctx.path(), ctx.res().getStatus(), micros);
+                if (writer != null) {
+                    writer.record(ctx.method(), ctx.path(), status, micros, requestId);
+                } else if (jsonFormat) {
+                    if (log.isInfoEnabled()) {
+                        StringBuilder line = new StringBuilder(128);
+                        AccessLogWriter.format(line, true, -1, ctx.method(), ctx.path(), status, micros, requestId);
+                        log.info(line.toString());
+                    }
+                } else {
+                    log.info("{} {} -> {} ({} µs)", ctx.method(), ctx.path(), status, micros);
+                }
             }
         }
     }
+
+    private boolean sampled(int status) {
+        int statusClass = status / 100;
+        double ratio = statusClass >= 1 && statusClass <= 5 ? sampleRatios[statusClass] : 1.0;
+        return ratio >= 1.0 || (ratio > 0 && ThreadLocalRandom.current().nextDouble() < ratio);
+    }
+
+    public static final class Builder {
+        private boolean json;
+        private AccessLogWriter writer;
+        private final double[] sampleRatios = new double[6];
+
+        private Builder() {
+            Arrays.fill(sampleRatios, 1.0);
+        }
+
+        /** One JSON object per line (SLF4J output; an {@link AccessLogWriter} has its own format). */
+        public Builder json(boolean json) {
+            this.json = json;
+            return this;
+        }
+
+        /** Queues entries to {@code writer} instead of logging through SLF4J. */
+        public Builder writer(AccessLogWriter writer) {
+            this.writer = writer;
+            return this;
+        }
+
+        /**
+         * Logs only {@code ratio} (0..1) of the responses in status class
+         * {@code statusClass} (1-5, e.g. 2 for 2xx). Every class defaults to 1.
+         */
+        public Builder sample(int statusClass, double ratio) {
+            if (statusClass < 1 || statusClass > 5) {
+                throw new IllegalArgumentException("statusClass must be between 1 and 5");
+            }
+            if (!(ratio >= 0 && ratio <= 1)) {
+                throw new IllegalArgumentException("ratio must be between 0 and 1");
+            }
+            sampleRatios[statusClass] = ratio;
+            return this;
+        }
+
+        public RequestLoggingMiddleware build() {
+            return new RequestLoggingMiddleware(this);
+        }
+    }
 }
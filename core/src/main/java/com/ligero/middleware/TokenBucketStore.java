@@ -1,46 +1,200 @@
 package com.ligero.middleware;
 
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
 
-/** In-memory token-bucket {@link RateLimiterStore} (per-process state). */
+/**
+ * In-memory token-bucket {@link RateLimiterStore} (per-process state).
+ *
+ * <p>Each bucket is a single {@link AtomicLong} holding GCRA's <i>theoretical
+ * arrival time</i>: admitting a request advances it by one emission interval
+ * ({@code 1 / refillPerSecond}) with a CAS, and a request is refused when that
+ * would put it more than {@code capacity} intervals ahead of now. That is exactly
+ * a token bucket of {@code capacity} tokens, without a lock on the hot path.</p>
+ *
+ * <p>A bucket whose arrival time has passed is full, i.e. indistinguishable from
+ * a new one, so it can be dropped without losing anything: {@link #evictIdle()}
+ * does that, and runs by itself on a virtual thread when the store reaches its
+ * {@code maxKeys} cap. While the store is at the cap, unseen keys are limited
+ * through a small shared sketch (see below) instead of growing the map, so a scan
+ * from many addresses can neither exhaust memory nor bypass the limit.</p>
+ *
+ * <p>{@link #approximate} skips the per-key map entirely: keys hash into a fixed
+ * count-min-style grid of buckets (4 rows) and the least-loaded of a key's cells
+ * decides. Memory is constant whatever the key cardinality; collisions can
+ * only make the limit stricter for the colliding keys, never looser.</p>
+ */
 public final class TokenBucketStore implements RateLimiterStore {
 
-    private final long capacity;
-    private final double refillPerNano;
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    /** Default cap on individually tracked keys. */
+    public static final int DEFAULT_MAX_KEYS = 100_000;
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int OVERFLOW_SKETCH_WIDTH = 1024;
+    private static final int[] ROW_SEEDS = {0x9E3779B9, 0x7F4A7C15, 0x3C6EF372, 0xDAA66D2B};
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets;
+    private final Sketch sketch;
+    private final AtomicBoolean sweeping = new AtomicBoolean();
 
     public TokenBucketStore(long capacity, double refillPerSecond) {
+        this(capacity, refillPerSecond, DEFAULT_MAX_KEYS);
+    }
+
+    /** Same, tracking at most {@code maxKeys} keys individually. */
+    public TokenBucketStore(long capacity, double refillPerSecond, int maxKeys) {
+        this(capacity, refillPerSecond, maxKeys, OVERFLOW_SKETCH_WIDTH, System::nanoTime);
+    }
+
+    TokenBucketStore(long capacity, double refillPerSecond, int maxKeys, int sketchWidth, LongSupplier clock) {
         if (capacity <= 0 || refillPerSecond <= 0) {
             throw new IllegalArgumentException("capacity and refillPerSecond must be positive");
         }
-        this.capacity = capacity;
-        this.refillPerNano = refillPerSecond / 1_000_000_000.0;
+        if (maxKeys < 0) {
+            throw new IllegalArgumentException("maxKeys must not be negative");
+        }
+        // clamp so that arrival-time arithmetic can never overflow
+        double interval = Math.min(1_000_000_000.0 / refillPerSecond, Long.MAX_VALUE / 8.0);
+        this.intervalNanos = Math.max(1L, (long) interval);
+        this.toleranceNanos = (long) Math.min((double) intervalNanos * capacity, Long.MAX_VALUE / 4.0);
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+        this.buckets = maxKeys == 0 ? null : new ConcurrentHashMap<>();
+        this.sketch = new Sketch(sketchWidth, clock.getAsLong());
+    }
+
+    /**
+     * A constant-memory, approximate store: {@code width} columns (rounded up to a
+     * power of two) by 4 rows of shared buckets. Size {@code width} a few times
+     * larger than the number of keys expected to be active at once.
+     */
+    public static TokenBucketStore approximate(long capacity, double refillPerSecond, int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("width must be >= 1");
+        }
+        return new TokenBucketStore(capacity, refillPerSecond, 0, width, System::nanoTime);
     }
 
     @Override
     public boolean tryAcquire(String key) {
-        return buckets.computeIfAbsent(key, k -> new Bucket(capacity)).tryAcquire();
+        long now = clock.getAsLong();
+        if (buckets == null) {
+            return sketch.tryAcquire(key, now);
+        }
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                sweepInBackground();
+                return sketch.tryAcquire(key, now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        return admit(bucket, now);
     }
 
-    private final class Bucket {
-        private double tokens;
-        private long lastRefillNanos;
+    private boolean admit(AtomicLong bucket, long now) {
+        while (true) {
+            long tat = bucket.get();
+            long next = (tat - now > 0 ? tat : now) + intervalNanos;
+            if (next - now > toleranceNanos) {
+                return false;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return true;
+            }
+        }
+    }
 
-        Bucket(long capacity) {
-            this.tokens = capacity;
-            this.lastRefillNanos = System.nanoTime();
+    /**
+     * Drops every bucket that has refilled completely (such a bucket behaves
+     * exactly like a missing one). Returns how many were removed. Called
+     * automatically at the key cap; schedule it periodically to keep the map small.
+     */
+    public int evictIdle() {
+        if (buckets == null) {
+            return 0;
         }
+        long now = clock.getAsLong();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        return Math.max(0, before - buckets.size());
+    }
 
-        synchronized boolean tryAcquire() {
-            long now = System.nanoTime();
-            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
-            lastRefillNanos = now;
-            if (tokens >= 1) {
-                tokens -= 1;
-                return true;
+    private void sweepInBackground() {
+        if (sweeping.compareAndSet(false, true)) {
+            Thread.startVirtualThread(() -> {
+                try {
+                    evictIdle();
+                } finally {
+                    sweeping.set(false);
+                }
+            });
+        }
+    }
+
+    /** Number of individually tracked keys. */
+    public int trackedKeys() {
+        return buckets == null ? 0 : buckets.size();
+    }
+
+    /** Count-min-style grid of arrival times: a key maps to one cell per row. */
+    private final class Sketch {
+        private final AtomicLongArray cells;
+        private final int mask;
+
+        Sketch(int width, long now) {
+            int columns = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+            this.mask = columns - 1;
+            this.cells = new AtomicLongArray(columns * SKETCH_DEPTH);
+            for (int i = 0; i < cells.length(); i++) {
+                cells.set(i, now);
+            }
+        }
+
+        /** murmur3's finalizer over the key hash, salted per row so rows collide independently. */
+        private int cell(int hash, int row) {
+            int h = hash ^ ROW_SEEDS[row];
+            h ^= h >>> 16;
+            h *= 0x85EBCA6B;
+            h ^= h >>> 13;
+            h *= 0xC2B2AE35;
+            h ^= h >>> 16;
+            return row * (mask + 1) + (h & mask);
+        }
+
+        /**
+         * The key's arrival time is estimated as the earliest of its cells (each
+         * cell has been advanced by this key and perhaps by colliding ones, so the
+         * minimum is the tightest over-estimate). On admit, cells behind the new
+         * arrival time are raised to it (count-min's "conservative update").
+         */
+        boolean tryAcquire(String key, long now) {
+            int hash = key.hashCode();
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < SKETCH_DEPTH; row++) {
+                long tat = cells.get(cell(hash, row));
+                long effective = tat - now > 0 ? tat - now : 0L;
+                estimate = Math.min(estimate, effective);
+            }
+            long next = estimate + intervalNanos; // relative to now
+            if (next > toleranceNanos) {
+                return false;
+            }
+            for (int row = 0; row < SKETCH_DEPTH; row++) {
+                int index = cell(hash, row);
+                long tat;
+                do {
+                    tat = cells.get(index);
+                } while (tat - now < next && !cells.compareAndSet(index, tat, now + next));
             }
-            return false;
+            return true;
         }
     }
 }
@@ -3,24 +3,70 @@ package com.ligero.middleware;
 import com.ligero.http.Context;
 import com.ligero.spi.Tracer;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
- * Opens one span per request through the {@link Tracer} SPI: joins the
+ * Opens one span per sampled request through the {@link Tracer} SPI: joins the
  * incoming W3C {@code traceparent} when present, names the span with the
  * matched route pattern (bounded cardinality) and records status/errors.
  * The trace id is exposed as the {@code traceId} attribute for logs.
  *
  * <pre>{@code
  * app.use(TracingMiddleware.fromServiceLoader()); // e.g. ligero-otel on the classpath
+ *
+ * app.use(TracingMiddleware.builder(tracer)
+ *     .sampleRatio(0.05)
+ *     .maxPerSecondPerRoute(10)
+ *     .sampleSlowerThan(Duration.ofMillis(500))
+ *     .build());
  * }</pre>
+ *
+ * <p><b>Sampling.</b> The head decision — parent's sampled flag, then
+ * {@link Builder#sampleRatio ratio}, then the
+ * {@link Builder#maxPerSecondPerRoute per-route rate limit} — is taken once
+ * the router has matched the request, so the route is known; an unsampled
+ * request creates no span and costs a random draw. When the head says no, the
+ * tail rules ({@link Builder#sampleErrors errors},
+ * {@link Builder#sampleSlowerThan slow requests}) can still keep it: its span
+ * is created after the fact with the request's real start time, but without
+ * child spans. Defaults trace every request, as before.</p>
+ *
+ * <p>While a sampled request runs, {@link #currentSpan()} returns its span so
+ * JDBC, Redis and template code can open child spans.</p>
  */
 public final class TracingMiddleware implements Middleware {
 
     public static final String TRACE_ID_ATTRIBUTE = "traceId";
 
+    private static final ThreadLocal<Tracer.Span> CURRENT = new ThreadLocal<>();
+
     private final Tracer tracer;
+    private final double sampleRatio;
+    private final RateLimiterStore routeLimiter;
+    private final boolean parentBased;
+    private final boolean sampleErrors;
+    private final long slowNanos;
+    private final boolean neverSampled;
 
     public TracingMiddleware(Tracer tracer) {
-        this.tracer = tracer;
+        this(builder(tracer));
+    }
+
+    private TracingMiddleware(Builder builder) {
+        this.tracer = builder.tracer;
+        this.sampleRatio = builder.sampleRatio;
+        this.routeLimiter = builder.maxPerSecondPerRoute == 0 ? null
+            : new TokenBucketStore(builder.maxPerSecondPerRoute, builder.maxPerSecondPerRoute, 10_000);
+        this.parentBased = builder.parentBased;
+        this.sampleErrors = builder.sampleErrors;
+        this.slowNanos = builder.slowerThan == null ? Long.MAX_VALUE : builder.slowerThan.toNanos();
+        this.neverSampled = sampleRatio == 0 && !parentBased && !sampleErrors && slowNanos == Long.MAX_VALUE;
+    }
+
+    public static Builder builder(Tracer tracer) {
+        return new Builder(tracer);
     }
 
     /** Resolves the tracer via ServiceLoader; fails fast if no adapter is present. */
@@ -30,26 +76,207 @@ public final class TracingMiddleware implements Middleware {
                 "No Tracer found. Add ligero-otel (or another Tracer implementation) to the classpath.")));
     }
 
+    /**
+     * The span of the sampled request running on this thread, or
+     * {@link Tracer.Span#NOOP} — never {@code null}, so callers can always
+     * {@code currentSpan().startChild(...)}.
+     */
+    public static Tracer.Span currentSpan() {
+        Tracer.Span span = CURRENT.get();
+        return span == null ? Tracer.Span.NOOP : span;
+    }
+
     @Override
     public void handle(Context ctx, Chain chain) throws Exception {
-        try (Tracer.Span span = tracer.startSpan(
-                ctx.method() + " " + ctx.path(), ctx.header("traceparent"))) {
-            span.setAttribute("http.request.method", ctx.method());
-            span.setAttribute("url.path", ctx.path());
-            if (span.traceId() != null) {
-                ctx.attribute(TRACE_ID_ATTRIBUTE, span.traceId());
+        if (neverSampled) {
+            chain.proceed();
+            return;
+        }
+        Trace trace = new Trace(ctx);
+        String route = ctx.attribute(MetricsMiddleware.ROUTE_ATTRIBUTE);
+        if (route != null) {
+            trace.decide(route);
+        } else {
+            ctx.onRouteMatched(trace::decide);
+        }
+        Throwable failure = null;
+        try {
+            chain.proceed();
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            trace.finish(failure);
+        }
+    }
+
+    private boolean headSampled(String traceparent, String name) {
+        if (parentBased) {
+            int flags = traceFlags(traceparent);
+            if (flags >= 0) {
+                return (flags & 1) != 0;
+            }
+        }
+        if (sampleRatio < 1.0 && (sampleRatio == 0 || ThreadLocalRandom.current().nextDouble() >= sampleRatio)) {
+            return false;
+        }
+        return routeLimiter == null || routeLimiter.tryAcquire(name);
+    }
+
+    /** The flags byte of a W3C traceparent, or -1 when absent or malformed. */
+    static int traceFlags(String traceparent) {
+        if (traceparent == null || traceparent.length() != 55 || traceparent.charAt(52) != '-') {
+            return -1;
+        }
+        int high = Character.digit(traceparent.charAt(53), 16);
+        int low = Character.digit(traceparent.charAt(54), 16);
+        return high < 0 || low < 0 ? -1 : high << 4 | low;
+    }
+
+    private static long epochNanos() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    /** Sampling state of one request. */
+    private final class Trace {
+        private final Context ctx;
+        private final long startNanos = System.nanoTime();
+        private boolean decided;
+        private String route;
+        private Tracer.Span span;
+        private Tracer.Span previous;
+
+        Trace(Context ctx) {
+            this.ctx = ctx;
+        }
+
+        void decide(String matchedRoute) {
+            if (decided) {
+                return;
+            }
+            decided = true;
+            route = matchedRoute;
+            String name = name();
+            if (headSampled(ctx.header("traceparent"), name)) {
+                span = open(name);
+                previous = CURRENT.get();
+                CURRENT.set(span);
+            }
+        }
+
+        void finish(Throwable failure) {
+            if (!decided) {
+                decide(null); // nothing matched a route (404) or no router in the chain
+            }
+            boolean installed = span != null;
+            int status = ctx.res().getStatus();
+            if (span == null) {
+                boolean error = failure != null || status >= 500;
+                boolean keep = (sampleErrors && error) || System.nanoTime() - startNanos >= slowNanos;
+                if (!keep) {
+                    return;
+                }
+                span = open(name());
             }
             try {
-                chain.proceed();
-                span.setAttribute("http.response.status_code", ctx.res().getStatus());
-                String route = ctx.attribute(MetricsMiddleware.ROUTE_ATTRIBUTE);
+                if (failure == null) {
+                    span.setAttribute("http.response.status_code", status);
+                } else {
+                    span.recordError(failure);
+                }
                 if (route != null) {
                     span.setAttribute("http.route", route);
                 }
-            } catch (Exception e) {
-                span.recordError(e);
-                throw e;
+            } finally {
+                span.close();
+                if (installed) {
+                    if (previous == null) {
+                        CURRENT.remove();
+                    } else {
+                        CURRENT.set(previous);
+                    }
+                }
+            }
+        }
+
+        private String name() {
+            return route == null ? ctx.method() : ctx.method() + " " + route;
+        }
+
+        private Tracer.Span open(String name) {
+            long elapsed = System.nanoTime() - startNanos;
+            Tracer.Span opened = elapsed < 1_000_000
+                ? tracer.startSpan(name, ctx.header("traceparent"))
+                : tracer.startSpan(name, ctx.header("traceparent"), epochNanos() - elapsed);
+            opened.setAttribute("http.request.method", ctx.method());
+            opened.setAttribute("url.path", ctx.path());
+            if (opened.traceId() != null) {
+                ctx.attribute(TRACE_ID_ATTRIBUTE, opened.traceId());
+            }
+            return opened;
+        }
+    }
+
+    public static final class Builder {
+        private final Tracer tracer;
+        private double sampleRatio = 1.0;
+        private int maxPerSecondPerRoute;
+        private boolean parentBased;
+        private boolean sampleErrors = true;
+        private Duration slowerThan;
+
+        private Builder(Tracer tracer) {
+            if (tracer == null) {
+                throw new IllegalArgumentException("tracer must not be null");
             }
+            this.tracer = tracer;
+        }
+
+        /** Fraction of requests traced by the head decision, 0..1 (default 1: all). */
+        public Builder sampleRatio(double ratio) {
+            if (!(ratio >= 0 && ratio <= 1)) {
+                throw new IllegalArgumentException("sampleRatio must be between 0 and 1");
+            }
+            this.sampleRatio = ratio;
+            return this;
+        }
+
+        /** Caps head-sampled spans per route pattern (and method) per second; default unlimited. */
+        public Builder maxPerSecondPerRoute(int max) {
+            if (max <= 0) {
+                throw new IllegalArgumentException("maxPerSecondPerRoute must be positive");
+            }
+            this.maxPerSecondPerRoute = max;
+            return this;
+        }
+
+        /**
+         * Follows the sampled flag of an incoming {@code traceparent} instead
+         * of the ratio and limit, so a trace is kept or dropped as a whole.
+         */
+        public Builder parentBased(boolean parentBased) {
+            this.parentBased = parentBased;
+            return this;
+        }
+
+        /** Always keeps requests that threw or answered 5xx (default on). */
+        public Builder sampleErrors(boolean sampleErrors) {
+            this.sampleErrors = sampleErrors;
+            return this;
+        }
+
+        /** Always keeps requests that took at least {@code threshold}. */
+        public Builder sampleSlowerThan(Duration threshold) {
+            if (threshold == null || threshold.isNegative()) {
+                throw new IllegalArgumentException("threshold must not be negative");
+            }
+            this.slowerThan = threshold;
+            return this;
+        }
+
+        public TracingMiddleware build() {
+            return new TracingMiddleware(this);
         }
     }
 }
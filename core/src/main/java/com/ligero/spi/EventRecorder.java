@@ -0,0 +1,45 @@
+package com.ligero.spi;
+
+/**
+ * SPI for low-overhead diagnostic events, so the core can describe what it is
+ * doing to a profiler without depending on one: {@code ligero-jfr} turns
+ * these into JDK Flight Recorder events ({@code ligero.HttpRequest},
+ * {@code ligero.Middleware}, {@code ligero.TemplateRender}).
+ *
+ * <p>Discovered via {@link java.util.ServiceLoader} when the
+ * {@code ligero.jfr} setting is on, or injected explicitly with
+ * {@code app.eventRecorder(...)}. Callers check {@link #isEnabled(Type)}
+ * before building an event, so a type nobody is recording costs one call.</p>
+ */
+public interface EventRecorder {
+
+    /** The kinds of event the core emits. */
+    enum Type {
+        /** One served request: {@code method}, {@code path}, {@code route}, {@code status}, {@code bytesIn}, {@code bytesOut}. */
+        HTTP_REQUEST,
+        /** One middleware's run, including the rest of the chain: {@code middleware}, {@code path}. */
+        MIDDLEWARE,
+        /** One {@code Context.render} call: {@code template}, {@code chars}. */
+        TEMPLATE_RENDER
+    }
+
+    /** Whether events of {@code type} are currently being recorded. */
+    boolean isEnabled(Type type);
+
+    /**
+     * Starts timing an event of {@code type}; set its fields and
+     * {@linkplain Event#commit() commit} it when the work is done.
+     */
+    Event begin(Type type);
+
+    /** One timed event; unknown field names are ignored. */
+    interface Event {
+
+        Event set(String field, String value);
+
+        Event set(String field, long value);
+
+        /** Ends the event and hands it to the recorder. */
+        void commit();
+    }
+}
@@ -1,5 +1,7 @@
 package com.ligero.spi;
 
+import java.util.function.IntSupplier;
+
 /**
  * SPI for metrics backends. The framework reports one observation per
  * request through {@code MetricsMiddleware}; adapters (e.g.
@@ -17,4 +19,54 @@ public interface MetricsCollector {
      * @param durationNanos wall time spent serving the request
      */
     void record(String method, String route, int status, long durationNanos);
+
+    /**
+     * Records one served request together with the id of the trace it belongs
+     * to, for backends that keep exemplars. The default drops the trace id.
+     *
+     * @param traceId trace id set by {@code TracingMiddleware}, or null
+     */
+    default void record(String method, String route, int status, long durationNanos, String traceId) {
+        record(method, route, status, durationNanos);
+    }
+
+    /**
+     * Records the time one sampled request spent in a phase ({@code parse},
+     * {@code handler}, {@code body-write}, ...; see
+     * {@code RequestTimings.Phase#metricName()}). Ignored by default.
+     */
+    default void recordPhase(String method, String route, String phase, long nanos) {
+    }
+
+    /**
+     * Records one connection checkout from a database pool: how long the
+     * caller waited for it, and the pool's active, idle and pending (waiting
+     * callers) connections right after (see {@code DataSources.metrics} in
+     * {@code ligero-jdbc}). Ignored by default.
+     */
+    default void recordPool(String pool, long waitNanos, int active, int idle, int pending) {
+    }
+
+    /**
+     * Registers a database pool's live active, idle and pending connection
+     * counts, so backends can read them whenever they publish instead of
+     * keeping the counts of the last {@link #recordPool checkout}, which stop
+     * moving once traffic does. Ignored by default.
+     */
+    default void registerPool(String pool, IntSupplier active, IntSupplier idle, IntSupplier pending) {
+    }
+
+    /**
+     * Records one SQL statement run through {@code ligero-jdbc}.
+     *
+     * @param statement short id of the normalized SQL, stable across runs
+     * @param sql       the normalized SQL (literals and {@code IN} list
+     *                  lengths replaced by {@code ?})
+     * @param operation {@code query}, {@code stream}, {@code update},
+     *                  {@code insert}, {@code batch} or {@code batch insert}
+     * @param nanos     wall time of the statement (of the whole read, for a stream)
+     * @param rows      rows read or affected, {@code -1} when it failed
+     */
+    default void recordQuery(String statement, String sql, String operation, long nanos, long rows) {
+    }
 }
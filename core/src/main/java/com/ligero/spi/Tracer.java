@@ -7,7 +7,9 @@ package com.ligero.spi;
  * interface or be fed through an OTLP exporter).
  *
  * <p>Discovered via {@link java.util.ServiceLoader} or injected explicitly
- * into {@code TracingMiddleware}.</p>
+ * into {@code TracingMiddleware}, which decides which requests get a span
+ * (sampling) and exposes the current one to JDBC, Redis and template code
+ * through {@code TracingMiddleware.currentSpan()}.</p>
  */
 public interface Tracer {
 
@@ -20,9 +22,54 @@ public interface Tracer {
      */
     Span startSpan(String name, String traceparent);
 
+    /**
+     * Starts a server span that began at {@code startEpochNanos} (nanoseconds
+     * since the epoch), for requests whose sampling was decided after they
+     * started. The default ignores the timestamp.
+     */
+    default Span startSpan(String name, String traceparent, long startEpochNanos) {
+        return startSpan(name, traceparent);
+    }
+
     /** One in-flight span. */
     interface Span extends AutoCloseable {
 
+        /** A span that records nothing; its children are no-ops too. */
+        Span NOOP = new Span() {
+            @Override
+            public Span setAttribute(String key, String value) {
+                return this;
+            }
+
+            @Override
+            public Span setAttribute(String key, long value) {
+                return this;
+            }
+
+            @Override
+            public Span recordError(Throwable error) {
+                return this;
+            }
+
+            @Override
+            public String traceId() {
+                return null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        /**
+         * Starts a child of this span for work done on the request's behalf
+         * (a JDBC statement, a Redis command, a template render). The default
+         * returns {@link #NOOP}.
+         */
+        default Span startChild(String name) {
+            return NOOP;
+        }
+
         Span setAttribute(String key, String value);
 
         Span setAttribute(String key, long value);
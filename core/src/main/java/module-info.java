@@ -5,6 +5,7 @@
  */
 module com.ligero.core {
     requires transitive org.slf4j;
+    requires java.management;
 
     exports com.ligero;
     exports com.ligero.beans;
@@ -25,4 +26,5 @@ module com.ligero.core {
     uses com.ligero.spi.TemplateEngine;
     uses com.ligero.spi.MetricsCollector;
     uses com.ligero.spi.Tracer;
+    uses com.ligero.spi.EventRecorder;
 }
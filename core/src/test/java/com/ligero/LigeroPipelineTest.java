@@ -4,8 +4,11 @@ import com.ligero.config.LigeroConfig;
 import com.ligero.http.Handler;
 import com.ligero.http.HttpException;
 import com.ligero.http.HttpHandler;
+import com.ligero.middleware.InMemoryMetricsCollector;
+import com.ligero.middleware.MetricsMiddleware;
 import com.ligero.middleware.Middleware;
 import com.ligero.spi.EngineConfig;
+import com.ligero.spi.EventRecorder;
 import com.ligero.spi.ServerEngine;
 import com.ligero.testutil.FakeRequest;
 import com.ligero.testutil.FakeResponse;
@@ -263,4 +266,90 @@ class LigeroPipelineTest {
         assertThat(exchange("GET", "/api/users?x=1").body()).isEqualTo("users");
         app.stop();
     }
+
+    @Test
+    void sampledRequestsGetPhaseTimingsAndServerTimingHeader() throws Exception {
+        InMemoryMetricsCollector metrics = new InMemoryMetricsCollector();
+        appWith(app -> app.requestTimings(1.0, true)
+            .use(new MetricsMiddleware(metrics))
+            .get("/users/{id}", ctx -> ctx.text("user")));
+
+        FakeResponse response = exchange("GET", "/users/7");
+
+        assertThat(response.headerValue("Server-Timing"))
+            .contains("parse;dur=", "route;dur=", "total;dur=")
+            .matches("([a-z-]+;dur=\\d+\\.\\d{3})(, [a-z-]+;dur=\\d+\\.\\d{3})*");
+        assertThat(metrics.snapshot().get("GET /users/{id}").phases())
+            .containsKeys("parse", "route", "handler", "write")
+            .allSatisfy((phase, latency) -> assertThat(latency.count()).isEqualTo(1));
+    }
+
+    @Test
+    void requestTimingsAreOffByDefaultAndRateIsValidated() throws Exception {
+        appWith(app -> app.get("/x", ctx -> ctx.text("ok")));
+
+        assertThat(exchange("GET", "/x").headerValue("Server-Timing")).isNull();
+        assertThatThrownBy(() -> Ligero.create(LigeroConfig.builder().environment(Map.of()).build())
+            .requestTimings(1.5, false))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** Records committed events as field maps. */
+    static final class ListRecorder implements EventRecorder {
+        final List<Map<String, Object>> events = new ArrayList<>();
+        boolean enabled = true;
+
+        @Override
+        public boolean isEnabled(Type type) {
+            return enabled;
+        }
+
+        @Override
+        public Event begin(Type type) {
+            Map<String, Object> fields = new java.util.HashMap<>();
+            fields.put("type", type);
+            return new Event() {
+                @Override
+                public Event set(String field, String value) {
+                    fields.put(field, value);
+                    return this;
+                }
+
+                @Override
+                public Event set(String field, long value) {
+                    fields.put(field, value);
+                    return this;
+                }
+
+                @Override
+                public void commit() {
+                    events.add(fields);
+                }
+            };
+        }
+    }
+
+    @Test
+    void emitsRequestAndMiddlewareEventsToTheRecorder() throws Exception {
+        ListRecorder recorder = new ListRecorder();
+        appWith(app -> app.eventRecorder(recorder)
+            .use((ctx, chain) -> chain.proceed())
+            .post("/echo/{id}", ctx -> ctx.text("héllo")));
+
+        exchange("POST", "/echo/1");
+        recorder.enabled = false;
+        exchange("POST", "/echo/2");
+
+        assertThat(recorder.events).filteredOn(e -> e.get("type") == EventRecorder.Type.MIDDLEWARE)
+            .hasSize(3)   // the two secure-default middlewares and ours
+            .allSatisfy(e -> assertThat(e).containsEntry("path", "/echo/1"));
+        assertThat(recorder.events).filteredOn(e -> e.get("type") == EventRecorder.Type.HTTP_REQUEST)
+            .singleElement()
+            .satisfies(e -> assertThat(e)
+                .containsEntry("method", "POST")
+                .containsEntry("route", "/echo/{id}")
+                .containsEntry("status", 200L)
+                .containsEntry("bytesIn", -1L)
+                .containsEntry("bytesOut", 6L));
+    }
 }
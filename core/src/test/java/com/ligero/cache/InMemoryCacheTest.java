@@ -3,9 +3,17 @@ package com.ligero.cache;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class InMemoryCacheTest {
 
@@ -56,4 +64,156 @@ class InMemoryCacheTest {
         assertThat(reloaded).isEqualTo("v2");
         assertThat(loads.get()).isEqualTo(2);
     }
+
+    @Test
+    void nullLoadsAreNotCachedByDefault() {
+        AtomicInteger loads = new AtomicInteger();
+        assertThat(cache.get("missing", k -> { loads.incrementAndGet(); return null; })).isNull();
+        assertThat(cache.get("missing", k -> { loads.incrementAndGet(); return null; })).isNull();
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void negativeCachingRemembersAbsentResults() throws InterruptedException {
+        InMemoryCache<String, String> negative =
+            new InMemoryCache<>(CachePolicy.defaults().cacheAbsent(Duration.ofMillis(30)));
+        AtomicInteger loads = new AtomicInteger();
+        negative.get("missing", k -> { loads.incrementAndGet(); return null; });
+        assertThat(negative.get("missing", k -> { loads.incrementAndGet(); return null; })).isNull();
+        assertThat(negative.get("missing")).isEmpty();
+        assertThat(loads.get()).isEqualTo(1);
+
+        Thread.sleep(60); // the absent marker expires with its own TTL
+        negative.get("missing", k -> { loads.incrementAndGet(); return null; });
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void refreshAfterWriteServesStaleWhileReloadingInBackground() throws InterruptedException {
+        InMemoryCache<String, String> refreshing =
+            new InMemoryCache<>(CachePolicy.defaults().refreshAfterWrite(Duration.ofMillis(20)));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch reloadStarted = new CountDownLatch(1);
+        CountDownLatch releaseReload = new CountDownLatch(1);
+        refreshing.get("k", Duration.ofMinutes(1), k -> "v" + loads.incrementAndGet());
+        Thread.sleep(40);
+
+        for (int i = 0; i < 5; i++) { // every caller gets the stale value; one reload runs
+            String value = refreshing.get("k", Duration.ofMinutes(1), k -> {
+                reloadStarted.countDown();
+                await(releaseReload);
+                return "v" + loads.incrementAndGet();
+            });
+            assertThat(value).isEqualTo("v1");
+        }
+        assertThat(reloadStarted.await(1, TimeUnit.SECONDS)).isTrue();
+        releaseReload.countDown();
+
+        eventually(() -> refreshing.get("k").orElse("").equals("v2"));
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void failedBackgroundRefreshKeepsTheStaleValue() throws InterruptedException {
+        InMemoryCache<String, String> refreshing =
+            new InMemoryCache<>(CachePolicy.defaults().refreshAfterWrite(Duration.ofMillis(10)));
+        refreshing.put("k", "stale");
+        Thread.sleep(20);
+        CountDownLatch attempted = new CountDownLatch(1);
+        assertThat(refreshing.get("k", k -> {
+            attempted.countDown();
+            throw new IllegalStateException("db down");
+        })).isEqualTo("stale");
+        assertThat(attempted.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(refreshing.get("k")).contains("stale");
+    }
+
+    @Test
+    void getAsyncCompletesFromCacheOrSharesOneLoad() throws Exception {
+        cache.put("hit", "cached");
+        assertThat(cache.getAsync("hit", k -> "loaded").getNow(null)).isEqualTo("cached");
+
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = cache.getAsync("miss", k -> {
+            await(release);
+            return "loaded-" + loads.incrementAndGet();
+        });
+        CompletableFuture<String> second = cache.getAsync("miss", k -> "loaded-" + loads.incrementAndGet());
+        release.countDown();
+
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("loaded-1");
+        assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("loaded-1");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.get("miss")).contains("loaded-1");
+    }
+
+    @Test
+    void getAsyncPropagatesLoaderFailures() {
+        CompletableFuture<String> failed = cache.getAsync("k", k -> {
+            throw new IllegalStateException("boom");
+        });
+        assertThatThrownBy(() -> failed.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void getAllLoadsEveryMissInOneBulkCall() {
+        cache.put("a", "cached-a");
+        AtomicInteger calls = new AtomicInteger();
+        Map<String, String> result = cache.getAll(List.of("a", "b", "c", "d"), Duration.ofMinutes(1), missing -> {
+            calls.incrementAndGet();
+            assertThat(missing).containsExactly("b", "c", "d");
+            Map<String, String> rows = new HashMap<>();
+            rows.put("b", "loaded-b");
+            rows.put("c", "loaded-c"); // d does not exist
+            return rows;
+        });
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(result).containsExactly(
+            Map.entry("a", "cached-a"), Map.entry("b", "loaded-b"), Map.entry("c", "loaded-c"));
+        assertThat(cache.get("c")).contains("loaded-c");
+
+        cache.getAll(List.of("a", "b"), missing -> {
+            throw new AssertionError("everything is cached");
+        });
+    }
+
+    @Test
+    void getAllHonoursNegativeCaching() {
+        InMemoryCache<String, String> negative =
+            new InMemoryCache<>(CachePolicy.defaults().cacheAbsent(Duration.ofMinutes(1)));
+        negative.getAll(List.of("x"), missing -> Map.of());
+        Map<String, String> again = negative.getAll(List.of("x"), missing -> {
+            throw new AssertionError("absent result was cached");
+        });
+        assertThat(again).isEmpty();
+    }
+
+    @Test
+    void policyRejectsNonPositiveDurations() {
+        assertThatThrownBy(() -> CachePolicy.defaults().refreshAfterWrite(Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CachePolicy.defaults().cacheAbsent(Duration.ofSeconds(-1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(CachePolicy.defaults().refreshes()).isFalse();
+        assertThat(CachePolicy.defaults().cachesAbsent()).isFalse();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void eventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
 }
@@ -0,0 +1,51 @@
+package com.ligero.http;
+
+import com.ligero.testutil.FakeRequest;
+import com.ligero.testutil.FakeResponse;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestTimingsTest {
+
+    @Test
+    void middlewareTimeIsTheSumOfSelfTimes() {
+        RequestTimings timings = new RequestTimings(FakeRequest.of("GET", "/"), 2, false);
+        timings.layer(0, 10_000);   // outer: 10µs inclusive
+        timings.layer(1, 7_000);    // inner: 7µs inclusive
+        timings.layer(2, 5_000);    // router + handler
+
+        assertThat(timings.middlewareSelfNanos(0)).isEqualTo(3_000);
+        assertThat(timings.middlewareSelfNanos(1)).isEqualTo(2_000);
+        assertThat(timings.nanos(RequestTimings.Phase.MIDDLEWARE)).isEqualTo(5_000);
+    }
+
+    @Test
+    void serverTimingHeaderIsSentBeforeCommitInMilliseconds() throws Exception {
+        RequestTimings timings = new RequestTimings(FakeRequest.of("GET", "/"), 0, true);
+        timings.add(RequestTimings.Phase.HANDLER, 1_234_567);
+        FakeResponse response = new FakeResponse();
+
+        try (OutputStream out = timings.wrap(response).getOutputStream()) {
+            out.write(new byte[] {1, 2, 3});
+        }
+
+        assertThat(response.headerValue("Server-Timing")).startsWith("handler;dur=1.234, total;dur=");
+        assertThat(timings.nanos(RequestTimings.Phase.WRITE)).isPositive();
+    }
+
+    @Test
+    void completionListenersRunOnComplete() {
+        RequestTimings timings = new RequestTimings(FakeRequest.of("GET", "/"), 0, false);
+        int[] calls = new int[1];
+        timings.onComplete(() -> calls[0]++);
+
+        timings.complete();
+
+        assertThat(calls[0]).isEqualTo(1);
+        assertThat(new FakeResponse().headerValue("Server-Timing")).isNull();
+    }
+}
@@ -0,0 +1,150 @@
+package com.ligero.middleware;
+
+import com.ligero.http.Context;
+import com.ligero.testutil.FakeRequest;
+import com.ligero.testutil.FakeResponse;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AccessLogWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesEscapedJsonLinesToAFile() throws Exception {
+        Path file = dir.resolve("access.log");
+        AccessLogWriter writer = AccessLogWriter.builder().file(file).json(true).build();
+
+        writer.record("GET", "/a\"b\n", 200, 42, "req-1");
+        writer.record("POST", "/c", 500, 7, null);
+        writer.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).startsWith("{\"time\":\"")
+            .endsWith("\"method\":\"GET\",\"path\":\"/a\\\"b\\n\",\"status\":200,\"durationMicros\":42,"
+                + "\"requestId\":\"req-1\"}");
+        assertThat(lines.get(1)).endsWith("\"path\":\"/c\",\"status\":500,\"durationMicros\":7}");
+        assertThat(writer.record("GET", "/late", 200, 1, null)).isFalse();
+    }
+
+    @Test
+    void dropsAndReportsEntriesWhenTheBufferIsFull() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WritableByteChannel sink = Channels.newChannel(out);
+        WritableByteChannel slow = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws java.io.IOException {
+                writing.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return sink.write(src);
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        AccessLogWriter writer = AccessLogWriter.builder().channel(slow).capacity(2).build();
+
+        writer.record("GET", "/1", 200, 1, null);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue(); // consumer is stuck writing /1
+        assertThat(writer.record("GET", "/2", 200, 1, null)).isTrue();
+        assertThat(writer.record("GET", "/3", 200, 1, null)).isTrue();
+        assertThat(writer.record("GET", "/4", 200, 1, null)).isFalse();
+        release.countDown();
+        writer.close();
+
+        String log = out.toString(StandardCharsets.UTF_8);
+        assertThat(log).contains("GET /1 -> 200 (1 µs)", "GET /2 -> 200", "GET /3 -> 200",
+            "access log dropped 1 entries").doesNotContain("/4");
+        assertThat(writer.dropped()).isEqualTo(1);
+    }
+
+    @Test
+    void everyEntryRacingCloseIsWrittenOrCountedAsDropped() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            AccessLogWriter writer = AccessLogWriter.builder().channel(Channels.newChannel(out)).capacity(64).build();
+            LongAdder attempts = new LongAdder();
+            CountDownLatch started = new CountDownLatch(8);
+            List<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                producers.add(Thread.ofPlatform().start(() -> {
+                    started.countDown();
+                    for (int i = 0; i < 2_000; i++) {
+                        writer.record("GET", "/x", 200, 1, null);
+                        attempts.increment();
+                    }
+                }));
+            }
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            writer.close();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            long written = out.toString(StandardCharsets.UTF_8).lines().filter(l -> l.contains("GET /x")).count();
+            assertThat(written + writer.dropped()).isEqualTo(attempts.sum());
+        }
+    }
+
+    @Test
+    void middlewareSamplesByStatusClass() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AccessLogWriter writer = AccessLogWriter.builder().channel(Channels.newChannel(out)).json(true).build();
+        RequestLoggingMiddleware middleware = RequestLoggingMiddleware.builder()
+            .writer(writer)
+            .sample(2, 0)
+            .build();
+
+        for (int status : new int[] {200, 204, 404, 503}) {
+            Context ctx = new Context(FakeRequest.of("GET", "/s" + status), new FakeResponse(), "/", null, null);
+            middleware.handle(ctx, () -> ctx.res().status(status));
+        }
+        writer.close();
+
+        assertThat(out.toString(StandardCharsets.UTF_8).lines())
+            .extracting(line -> line.substring(line.indexOf("\"path\"")))
+            .allSatisfy(line -> assertThat(line).doesNotContain("/s2"))
+            .hasSize(2);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> AccessLogWriter.builder().capacity(1))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RequestLoggingMiddleware.builder().sample(6, 0.5))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RequestLoggingMiddleware.builder().sample(2, 1.5))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
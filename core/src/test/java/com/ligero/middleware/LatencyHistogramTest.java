@@ -0,0 +1,98 @@
+package com.ligero.middleware;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final LatencyHistogram histogram =
+        new LatencyHistogram(Duration.ofSeconds(60), 6, now::get);
+
+    @Test
+    void percentilesAreWithinBucketPrecisionAndNeverBelowTheTrueValue() {
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.cumulative();
+        assertThat(snapshot.count()).isEqualTo(10_000);
+        assertThat(snapshot.maxNanos()).isEqualTo(10_000_000);
+        assertThat(snapshot.meanNanos()).isEqualTo(5_000_500);
+        assertThat(snapshot.p50Nanos()).isBetween(5_000_000L, 5_000_000L * 107 / 100);
+        assertThat(snapshot.p90Nanos()).isBetween(9_000_000L, 9_000_000L * 107 / 100);
+        assertThat(snapshot.p99Nanos()).isBetween(9_900_000L, 10_000_000L);
+        assertThat(snapshot.p999Nanos()).isBetween(9_990_000L, 10_000_000L);
+    }
+
+    @Test
+    void bucketsAreContiguousAndBoundTheirValues() {
+        for (int i = 1; i < LatencyHistogram.BUCKETS - 1; i++) {
+            assertThat(LatencyHistogram.upperBound(i)).isEqualTo(LatencyHistogram.upperBound(i - 1) + bucketWidth(i));
+            assertThat(LatencyHistogram.indexOf(LatencyHistogram.upperBound(i))).isEqualTo(i);
+            assertThat(LatencyHistogram.indexOf(LatencyHistogram.upperBound(i) + 1)).isEqualTo(i + 1);
+        }
+        assertThat(LatencyHistogram.indexOf(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+    }
+
+    private static long bucketWidth(int index) {
+        return index < 32 ? 1 : 1L << (index / 16 - 1);
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        histogram.record(7);
+        histogram.record(-3);
+
+        LatencyHistogram.Snapshot snapshot = histogram.cumulative();
+        assertThat(snapshot.p50Nanos()).isZero();
+        assertThat(snapshot.p99Nanos()).isEqualTo(7);
+    }
+
+    @Test
+    void windowForgetsIntervalsThatRotateOut() {
+        histogram.record(1_000_000_000); // a 1s outlier
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        histogram.record(1_000_000);
+
+        assertThat(histogram.snapshot().count()).isEqualTo(2);
+        assertThat(histogram.snapshot().maxNanos()).isEqualTo(1_000_000_000);
+
+        now.addAndGet(Duration.ofSeconds(40).toNanos());
+        histogram.record(2_000_000);
+
+        LatencyHistogram.Snapshot recent = histogram.snapshot();
+        assertThat(recent.count()).isEqualTo(2);
+        assertThat(recent.maxNanos()).isEqualTo(2_000_000);
+        assertThat(histogram.cumulative().count()).isEqualTo(3);
+        assertThat(histogram.cumulative().maxNanos()).isEqualTo(1_000_000_000);
+
+        now.addAndGet(Duration.ofMinutes(5).toNanos());
+        assertThat(histogram.snapshot()).isEqualTo(LatencyHistogram.Snapshot.EMPTY);
+    }
+
+    @Test
+    void recyclesSlotsWithoutLeakingOldCounts() {
+        for (int round = 0; round < 20; round++) {
+            histogram.record(5_000);
+            now.addAndGet(Duration.ofSeconds(10).toNanos());
+        }
+
+        assertThat(histogram.snapshot().count()).isEqualTo(6);
+        assertThat(histogram.snapshot().meanNanos()).isCloseTo(5_000L, within(0L));
+    }
+
+    @Test
+    void rejectsInvalidWindows() {
+        assertThatThrownBy(() -> new LatencyHistogram(Duration.ZERO, 6))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new LatencyHistogram(Duration.ofMinutes(1), 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
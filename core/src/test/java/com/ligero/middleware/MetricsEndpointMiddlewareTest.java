@@ -0,0 +1,165 @@
+package com.ligero.middleware;
+
+import com.ligero.cache.CacheStats;
+import com.ligero.http.Context;
+import com.ligero.http.TooManyRequestsException;
+import com.ligero.testutil.FakeRequest;
+import com.ligero.testutil.FakeResponse;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetricsEndpointMiddlewareTest {
+
+    private final InMemoryMetricsCollector collector = new InMemoryMetricsCollector();
+
+    private static FakeResponse scrape(MetricsEndpointMiddleware endpoint, String accept) throws Exception {
+        FakeRequest request = FakeRequest.of("GET", "/metrics");
+        if (accept != null) {
+            request.header("Accept", accept);
+        }
+        FakeResponse response = new FakeResponse();
+        endpoint.handle(new Context(request, response, "/", null, null), () -> {
+            throw new AssertionError("the scrape must not reach the app");
+        });
+        return response;
+    }
+
+    @Test
+    void rendersRouteCountersAndCumulativeHistogramsInPrometheusFormat() throws Exception {
+        collector.record("GET", "/users/{id}", 200, 3_000_000);
+        collector.record("GET", "/users/{id}", 200, 40_000_000);
+        collector.record("GET", "/users/{id}", 404, 2_000_000_000L);
+        MetricsEndpointMiddleware endpoint = MetricsEndpointMiddleware.builder(collector)
+            .buckets(Duration.ofMillis(5), Duration.ofMillis(50), Duration.ofSeconds(1))
+            .jvm(false)
+            .build();
+
+        FakeResponse response = scrape(endpoint, null);
+
+        assertThat(response.contentTypeValue()).isEqualTo(MetricsEndpointMiddleware.PROMETHEUS_TYPE);
+        assertThat(response.body()).contains(
+            "# TYPE ligero_http_requests_total counter\n",
+            "ligero_http_requests_total{method=\"GET\",route=\"/users/{id}\",status=\"2xx\"} 2\n",
+            "ligero_http_requests_total{method=\"GET\",route=\"/users/{id}\",status=\"4xx\"} 1\n",
+            "# TYPE ligero_http_request_duration_seconds histogram\n",
+            "ligero_http_request_duration_seconds_bucket{method=\"GET\",route=\"/users/{id}\",le=\"0.005\"} 1\n",
+            "ligero_http_request_duration_seconds_bucket{method=\"GET\",route=\"/users/{id}\",le=\"0.05\"} 2\n",
+            "ligero_http_request_duration_seconds_bucket{method=\"GET\",route=\"/users/{id}\",le=\"1\"} 2\n",
+            "ligero_http_request_duration_seconds_bucket{method=\"GET\",route=\"/users/{id}\",le=\"+Inf\"} 3\n",
+            "ligero_http_request_duration_seconds_count{method=\"GET\",route=\"/users/{id}\"} 3\n",
+            "ligero_http_request_duration_seconds_sum{method=\"GET\",route=\"/users/{id}\"} 2.043\n",
+            "ligero_http_requests_in_flight 0\n");
+        assertThat(response.body()).doesNotContain("# EOF", "jvm_", "trace_id");
+    }
+
+    @Test
+    void addsExemplarsAndEofForOpenMetricsScrapers() throws Exception {
+        collector.record("GET", "/orders", 200, 30_000_000, "4bf92f3577b34da6a3ce929d0e0e4736");
+        MetricsEndpointMiddleware endpoint = MetricsEndpointMiddleware.builder(collector)
+            .buckets(Duration.ofMillis(10), Duration.ofMillis(100))
+            .jvm(false)
+            .build();
+
+        FakeResponse response = scrape(endpoint, "application/openmetrics-text; version=1.0.0,text/plain;q=0.5");
+
+        assertThat(response.contentTypeValue()).isEqualTo(MetricsEndpointMiddleware.OPENMETRICS_TYPE);
+        assertThat(response.body())
+            .contains("# TYPE ligero_http_requests counter\n")
+            .contains("ligero_http_request_duration_seconds_bucket{method=\"GET\",route=\"/orders\",le=\"0.01\"} 0\n")
+            .contains("ligero_http_request_duration_seconds_bucket{method=\"GET\",route=\"/orders\",le=\"0.1\"} 1"
+                + " # {trace_id=\"4bf92f3577b34da6a3ce929d0e0e4736\"} 0.03\n")
+            .endsWith("# EOF\n");
+    }
+
+    @Test
+    void exposesInFlightCacheAndRateLimitCountersAndJvmStats() throws Exception {
+        RateLimitMiddleware limiter = RateLimitMiddleware.of(1, 0.001);
+        MetricsEndpointMiddleware endpoint = MetricsEndpointMiddleware.builder(collector)
+            .cache("users", () -> new CacheStats(8, 2, 1))
+            .rateLimiter("api", limiter)
+            .build();
+        Context first = new Context(FakeRequest.of("GET", "/a"), new FakeResponse(), "/", null, null);
+        limiter.handle(first, () -> { });
+        assertThatThrownBy(() -> limiter.handle(first, () -> { })).isInstanceOf(TooManyRequestsException.class);
+
+        String[] duringRequest = new String[1];
+        endpoint.handle(new Context(FakeRequest.of("GET", "/slow"), new FakeResponse(), "/", null, null),
+            () -> duringRequest[0] = scrape(endpoint, null).body());
+
+        assertThat(duringRequest[0]).contains("ligero_http_requests_in_flight 1\n");
+        assertThat(scrape(endpoint, null).body()).contains(
+            "ligero_http_requests_in_flight 0\n",
+            "ligero_cache_hits_total{cache=\"users\"} 8\n",
+            "ligero_cache_misses_total{cache=\"users\"} 2\n",
+            "ligero_cache_evictions_total{cache=\"users\"} 1\n",
+            "ligero_ratelimit_rejected_total{limiter=\"api\"} 1\n",
+            "jvm_memory_used_bytes{area=\"heap\"} ",
+            "# TYPE jvm_gc_collections_total counter\n",
+            "jvm_threads_live ");
+    }
+
+    @Test
+    void rendersConnectionPoolGaugesAndWaitTime() throws Exception {
+        collector.recordPool("primary", 2_000_000, 3, 1, 0);
+        collector.recordPool("primary", 8_000_000, 4, 0, 2);
+        MetricsEndpointMiddleware endpoint = MetricsEndpointMiddleware.builder(collector).jvm(false).build();
+
+        assertThat(scrape(endpoint, null).body()).contains(
+            "# TYPE ligero_db_pool_connections gauge\n",
+            "ligero_db_pool_connections{pool=\"primary\",state=\"active\"} 4\n",
+            "ligero_db_pool_connections{pool=\"primary\",state=\"idle\"} 0\n",
+            "ligero_db_pool_connections{pool=\"primary\",state=\"pending\"} 2\n",
+            "ligero_db_pool_wait_seconds_count{pool=\"primary\"} 2\n",
+            "ligero_db_pool_wait_seconds_sum{pool=\"primary\"} 0.01\n");
+        assertThat(collector.pools()).containsOnlyKeys("primary");
+        assertThat(collector.pools().get("primary").pending()).isEqualTo(2);
+    }
+
+    @Test
+    void rendersRequestPhasesPerRoute() throws Exception {
+        collector.recordPhase("GET", "/users/{id}", "handler", 3_000_000);
+        collector.recordPhase("GET", "/users/{id}", "handler", 5_000_000);
+        collector.recordPhase("GET", "/users/{id}", "serialize", 1_000_000);
+        MetricsEndpointMiddleware endpoint = MetricsEndpointMiddleware.builder(collector).jvm(false).build();
+
+        assertThat(scrape(endpoint, null).body()).contains(
+            "# TYPE ligero_http_phase_seconds summary\n",
+            "ligero_http_phase_seconds_count{method=\"GET\",route=\"/users/{id}\",phase=\"handler\"} 2\n",
+            "ligero_http_phase_seconds_sum{method=\"GET\",route=\"/users/{id}\",phase=\"handler\"} 0.008\n",
+            "ligero_http_phase_seconds_count{method=\"GET\",route=\"/users/{id}\",phase=\"serialize\"} 1\n");
+        assertThat(collector.snapshot().get("GET /users/{id}").phases()).containsOnlyKeys("handler", "serialize");
+    }
+
+    @Test
+    void rendersPerStatementQueryHistograms() throws Exception {
+        collector.recordQuery("1a2b3c4d", "select * from users where id = ?", "query", 3_000_000, 1);
+        collector.recordQuery("1a2b3c4d", "select * from users where id = ?", "query", 5_000_000, 0);
+        collector.recordQuery("1a2b3c4d", "select * from users where id = ?", "query", 1_000_000, -1);
+        MetricsEndpointMiddleware endpoint = MetricsEndpointMiddleware.builder(collector).jvm(false).build();
+
+        assertThat(scrape(endpoint, null).body()).contains(
+            "# TYPE ligero_db_query_duration_seconds histogram\n",
+            "ligero_db_query_duration_seconds_bucket{statement=\"1a2b3c4d\",operation=\"query\",le=\"+Inf\"} 3\n",
+            "ligero_db_query_duration_seconds_sum{statement=\"1a2b3c4d\",operation=\"query\"} 0.009\n",
+            "ligero_db_query_rows_total{statement=\"1a2b3c4d\",operation=\"query\"} 1\n",
+            "ligero_db_query_errors_total{statement=\"1a2b3c4d\",operation=\"query\"} 1\n");
+        InMemoryMetricsCollector.QueryMetrics query = collector.queries().get("1a2b3c4d");
+        assertThat(query.sql()).isEqualTo("select * from users where id = ?");
+        assertThat(query.count()).isEqualTo(3);
+        assertThat(query.latency().maxNanos()).isGreaterThanOrEqualTo(5_000_000);
+    }
+
+    @Test
+    void escapesLabelValues() {
+        MetricsEndpointMiddleware.Buffer buffer = new MetricsEndpointMiddleware.Buffer();
+        buffer.labelValue("a\"b\\c\nd é").decimal(-42).seconds(1_500_000_000L).seconds(7);
+
+        assertThat(new String(buffer.bytes, 0, buffer.size, java.nio.charset.StandardCharsets.UTF_8))
+            .isEqualTo("a\\\"b\\\\c\\nd é-421.50.000000007");
+    }
+}
@@ -6,8 +6,11 @@ import com.ligero.testutil.FakeResponse;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 
 class MetricsMiddlewareTest {
 
@@ -39,4 +42,47 @@ class MetricsMiddlewareTest {
         assertThat(metrics.count()).isEqualTo(1);
         assertThat(metrics.errors()).isEqualTo(1);
     }
+
+    @Test
+    void breaksDownStatusClassesAndReportsPercentiles() {
+        InMemoryMetricsCollector collector = new InMemoryMetricsCollector();
+        for (int i = 1; i <= 100; i++) {
+            collector.record("GET", "/users/{id}", i % 10 == 0 ? 404 : 200, i * 1_000_000L);
+        }
+        collector.record("GET", "/users/{id}", 503, 500_000_000L);
+
+        var metrics = collector.snapshot().get("GET /users/{id}");
+        assertThat(metrics.count()).isEqualTo(101);
+        assertThat(metrics.errors()).isEqualTo(1);
+        assertThat(metrics.statusClasses()).containsExactly(
+            entry("2xx", 90L), entry("4xx", 10L), entry("5xx", 1L));
+        assertThat(metrics.latency().p50Nanos()).isBetween(51_000_000L, 55_000_000L);
+        assertThat(metrics.latency().maxNanos()).isEqualTo(500_000_000L);
+        assertThat(metrics.recent().count()).isEqualTo(101);
+    }
+
+    @Test
+    void foldsRoutesBeyondTheCapIntoOverflow() {
+        InMemoryMetricsCollector collector = new InMemoryMetricsCollector(Duration.ofMinutes(1), 6, 2);
+        collector.record("GET", "/a", 200, 1_000);
+        collector.record("GET", "/b", 200, 1_000);
+        collector.record("GET", "/wp-admin.php", 404, 1_000);
+        collector.record("POST", "/.env", 404, 1_000);
+
+        assertThat(collector.snapshot()).containsOnlyKeys(
+            "GET /a", "GET /b", "GET " + InMemoryMetricsCollector.OVERFLOW_ROUTE,
+            "POST " + InMemoryMetricsCollector.OVERFLOW_ROUTE);
+    }
+
+    @Test
+    void foldsNonStandardMethodsIntoOneBucket() {
+        InMemoryMetricsCollector collector = new InMemoryMetricsCollector(Duration.ofMinutes(1), 6, 2);
+        collector.record("GET", "/a", 200, 1_000);
+        for (int i = 0; i < 100; i++) {
+            collector.record("X" + i, "/a", 405, 1_000);
+        }
+
+        assertThat(collector.snapshot()).containsOnlyKeys("GET /a", "OTHER /a");
+        assertThat(collector.snapshot().get("OTHER /a").count()).isEqualTo(100);
+    }
 }
@@ -0,0 +1,121 @@
+package com.ligero.middleware;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketStoreTest {
+
+    private final AtomicLong clock = new AtomicLong(-5_000_000_000L); // nanoTime may be negative
+
+    private TokenBucketStore store(long capacity, double refillPerSecond, int maxKeys) {
+        return new TokenBucketStore(capacity, refillPerSecond, maxKeys, 64, clock::get);
+    }
+
+    @Test
+    void allowsTheBurstThenRefillsAtTheConfiguredRate() {
+        TokenBucketStore store = store(3, 10, 100); // one token per 100 ms
+        assertThat(store.tryAcquire("ip")).isTrue();
+        assertThat(store.tryAcquire("ip")).isTrue();
+        assertThat(store.tryAcquire("ip")).isTrue();
+        assertThat(store.tryAcquire("ip")).isFalse();
+
+        clock.addAndGet(99_000_000L);
+        assertThat(store.tryAcquire("ip")).isFalse();
+        clock.addAndGet(1_000_000L);
+        assertThat(store.tryAcquire("ip")).isTrue();
+
+        clock.addAndGet(10_000_000_000L); // a long pause refills only up to capacity
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.tryAcquire("ip")).isTrue();
+        }
+        assertThat(store.tryAcquire("ip")).isFalse();
+    }
+
+    @Test
+    void concurrentCallersNeverOverdrawAHotKey() throws InterruptedException {
+        TokenBucketStore store = new TokenBucketStore(1_000, 0.000001);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            threads.add(Thread.startVirtualThread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 200; i++) {
+                    if (store.tryAcquire("hot")) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(admitted.get()).isEqualTo(1_000);
+    }
+
+    @Test
+    void refilledBucketsAreEvicted() {
+        TokenBucketStore store = store(2, 10, 100);
+        store.tryAcquire("a");
+        store.tryAcquire("b");
+        store.tryAcquire("b");
+        assertThat(store.trackedKeys()).isEqualTo(2);
+
+        clock.addAndGet(100_000_000L);           // "a" is full again, "b" still owes a token
+        assertThat(store.evictIdle()).isEqualTo(1);
+        assertThat(store.trackedKeys()).isEqualTo(1);
+        assertThat(store.tryAcquire("b")).isTrue();
+        assertThat(store.tryAcquire("b")).isFalse(); // eviction lost no state
+    }
+
+    @Test
+    void keyCountIsCappedWithoutBypassingTheLimit() throws InterruptedException {
+        TokenBucketStore store = store(1, 0.000001, 10);
+        for (int i = 0; i < 1_000; i++) {
+            store.tryAcquire("10.0.0." + i);
+        }
+        assertThat(store.trackedKeys()).isLessThanOrEqualTo(10);
+
+        // an overflow key already spent its token in the shared sketch
+        assertThat(store.tryAcquire("10.0.0.999")).isFalse();
+        Thread.sleep(50); // let the background sweep finish; nothing has refilled
+        assertThat(store.trackedKeys()).isEqualTo(10);
+    }
+
+    @Test
+    void approximateModeLimitsEachKeyInConstantMemory() {
+        TokenBucketStore store = TokenBucketStore.approximate(2, 0.000001, 4_096);
+        int fullBursts = 0;
+        for (int i = 0; i < 200; i++) {
+            String key = "user-" + i;
+            if (store.tryAcquire(key) && store.tryAcquire(key)) {
+                fullBursts++;
+            }
+            assertThat(store.tryAcquire(key)).isFalse(); // collisions never loosen the limit
+        }
+        assertThat(fullBursts).as("a wide grid rarely collides").isGreaterThanOrEqualTo(190);
+        assertThat(store.trackedKeys()).isZero();
+        assertThat(store.evictIdle()).isZero();
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> new TokenBucketStore(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucketStore(1, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucketStore(1, 1, -1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TokenBucketStore.approximate(1, 1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -7,6 +7,7 @@ import com.ligero.testutil.FakeResponse;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -25,6 +26,12 @@ class TracingMiddlewareTest {
             events.add("start " + name);
             lastTraceparent = traceparent;
             return new Span() {
+                @Override
+                public Span startChild(String name) {
+                    events.add("child " + name);
+                    return Span.NOOP;
+                }
+
                 @Override
                 public Span setAttribute(String key, String value) {
                     events.add(key + "=" + value);
@@ -67,7 +74,7 @@ class TracingMiddlewareTest {
         new TracingMiddleware(tracer).handle(ctx, () -> ctx.res().status(200).send("ok"));
 
         assertThat(tracer.lastTraceparent).startsWith("00-");
-        assertThat(tracer.events).contains("start GET /users/9",
+        assertThat(tracer.events).contains("start GET /users/{id}",
             "http.request.method=GET", "http.response.status_code=200",
             "http.route=/users/{id}", "end");
         assertThat(ctx.<String>attribute(TracingMiddleware.TRACE_ID_ATTRIBUTE)).hasSize(32);
@@ -85,6 +92,107 @@ class TracingMiddlewareTest {
         assertThat(tracer.events).contains("error kaput", "end");
     }
 
+    private static Context context(String path) {
+        return new Context(FakeRequest.of("GET", path), new FakeResponse(), "/", null, null);
+    }
+
+    @Test
+    void namesTheSpanWithTheRouteOnceMatchedAndExposesItAsCurrent() throws Exception {
+        FakeTracer tracer = new FakeTracer();
+        Context ctx = context("/users/9");
+
+        new TracingMiddleware(tracer).handle(ctx, () -> {
+            assertThat(TracingMiddleware.currentSpan()).isSameAs(Tracer.Span.NOOP);
+            ctx.routeMatched("/users/{id}");
+            TracingMiddleware.currentSpan().startChild("db query");
+            ctx.res().status(200);
+        });
+
+        assertThat(tracer.events).containsSubsequence("start GET /users/{id}", "child db query", "end");
+        assertThat(TracingMiddleware.currentSpan()).isSameAs(Tracer.Span.NOOP);
+    }
+
+    @Test
+    void unsampledRequestsCreateNoSpanUnlessTheTailKeepsThem() throws Exception {
+        FakeTracer tracer = new FakeTracer();
+        TracingMiddleware middleware = TracingMiddleware.builder(tracer)
+            .sampleRatio(0)
+            .sampleSlowerThan(Duration.ofMillis(20))
+            .build();
+
+        Context fast = context("/fast");
+        middleware.handle(fast, () -> {
+            fast.routeMatched("/fast");
+            assertThat(TracingMiddleware.currentSpan()).isSameAs(Tracer.Span.NOOP);
+            fast.res().status(200);
+        });
+        assertThat(tracer.events).isEmpty();
+        assertThat(fast.<String>attribute(TracingMiddleware.TRACE_ID_ATTRIBUTE)).isNull();
+
+        Context failed = context("/fail");
+        middleware.handle(failed, () -> failed.res().status(503));
+        Context slow = context("/slow");
+        middleware.handle(slow, () -> {
+            slow.routeMatched("/slow");
+            Thread.sleep(25);
+            slow.res().status(200);
+        });
+
+        assertThat(tracer.events).containsSubsequence(
+            "start GET", "http.response.status_code=503", "end",
+            "start GET /slow", "http.response.status_code=200", "http.route=/slow", "end");
+        assertThat(slow.<String>attribute(TracingMiddleware.TRACE_ID_ATTRIBUTE)).hasSize(32);
+    }
+
+    @Test
+    void limitsSpansPerRoute() throws Exception {
+        FakeTracer tracer = new FakeTracer();
+        TracingMiddleware middleware = TracingMiddleware.builder(tracer)
+            .maxPerSecondPerRoute(1)
+            .sampleErrors(false)
+            .build();
+
+        for (String route : List.of("/a", "/a", "/a", "/b")) {
+            Context ctx = context(route);
+            ctx.attribute(MetricsMiddleware.ROUTE_ATTRIBUTE, route);
+            middleware.handle(ctx, () -> ctx.res().status(200));
+        }
+
+        assertThat(tracer.events).filteredOn(event -> event.startsWith("start"))
+            .containsExactly("start GET /a", "start GET /b");
+    }
+
+    @Test
+    void parentBasedSamplingFollowsTheTraceparentFlag() throws Exception {
+        FakeTracer tracer = new FakeTracer();
+        TracingMiddleware middleware = TracingMiddleware.builder(tracer)
+            .sampleRatio(0)
+            .parentBased(true)
+            .sampleErrors(false)
+            .build();
+        String prefix = "00-" + "a".repeat(32) + "-" + "b".repeat(16) + "-";
+
+        for (String flags : List.of("00", "01")) {
+            Context ctx = new Context(FakeRequest.of("GET", "/x").header("traceparent", prefix + flags),
+                new FakeResponse(), "/", null, null);
+            middleware.handle(ctx, () -> ctx.res().status(200));
+        }
+
+        assertThat(tracer.events).filteredOn(event -> event.startsWith("start")).hasSize(1);
+        assertThat(TracingMiddleware.traceFlags("garbage")).isEqualTo(-1);
+    }
+
+    @Test
+    void builderRejectsInvalidSettings() {
+        FakeTracer tracer = new FakeTracer();
+        assertThatThrownBy(() -> TracingMiddleware.builder(tracer).sampleRatio(1.5))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TracingMiddleware.builder(tracer).maxPerSecondPerRoute(0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TracingMiddleware.builder(null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     void serviceLoaderFactoryFailsWithGuidanceWhenNoAdapter() {
         assertThatThrownBy(TracingMiddleware::fromServiceLoader)
@@ -3,6 +3,7 @@ package com.ligero.devtools;
 import com.ligero.Ligero;
 import com.ligero.beans.BeanDecorator;
 import com.ligero.beans.Beans;
+import com.ligero.http.NotFoundException;
 import com.ligero.http.SseEmitter;
 
 import org.slf4j.Logger;
@@ -22,7 +23,21 @@ import java.util.function.Consumer;
  * {@code /ligero/dev} showing the bean dependency graph (colored by
  * stereotype) and a live trace of every request through the layers —
  * controller, service, repository — with arguments, return values and
- * timings per call.
+ * timings per call. {@code /ligero/dev/api/jfr} streams the {@code ligero.*}
+ * JDK Flight Recorder events live over SSE.
+ *
+ * <p>The profile view aggregates those traces across requests — a flame
+ * graph per route with inclusive/self time per bean method, per-method
+ * latency histograms and the slowest requests — to find the call that
+ * dominates an endpoint under a local load test:</p>
+ * <ul>
+ *   <li>{@code GET /ligero/dev/api/profile} — summary (routes, methods, slowest)</li>
+ *   <li>{@code GET /ligero/dev/api/profile/flame?route=GET%20/users/{id}} — one route's flame graph</li>
+ *   <li>{@code GET /ligero/dev/api/profile/slowest} — the slowest requests with full traces</li>
+ *   <li>{@code DELETE /ligero/dev/api/profile} — start over</li>
+ * </ul>
+ * <p>The summary is also pushed as {@code profile} events on the
+ * {@code /api/stream} SSE channel, at most once a second.</p>
  *
  * <pre>{@code
  * Devtools devtools = Devtools.create();
@@ -51,9 +66,13 @@ public final class Devtools {
     private static final Logger log = LoggerFactory.getLogger(Devtools.class);
     private static final int HISTORY = 100;
     private static final long KEEP_ALIVE_SECONDS = 15;
+    private static final int SLOWEST = 20;
+    private static final long PROFILE_PUSH_MILLIS = 1_000;
 
     private final TraceStore store = new TraceStore(HISTORY);
     private final DevtoolsRecorder recorder = new DevtoolsRecorder();
+    private final Profiler profiler = new Profiler(SLOWEST);
+    private double sampleRate = 1.0;
 
     private Devtools() {
     }
@@ -71,6 +90,19 @@ public final class Devtools {
         return recorder;
     }
 
+    /**
+     * Traces only {@code rate} (0..1) of the requests, so devtools can stay on
+     * in a load-tested staging environment without skewing what is measured.
+     * Requests fired from the dashboard are always traced. Default 1 (all).
+     */
+    public Devtools sampleRate(double rate) {
+        if (!(rate >= 0 && rate <= 1)) {
+            throw new IllegalArgumentException("rate must be between 0 and 1");
+        }
+        this.sampleRate = rate;
+        return this;
+    }
+
     /**
      * Mounts the dashboard and its API on the app. Call before
      * {@code app.start()}.
@@ -80,7 +112,8 @@ public final class Devtools {
             log.info("LIGERO_DEVTOOLS=false — devtools disabled");
             return this;
         }
-        app.use(new TraceMiddleware(store));
+        app.use(new TraceMiddleware(store, sampleRate));
+        store.subscribe(profiler::record);
 
         app.get(BASE_PATH, ctx -> ctx.html(dashboardHtml()));
 
@@ -102,12 +135,18 @@ public final class Devtools {
             Consumer<RequestTrace> subscriber = queue::add;
             store.subscribe(subscriber);
             try {
+                long profileSentAt = 0;
                 while (true) {
                     RequestTrace trace = queue.poll(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
                     if (trace == null) {
                         sse.comment("keep-alive");
-                    } else {
-                        sse.send("trace", Json.trace(trace));
+                        continue;
+                    }
+                    sse.send("trace", Json.trace(trace));
+                    long now = System.currentTimeMillis();
+                    if (now - profileSentAt >= PROFILE_PUSH_MILLIS) {
+                        sse.send("profile", Json.profile(profiler));
+                        profileSentAt = now;
                     }
                 }
             } catch (UncheckedIOException clientGone) {
@@ -117,6 +156,31 @@ public final class Devtools {
             }
         });
 
+        app.get(BASE_PATH + "/api/profile", ctx -> ctx.res()
+            .contentType("application/json; charset=utf-8")
+            .send(Json.profile(profiler)));
+
+        app.get(BASE_PATH + "/api/profile/flame", ctx -> {
+            String route = ctx.queryParam("route");
+            Profiler.Frame root = route == null ? null : profiler.flame(route);
+            if (root == null) {
+                throw new NotFoundException("No profile for route " + route);
+            }
+            ctx.res().contentType("application/json; charset=utf-8").send(Json.flame(root));
+        });
+
+        app.get(BASE_PATH + "/api/profile/slowest", ctx -> ctx.res()
+            .contentType("application/json; charset=utf-8")
+            .send(Json.traces(profiler.slowest())));
+
+        app.delete(BASE_PATH + "/api/profile", ctx -> {
+            profiler.reset();
+            ctx.status(204);
+        });
+
+        // live ligero.* JDK Flight Recorder events (requests, middleware, JDBC, cache, ...)
+        app.get(BASE_PATH + "/api/jfr", ctx -> JfrEventStream.stream(ctx.sse(), KEEP_ALIVE_SECONDS));
+
         log.info("Ligero devtools mounted at {} (development only)", BASE_PATH);
         return this;
     }
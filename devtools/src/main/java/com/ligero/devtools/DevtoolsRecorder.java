@@ -6,6 +6,10 @@ import com.ligero.beans.stereotype.Controller;
 import com.ligero.beans.stereotype.Repository;
 import com.ligero.beans.stereotype.Service;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
@@ -21,6 +25,11 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * the request being handled (if any; outside a request the proxy is a
  * pass-through).
  *
+ * <p>The proxy forwards through a {@link MethodHandle} bound to the bean and
+ * cached per method, not {@code Method.invoke}, so the pass-through path
+ * stays close to a direct interface call; arguments and results are recorded
+ * by reference and serialized only when the trace is viewed.</p>
+ *
  * <p>Beans bound as concrete classes cannot be proxied without bytecode
  * generation, so they stay unwrapped; the dashboard lists them so it is
  * obvious why their calls don't show up in traces.</p>
@@ -30,6 +39,18 @@ final class DevtoolsRecorder implements BeanDecorator {
     /** Trace of the request currently handled by this thread (one request = one thread). */
     static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
 
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodHandle REFLECTIVE_INVOKE;
+
+    static {
+        try {
+            REFLECTIVE_INVOKE = LOOKUP.findStatic(DevtoolsRecorder.class, "reflectiveInvoke",
+                MethodType.methodType(Object.class, Method.class, Object.class, Object[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     /** Binding type name -> stereotype of the real implementation class. */
     private final Map<String, String> stereotypes = new ConcurrentHashMap<>();
 
@@ -44,39 +65,78 @@ final class DevtoolsRecorder implements BeanDecorator {
             unspied.add(type.getName());
             return bean;
         }
-        String beanName = bean.getClass().getSimpleName();
-        String declaredBy = type.getSimpleName();
         Object proxy = Proxy.newProxyInstance(
             type.getClassLoader(),
             new Class<?>[] {type},
-            (p, method, args) -> spy(bean, beanName, declaredBy, stereotype, method, args));
+            new Spy(bean, bean.getClass().getSimpleName(), type.getSimpleName(), stereotype));
         return type.cast(proxy);
     }
 
-    private Object spy(Object bean, String beanName, String declaredBy, String stereotype,
-                       Method method, Object[] args) throws Throwable {
-        RequestTrace trace = CURRENT.get();
-        if (trace == null || method.getDeclaringClass() == Object.class) {
-            return invoke(bean, method, args);
+    /** Invocation handler of one spied bean. */
+    private static final class Spy implements InvocationHandler {
+        private static final Object[] NO_ARGS = {};
+
+        private final Object bean;
+        private final String beanName;
+        private final String declaredBy;
+        private final String stereotype;
+        private final Map<Method, MethodHandle> handles = new ConcurrentHashMap<>();
+
+        Spy(Object bean, String beanName, String declaredBy, String stereotype) {
+            this.bean = bean;
+            this.beanName = beanName;
+            this.declaredBy = declaredBy;
+            this.stereotype = stereotype;
         }
-        RequestTrace.Call call = trace.enter(beanName, declaredBy, stereotype,
-            method.getName(), JsonValue.array(args));
-        long start = System.nanoTime();
-        try {
-            Object result = invoke(bean, method, args);
-            String resultJson = method.getReturnType() == void.class ? null : JsonValue.of(result);
-            call.complete(resultJson, null, (System.nanoTime() - start) / 1_000);
-            return result;
-        } catch (Throwable e) {
-            call.complete(null, e.getClass().getSimpleName() + ": " + e.getMessage(),
-                          (System.nanoTime() - start) / 1_000);
-            throw e;
-        } finally {
-            trace.exit();
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            MethodHandle handle = handles.get(method);
+            if (handle == null) {
+                handle = handles.computeIfAbsent(method, this::bind);
+            }
+            Object[] arguments = args == null ? NO_ARGS : args;
+            RequestTrace trace = CURRENT.get();
+            if (trace == null || method.getDeclaringClass() == Object.class) {
+                return (Object) handle.invokeExact(arguments);
+            }
+            RequestTrace.Call call = trace.enter(beanName, declaredBy, stereotype, method.getName(), arguments);
+            long start = System.nanoTime();
+            try {
+                Object result = (Object) handle.invokeExact(arguments);
+                if (method.getReturnType() == void.class) {
+                    call.finished(null, (System.nanoTime() - start) / 1_000);
+                } else {
+                    call.returned(result, (System.nanoTime() - start) / 1_000);
+                }
+                return result;
+            } catch (Throwable e) {
+                call.finished(e.getClass().getSimpleName() + ": " + e.getMessage(),
+                              (System.nanoTime() - start) / 1_000);
+                throw e;
+            } finally {
+                trace.exit();
+            }
+        }
+
+        /** {@code method} bound to the bean, shaped {@code (Object[])Object}. */
+        private MethodHandle bind(Method method) {
+            MethodHandle target;
+            try {
+                target = LOOKUP.unreflect(method).asFixedArity();
+            } catch (IllegalAccessException e) {
+                // interface not accessible to this module: reflect instead
+                target = REFLECTIVE_INVOKE.bindTo(method)
+                    .asCollector(Object[].class, method.getParameterCount());
+            }
+            int arity = method.getParameterCount();
+            return target.bindTo(bean)
+                .asType(MethodType.genericMethodType(arity))
+                .asSpreader(Object[].class, arity);
         }
     }
 
-    private static Object invoke(Object bean, Method method, Object[] args) throws Throwable {
+    private static Object reflectiveInvoke(Method method, Object bean, Object[] args) throws Throwable {
         try {
             return method.invoke(bean, args);
         } catch (InvocationTargetException e) {
@@ -0,0 +1,90 @@
+package com.ligero.devtools;
+
+import com.ligero.http.SseEmitter;
+
+import jdk.jfr.ValueDescriptor;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams Ligero's JDK Flight Recorder events to the dashboard over SSE: each
+ * subscriber gets its own in-process {@link RecordingStream} with the
+ * {@code ligero.*} events enabled, closed when the browser goes away. JFR
+ * flushes roughly once a second, so events arrive in small batches.
+ */
+final class JfrEventStream {
+
+    static final List<String> EVENTS = List.of(
+        "ligero.HttpRequest", "ligero.Middleware", "ligero.TemplateRender", "ligero.CacheAccess",
+        "ligero.JdbcQuery", "ligero.SchedulerTask", "ligero.CircuitBreakerTransition");
+
+    /** Events buffered per subscriber before new ones are dropped. */
+    private static final int BACKLOG = 1_000;
+
+    private JfrEventStream() {
+    }
+
+    /** Blocks, forwarding events until the client disconnects. */
+    static void stream(SseEmitter sse, long keepAliveSeconds) throws InterruptedException {
+        BlockingQueue<String> queue = new LinkedBlockingQueue<>(BACKLOG);
+        try (RecordingStream recording = new RecordingStream()) {
+            for (String event : EVENTS) {
+                recording.enable(event);
+            }
+            recording.setMaxAge(Duration.ofSeconds(10));
+            recording.onEvent(event -> {
+                if (event.getEventType().getName().startsWith("ligero.")) {
+                    queue.offer(json(event));
+                }
+            });
+            recording.startAsync();
+            while (true) {
+                String event = queue.poll(keepAliveSeconds, TimeUnit.SECONDS);
+                if (event == null) {
+                    sse.comment("keep-alive");
+                } else {
+                    sse.send("jfr", event);
+                }
+            }
+        } catch (UncheckedIOException clientGone) {
+            // browser tab closed — normal termination of the stream
+        }
+    }
+
+    /** {@code {"type":..,"start":epochMillis,"durationNanos":..,"thread":..,"fields":{..}}}. */
+    static String json(RecordedEvent event) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"type\":").append(Json.str(event.getEventType().getName()))
+          .append(",\"start\":").append(event.getStartTime().toEpochMilli())
+          .append(",\"durationNanos\":").append(event.getDuration().toNanos())
+          .append(",\"thread\":").append(Json.str(event.getThread() == null ? null : event.getThread().getJavaName()))
+          .append(",\"fields\":{");
+        boolean first = true;
+        for (ValueDescriptor field : event.getFields()) {
+            String name = field.getName();
+            if (name.equals("startTime") || name.equals("duration") || name.equals("eventThread")
+                || name.equals("stackTrace")) {
+                continue;
+            }
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append(Json.str(name)).append(':');
+            Object value = event.getValue(name);
+            if (value instanceof Number || value instanceof Boolean) {
+                sb.append(value);
+            } else {
+                sb.append(Json.str(value == null ? null : String.valueOf(value)));
+            }
+        }
+        return sb.append("}}").toString();
+    }
+}
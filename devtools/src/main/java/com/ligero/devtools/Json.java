@@ -1,6 +1,7 @@
 package com.ligero.devtools;
 
 import com.ligero.beans.BeanGraph;
+import com.ligero.middleware.LatencyHistogram;
 
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -8,8 +9,8 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * Minimal hand-rolled JSON writer for the two devtools payloads (graph and
- * traces). Keeps ligero-devtools free of any JSON library so it only depends
+ * Minimal hand-rolled JSON writer for the devtools payloads (graph, traces
+ * and profile). Keeps ligero-devtools free of any JSON library so it only depends
  * on ligero-core.
  */
 final class Json {
@@ -109,6 +110,83 @@ final class Json {
         sb.append("]}");
     }
 
+    /**
+     * The profile summary: per-route totals, per-bean-method latency over the
+     * last minute and the slowest requests (without their calls — those come
+     * from {@code /api/profile/slowest}).
+     */
+    static String profile(Profiler profiler) {
+        StringBuilder sb = new StringBuilder(1024).append("{\"routes\":[");
+        boolean first = true;
+        for (Profiler.Frame route : profiler.routes().values()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append("{\"route\":").append(str(route.name()))
+              .append(",\"count\":").append(route.count())
+              .append(",\"totalUs\":").append(route.inclusiveUs())
+              .append(",\"selfUs\":").append(route.selfUs())
+              .append('}');
+        }
+        sb.append("],\"methods\":[");
+        first = true;
+        for (Map.Entry<String, LatencyHistogram.Snapshot> entry : profiler.methods().entrySet()) {
+            LatencyHistogram.Snapshot s = entry.getValue();
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append("{\"method\":").append(str(entry.getKey()))
+              .append(",\"count\":").append(s.count())
+              .append(",\"meanUs\":").append(s.meanNanos() / 1_000)
+              .append(",\"p50Us\":").append(s.p50Nanos() / 1_000)
+              .append(",\"p90Us\":").append(s.p90Nanos() / 1_000)
+              .append(",\"p99Us\":").append(s.p99Nanos() / 1_000)
+              .append(",\"maxUs\":").append(s.maxNanos() / 1_000)
+              .append('}');
+        }
+        sb.append("],\"slowest\":[");
+        List<RequestTrace> slowest = profiler.slowest();
+        for (int i = 0; i < slowest.size(); i++) {
+            RequestTrace t = slowest.get(i);
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":").append(str(t.id()))
+              .append(",\"route\":").append(str(Profiler.routeKey(t)))
+              .append(",\"path\":").append(str(t.path()))
+              .append(",\"status\":").append(t.status())
+              .append(",\"startedAt\":").append(t.startedAtMs())
+              .append(",\"durationUs\":").append(t.durationUs())
+              .append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    /** One route's flame graph: {@code {name, count, totalUs, selfUs, children: [...]}}, children by cost. */
+    static String flame(Profiler.Frame root) {
+        StringBuilder sb = new StringBuilder(512);
+        frame(sb, root);
+        return sb.toString();
+    }
+
+    private static void frame(StringBuilder sb, Profiler.Frame f) {
+        sb.append("{\"name\":").append(str(f.name()))
+          .append(",\"count\":").append(f.count())
+          .append(",\"totalUs\":").append(f.inclusiveUs())
+          .append(",\"selfUs\":").append(f.selfUs())
+          .append(",\"children\":[");
+        List<Profiler.Frame> children = f.children();
+        for (int i = 0; i < children.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            frame(sb, children.get(i));
+        }
+        sb.append("]}");
+    }
+
     /** The routes payload for the "try it out" panel: {@code [{method, path}, …]}. */
     static String routes(Map<String, List<String>> routesByMethod) {
         List<String[]> flat = new ArrayList<>();
@@ -0,0 +1,195 @@
+package com.ligero.devtools;
+
+import com.ligero.middleware.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates completed {@link RequestTrace}s for the dashboard's profile
+ * view: per route, a flame graph merging the spied call trees of every
+ * request (inclusive and self microseconds per {@code Bean.method}); per bean
+ * method, a latency histogram over the last minute; and the {@code topK}
+ * slowest requests with their full traces.
+ *
+ * <p>Fed from the {@link TraceStore} on the request thread, so it only reads
+ * the call tree — names, depths and timings — never arguments or results,
+ * and a frame it has seen before costs two adder increments. Requests that
+ * matched no route share one {@code "GET <unmatched>"} root per method; roots
+ * and frames past {@link #MAX_FRAMES} and methods past {@link #MAX_METHODS}
+ * are not added, so a long load test or a scanner cannot grow it without
+ * bound.</p>
+ */
+final class Profiler {
+
+    static final int MAX_FRAMES = 10_000;
+    static final int MAX_METHODS = 1_000;
+    /** Stands in for the route of requests that matched none. */
+    static final String UNMATCHED = "<unmatched>";
+
+    /** One frame of a route's flame graph: a route root or a {@code Bean.method} under its caller. */
+    static final class Frame {
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder inclusiveUs = new LongAdder();
+        private final Map<String, Frame> children = new ConcurrentHashMap<>();
+
+        Frame(String name) {
+            this.name = name;
+        }
+
+        String name() { return name; }
+        long count() { return count.sum(); }
+        long inclusiveUs() { return inclusiveUs.sum(); }
+
+        /** Inclusive time minus the callees' inclusive time. */
+        long selfUs() {
+            long self = inclusiveUs();
+            for (Frame child : children.values()) {
+                self -= child.inclusiveUs();
+            }
+            return Math.max(0L, self);
+        }
+
+        /** Children, most expensive first. */
+        List<Frame> children() {
+            List<Frame> sorted = new ArrayList<>(children.values());
+            sorted.sort(Comparator.comparingLong(Frame::inclusiveUs).reversed());
+            return sorted;
+        }
+
+        private void add(long us) {
+            count.increment();
+            inclusiveUs.add(us);
+        }
+    }
+
+    private final int topK;
+    private final Map<String, Frame> routes = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> methods = new ConcurrentHashMap<>();
+    private final AtomicInteger frames = new AtomicInteger();
+    /** Min-heap on duration: the head is the fastest of the slowest, evicted first. */
+    private final PriorityQueue<RequestTrace> slowest =
+        new PriorityQueue<>(Comparator.comparingLong(RequestTrace::durationUs));
+    /** Duration a trace must beat to enter a full {@link #slowest} list; read without the lock. */
+    private volatile long slowThresholdUs = -1;
+
+    Profiler(int topK) {
+        if (topK < 1) {
+            throw new IllegalArgumentException("topK must be >= 1");
+        }
+        this.topK = topK;
+    }
+
+    void record(RequestTrace trace) {
+        Frame root = frame(routes, routeKey(trace));
+        if (root != null) {
+            root.add(trace.durationUs());
+        }
+        List<RequestTrace.Call> calls = trace.calls();
+        Frame[] stack = new Frame[calls.size() + 1];
+        stack[0] = root;
+        for (RequestTrace.Call call : calls) {
+            int depth = Math.min(call.depth(), stack.length - 2);
+            Frame parent = stack[depth];
+            String name = call.bean() + "." + call.method();
+            Frame frame = parent == null ? null : frame(parent.children, name);
+            if (frame != null) {
+                frame.add(call.durationUs());
+            }
+            stack[depth + 1] = frame;
+            LatencyHistogram histogram = histogram(name);
+            if (histogram != null) {
+                histogram.record(call.durationUs() * 1_000);
+            }
+        }
+        if (trace.durationUs() > slowThresholdUs) {
+            keepIfSlow(trace);
+        }
+    }
+
+    /** The frame {@code name} among {@code siblings}, or {@code null} once {@link #MAX_FRAMES} are taken. */
+    private Frame frame(Map<String, Frame> siblings, String name) {
+        Frame frame = siblings.get(name);
+        if (frame != null) {
+            return frame;
+        }
+        if (frames.get() >= MAX_FRAMES) {
+            return null;
+        }
+        return siblings.computeIfAbsent(name, n -> {
+            frames.incrementAndGet();
+            return new Frame(n);
+        });
+    }
+
+    private LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = methods.get(name);
+        if (histogram == null && methods.size() < MAX_METHODS) {
+            histogram = methods.computeIfAbsent(name, n -> new LatencyHistogram());
+        }
+        return histogram;
+    }
+
+    private void keepIfSlow(RequestTrace trace) {
+        synchronized (slowest) {
+            slowest.add(trace);
+            if (slowest.size() > topK) {
+                slowest.poll();
+            }
+            if (slowest.size() == topK) {
+                slowThresholdUs = slowest.peek().durationUs();
+            }
+        }
+    }
+
+    /** {@code "GET /users/{id}"}, or {@code "GET <unmatched>"} when no route matched. */
+    static String routeKey(RequestTrace trace) {
+        return trace.method() + " " + (trace.route() != null ? trace.route() : UNMATCHED);
+    }
+
+    /** Flame graph roots by route key, sorted. */
+    Map<String, Frame> routes() {
+        return new TreeMap<>(routes);
+    }
+
+    /** The flame graph of one route, or {@code null} if it has not been seen. */
+    Frame flame(String routeKey) {
+        return routes.get(routeKey);
+    }
+
+    /** Latency over the last minute per {@code Bean.method}, sorted by name. */
+    Map<String, LatencyHistogram.Snapshot> methods() {
+        Map<String, LatencyHistogram.Snapshot> out = new TreeMap<>();
+        methods.forEach((name, histogram) -> out.put(name, histogram.snapshot()));
+        return out;
+    }
+
+    /** The slowest requests seen, slowest first. */
+    List<RequestTrace> slowest() {
+        List<RequestTrace> out;
+        synchronized (slowest) {
+            out = new ArrayList<>(slowest);
+        }
+        out.sort(Comparator.comparingLong(RequestTrace::durationUs).reversed());
+        return out;
+    }
+
+    /** Forgets everything, e.g. between two load-test runs. */
+    void reset() {
+        routes.clear();
+        methods.clear();
+        frames.set(0);
+        synchronized (slowest) {
+            slowest.clear();
+            slowThresholdUs = -1;
+        }
+    }
+}
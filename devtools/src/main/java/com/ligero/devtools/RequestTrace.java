@@ -11,6 +11,12 @@ import java.util.List;
  * <p>A request is handled by a single (virtual) thread, so {@link Call}s are
  * appended without contention; volatile fields make the completed trace safe
  * to read from the dashboard's SSE thread.</p>
+ *
+ * <p>Arguments, results and request/response bodies are kept as the objects
+ * themselves and only turned into JSON (by {@link JsonValue}) when someone
+ * reads them — the dashboard, the API — so tracing a request costs no
+ * serialization on the request thread. The JSON therefore shows an object's
+ * state when it is first viewed.</p>
  */
 public final class RequestTrace {
 
@@ -22,13 +28,16 @@ public final class RequestTrace {
         private final String declaredBy; // interface the bean was bound as
         private final String stereotype;
         private final String method;
-        private final String args;
-        private volatile String result;
+        private final Object[] args;
+        private volatile Object result;
+        private volatile boolean hasResult;
         private volatile String error;
         private volatile long durationUs;
+        private volatile String argsJson;
+        private volatile String resultJson;
 
         Call(int order, int depth, String bean, String declaredBy, String stereotype,
-             String method, String args) {
+             String method, Object[] args) {
             this.order = order;
             this.depth = depth;
             this.bean = bean;
@@ -38,8 +47,15 @@ public final class RequestTrace {
             this.args = args;
         }
 
-        void complete(String result, String error, long durationUs) {
+        /** The call returned {@code result}. */
+        void returned(Object result, long durationUs) {
             this.result = result;
+            this.hasResult = true;
+            this.durationUs = durationUs;
+        }
+
+        /** The call returned nothing (void), or failed when {@code error} is set. */
+        void finished(String error, long durationUs) {
             this.error = error;
             this.durationUs = durationUs;
         }
@@ -50,8 +66,29 @@ public final class RequestTrace {
         public String declaredBy() { return declaredBy; }
         public String stereotype() { return stereotype; }
         public String method() { return method; }
-        public String args() { return args; }
-        public String result() { return result; }
+        /** The arguments as a JSON array, serialized on first use. */
+        public String args() {
+            String json = argsJson;
+            if (json == null) {
+                json = JsonValue.array(args);
+                argsJson = json;
+            }
+            return json;
+        }
+
+        /** The return value as JSON (serialized on first use), or {@code null} for void/failed calls. */
+        public String result() {
+            if (!hasResult) {
+                return null;
+            }
+            String json = resultJson;
+            if (json == null) {
+                json = JsonValue.of(result);
+                resultJson = json;
+            }
+            return json;
+        }
+
         public String error() { return error; }
         public long durationUs() { return durationUs; }
     }
@@ -64,9 +101,11 @@ public final class RequestTrace {
     private final List<Call> calls = Collections.synchronizedList(new ArrayList<>());
     private volatile int status;
     private volatile long durationUs;
-    private volatile String route;         // matched route pattern, e.g. /users/:id
-    private volatile String requestJson;   // path/query/body inputs, as JSON
-    private volatile String responseJson;  // response body handed to ctx.json(...), as JSON
+    private volatile String route;         // matched route pattern, e.g. /users/:id; null if none matched
+    private volatile Object request;       // path/query/body inputs
+    private volatile Object response;      // response body handed to ctx.json(...)
+    private volatile String requestJson;
+    private volatile String responseJson;
     private int depth;
     private int nextOrder;
 
@@ -78,7 +117,7 @@ public final class RequestTrace {
         this.startNanos = System.nanoTime();
     }
 
-    Call enter(String bean, String declaredBy, String stereotype, String method, String args) {
+    Call enter(String bean, String declaredBy, String stereotype, String method, Object[] args) {
         Call call = new Call(nextOrder++, depth++, bean, declaredBy, stereotype, method, args);
         calls.add(call);
         return call;
@@ -93,15 +132,15 @@ public final class RequestTrace {
         this.durationUs = (System.nanoTime() - startNanos) / 1_000;
     }
 
-    /** Records the matched route pattern and the request inputs (as JSON). */
-    void describe(String route, String requestJson) {
+    /** Records the matched route pattern and the request inputs. */
+    void describe(String route, Object request) {
         this.route = route;
-        this.requestJson = requestJson;
+        this.request = request;
     }
 
-    /** Records the response body handed to {@code ctx.json(...)} (as JSON). */
-    void respondedWith(String responseJson) {
-        this.responseJson = responseJson;
+    /** Records the response body handed to {@code ctx.json(...)}. */
+    void respondedWith(Object response) {
+        this.response = response;
     }
 
     public String id() { return id; }
@@ -111,8 +150,26 @@ public final class RequestTrace {
     public int status() { return status; }
     public long durationUs() { return durationUs; }
     public String route() { return route; }
-    public String requestJson() { return requestJson; }
-    public String responseJson() { return responseJson; }
+
+    /** The request inputs as JSON, serialized on first use. */
+    public String requestJson() {
+        String json = requestJson;
+        if (json == null && request != null) {
+            json = JsonValue.of(request);
+            requestJson = json;
+        }
+        return json;
+    }
+
+    /** The response body as JSON, serialized on first use; {@code null} when there was none. */
+    public String responseJson() {
+        String json = responseJson;
+        if (json == null && response != null) {
+            json = JsonValue.of(response);
+            responseJson = json;
+        }
+        return json;
+    }
 
     /** Snapshot of the recorded calls, in entry order. */
     public List<Call> calls() {
@@ -7,7 +7,7 @@ import com.ligero.middleware.Middleware;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Opens a {@link RequestTrace} for every request (except the devtools
@@ -18,6 +18,11 @@ import java.util.UUID;
  * <p>When the dashboard fires a request ("try it out") it stamps an
  * {@code X-Ligero-Dev} correlation header; that value becomes the trace id so
  * the browser can match the trace it receives over SSE to the request it sent.</p>
+ *
+ * <p>With a sample rate below 1 only that fraction of requests is traced —
+ * the rest pass through with no trace and no spying — except the dashboard's
+ * own "try it out" requests, which are always traced. Inputs and the response
+ * body are captured by reference and serialized only when a trace is viewed.</p>
  */
 final class TraceMiddleware implements Middleware {
 
@@ -25,9 +30,15 @@ final class TraceMiddleware implements Middleware {
     static final String CORRELATION_HEADER = "X-Ligero-Dev";
 
     private final TraceStore store;
+    private final double sampleRate;
 
     TraceMiddleware(TraceStore store) {
+        this(store, 1.0);
+    }
+
+    TraceMiddleware(TraceStore store, double sampleRate) {
         this.store = store;
+        this.sampleRate = sampleRate;
     }
 
     @Override
@@ -36,7 +47,13 @@ final class TraceMiddleware implements Middleware {
             chain.proceed();
             return;
         }
-        RequestTrace trace = new RequestTrace(traceId(ctx), ctx.method(), ctx.path());
+        String correlation = ctx.header(CORRELATION_HEADER);
+        boolean requested = correlation != null && !correlation.isBlank();
+        if (!requested && sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            chain.proceed();
+            return;
+        }
+        RequestTrace trace = new RequestTrace(requested ? correlation : traceId(ctx), ctx.method(), ctx.path());
         DevtoolsRecorder.CURRENT.set(trace);
         int errorStatus = 0;
         try {
@@ -55,27 +72,23 @@ final class TraceMiddleware implements Middleware {
     }
 
     private static String traceId(Context ctx) {
-        String correlation = ctx.header(CORRELATION_HEADER);
-        if (correlation != null && !correlation.isBlank()) {
-            return correlation;
-        }
         String requestId = ctx.attribute("requestId");
-        return requestId != null ? requestId : UUID.randomUUID().toString().substring(0, 8);
+        if (requestId != null) {
+            return requestId;
+        }
+        // not UUID.randomUUID(): SecureRandom is overkill for a dashboard label
+        return Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE).substring(0, 8);
     }
 
-    /** Records the matched route, the request inputs and the response body. */
+    /** Records the matched route (null if none), the request inputs and the response body (by reference). */
     private static void capture(Context ctx, RequestTrace trace) {
         try {
             String route = ctx.attribute(Ligero.MATCHED_ROUTE_ATTRIBUTE);
             Map<String, Object> input = new LinkedHashMap<>();
             input.put("pathParams", ctx.pathParams());
             input.put("query", ctx.req().getQueryParams());
-            trace.describe(route != null ? route : ctx.path(), JsonValue.of(input));
-
-            Object body = ctx.attribute(Context.RESPONSE_BODY_ATTRIBUTE);
-            if (body != null) {
-                trace.respondedWith(JsonValue.of(body));
-            }
+            trace.describe(route, input);
+            trace.respondedWith(ctx.attribute(Context.RESPONSE_BODY_ATTRIBUTE));
         } catch (RuntimeException ignored) {
             // devtools capture must never interfere with request handling
         }
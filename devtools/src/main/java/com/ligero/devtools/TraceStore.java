@@ -1,32 +1,37 @@
 package com.ligero.devtools;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
 
 /**
  * Bounded in-memory history of completed {@link RequestTrace}s plus a
  * subscriber list for the dashboard's live SSE stream.
+ *
+ * <p>The history is a ring: {@link #add} claims the next slot with one atomic
+ * increment and overwrites the oldest trace, so request threads never wait on
+ * each other. {@link #recent()} reads the ring without locking; under heavy
+ * concurrent writes it may miss a trace that was overwritten mid-read.</p>
  */
 final class TraceStore {
 
-    private final int capacity;
-    private final Deque<RequestTrace> traces = new ArrayDeque<>();
+    private final AtomicReferenceArray<RequestTrace> ring;
+    private final AtomicLong written = new AtomicLong();
     private final List<Consumer<RequestTrace>> subscribers = new CopyOnWriteArrayList<>();
 
     TraceStore(int capacity) {
-        this.capacity = capacity;
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1");
+        }
+        this.ring = new AtomicReferenceArray<>(capacity);
     }
 
     void add(RequestTrace trace) {
-        synchronized (traces) {
-            if (traces.size() == capacity) {
-                traces.removeLast();
-            }
-            traces.addFirst(trace);
-        }
+        long slot = written.getAndIncrement();
+        ring.set((int) (slot % ring.length()), trace);
         for (Consumer<RequestTrace> subscriber : subscribers) {
             try {
                 subscriber.accept(trace);
@@ -38,9 +43,16 @@ final class TraceStore {
 
     /** Most recent first. */
     List<RequestTrace> recent() {
-        synchronized (traces) {
-            return List.copyOf(traces);
+        long last = written.get();
+        int count = (int) Math.min(last, ring.length());
+        List<RequestTrace> out = new ArrayList<>(count);
+        for (long i = last - 1; i >= last - count; i--) {
+            RequestTrace trace = ring.get((int) (i % ring.length()));
+            if (trace != null) {
+                out.add(trace);
+            }
         }
+        return List.copyOf(out);
     }
 
     void subscribe(Consumer<RequestTrace> subscriber) {
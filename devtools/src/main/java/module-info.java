@@ -6,6 +6,7 @@
  */
 module com.ligero.devtools {
     requires transitive com.ligero.core;
+    requires jdk.jfr;
 
     exports com.ligero.devtools;
 }
@@ -140,6 +140,25 @@ class DevtoolsE2ETest {
             .contains("\"response\":{\"message\":\"hello user-3\"}");     // ctx.json body captured as JSON
     }
 
+    @Test
+    void profileAggregatesCallTreesPerRoute() {
+        server.get("/greet/1").execute();
+        server.get("/greet/2").execute();
+
+        assertThat(server.get("/ligero/dev/api/profile").execute().body())
+            .contains("\"route\":\"GET /greet/{id}\"")
+            .contains("\"method\":\"DefaultGreetService.greet\"")
+            .contains("\"method\":\"FixedNameRepo.find\"");
+        assertThat(server.get("/ligero/dev/api/profile/flame?route=GET%20%2Fgreet%2F%7Bid%7D").execute().body())
+            .startsWith("{\"name\":\"GET /greet/{id}\"")
+            .contains("\"children\":[{\"name\":\"DefaultGreetService.greet\"")
+            .contains("\"children\":[{\"name\":\"FixedNameRepo.find\"");
+        assertThat(server.get("/ligero/dev/api/profile/slowest").execute().body())
+            .contains("\"calls\":[{");
+        assertThat(server.get("/ligero/dev/api/profile/flame?route=GET%20%2Fnope").execute().status())
+            .isEqualTo(404);
+    }
+
     @Test
     void devtoolsEndpointsAreNotTracedThemselves() {
         server.get("/ligero/dev/api/graph").execute();
@@ -33,6 +33,31 @@ class DevtoolsRecorderTest {
     static class PlainService {
     }
 
+    interface Mailer {
+        void send(String to, String... lines);
+
+        int count();
+    }
+
+    static class StubMailer implements Mailer {
+        final List<String> sent = new java.util.ArrayList<>();
+
+        @Override
+        public void send(String to, String... lines) {
+            sent.add(to + ":" + String.join("|", lines));
+        }
+
+        @Override
+        public int count() {
+            return sent.size();
+        }
+
+        @Override
+        public String toString() {
+            return "StubMailer";
+        }
+    }
+
     @AfterEach
     void clearTrace() {
         DevtoolsRecorder.CURRENT.remove();
@@ -81,6 +106,24 @@ class DevtoolsRecorderTest {
             .isEqualTo("IllegalArgumentException: negative id");
     }
 
+    @Test
+    void forwardsVoidVarargsPrimitiveAndObjectMethods() {
+        StubMailer mailer = new StubMailer();
+        Mailer spied = new DevtoolsRecorder().decorate(Mailer.class, mailer);
+
+        RequestTrace trace = new RequestTrace("t3", "POST", "/mail");
+        DevtoolsRecorder.CURRENT.set(trace);
+        spied.send("ada", "hi", "bye");
+        assertThat(spied.count()).isEqualTo(1);
+        assertThat(spied.toString()).isEqualTo("StubMailer");
+
+        assertThat(mailer.sent).containsExactly("ada:hi|bye");
+        assertThat(trace.calls()).extracting(RequestTrace.Call::method).containsExactly("send", "count");
+        assertThat(trace.calls().get(0).args()).isEqualTo("[\"ada\",[\"hi\",\"bye\"]]");
+        assertThat(trace.calls().get(0).result()).isNull();
+        assertThat(trace.calls().get(1).result()).isEqualTo("1");
+    }
+
     @Test
     void outsideARequestTheProxyIsAPassThrough() {
         DevtoolsRecorder recorder = new DevtoolsRecorder();
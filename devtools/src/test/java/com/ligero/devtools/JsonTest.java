@@ -35,12 +35,12 @@ class JsonTest {
     @Test
     void serializesTraceWithCalls() {
         RequestTrace trace = new RequestTrace("abc", "GET", "/items/1");
-        // args and result arrive already serialized as JSON (by JsonValue).
-        RequestTrace.Call call = trace.enter("StubRepo", "Repo", "repository", "find", "[1]");
-        call.complete("\"item-1\"", null, 42);
+        // args and result are kept as objects and serialized (by JsonValue) when read.
+        RequestTrace.Call call = trace.enter("StubRepo", "Repo", "repository", "find", new Object[] {1});
+        call.returned("item-1", 42);
         trace.exit();
-        trace.describe("/items/:id", "{\"pathParams\":{\"id\":\"1\"}}");
-        trace.respondedWith("{\"name\":\"item-1\"}");
+        trace.describe("/items/:id", Map.of("pathParams", Map.of("id", "1")));
+        trace.respondedWith(Map.of("name", "item-1"));
         trace.finish(200);
 
         String json = Json.trace(trace);
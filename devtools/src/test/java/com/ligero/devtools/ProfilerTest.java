@@ -0,0 +1,81 @@
+package com.ligero.devtools;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProfilerTest {
+
+    /** A GET /orders/{id} trace: Svc.load (depth 0) calling Repo.find (depth 1), then Svc.price. */
+    private static RequestTrace trace(String id, long loadUs, long findUs, long priceUs) {
+        RequestTrace trace = new RequestTrace(id, "GET", "/orders/" + id);
+        trace.enter("Svc", "OrderService", "service", "load", new Object[0]);
+        trace.enter("Repo", "OrderRepo", "repository", "find", new Object[0]).returned("row", findUs);
+        trace.exit();
+        trace.exit();
+        trace.calls().get(0).returned("order", loadUs);
+        trace.enter("Svc", "OrderService", "service", "price", new Object[0]).returned(1, priceUs);
+        trace.exit();
+        trace.describe("/orders/{id}", null);
+        trace.finish(200);
+        return trace;
+    }
+
+    @Test
+    void mergesCallTreesIntoAFlameGraphWithSelfTime() {
+        Profiler profiler = new Profiler(5);
+        profiler.record(trace("1", 100, 60, 10));
+        profiler.record(trace("2", 300, 200, 30));
+
+        Profiler.Frame root = profiler.flame("GET /orders/{id}");
+        assertThat(root.count()).isEqualTo(2);
+        Profiler.Frame load = root.children().get(0);
+        assertThat(load.name()).isEqualTo("Svc.load");
+        assertThat(load.inclusiveUs()).isEqualTo(400);
+        assertThat(load.selfUs()).isEqualTo(140);
+        assertThat(load.children()).singleElement().satisfies(find -> {
+            assertThat(find.name()).isEqualTo("Repo.find");
+            assertThat(find.count()).isEqualTo(2);
+            assertThat(find.selfUs()).isEqualTo(260);
+        });
+        assertThat(root.children().get(1).name()).isEqualTo("Svc.price");
+        assertThat(profiler.methods()).containsOnlyKeys("Repo.find", "Svc.load", "Svc.price");
+        assertThat(profiler.methods().get("Repo.find").count()).isEqualTo(2);
+    }
+
+    @Test
+    void keepsTheSlowestRequests() throws Exception {
+        Profiler profiler = new Profiler(2);
+        RequestTrace fast = trace("fast", 1, 1, 1);
+        RequestTrace slow = trace("slow", 1, 1, 1);
+        Thread.sleep(5);
+        slow.finish(200);
+        RequestTrace slower = trace("slower", 1, 1, 1);
+        Thread.sleep(10);
+        slower.finish(200);
+
+        profiler.record(slow);
+        profiler.record(fast);
+        profiler.record(slower);
+
+        assertThat(profiler.slowest()).extracting(RequestTrace::id).containsExactly("slower", "slow");
+        profiler.reset();
+        assertThat(profiler.slowest()).isEmpty();
+        assertThat(profiler.routes()).isEmpty();
+        assertThatThrownBy(() -> new Profiler(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void foldsUnmatchedRequestsIntoOneRootPerMethod() {
+        Profiler profiler = new Profiler(5);
+        for (int i = 0; i < 100; i++) {
+            RequestTrace scan = new RequestTrace("scan" + i, "GET", "/wp-admin/" + i + ".php");
+            scan.finish(404);
+            profiler.record(scan);
+        }
+
+        assertThat(profiler.routes()).containsOnlyKeys("GET <unmatched>");
+        assertThat(profiler.flame("GET <unmatched>").count()).isEqualTo(100);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ligero.devtools;
+
+import com.ligero.http.Context;
+import com.ligero.testutil.FakeRequest;
+import com.ligero.testutil.FakeResponse;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TraceStoreTest {
+
+    @Test
+    void keepsTheMostRecentTracesNewestFirst() {
+        TraceStore store = new TraceStore(3);
+        for (int i = 1; i <= 5; i++) {
+            store.add(new RequestTrace("t" + i, "GET", "/" + i));
+        }
+
+        assertThat(store.recent()).extracting(RequestTrace::id).containsExactly("t5", "t4", "t3");
+    }
+
+    @Test
+    void notifiesSubscribersAndSurvivesBrokenOnes() {
+        TraceStore store = new TraceStore(2);
+        List<String> seen = new ArrayList<>();
+        store.subscribe(trace -> {
+            throw new IllegalStateException("broken");
+        });
+        store.subscribe(trace -> seen.add(trace.id()));
+
+        store.add(new RequestTrace("a", "GET", "/"));
+
+        assertThat(seen).containsExactly("a");
+    }
+
+    @Test
+    void samplingSkipsUntracedRequestsButAlwaysTracesDashboardRequests() throws Exception {
+        TraceStore store = new TraceStore(10);
+        TraceMiddleware middleware = new TraceMiddleware(store, 0.0);
+
+        Context plain = new Context(FakeRequest.of("GET", "/items"), new FakeResponse(), "/", null, null);
+        middleware.handle(plain, () -> assertThat(DevtoolsRecorder.CURRENT.get()).isNull());
+        Context fired = new Context(FakeRequest.of("GET", "/items")
+            .header(TraceMiddleware.CORRELATION_HEADER, "dash-1"), new FakeResponse(), "/", null, null);
+        middleware.handle(fired, () -> fired.json(Map.of("ok", true)));
+
+        assertThat(store.recent()).extracting(RequestTrace::id).containsExactly("dash-1");
+        assertThat(store.recent().get(0).responseJson()).isEqualTo("{\"ok\":true}");
+    }
+
+    @Test
+    void rejectsAnInvalidSampleRate() {
+        assertThatThrownBy(() -> Devtools.create().sampleRate(2))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
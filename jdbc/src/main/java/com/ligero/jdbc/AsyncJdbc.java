@@ -0,0 +1,144 @@
+package com.ligero.jdbc;
+
+import com.ligero.middleware.TracingMiddleware;
+import com.ligero.spi.Tracer;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The calls of a {@link Jdbc}, each run on a virtual thread of its own and
+ * returned as a {@link CompletableFuture}, so a handler can run independent
+ * queries at once and wait for the slowest rather than for their sum:
+ *
+ * <pre>{@code
+ * AsyncJdbc async = db.async();
+ * var user   = async.queryOne("select * from users where id = ?", User.class, id);
+ * var orders = async.query("select * from orders where user_id = ?", Order.class, id);
+ * var stats  = async.queryOne("select count(*) n from visits where user_id = ?", r -> r.getLong("n"), id);
+ * Jdbc.all(user, orders, stats);   // fails fast, cancelling the others
+ * return new Profile(user.join().orElseThrow(), orders.join(), stats.join().orElse(0L));
+ * }</pre>
+ *
+ * <p>At most {@link #parallelism()} calls run at once — the pool size, so
+ * fanning out never queues on the pool itself; the rest wait their turn in
+ * order. Their statements are child spans of the request that made them.</p>
+ *
+ * <p>Cancelling a future returned here (not one derived from it with
+ * {@code thenApply} and the like) stops a call that has not started and
+ * interrupts one that has. What an interrupted statement does is up to the
+ * driver: most abort the socket read, and the pool discards the
+ * connection.</p>
+ */
+public final class AsyncJdbc {
+
+    private static final ThreadFactory threads = Thread.ofVirtual().name("ligero-jdbc-async-", 0).factory();
+
+    private final Jdbc jdbc;
+    private final Semaphore slots;
+    private final int parallelism;
+
+    AsyncJdbc(Jdbc jdbc, int parallelism) {
+        this.jdbc = jdbc;
+        this.parallelism = parallelism;
+        this.slots = new Semaphore(parallelism, true);
+    }
+
+    /** Calls that run at once; the others wait for a slot. */
+    public int parallelism() {
+        return parallelism;
+    }
+
+    public <T> CompletableFuture<List<T>> query(String sql, RowMapper<T> mapper, Object... params) {
+        return submit(() -> jdbc.query(sql, mapper, params));
+    }
+
+    public <T> CompletableFuture<List<T>> query(String sql, Class<T> type, Object... params) {
+        return submit(() -> jdbc.query(sql, type, params));
+    }
+
+    public <T> CompletableFuture<Optional<T>> queryOne(String sql, RowMapper<T> mapper, Object... params) {
+        return submit(() -> jdbc.queryOne(sql, mapper, params));
+    }
+
+    public <T> CompletableFuture<Optional<T>> queryOne(String sql, Class<T> type, Object... params) {
+        return submit(() -> jdbc.queryOne(sql, type, params));
+    }
+
+    public CompletableFuture<Integer> update(String sql, Object... params) {
+        return submit(() -> jdbc.update(sql, params));
+    }
+
+    public CompletableFuture<Long> insert(String sql, Object... params) {
+        return submit(() -> jdbc.insert(sql, params));
+    }
+
+    /** Runs {@code work} in a transaction, see {@link Jdbc#tx}. */
+    public <T> CompletableFuture<T> tx(Function<Jdbc.Tx, T> work) {
+        return submit(() -> jdbc.tx(work));
+    }
+
+    /** Runs {@code work} against the {@link Jdbc}, for several calls that belong together. */
+    public <T> CompletableFuture<T> call(Function<Jdbc, T> work) {
+        return submit(() -> work.apply(jdbc));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        Call<T> call = new Call<>(work, TracingMiddleware.currentSpan());
+        threads.newThread(call).start();
+        return call;
+    }
+
+    /** A future that runs itself, and interrupts its thread when cancelled. */
+    private final class Call<T> extends CompletableFuture<T> implements Runnable {
+        private final Supplier<T> work;
+        private final Tracer.Span parent;
+        private volatile Thread runner;
+
+        Call(Supplier<T> work, Tracer.Span parent) {
+            this.work = work;
+            this.parent = parent;
+        }
+
+        @Override
+        public void run() {
+            runner = Thread.currentThread();
+            try {
+                if (isDone()) {
+                    return;
+                }
+                slots.acquire();
+                try {
+                    if (!isDone()) {
+                        SqlMetrics.PARENT.set(parent);
+                        complete(work.get());
+                    }
+                } finally {
+                    slots.release();
+                }
+            } catch (InterruptedException e) {
+                // only cancel() interrupts, and it completed this future first
+                completeExceptionally(e);
+            } catch (Throwable t) {
+                completeExceptionally(t);
+            } finally {
+                runner = null;
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Thread thread = runner;
+            if (cancelled && thread != null) {
+                thread.interrupt();
+            }
+            return cancelled;
+        }
+    }
+}
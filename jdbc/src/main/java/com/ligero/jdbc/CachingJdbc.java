@@ -0,0 +1,410 @@
+package com.ligero.jdbc;
+
+import com.ligero.cache.Cache;
+import com.ligero.cache.CacheStats;
+import com.ligero.cache.InMemoryCache;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * {@link SqlOps} that caches the results of chosen queries in a {@link Cache},
+ * keyed on the SQL and its parameters, and drops them when a write through it
+ * touches one of their tables. Everything else passes straight through to the
+ * wrapped {@link Jdbc} (or {@link RoutingJdbc}).
+ *
+ * <pre>{@code
+ * CachingJdbc db = CachingJdbc.builder(jdbc).defaultTtl(Duration.ofMinutes(5)).build();
+ *
+ * CachingJdbc.Query<Flag> flags = db.cached("select name, enabled from feature_flags where name = ?", asFlag);
+ * Optional<Flag> dark = flags.one("dark-mode");            // one query per 5 minutes, not per request
+ *
+ * db.update("update feature_flags set enabled = ? where name = ?", true, "dark-mode"); // drops it
+ * }</pre>
+ *
+ * <p>A query's tables are read from the SQL ({@code from}, {@code join},
+ * {@code into}, {@code update}), ignoring schema and case; name them with
+ * {@link #cached(String, RowMapper, String...)} when the SQL hides them (a
+ * view, a function). A write
+ * whose tables cannot be found drops the whole cache. Writes made elsewhere —
+ * in a {@code tx}, another service, another instance — are only seen when the
+ * TTL runs out or after {@link #invalidate}.</p>
+ *
+ * <p>Each result is stored with the version of its tables at the time it was
+ * read; a write bumps the versions, and a result found behind them is dropped
+ * and read again. Results nobody asks for again leave the cache by its TTL or
+ * size bound. Concurrent misses on the same key share one query, unless a
+ * write landed after it started. {@link #stats()} feeds
+ * {@code MetricsEndpointMiddleware.builder().cache("jdbc", db::stats)}.</p>
+ */
+public final class CachingJdbc implements SqlOps {
+
+    private static final Pattern TABLE_KEYWORD =
+        Pattern.compile("\\b(from|join|into|update)\\s+", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern NAME = Pattern.compile("[\\w$.\"`\\[\\]]+");
+
+    /** Words that can follow a table name and are not an alias. */
+    private static final Set<String> NOT_ALIASES = Set.of("where", "on", "using", "set", "values", "select",
+        "join", "inner", "left", "right", "full", "cross", "natural", "group", "order", "limit", "having",
+        "union", "returning", "for", "default");
+
+    private record Key(String sql, List<Object> params, boolean single) {
+    }
+
+    /** A cached result and the versions its tables had before it was read. */
+    private record Entry(Object value, String[] tables, long[] versions) {
+    }
+
+    /** A query on its way, and the versions its tables had when it started. */
+    private record Loading(CompletableFuture<Object> result, long[] versions) {
+    }
+
+    private final SqlOps db;
+    private final Cache<Object, Object> cache;
+    private final Duration defaultTtl;
+    /** Table name → version, bumped by each write to it. */
+    private final ConcurrentHashMap<String, AtomicLong> tables = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Key, Loading> loading = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private CachingJdbc(Builder builder) {
+        this.db = builder.db;
+        this.cache = builder.cache != null ? builder.cache : new InMemoryCache<>();
+        this.defaultTtl = builder.defaultTtl;
+    }
+
+    public static Builder builder(SqlOps db) {
+        return new Builder(db);
+    }
+
+    /**
+     * A query whose results are cached for the default TTL, invalidated by
+     * writes to the tables named in {@code sql}.
+     *
+     * @throws IllegalArgumentException if no table can be found in {@code sql};
+     *         name them with {@link #cached(String, RowMapper, String...)}
+     */
+    public <T> Query<T> cached(String sql, RowMapper<T> mapper) {
+        return new Query<>(sql, mapper, defaultTtl, tables(sql));
+    }
+
+    /**
+     * A query whose results are cached for the default TTL, invalidated by
+     * writes to {@code tables} — for SQL whose tables cannot be read from it,
+     * such as {@code select my_fn(?)}.
+     */
+    public <T> Query<T> cached(String sql, RowMapper<T> mapper, String... tables) {
+        return new Query<>(sql, mapper, defaultTtl, names(tables));
+    }
+
+    /** Drops every cached result that reads {@code tables}; for writes made around this instance. */
+    public void invalidate(String... tables) {
+        for (String table : tables) {
+            drop(normalize(table));
+        }
+    }
+
+    /** Makes every result read from {@code name} so far stale; nothing cached read it if it is unknown. */
+    private void drop(String name) {
+        AtomicLong version = tables.get(name);
+        if (version != null) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops every cached result, by making them all stale; the cache itself is
+     * left alone, as it may be shared (and a {@code RedisCache} cannot be cleared).
+     */
+    public void invalidateAll() {
+        tables.values().forEach(AtomicLong::incrementAndGet);
+    }
+
+    /** Hits and misses of the cached queries, and results found stale after a write. */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private Object lookup(Key key, Duration ttl, String[] names, Supplier<Object> load) {
+        Optional<Object> hit = cache.get(key);
+        if (hit.isPresent()) {
+            Entry entry = (Entry) hit.get();
+            if (current(entry)) {
+                hits.increment();
+                return entry.value();
+            }
+            cache.evict(key);
+            evictions.increment();
+        }
+        misses.increment();
+        // taken before reading, so a write that lands meanwhile leaves the entry stale
+        long[] versions = new long[names.length];
+        for (int i = 0; i < names.length; i++) {
+            versions[i] = tables.computeIfAbsent(names[i], n -> new AtomicLong()).get();
+        }
+        Loading mine = new Loading(new CompletableFuture<>(), versions);
+        while (true) {
+            Loading inFlight = loading.putIfAbsent(key, mine);
+            if (inFlight == null) {
+                break;
+            }
+            if (Arrays.equals(inFlight.versions(), versions)) {
+                return join(inFlight.result()); // the same query is already on its way
+            }
+            if (loading.replace(key, inFlight, mine)) {
+                break; // that one started before a write, so its result may miss it; read again
+            }
+        }
+        try {
+            Object value = load.get();
+            cache.put(key, new Entry(value, names, versions), ttl);
+            mine.result().complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, mine);
+        }
+    }
+
+    private boolean current(Entry entry) {
+        for (int i = 0; i < entry.tables().length; i++) {
+            AtomicLong version = tables.get(entry.tables()[i]);
+            if (version == null || version.get() != entry.versions()[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private <T> T wrote(String sql, T result) {
+        Set<String> names = tables(sql);
+        if (names.isEmpty()) {
+            invalidateAll();
+        } else {
+            names.forEach(this::drop);
+        }
+        return result;
+    }
+
+    /**
+     * The tables {@code sql} reads or writes, lower-cased and without schema or
+     * quotes: each name after {@code from}, {@code join}, {@code into} or
+     * {@code update}, and the rest of a comma-separated {@code from} list.
+     */
+    static Set<String> tables(String sql) {
+        Set<String> names = new LinkedHashSet<>();
+        Matcher keyword = TABLE_KEYWORD.matcher(sql);
+        Matcher name = NAME.matcher(sql);
+        int at = 0;
+        while (keyword.find(at)) {
+            at = keyword.end();
+            boolean list = keyword.group(1).equalsIgnoreCase("from");
+            while (name.find(at) && name.start() == at) {
+                names.add(normalize(name.group()));
+                at = skipAlias(sql, name, name.end());
+                if (!list || at >= sql.length() || sql.charAt(at) != ',') {
+                    break;
+                }
+                at = skipSpaces(sql, at + 1);
+            }
+        }
+        return names;
+    }
+
+    /** The index after the optional {@code [as] alias} following a table name at {@code at}. */
+    private static int skipAlias(String sql, Matcher name, int at) {
+        int next = skipSpaces(sql, at);
+        if (name.find(next) && name.start() == next) {
+            String word = name.group().toLowerCase(Locale.ROOT);
+            if (word.equals("as")) {
+                return skipAlias(sql, name, name.end());
+            }
+            if (!NOT_ALIASES.contains(word)) {
+                return skipSpaces(sql, name.end());
+            }
+        }
+        return next;
+    }
+
+    private static int skipSpaces(String sql, int at) {
+        while (at < sql.length() && Character.isWhitespace(sql.charAt(at))) {
+            at++;
+        }
+        return at;
+    }
+
+    private static List<Object> key(Object[] params) {
+        return Collections.unmodifiableList(Arrays.asList(params.clone()));
+    }
+
+    private static Set<String> names(String... tables) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String table : tables) {
+            names.add(normalize(table));
+        }
+        return names;
+    }
+
+    private static String normalize(String table) {
+        String name = table.replaceAll("[\"`\\[\\]]", "");
+        return name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    // ---- pass-through ----
+
+    @Override
+    public RowMappers rowMappers() {
+        return db.rowMappers();
+    }
+
+    @Override
+    public <T> List<T> query(String sql, RowMapper<T> mapper, Object... params) {
+        return db.query(sql, mapper, params);
+    }
+
+    @Override
+    public <T> Optional<T> queryOne(String sql, RowMapper<T> mapper, Object... params) {
+        return db.queryOne(sql, mapper, params);
+    }
+
+    @Override
+    public <T> Stream<T> stream(String sql, RowMapper<T> mapper, Object... params) {
+        return db.stream(sql, mapper, params);
+    }
+
+    @Override
+    public int update(String sql, Object... params) {
+        return wrote(sql, db.update(sql, params));
+    }
+
+    @Override
+    public long insert(String sql, Object... params) {
+        return wrote(sql, db.insert(sql, params));
+    }
+
+    @Override
+    public long batch(String sql, List<Object[]> rows, int batchSize) {
+        return wrote(sql, db.batch(sql, rows, batchSize));
+    }
+
+    @Override
+    public long[] batchInsert(String sql, List<Object[]> rows, int batchSize) {
+        return wrote(sql, db.batchInsert(sql, rows, batchSize));
+    }
+
+    /**
+     * A cached query. Immutable: {@link #ttl} and {@link #tables} return a
+     * copy, so keep the configured instance in a field.
+     */
+    public final class Query<T> {
+        private final String sql;
+        private final RowMapper<T> mapper;
+        private final Duration ttl;
+        private final String[] reads;
+
+        private Query(String sql, RowMapper<T> mapper, Duration ttl, Set<String> reads) {
+            this(sql, mapper, ttl, reads.toArray(String[]::new));
+        }
+
+        private Query(String sql, RowMapper<T> mapper, Duration ttl, String[] reads) {
+            if (reads.length == 0) {
+                throw new IllegalArgumentException("No table found in '" + sql
+                    + "'; name them with cached(sql, mapper, tables...)");
+            }
+            this.sql = sql;
+            this.mapper = mapper;
+            this.ttl = ttl;
+            this.reads = reads;
+        }
+
+        /** How long results stay cached; zero keeps them until a write drops them. */
+        public Query<T> ttl(Duration ttl) {
+            if (ttl == null || ttl.isNegative()) {
+                throw new IllegalArgumentException("ttl must be >= 0");
+            }
+            return new Query<>(sql, mapper, ttl, reads);
+        }
+
+        /** The tables whose writes drop this query's results, instead of those in its SQL. */
+        public Query<T> tables(String... tables) {
+            return new Query<>(sql, mapper, ttl, names(tables));
+        }
+
+        /** All matching rows, from the cache when possible. */
+        @SuppressWarnings("unchecked")
+        public List<T> list(Object... params) {
+            return (List<T>) lookup(new Key(sql, key(params), false), ttl, reads,
+                () -> List.copyOf(db.query(sql, mapper, params)));
+        }
+
+        /** The first matching row, from the cache when possible; an empty result is cached too. */
+        @SuppressWarnings("unchecked")
+        public Optional<T> one(Object... params) {
+            return (Optional<T>) lookup(new Key(sql, key(params), true), ttl, reads,
+                () -> db.queryOne(sql, mapper, params));
+        }
+    }
+
+    public static final class Builder {
+        private final SqlOps db;
+        private Cache<Object, Object> cache;
+        private Duration defaultTtl = Duration.ofMinutes(1);
+
+        private Builder(SqlOps db) {
+            if (db == null) {
+                throw new IllegalArgumentException("db must not be null");
+            }
+            this.db = db;
+        }
+
+        /** Where results are kept (default a fresh {@link InMemoryCache}). */
+        public Builder cache(Cache<Object, Object> cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /** TTL of queries that do not set their own (default 1 minute); zero never expires. */
+        public Builder defaultTtl(Duration ttl) {
+            if (ttl == null || ttl.isNegative()) {
+                throw new IllegalArgumentException("defaultTtl must be >= 0");
+            }
+            this.defaultTtl = ttl;
+            return this;
+        }
+
+        public CachingJdbc build() {
+            return new CachingJdbc(this);
+        }
+    }
+}
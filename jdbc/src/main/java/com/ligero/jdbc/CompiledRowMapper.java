@@ -0,0 +1,39 @@
+package com.ligero.jdbc;
+
+import java.lang.ref.WeakReference;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link RowMapper#compiled}: {@link #bind} builds the per-row mapper, and
+ * {@link #map} called without it keeps the one built for the last result, so
+ * it still builds once per result rather than once per row.
+ */
+final class CompiledRowMapper<T> implements RowMapper<T> {
+
+    /** A per-row mapper and the result it was built for; weak so a closed result's rows are not kept. */
+    private record Bound<T>(WeakReference<ResultSet> rows, RowMapper<T> mapper) {
+    }
+
+    private final Compiler<T> compiler;
+    private volatile Bound<T> last;
+
+    CompiledRowMapper(Compiler<T> compiler) {
+        this.compiler = compiler;
+    }
+
+    @Override
+    public T map(ResultSet row) throws SQLException {
+        Bound<T> bound = last;
+        if (bound == null || bound.rows().get() != row) {
+            bound = new Bound<>(new WeakReference<>(row), bind(row));
+            last = bound;
+        }
+        return bound.mapper().map(row);
+    }
+
+    @Override
+    public RowMapper<T> bind(ResultSet rows) throws SQLException {
+        return compiler.compile(Columns.of(rows.getMetaData()));
+    }
+}
@@ -0,0 +1,90 @@
+package com.ligero.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * The spliterator behind {@link SqlOps#stream}: maps one row per
+ * {@link #tryAdvance} straight off the open {@link ResultSet}, so only the
+ * driver's fetch buffer is held in memory. Closed by the stream's
+ * {@code close()} or, if the caller reads to the end, as soon as the last row
+ * has been read.
+ */
+final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+
+    /** Gives back what the cursor borrowed: the connection, or nothing inside a transaction. */
+    @FunctionalInterface
+    interface Release {
+        void run() throws SQLException;
+    }
+
+    private final String sql;
+    private final PreparedStatement statement;
+    private final ResultSet rows;
+    private final RowMapper<T> mapper;
+    private final LongConsumer finish;
+    private final Release release;
+    private long read;
+    private boolean failed;
+    private boolean closed;
+
+    Cursor(String sql, PreparedStatement statement, ResultSet rows, RowMapper<T> mapper,
+           LongConsumer finish, Release release) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED);
+        this.sql = sql;
+        this.statement = statement;
+        this.rows = rows;
+        this.mapper = mapper;
+        this.finish = finish;
+        this.release = release;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (closed) {
+            return false;
+        }
+        T row;
+        try {
+            if (!rows.next()) {
+                close();
+                return false;
+            }
+            row = mapper.map(rows);
+        } catch (SQLException e) {
+            failed = true;
+            close();
+            throw new JdbcException(sql, e);
+        }
+        read++;
+        action.accept(row);
+        return true;
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        SQLException error = null;
+        try (statement) {
+            rows.close();
+        } catch (SQLException e) {
+            error = e;
+        }
+        finish.accept(failed ? -1 : read);
+        try {
+            release.run();
+        } catch (SQLException e) {
+            error = error == null ? e : error;
+        }
+        if (error != null && !failed) {
+            throw new JdbcException(sql, error);
+        }
+    }
+}
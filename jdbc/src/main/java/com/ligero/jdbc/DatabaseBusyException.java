@@ -0,0 +1,15 @@
+package com.ligero.jdbc;
+
+import com.ligero.http.HttpException;
+
+/**
+ * 503 Service Unavailable: every connection slot of a
+ * {@link Jdbc.Builder#maxConcurrency limited} {@link Jdbc} stayed taken for
+ * the whole wait, so the request fails fast instead of queuing on the pool.
+ */
+public final class DatabaseBusyException extends HttpException {
+
+    public DatabaseBusyException(String message) {
+        super(503, message);
+    }
+}
@@ -1,11 +1,23 @@
 package com.ligero.jdbc;
 
+import com.ligero.spi.MetricsCollector;
+
+import com.zaxxer.hikari.HikariDataSource;
+
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * A tiny, explicit data helper over a {@link DataSource}: you write the SQL, it
@@ -23,6 +35,18 @@ import java.util.function.Function;
  * long              id  = db.insert("insert into products(name) values (?)", "Keyboard");
  * int              rows = db.update("update products set name = ? where id = ?", "Mouse", id);
  *
+ * // large reads: rows are mapped as they arrive, never collected
+ * try (Stream<Product> rows = db.stream("select id, name from products", asProduct)) {
+ *     rows.forEach(exporter::write);
+ * }
+ *
+ * // bulk writes: one round trip per 1,000 rows instead of one per row
+ * long[] ids = db.batchInsert("insert into products(name) values (?)",
+ *     names.stream().map(n -> new Object[] {n}).toList());
+ *
+ * // or let ligero-processor generate the mapper of a @Row record
+ * List<Product> cheap = db.query("select id, name from products where price < ?", Product.class, 10);
+ *
  * // a transaction: commit on success, rollback on any exception
  * db.tx(tx -> {
  *     long pid = tx.insert("insert into products(name) values (?)", "Bundle");
@@ -30,55 +54,271 @@ import java.util.function.Function;
  *     return pid;
  * });
  * }</pre>
+ *
+ * <p>With virtual threads, thousands of requests can reach the pool at once
+ * and queue there for its whole {@code connectionTimeout} when the database
+ * slows down. {@link Builder#maxConcurrency} puts a fair, bounded wait in
+ * front of it that fails with a 503 instead:</p>
+ *
+ * <pre>{@code
+ * Jdbc db = Jdbc.builder(dataSource).maxConcurrency(10, Duration.ofMillis(500)).build();
+ * }</pre>
+ *
+ * <p>Independent queries of one request can run at once on
+ * {@link #async()}, {@link #all waited for} together:</p>
+ *
+ * <pre>{@code
+ * var user   = db.async().queryOne("select * from users where id = ?", User.class, id);
+ * var orders = db.async().query("select * from orders where user_id = ?", Order.class, id);
+ * Jdbc.all(user, orders);
+ * }</pre>
+ *
+ * <p>Every statement is timed under the id of its normalized SQL: slow ones
+ * are logged, and with {@link Builder#metrics} each is reported to a
+ * {@link MetricsCollector} for per-statement latency histograms.</p>
+ *
+ * <p>Drivers that block inside {@code synchronized} pin the virtual thread's
+ * carrier; {@link PinningDetector} reports where that happens.</p>
  */
 public final class Jdbc implements SqlOps {
 
+    /** Statements slower than this are logged unless {@link Builder#slowQueryThreshold} says otherwise. */
+    public static final Duration DEFAULT_SLOW_QUERY_THRESHOLD = Duration.ofSeconds(1);
+
+    /** HikariCP's default {@code maximumPoolSize}, the {@link #async()} parallelism of other pools. */
+    private static final int DEFAULT_POOL_SIZE = 10;
+
     private final DataSource dataSource;
+    private final RowMappers rowMappers;
+    private final SqlMetrics metrics;
+    /** Connection slots when {@link Builder#maxConcurrency limited}, else null. */
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long waitNanos;
+    private volatile AsyncJdbc async;
 
     public Jdbc(DataSource dataSource) {
+        this(dataSource, null);
+    }
+
+    /** Maps by-class queries with {@code rowMappers} instead of {@link RowMappers#global()}. */
+    public Jdbc(DataSource dataSource, RowMappers rowMappers) {
         this.dataSource = dataSource;
+        this.rowMappers = rowMappers;
+        this.metrics = SqlMetrics.DEFAULT;
+        this.permits = null;
+        this.maxConcurrency = 0;
+        this.waitNanos = 0;
+    }
+
+    private Jdbc(Builder builder) {
+        this.dataSource = builder.dataSource;
+        this.rowMappers = builder.rowMappers;
+        this.metrics = new SqlMetrics(builder.collector, builder.slowQueryThreshold);
+        this.permits = builder.maxConcurrency > 0 ? new Semaphore(builder.maxConcurrency, true) : null;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.waitNanos = builder.maxWait.toNanos();
+    }
+
+    public static Builder builder(DataSource dataSource) {
+        return new Builder(dataSource);
     }
 
     @Override
-    public <T> List<T> query(String sql, RowMapper<T> mapper, Object... params) {
+    public RowMappers rowMappers() {
+        return rowMappers != null ? rowMappers : RowMappers.global();
+    }
+
+    /**
+     * This instance's calls as {@link CompletableFuture}s on virtual threads,
+     * at most as many at once as {@link Builder#maxConcurrency permits} or
+     * else connections in a HikariCP pool (else 10). Always the same
+     * {@link AsyncJdbc}, so the bound holds across requests.
+     */
+    public AsyncJdbc async() {
+        AsyncJdbc result = async;
+        if (result == null) {
+            synchronized (this) {
+                result = async;
+                if (result == null) {
+                    async = result = new AsyncJdbc(this, parallelism());
+                }
+            }
+        }
+        return result;
+    }
+
+    private int parallelism() {
+        if (maxConcurrency > 0) {
+            return maxConcurrency;
+        }
+        return dataSource instanceof HikariDataSource pool ? pool.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+    }
+
+    /**
+     * Waits for all of {@code futures}. When one fails, cancels the others and
+     * throws its exception; when the waiting thread is interrupted — the
+     * request aborted — cancels them all and throws a
+     * {@link CancellationException}.
+     */
+    public static void all(CompletableFuture<?>... futures) {
+        CompletableFuture<Object> failed = new CompletableFuture<>();
+        for (CompletableFuture<?> future : futures) {
+            future.whenComplete((result, e) -> {
+                if (e != null) {
+                    failed.completeExceptionally(e);
+                }
+            });
+        }
+        try {
+            CompletableFuture.anyOf(CompletableFuture.allOf(futures), failed).get();
+        } catch (ExecutionException e) {
+            cancel(futures);
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(cause);
+        } catch (InterruptedException e) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted waiting for " + futures.length + " queries");
+        }
+    }
+
+    private static void cancel(CompletableFuture<?>[] futures) {
+        for (CompletableFuture<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Work<T> {
+        T run(Connection c) throws SQLException;
+    }
+
+    /** Runs {@code work} on a connection of its own, holding a slot throughout when limited. */
+    private <T> T withConnection(String sql, Work<T> work) {
+        acquire();
         try (Connection c = dataSource.getConnection()) {
-            return SqlOps.runQuery(c, sql, mapper, params);
+            return work.run(c);
         } catch (SQLException e) {
             throw new JdbcException(sql, e);
+        } finally {
+            release();
+        }
+    }
+
+    private void acquire() {
+        if (permits == null) {
+            return;
+        }
+        try {
+            if (!permits.tryAcquire(waitNanos, TimeUnit.NANOSECONDS)) {
+                throw new DatabaseBusyException("Database busy: no connection slot within "
+                    + TimeUnit.NANOSECONDS.toMillis(waitNanos) + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseBusyException("Interrupted waiting for a connection slot");
         }
     }
 
+    private void release() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    @Override
+    public <T> List<T> query(String sql, RowMapper<T> mapper, Object... params) {
+        return withConnection(sql, c -> SqlOps.runQuery(c, metrics, sql, mapper, params));
+    }
+
     @Override
     public <T> Optional<T> queryOne(String sql, RowMapper<T> mapper, Object... params) {
         List<T> rows = query(sql, mapper, params);
         return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
     }
 
+    /**
+     * Holds a connection (and, when limited, its slot) until the stream is
+     * closed, in a read-only transaction: with auto-commit on, the PostgreSQL
+     * driver ignores the fetch size and reads the whole result into memory.
+     */
     @Override
-    public int update(String sql, Object... params) {
-        try (Connection c = dataSource.getConnection()) {
-            return SqlOps.runUpdate(c, sql, params);
+    public <T> Stream<T> stream(String sql, RowMapper<T> mapper, Object... params) {
+        Connection c;
+        boolean autoCommit;
+        boolean readOnly;
+        acquire();
+        try {
+            c = dataSource.getConnection();
         } catch (SQLException e) {
+            release();
             throw new JdbcException(sql, e);
         }
+        try {
+            autoCommit = c.getAutoCommit();
+            readOnly = c.isReadOnly();
+            c.setAutoCommit(false);
+            c.setReadOnly(true);
+        } catch (SQLException e) {
+            try {
+                c.close();
+            } catch (SQLException suppressed) {
+                e.addSuppressed(suppressed);
+            } finally {
+                release();
+            }
+            throw new JdbcException(sql, e);
+        }
+        return SqlOps.runStream(c, metrics, sql, mapper, params, () -> {
+            try (c) {
+                c.commit();
+                c.setAutoCommit(autoCommit);
+                c.setReadOnly(readOnly);
+            } finally {
+                release();
+            }
+        });
+    }
+
+    @Override
+    public int update(String sql, Object... params) {
+        return withConnection(sql, c -> SqlOps.runUpdate(c, metrics, sql, params));
     }
 
     @Override
     public long insert(String sql, Object... params) {
-        try (Connection c = dataSource.getConnection()) {
-            return SqlOps.runInsert(c, sql, params);
-        } catch (SQLException e) {
-            throw new JdbcException(sql, e);
-        }
+        return withConnection(sql, c -> SqlOps.runInsert(c, metrics, sql, params));
+    }
+
+    /** Runs in its own transaction, so a failed row leaves nothing behind. */
+    @Override
+    public long batch(String sql, List<Object[]> rows, int batchSize) {
+        return tx(tx -> tx.batch(sql, rows, batchSize));
+    }
+
+    /** Runs in its own transaction, so a failed row leaves nothing behind. */
+    @Override
+    public long[] batchInsert(String sql, List<Object[]> rows, int batchSize) {
+        return tx(tx -> tx.batchInsert(sql, rows, batchSize));
     }
 
     /** Runs {@code work} in a transaction: commit on success, rollback on any exception. */
     public <T> T tx(Function<Tx, T> work) {
-        try (Connection c = dataSource.getConnection()) {
+        return withConnection("transaction", c -> {
             boolean previous = c.getAutoCommit();
             c.setAutoCommit(false);
             try {
-                T result = work.apply(new Tx(c));
+                T result = work.apply(new Tx(c, rowMappers(), metrics));
                 c.commit();
                 return result;
             } catch (RuntimeException e) {
@@ -87,22 +327,96 @@ public final class Jdbc implements SqlOps {
             } finally {
                 c.setAutoCommit(previous);
             }
-        } catch (SQLException e) {
-            throw new JdbcException("transaction", e);
+        });
+    }
+
+    public static final class Builder {
+        private final DataSource dataSource;
+        private RowMappers rowMappers;
+        private int maxConcurrency;
+        private Duration maxWait = Duration.ZERO;
+        private MetricsCollector collector;
+        private Duration slowQueryThreshold = DEFAULT_SLOW_QUERY_THRESHOLD;
+
+        private Builder(DataSource dataSource) {
+            if (dataSource == null) {
+                throw new IllegalArgumentException("dataSource must not be null");
+            }
+            this.dataSource = dataSource;
+        }
+
+        /** Mappers for the by-class queries (default {@link RowMappers#global()}). */
+        public Builder rowMappers(RowMappers rowMappers) {
+            this.rowMappers = rowMappers;
+            return this;
+        }
+
+        /**
+         * At most {@code permits} calls hold a connection at once; the others
+         * wait their turn (first come, first served) up to {@code maxWait}, then
+         * get a {@link DatabaseBusyException} (503). Set {@code permits} to the
+         * pool size and {@code maxWait} well below the pool's
+         * {@code connectionTimeout} (default unlimited).
+         */
+        public Builder maxConcurrency(int permits, Duration maxWait) {
+            if (permits < 1) {
+                throw new IllegalArgumentException("permits must be >= 1");
+            }
+            if (maxWait == null || maxWait.isNegative()) {
+                throw new IllegalArgumentException("maxWait must be >= 0");
+            }
+            this.maxConcurrency = permits;
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * Reports each statement's time and rows to {@code collector}, by
+         * {@link MetricsCollector#recordQuery statement id}.
+         */
+        public Builder metrics(MetricsCollector collector) {
+            this.collector = collector;
+            return this;
+        }
+
+        /**
+         * Statements taking at least {@code threshold} are logged as warnings on
+         * {@code com.ligero.jdbc.SqlOps.slow}, with their parameter types but
+         * not their values (default {@link #DEFAULT_SLOW_QUERY_THRESHOLD}).
+         */
+        public Builder slowQueryThreshold(Duration threshold) {
+            if (threshold == null || threshold.isZero() || threshold.isNegative()) {
+                throw new IllegalArgumentException("slowQueryThreshold must be positive");
+            }
+            this.slowQueryThreshold = threshold;
+            return this;
+        }
+
+        public Jdbc build() {
+            return new Jdbc(this);
         }
     }
 
     /** Transaction-scoped operations, sharing one {@link Connection}. */
     public static final class Tx implements SqlOps {
         private final Connection connection;
+        private final RowMappers rowMappers;
+        private final SqlMetrics metrics;
 
-        Tx(Connection connection) {
+        Tx(Connection connection, RowMappers rowMappers, SqlMetrics metrics) {
             this.connection = connection;
+            this.rowMappers = rowMappers;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public RowMappers rowMappers() {
+            return rowMappers;
         }
 
         @Override
         public <T> List<T> query(String sql, RowMapper<T> mapper, Object... params) {
-            return SqlOps.runQuery(connection, sql, mapper, params);
+            return SqlOps.runQuery(connection, metrics, sql, mapper, params);
         }
 
         @Override
@@ -111,14 +425,29 @@ public final class Jdbc implements SqlOps {
             return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
         }
 
+        @Override
+        public <T> Stream<T> stream(String sql, RowMapper<T> mapper, Object... params) {
+            return SqlOps.runStream(connection, metrics, sql, mapper, params, () -> { });
+        }
+
         @Override
         public int update(String sql, Object... params) {
-            return SqlOps.runUpdate(connection, sql, params);
+            return SqlOps.runUpdate(connection, metrics, sql, params);
         }
 
         @Override
         public long insert(String sql, Object... params) {
-            return SqlOps.runInsert(connection, sql, params);
+            return SqlOps.runInsert(connection, metrics, sql, params);
+        }
+
+        @Override
+        public long batch(String sql, List<Object[]> rows, int batchSize) {
+            return SqlOps.runBatch(connection, metrics, sql, rows, batchSize);
+        }
+
+        @Override
+        public long[] batchInsert(String sql, List<Object[]> rows, int batchSize) {
+            return SqlOps.runBatchInsert(connection, metrics, sql, rows, batchSize);
         }
     }
 }
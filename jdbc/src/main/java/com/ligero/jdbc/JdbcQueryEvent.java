@@ -0,0 +1,55 @@
+package com.ligero.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event for one statement run through {@link SqlOps}.
+ * Recorded whenever a JFR recording enables {@code ligero.JdbcQuery}; the
+ * stack trace points at the calling repository.
+ */
+@Name("ligero.JdbcQuery")
+@Label("JDBC Query")
+@Category({"Ligero", "JDBC"})
+final class JdbcQueryEvent extends jdk.jfr.Event {
+
+    static final EventType TYPE = EventType.getEventType(JdbcQueryEvent.class);
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Statement")
+    @Description("Id of the normalized SQL, as in the query metrics and the slow-query log")
+    String statement;
+
+    @Label("Operation")
+    @Description("query, stream, update, insert, batch or batch insert")
+    String operation;
+
+    @Label("Rows")
+    @Description("Rows read or affected; -1 when the statement failed")
+    long rows = -1;
+
+    /** A begun event, or null when no recording wants it. */
+    static JdbcQueryEvent begin(String operation, String sql, String statement) {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        JdbcQueryEvent event = new JdbcQueryEvent();
+        event.operation = operation;
+        event.sql = sql;
+        event.statement = statement;
+        event.begin();
+        return event;
+    }
+
+    static void commit(JdbcQueryEvent event, long rows) {
+        if (event != null) {
+            event.rows = rows;
+            event.commit();
+        }
+    }
+}
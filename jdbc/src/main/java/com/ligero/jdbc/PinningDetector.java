@@ -0,0 +1,196 @@
+package com.ligero.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Diagnostic mode for JDBC on virtual threads: reports each time a virtual
+ * thread blocks while pinned to its carrier inside a {@link SqlOps} call —
+ * typically a driver or pool doing I/O inside {@code synchronized} — with the
+ * SQL it was running and the stack where it blocked. While it is pinned the
+ * carrier can run no other virtual thread, so a few slow statements can
+ * stall every request.
+ *
+ * <pre>{@code
+ * try (PinningDetector detector = PinningDetector.start()) {   // logs a warning per pinning
+ *     ...
+ * }
+ * }</pre>
+ *
+ * <p>It listens to the JDK's {@code jdk.VirtualThreadPinned} Flight Recorder
+ * event, matched by thread and time to the {@code ligero.JdbcQuery} event of
+ * the statement, so it records an event per statement while running: meant
+ * for staging and load tests rather than to be left on. Reports arrive about
+ * a second late, when JFR flushes; pinning in a {@link Jdbc} call but outside
+ * a statement (checking out a connection, committing) is reported without
+ * SQL.</p>
+ */
+public final class PinningDetector implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PinningDetector.class);
+
+    /** The JDK's own default threshold for {@code jdk.VirtualThreadPinned}. */
+    public static final Duration DEFAULT_THRESHOLD = Duration.ofMillis(20);
+
+    /** Pinnings inside statements still waiting for the statement to end. */
+    private static final int MAX_PENDING = 1_000;
+
+    private static final int MAX_FRAMES = 64;
+
+    /**
+     * A virtual thread that stayed pinned for {@code duration}; {@code sql} is
+     * null when it was outside a statement. {@code stack} is formatted like a
+     * Java stack trace, innermost frame first.
+     */
+    public record Pinning(String sql, Duration duration, String thread, String stack) {
+    }
+
+    private record Pending(long threadId, Instant start, Duration duration, String thread, String stack) {
+    }
+
+    private final RecordingStream recording;
+    private final Consumer<Pinning> listener;
+    private final Deque<Pending> pending = new ArrayDeque<>();
+    private final AtomicLong detected = new AtomicLong();
+
+    private PinningDetector(Duration threshold, Consumer<Pinning> listener) {
+        this.listener = listener;
+        this.recording = new RecordingStream();
+        recording.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        recording.enable(JdbcQueryEvent.TYPE.getName()).withoutStackTrace();
+        recording.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        recording.onEvent(JdbcQueryEvent.TYPE.getName(), this::onStatement);
+        recording.startAsync();
+    }
+
+    /** Logs a warning for each pinning of at least {@link #DEFAULT_THRESHOLD}. */
+    public static PinningDetector start() {
+        return start(DEFAULT_THRESHOLD, PinningDetector::log);
+    }
+
+    /** Passes {@code listener} each pinning of at least {@code threshold}, on JFR's stream thread. */
+    public static PinningDetector start(Duration threshold, Consumer<Pinning> listener) {
+        if (threshold == null || threshold.isNegative()) {
+            throw new IllegalArgumentException("threshold must be >= 0");
+        }
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        return new PinningDetector(threshold, listener);
+    }
+
+    /** Pinnings reported so far. */
+    public long detected() {
+        return detected.get();
+    }
+
+    /** Stops listening; pinnings still waiting for their statement are reported without SQL. */
+    @Override
+    public void close() {
+        recording.close();
+        synchronized (pending) {
+            while (!pending.isEmpty()) {
+                report(null, pending.poll());
+            }
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace trace = event.getStackTrace();
+        if (trace == null) {
+            return;
+        }
+        boolean jdbc = false;
+        boolean statement = false;
+        for (RecordedFrame frame : trace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("com.ligero.jdbc.")) {
+                jdbc = true;
+                statement |= type.equals(SqlOps.class.getName()) || type.equals(Cursor.class.getName());
+            }
+        }
+        if (!jdbc) {
+            return;
+        }
+        RecordedThread thread = event.getThread();
+        Pending pinning = new Pending(thread == null ? -1 : thread.getJavaThreadId(), event.getStartTime(),
+            event.getDuration(), thread == null ? null : thread.getJavaName(), stack(trace));
+        if (!statement) {
+            report(null, pinning);
+            return;
+        }
+        // the statement's own event ends later, so it has not been seen yet
+        synchronized (pending) {
+            if (pending.size() == MAX_PENDING) {
+                report(null, pending.poll());
+            }
+            pending.add(pinning);
+        }
+    }
+
+    private void onStatement(RecordedEvent event) {
+        RecordedThread thread = event.getThread();
+        if (thread == null) {
+            return;
+        }
+        long threadId = thread.getJavaThreadId();
+        synchronized (pending) {
+            for (Iterator<Pending> it = pending.iterator(); it.hasNext(); ) {
+                Pending pinning = it.next();
+                if (pinning.threadId() == threadId && !pinning.start().isBefore(event.getStartTime())
+                    && !pinning.start().isAfter(event.getEndTime())) {
+                    it.remove();
+                    report(event.getString("sql"), pinning);
+                }
+            }
+        }
+    }
+
+    private void report(String sql, Pending pinning) {
+        detected.incrementAndGet();
+        try {
+            listener.accept(new Pinning(sql, pinning.duration(), pinning.thread(), pinning.stack()));
+        } catch (RuntimeException e) {
+            log.warn("Pinning listener failed", e);
+        }
+    }
+
+    private static String stack(RecordedStackTrace trace) {
+        StringBuilder sb = new StringBuilder(1024);
+        int frames = 0;
+        for (RecordedFrame frame : trace.getFrames()) {
+            if (frames++ == MAX_FRAMES) {
+                sb.append("\t...\n");
+                break;
+            }
+            sb.append("\tat ").append(frame.getMethod().getType().getName())
+              .append('.').append(frame.getMethod().getName());
+            if (frame.getLineNumber() > 0) {
+                sb.append(':').append(frame.getLineNumber());
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void log(Pinning pinning) {
+        log.warn("Virtual thread {} pinned its carrier for {}ms {}\n{}", pinning.thread(),
+            pinning.duration().toMillis(),
+            pinning.sql() == null ? "outside a statement" : "running SQL: " + pinning.sql(),
+            pinning.stack());
+    }
+}
@@ -0,0 +1,33 @@
+package com.ligero.jdbc;
+
+import com.ligero.spi.MetricsCollector;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Forwards every HikariCP connection checkout to a {@link MetricsCollector}:
+ * the wait, and the pool's connection counts read from {@link PoolStats}
+ * (which Hikari refreshes at most once a second, so this stays cheap). The
+ * same counts are registered as live ones, so an idle pool reads as idle.
+ */
+final class PoolMetricsTracker implements IMetricsTracker {
+
+    private final MetricsCollector collector;
+    private final String pool;
+    private final PoolStats stats;
+
+    PoolMetricsTracker(MetricsCollector collector, String pool, PoolStats stats) {
+        this.collector = collector;
+        this.pool = pool;
+        this.stats = stats;
+        collector.registerPool(pool, stats::getActiveConnections, stats::getIdleConnections,
+            stats::getPendingThreads);
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        collector.recordPool(pool, elapsedAcquiredNanos, stats.getActiveConnections(),
+            stats.getIdleConnections(), stats.getPendingThreads());
+    }
+}
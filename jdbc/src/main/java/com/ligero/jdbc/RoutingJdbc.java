@@ -0,0 +1,372 @@
+package com.ligero.jdbc;
+
+import com.ligero.spi.MetricsCollector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * {@link SqlOps} over a primary and read replicas: {@code query},
+ * {@code queryOne} and {@code stream} go to a healthy replica, everything
+ * else — writes, batches and {@link #tx transactions}, reads inside them
+ * included — to the primary.
+ *
+ * <pre>{@code
+ * RoutingJdbc db = RoutingJdbc.builder(primary)
+ *     .replica("replica-1", replica1)
+ *     .replica("replica-2", replica2)
+ *     .balancing(RoutingJdbc.Balancing.LEAST_ACTIVE)
+ *     .readYourWrites(Duration.ofSeconds(2))
+ *     .build();
+ * scheduler.fixedRate(Duration.ofSeconds(5), db::checkHealth);
+ * }</pre>
+ *
+ * <p>{@link #checkHealth()} validates one connection per replica; a replica
+ * that fails it, or whose connection fails during a read (SQL state
+ * {@code 08}), takes no reads until a later check passes. That read is
+ * retried on the primary, which also serves every read while no replica is
+ * healthy.</p>
+ *
+ * <p>Replicas lag. With {@link Builder#readYourWrites readYourWrites}, reads
+ * on the thread that wrote — with the bundled engines, the rest of the
+ * request — go to the primary for the given window after each write.</p>
+ */
+public final class RoutingJdbc implements SqlOps {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutingJdbc.class);
+
+    /** How a read picks among healthy replicas. */
+    public enum Balancing {
+        /** In turn. */
+        ROUND_ROBIN,
+        /** The one with the fewest reads in flight from this instance. */
+        LEAST_ACTIVE
+    }
+
+    private static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        final Jdbc jdbc;
+        final AtomicInteger active = new AtomicInteger();
+        volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource, Jdbc jdbc) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbc = jdbc;
+        }
+    }
+
+    private final Jdbc primary;
+    private final Replica[] replicas;
+    private final Balancing balancing;
+    private final long stickyNanos;
+    private final int healthTimeoutSeconds;
+    private final AtomicLong turn = new AtomicLong();
+    /** When this thread last wrote (nanoTime), 0 if never; only used with readYourWrites. */
+    private final ThreadLocal<long[]> lastWrite = ThreadLocal.withInitial(() -> new long[1]);
+
+    private RoutingJdbc(Builder builder) {
+        this.primary = builder.jdbc(builder.primary);
+        this.replicas = builder.replicas.stream()
+            .map(r -> new Replica(r.name(), r.dataSource(), builder.jdbc(r.dataSource())))
+            .toArray(Replica[]::new);
+        this.balancing = builder.balancing;
+        this.stickyNanos = builder.readYourWrites.toNanos();
+        this.healthTimeoutSeconds = (int) Math.max(1, builder.healthTimeout.toSeconds());
+    }
+
+    public static Builder builder(DataSource primary) {
+        return new Builder(primary);
+    }
+
+    /** The primary, for reads that must not see replica lag. */
+    public Jdbc primary() {
+        return primary;
+    }
+
+    @Override
+    public RowMappers rowMappers() {
+        return primary.rowMappers();
+    }
+
+    // ---- reads: a replica ----
+
+    @Override
+    public <T> List<T> query(String sql, RowMapper<T> mapper, Object... params) {
+        return read(db -> db.query(sql, mapper, params));
+    }
+
+    @Override
+    public <T> Optional<T> queryOne(String sql, RowMapper<T> mapper, Object... params) {
+        return read(db -> db.queryOne(sql, mapper, params));
+    }
+
+    /** The stream counts as a read in flight on its replica until it is closed. */
+    @Override
+    public <T> Stream<T> stream(String sql, RowMapper<T> mapper, Object... params) {
+        Replica replica = readReplica();
+        if (replica == null) {
+            return primary.stream(sql, mapper, params);
+        }
+        replica.active.incrementAndGet();
+        try {
+            return replica.jdbc.stream(sql, mapper, params).onClose(replica.active::decrementAndGet);
+        } catch (JdbcException e) {
+            replica.active.decrementAndGet();
+            if (!lostConnection(replica, e)) {
+                throw e;
+            }
+            return primary.stream(sql, mapper, params);
+        }
+    }
+
+    private <T> T read(Function<Jdbc, T> call) {
+        Replica replica = readReplica();
+        if (replica == null) {
+            return call.apply(primary);
+        }
+        replica.active.incrementAndGet();
+        try {
+            return call.apply(replica.jdbc);
+        } catch (JdbcException e) {
+            if (!lostConnection(replica, e)) {
+                throw e;
+            }
+        } finally {
+            replica.active.decrementAndGet();
+        }
+        return call.apply(primary);
+    }
+
+    /** A healthy replica for this read, or null to read from the primary. */
+    private Replica readReplica() {
+        if (replicas.length == 0 || recentlyWrote()) {
+            return null;
+        }
+        int start = (int) Math.floorMod(turn.getAndIncrement(), (long) replicas.length);
+        Replica chosen = null;
+        for (int i = 0; i < replicas.length; i++) {
+            Replica replica = replicas[(start + i) % replicas.length];
+            if (!replica.healthy) {
+                continue;
+            }
+            if (balancing == Balancing.ROUND_ROBIN) {
+                return replica;
+            }
+            if (chosen == null || replica.active.get() < chosen.active.get()) {
+                chosen = replica;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Marks {@code replica} down if {@code e} is a connection failure (SQL state
+     * class 08). A pool timeout only counts when the pool could not connect
+     * either: a replica whose pool is merely busy is still up.
+     */
+    private boolean lostConnection(Replica replica, JdbcException e) {
+        if (!(e.getCause() instanceof SQLException cause) || !isConnectionFailure(cause)) {
+            return false;
+        }
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Replica {} lost its connection, reading from the primary until it recovers", replica.name, e);
+        }
+        return true;
+    }
+
+    private static boolean isConnectionFailure(SQLException e) {
+        if (isPoolTimeout(e)) {
+            return e.getCause() instanceof SQLException cause && isConnectionFailure(cause);
+        }
+        return e instanceof SQLTransientConnectionException || e instanceof SQLNonTransientConnectionException
+            || (e.getSQLState() != null && e.getSQLState().startsWith("08"));
+    }
+
+    /** HikariCP's checkout timeout, which carries the pool's last connection failure (if any) as its cause. */
+    private static boolean isPoolTimeout(SQLException e) {
+        return e instanceof SQLTransientConnectionException && e.getMessage() != null
+            && e.getMessage().contains("Connection is not available, request timed out");
+    }
+
+    private boolean recentlyWrote() {
+        if (stickyNanos == 0) {
+            return false;
+        }
+        long at = lastWrite.get()[0];
+        return at != 0 && System.nanoTime() - at < stickyNanos;
+    }
+
+    private <T> T wrote(T result) {
+        if (stickyNanos > 0) {
+            lastWrite.get()[0] = System.nanoTime();
+        }
+        return result;
+    }
+
+    // ---- writes and transactions: the primary ----
+
+    @Override
+    public int update(String sql, Object... params) {
+        return wrote(primary.update(sql, params));
+    }
+
+    @Override
+    public long insert(String sql, Object... params) {
+        return wrote(primary.insert(sql, params));
+    }
+
+    @Override
+    public long batch(String sql, List<Object[]> rows, int batchSize) {
+        return wrote(primary.batch(sql, rows, batchSize));
+    }
+
+    @Override
+    public long[] batchInsert(String sql, List<Object[]> rows, int batchSize) {
+        return wrote(primary.batchInsert(sql, rows, batchSize));
+    }
+
+    /** Runs {@code work} in a transaction on the primary. */
+    public <T> T tx(Function<Jdbc.Tx, T> work) {
+        return wrote(primary.tx(work));
+    }
+
+    // ---- health ----
+
+    /**
+     * Validates one connection per replica and updates which ones take reads;
+     * meant to run from a scheduler every few seconds.
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection c = replica.dataSource.getConnection()) {
+                healthy = c.isValid(healthTimeoutSeconds);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                replica.healthy = healthy;
+                if (healthy) {
+                    log.info("Replica {} is healthy again", replica.name);
+                } else {
+                    log.warn("Replica {} failed its health check, reading from the others", replica.name);
+                }
+            }
+        }
+    }
+
+    /** Names of the replicas currently taking reads. */
+    public List<String> healthyReplicas() {
+        List<String> names = new ArrayList<>();
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                names.add(replica.name);
+            }
+        }
+        return names;
+    }
+
+    public static final class Builder {
+        private record ReplicaSource(String name, DataSource dataSource) {
+        }
+
+        private final DataSource primary;
+        private final List<ReplicaSource> replicas = new ArrayList<>();
+        private Balancing balancing = Balancing.ROUND_ROBIN;
+        private Duration readYourWrites = Duration.ZERO;
+        private Duration healthTimeout = Duration.ofSeconds(2);
+        private RowMappers rowMappers;
+        private MetricsCollector collector;
+        private Duration slowQueryThreshold = Jdbc.DEFAULT_SLOW_QUERY_THRESHOLD;
+
+        private Builder(DataSource primary) {
+            if (primary == null) {
+                throw new IllegalArgumentException("primary must not be null");
+            }
+            this.primary = primary;
+        }
+
+        /** Adds a read replica; {@code name} identifies it in logs and {@link #healthyReplicas()}. */
+        public Builder replica(String name, DataSource dataSource) {
+            if (name == null || dataSource == null) {
+                throw new IllegalArgumentException("replica name and DataSource must not be null");
+            }
+            replicas.add(new ReplicaSource(name, dataSource));
+            return this;
+        }
+
+        /** How reads are spread over healthy replicas (default round-robin). */
+        public Builder balancing(Balancing balancing) {
+            if (balancing == null) {
+                throw new IllegalArgumentException("balancing must not be null");
+            }
+            this.balancing = balancing;
+            return this;
+        }
+
+        /** Reads on a thread that wrote within {@code window} go to the primary (default off). */
+        public Builder readYourWrites(Duration window) {
+            if (window == null || window.isNegative()) {
+                throw new IllegalArgumentException("readYourWrites window must be >= 0");
+            }
+            this.readYourWrites = window;
+            return this;
+        }
+
+        /** Time {@link #checkHealth()} gives each replica to validate a connection, at least 1s (default 2s). */
+        public Builder healthTimeout(Duration timeout) {
+            if (timeout == null || timeout.compareTo(Duration.ofSeconds(1)) < 0) {
+                throw new IllegalArgumentException("healthTimeout must be >= 1s");
+            }
+            this.healthTimeout = timeout;
+            return this;
+        }
+
+        /** Mappers for the by-class queries (default {@link RowMappers#global()}). */
+        public Builder rowMappers(RowMappers rowMappers) {
+            this.rowMappers = rowMappers;
+            return this;
+        }
+
+        /** Reports every statement, on the primary and the replicas, to {@code collector}. */
+        public Builder metrics(MetricsCollector collector) {
+            this.collector = collector;
+            return this;
+        }
+
+        /** See {@link Jdbc.Builder#slowQueryThreshold}. */
+        public Builder slowQueryThreshold(Duration threshold) {
+            if (threshold == null || threshold.isZero() || threshold.isNegative()) {
+                throw new IllegalArgumentException("slowQueryThreshold must be positive");
+            }
+            this.slowQueryThreshold = threshold;
+            return this;
+        }
+
+        private Jdbc jdbc(DataSource dataSource) {
+            return Jdbc.builder(dataSource).rowMappers(rowMappers).metrics(collector)
+                .slowQueryThreshold(slowQueryThreshold).build();
+        }
+
+        public RoutingJdbc build() {
+            return new RoutingJdbc(this);
+        }
+    }
+}
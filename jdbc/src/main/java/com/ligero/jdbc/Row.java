@@ -0,0 +1,32 @@
+package com.ligero.jdbc;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a record whose {@link RowMapper} the optional {@code ligero-processor}
+ * generates at compile time, so it can be queried by class:
+ *
+ * <pre>{@code
+ * @Row
+ * record User(long id, String name, Integer age, LocalDate createdOn) {}
+ *
+ * List<User> users = db.query("select * from users where age > ?", User.class, 18);
+ * }</pre>
+ *
+ * <p>Each component reads the column with its name or its snake_case form
+ * ({@code createdOn} or {@code created_on}), resolved to an index once per
+ * query. Supported component types: primitives and their boxes (boxes map SQL
+ * {@code NULL} to {@code null}), {@code String}, {@code BigDecimal},
+ * {@code byte[]}, {@code UUID}, enums (by name), {@code LocalDate},
+ * {@code LocalTime}, {@code LocalDateTime}, {@code OffsetDateTime} and
+ * {@code Instant}. The generated mappers are registered in
+ * {@link RowMappers#global()} through a {@code ServiceLoader} provider — no
+ * reflection on the record.</p>
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Row {
+}
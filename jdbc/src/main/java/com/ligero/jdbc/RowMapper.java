@@ -1,10 +1,91 @@
 package com.ligero.jdbc;
 
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
-/** Maps the current row of a {@link ResultSet} to a {@code T} (usually a record). */
+/**
+ * Maps the current row of a {@link ResultSet} to a {@code T} (usually a record).
+ *
+ * <p>Reading columns by label ({@code r.getLong("id")}) makes the driver
+ * search the column list on every row. For large results,
+ * {@link #compiled(Compiler)} resolves the labels to indexes once per query:</p>
+ *
+ * <pre>{@code
+ * RowMapper<Product> asProduct = RowMapper.compiled(columns -> {
+ *     int id = columns.index("id");
+ *     int name = columns.index("name");
+ *     return r -> new Product(r.getLong(id), r.getString(name));
+ * });
+ * }</pre>
+ */
 @FunctionalInterface
 public interface RowMapper<T> {
+
     T map(ResultSet row) throws SQLException;
+
+    /**
+     * The mapper to apply to every row of {@code rows}, called once per query
+     * before the first row. Returns this mapper unless it was
+     * {@link #compiled(Compiler) compiled}.
+     */
+    default RowMapper<T> bind(ResultSet rows) throws SQLException {
+        return this;
+    }
+
+    /**
+     * A mapper built once per query from the result's column labels. Called
+     * through {@code map} without {@link #bind} first, it builds once per
+     * result and reuses that for the following rows.
+     */
+    static <T> RowMapper<T> compiled(Compiler<T> compiler) {
+        return new CompiledRowMapper<>(compiler);
+    }
+
+    /** Builds the per-row mapper of a {@link #compiled} one from the result's columns. */
+    @FunctionalInterface
+    interface Compiler<T> {
+        RowMapper<T> compile(Columns columns) throws SQLException;
+    }
+
+    /** Column labels of a result, case-insensitive, to their 1-based indexes. */
+    final class Columns {
+        private final Map<String, Integer> indexes;
+
+        private Columns(Map<String, Integer> indexes) {
+            this.indexes = indexes;
+        }
+
+        static Columns of(ResultSetMetaData meta) throws SQLException {
+            int count = meta.getColumnCount();
+            Map<String, Integer> indexes = new HashMap<>(count * 2);
+            // first occurrence wins, like ResultSet.findColumn
+            for (int i = count; i >= 1; i--) {
+                indexes.put(meta.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+            }
+            return new Columns(indexes);
+        }
+
+        /** The index of column {@code label}. */
+        public int index(String label) throws SQLException {
+            Integer index = indexes.get(label.toLowerCase(Locale.ROOT));
+            if (index == null) {
+                throw new SQLException("Column not found: " + label);
+            }
+            return index;
+        }
+
+        /** The index of column {@code label}, or else of column {@code alias}. */
+        public int index(String label, String alias) throws SQLException {
+            return has(label) || !has(alias) ? index(label) : index(alias);
+        }
+
+        /** Whether the result has a column {@code label}. */
+        public boolean has(String label) {
+            return indexes.containsKey(label.toLowerCase(Locale.ROOT));
+        }
+    }
 }
@@ -0,0 +1,66 @@
+package com.ligero.jdbc;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link RowMapper}s by record class, behind {@code db.query(sql, User.class)}.
+ * {@link #global()} holds the mappers {@code ligero-processor} generated for
+ * {@link Row @Row} records, found once through {@link ServiceLoader}; more can
+ * be {@link #register registered} by hand.
+ *
+ * <p>Generated mappers are announced in {@code META-INF/services}; an
+ * application on the module path also declares
+ * {@code provides com.ligero.jdbc.RowMappers.Provider with com.ligero.generated.GeneratedRowMappers;}.</p>
+ */
+public final class RowMappers {
+
+    /** Registers a set of mappers; implemented by the generated {@code GeneratedRowMappers}. */
+    public interface Provider {
+        void register(RowMappers mappers);
+    }
+
+    private static final class Global {
+        static final RowMappers INSTANCE = load(ServiceLoader.load(Provider.class));
+    }
+
+    private final Map<Class<?>, RowMapper<?>> mappers = new ConcurrentHashMap<>();
+
+    public RowMappers() {
+    }
+
+    /** The mappers of every {@link Provider} visible to the context class loader. */
+    public static RowMappers global() {
+        return Global.INSTANCE;
+    }
+
+    /** A new registry with the mappers of every {@link Provider} visible to {@code loader}. */
+    public static RowMappers load(ClassLoader loader) {
+        return load(ServiceLoader.load(Provider.class, loader));
+    }
+
+    private static RowMappers load(ServiceLoader<Provider> providers) {
+        RowMappers mappers = new RowMappers();
+        for (Provider provider : providers) {
+            provider.register(mappers);
+        }
+        return mappers;
+    }
+
+    public <T> RowMappers register(Class<T> type, RowMapper<T> mapper) {
+        mappers.put(type, mapper);
+        return this;
+    }
+
+    /** The mapper for {@code type}; {@link IllegalArgumentException} if there is none. */
+    @SuppressWarnings("unchecked")
+    public <T> RowMapper<T> get(Class<T> type) {
+        RowMapper<T> mapper = (RowMapper<T>) mappers.get(type);
+        if (mapper == null) {
+            throw new IllegalArgumentException("No RowMapper for " + type.getName()
+                + " — annotate it with @Row and run ligero-processor, or register one");
+        }
+        return mapper;
+    }
+}
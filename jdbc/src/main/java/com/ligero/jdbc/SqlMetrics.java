@@ -0,0 +1,165 @@
+package com.ligero.jdbc;
+
+import com.ligero.middleware.TracingMiddleware;
+import com.ligero.spi.MetricsCollector;
+import com.ligero.spi.Tracer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+/**
+ * What every statement run through {@link SqlOps} reports: a
+ * {@link JdbcQueryEvent}, a child span of the request, its time and rows to a
+ * {@link MetricsCollector} under the id of its {@link Statement normalized
+ * text}, and a warning on the {@code com.ligero.jdbc.SqlOps.slow} logger when
+ * it takes longer than the slow-query threshold.
+ */
+final class SqlMetrics {
+
+    static final SqlMetrics DEFAULT = new SqlMetrics(null, Jdbc.DEFAULT_SLOW_QUERY_THRESHOLD);
+
+    private static final Logger slowLog = LoggerFactory.getLogger(SqlOps.class.getName() + ".slow");
+
+    /**
+     * Remembered statements, in a fixed table indexed by the hash of the SQL
+     * string: a new string takes over its slot, so SQL built with literals
+     * cannot grow it and the strings seen lately stay normalized once.
+     */
+    private static final int STATEMENT_SLOTS = 1 << 14;
+    private static final AtomicReferenceArray<Statement> statements = new AtomicReferenceArray<>(STATEMENT_SLOTS);
+
+    private static final Pattern COMMENTS = Pattern.compile("--[^\\n]*|/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern LITERALS = Pattern.compile("'(?:[^']|'')*'|(?<![\\w$.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LISTS = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    /** On a thread running an {@link AsyncJdbc} call, the span of the request that made it. */
+    static final ThreadLocal<Tracer.Span> PARENT = new ThreadLocal<>();
+
+    /**
+     * A SQL string with literals, comments and {@code IN} list lengths taken
+     * out, and a short id for it: {@code select * from t where id = 7} and
+     * {@code ... id = ?} are the same statement. {@code source} is the string
+     * it was made from.
+     */
+    record Statement(String id, String sql, String source) {
+
+        /** The statement of {@code sql}, normalized once per distinct string while it keeps its slot. */
+        static Statement of(String sql) {
+            int hash = sql.hashCode();
+            int slot = (hash ^ (hash >>> 16)) & (STATEMENT_SLOTS - 1);
+            Statement statement = statements.get(slot);
+            if (statement != null && statement.source().equals(sql)) {
+                return statement;
+            }
+            String normalized = normalize(sql);
+            statement = new Statement(String.format("%08x", normalized.hashCode()), normalized, sql);
+            statements.set(slot, statement);
+            return statement;
+        }
+
+        static String normalize(String sql) {
+            String text = COMMENTS.matcher(sql).replaceAll(" ");
+            text = LITERALS.matcher(text).replaceAll("?");
+            text = IN_LISTS.matcher(text).replaceAll("(?)");
+            return SPACES.matcher(text).replaceAll(" ").strip();
+        }
+    }
+
+    private final MetricsCollector collector;
+    private final long slowNanos;
+
+    SqlMetrics(MetricsCollector collector, Duration slowThreshold) {
+        this.collector = collector;
+        this.slowNanos = slowThreshold.toNanos();
+    }
+
+    /** Starts timing one statement. */
+    Run begin(String operation, String sql) {
+        return new Run(operation, sql);
+    }
+
+    /** One statement being run; {@link #end} it exactly once. */
+    final class Run {
+        private final String operation;
+        private final Statement statement;
+        private final JdbcQueryEvent event;
+        private final Tracer.Span span;
+        private final long start = System.nanoTime();
+
+        private Run(String operation, String sql) {
+            this.operation = operation;
+            this.statement = Statement.of(sql);
+            this.event = JdbcQueryEvent.begin(operation, sql, statement.id());
+            this.span = span(operation, sql, statement.id());
+        }
+
+        Run batchSize(int rows) {
+            span.setAttribute("db.operation.batch.size", rows);
+            return this;
+        }
+
+        void error(SQLException e) {
+            span.recordError(e);
+        }
+
+        /**
+         * @param rows   rows read or affected, {@code -1} if it failed
+         * @param params the bound parameters, or a batch's first row
+         * @param batch  rows in the batch, {@code 0} for a single statement
+         */
+        void end(long rows, Object[] params, int batch) {
+            long nanos = System.nanoTime() - start;
+            JdbcQueryEvent.commit(event, rows);
+            if (rows >= 0) {
+                span.setAttribute("db.response.affected_rows", rows);
+            }
+            span.close();
+            if (collector != null) {
+                collector.recordQuery(statement.id(), statement.sql(), operation, nanos, rows);
+            }
+            if (nanos >= slowNanos && slowLog.isWarnEnabled()) {
+                slowLog.warn("Slow SQL {} took {}ms ({}, {} rows) with parameters {}: {}", statement.id(),
+                    nanos / 1_000_000, operation, rows, shapes(params, batch), statement.sql());
+            }
+        }
+    }
+
+    /** A child of the current request's span, or a no-op outside a sampled request. */
+    private static Tracer.Span span(String operation, String sql, String statement) {
+        Tracer.Span span = PARENT.get();
+        if (span == null) {
+            span = TracingMiddleware.currentSpan();
+        }
+        if (span == Tracer.Span.NOOP) {
+            return span;
+        }
+        return span.startChild("db " + operation)
+            .setAttribute("db.operation.name", operation)
+            .setAttribute("db.query.text", sql)
+            .setAttribute("ligero.db.statement", statement);
+    }
+
+    /** The parameters' types, never their values: {@code [String, Long, null]}, {@code x 500} for a batch. */
+    static String shapes(Object[] params, int batch) {
+        StringBuilder sb = new StringBuilder("[");
+        if (params != null) {
+            for (int i = 0; i < params.length; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(params[i] == null ? "null" : params[i].getClass().getSimpleName());
+            }
+        }
+        sb.append(']');
+        if (batch > 0) {
+            sb.append(" x ").append(batch);
+        }
+        return sb.toString();
+    }
+}
@@ -1,19 +1,26 @@
 package com.ligero.jdbc;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The query/update operations, shared by {@link Jdbc} (a fresh connection per
- * call) and the transactional handle (one connection for the whole unit).
+ * call), the transactional handle (one connection for the whole unit),
+ * {@link RoutingJdbc} (reads on replicas, the rest on a primary) and
+ * {@link CachingJdbc} (cached reads over any of them).
  */
-public sealed interface SqlOps permits Jdbc, Jdbc.Tx {
+public sealed interface SqlOps permits Jdbc, Jdbc.Tx, RoutingJdbc, CachingJdbc {
 
     /** All matching rows, mapped. */
     <T> List<T> query(String sql, RowMapper<T> mapper, Object... params);
@@ -21,53 +28,257 @@ public sealed interface SqlOps permits Jdbc, Jdbc.Tx {
     /** The single matching row, or empty. */
     <T> Optional<T> queryOne(String sql, RowMapper<T> mapper, Object... params);
 
+    /** The mappers behind the by-class overloads, {@link RowMappers#global()} unless configured. */
+    RowMappers rowMappers();
+
+    /** All matching rows, mapped to {@code type} by its {@link Row @Row} mapper. */
+    default <T> List<T> query(String sql, Class<T> type, Object... params) {
+        return query(sql, rowMappers().get(type), params);
+    }
+
+    /** The single matching row, mapped to {@code type} by its {@link Row @Row} mapper, or empty. */
+    default <T> Optional<T> queryOne(String sql, Class<T> type, Object... params) {
+        return queryOne(sql, rowMappers().get(type), params);
+    }
+
+    /** {@link #stream(String, RowMapper, Object...)} mapping to {@code type} by its {@link Row @Row} mapper. */
+    default <T> Stream<T> stream(String sql, Class<T> type, Object... params) {
+        return stream(sql, rowMappers().get(type), params);
+    }
+
+    /** Rows the driver is asked to fetch per round trip by {@link #stream} and {@link #forEach}. */
+    int DEFAULT_FETCH_SIZE = 500;
+
+    /**
+     * The matching rows, mapped one at a time as the stream is consumed
+     * instead of collected into a list, so a large export holds only the
+     * driver's {@link #DEFAULT_FETCH_SIZE fetch buffer} in memory. The stream
+     * keeps a statement (and, on {@link Jdbc}, a connection) open until it
+     * is closed or read to the end: use it in try-with-resources.
+     *
+     * <pre>{@code
+     * try (Stream<Order> orders = db.stream("select * from orders", asOrder)) {
+     *     orders.forEach(csv::write);
+     * }
+     * }</pre>
+     */
+    <T> Stream<T> stream(String sql, RowMapper<T> mapper, Object... params);
+
+    /** Passes each matching row to {@code action} as it is read, like {@link #stream}. */
+    default <T> void forEach(String sql, RowMapper<T> mapper, Consumer<? super T> action, Object... params) {
+        try (Stream<T> rows = stream(sql, mapper, params)) {
+            rows.forEach(action);
+        }
+    }
+
     /** Executes an {@code INSERT/UPDATE/DELETE}, returning affected rows. */
     int update(String sql, Object... params);
 
     /** Executes an {@code INSERT} and returns the generated key. */
     long insert(String sql, Object... params);
 
+    /** Rows sent per {@code executeBatch} round trip by {@link #batch} and {@link #batchInsert}. */
+    int DEFAULT_BATCH_SIZE = 1_000;
+
+    /**
+     * Executes {@code sql} once per parameter row, {@link #DEFAULT_BATCH_SIZE}
+     * rows per round trip, returning the affected rows.
+     */
+    default long batch(String sql, List<Object[]> rows) {
+        return batch(sql, rows, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Executes {@code sql} once per parameter row with JDBC batching,
+     * {@code batchSize} rows per round trip. Outside a transaction every row
+     * is written in one, so the batch is all or nothing. Returns the affected
+     * rows as reported by the driver; rows it reports as
+     * {@link Statement#SUCCESS_NO_INFO} (e.g. Postgres with
+     * {@code reWriteBatchedInserts}) are not counted.
+     */
+    long batch(String sql, List<Object[]> rows, int batchSize);
+
+    /** Batched {@code INSERT}s, returning the generated keys in row order. */
+    default long[] batchInsert(String sql, List<Object[]> rows) {
+        return batchInsert(sql, rows, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Like {@link #batch(String, List, int)} for an {@code INSERT}, returning
+     * the generated keys in row order ({@code -1} where the driver returned
+     * none).
+     */
+    long[] batchInsert(String sql, List<Object[]> rows, int batchSize);
+
     // ---- shared implementation over a Connection ----
 
-    static <T> List<T> runQuery(Connection c, String sql, RowMapper<T> mapper, Object[] params) {
+    static <T> List<T> runQuery(Connection c, SqlMetrics metrics, String sql, RowMapper<T> mapper, Object[] params) {
+        SqlMetrics.Run run = metrics.begin("query", sql);
+        long rows = -1;
         try (PreparedStatement ps = c.prepareStatement(sql)) {
             bind(ps, params);
             try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<T> rowMapper = mapper.bind(rs);
                 List<T> out = new ArrayList<>();
                 while (rs.next()) {
-                    out.add(mapper.map(rs));
+                    out.add(rowMapper.map(rs));
                 }
+                rows = out.size();
                 return out;
             }
         } catch (SQLException e) {
+            run.error(e);
             throw new JdbcException(sql, e);
+        } finally {
+            run.end(rows, params, 0);
         }
     }
 
-    static int runUpdate(Connection c, String sql, Object[] params) {
+    /**
+     * Opens a {@link Cursor} over {@code sql}; {@code release} runs when it is
+     * closed, or right away if the statement fails.
+     */
+    static <T> Stream<T> runStream(Connection c, SqlMetrics metrics, String sql, RowMapper<T> mapper, Object[] params,
+                                   Cursor.Release release) {
+        SqlMetrics.Run run = metrics.begin("stream", sql);
+        PreparedStatement ps = null;
+        try {
+            ps = c.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(DEFAULT_FETCH_SIZE);
+            bind(ps, params);
+            ResultSet rs = ps.executeQuery();
+            Cursor<T> cursor = new Cursor<>(sql, ps, rs, mapper.bind(rs), rows -> run.end(rows, params, 0), release);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException e) {
+            run.error(e);
+            run.end(-1, params, 0);
+            try (AutoCloseable statement = ps) {
+                release.run();
+            } catch (Exception suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new JdbcException(sql, e);
+        }
+    }
+
+    static int runUpdate(Connection c, SqlMetrics metrics, String sql, Object[] params) {
+        SqlMetrics.Run run = metrics.begin("update", sql);
+        long rows = -1;
         try (PreparedStatement ps = c.prepareStatement(sql)) {
             bind(ps, params);
-            return ps.executeUpdate();
+            int updated = ps.executeUpdate();
+            rows = updated;
+            return updated;
         } catch (SQLException e) {
+            run.error(e);
             throw new JdbcException(sql, e);
+        } finally {
+            run.end(rows, params, 0);
         }
     }
 
-    static long runInsert(Connection c, String sql, Object[] params) {
+    static long runInsert(Connection c, SqlMetrics metrics, String sql, Object[] params) {
+        SqlMetrics.Run run = metrics.begin("insert", sql);
+        long rows = -1;
         try (PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             bind(ps, params);
-            ps.executeUpdate();
+            rows = ps.executeUpdate();
             try (ResultSet keys = ps.getGeneratedKeys()) {
                 return keys.next() ? keys.getLong(1) : -1L;
             }
         } catch (SQLException e) {
+            run.error(e);
+            throw new JdbcException(sql, e);
+        } finally {
+            run.end(rows, params, 0);
+        }
+    }
+
+    static long runBatch(Connection c, SqlMetrics metrics, String sql, List<Object[]> rows, int batchSize) {
+        checkBatchSize(batchSize);
+        SqlMetrics.Run run = metrics.begin("batch", sql).batchSize(rows.size());
+        long affected = -1;
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            long total = 0;
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                for (Object[] row : rows.subList(from, Math.min(rows.size(), from + batchSize))) {
+                    bind(ps, row);
+                    ps.addBatch();
+                }
+                for (int count : ps.executeBatch()) {
+                    if (count > 0) {
+                        total += count;
+                    }
+                }
+            }
+            affected = total;
+            return total;
+        } catch (SQLException e) {
+            run.error(e);
+            throw new JdbcException(sql, e);
+        } finally {
+            run.end(affected, rows.isEmpty() ? null : rows.get(0), rows.size());
+        }
+    }
+
+    static long[] runBatchInsert(Connection c, SqlMetrics metrics, String sql, List<Object[]> rows, int batchSize) {
+        checkBatchSize(batchSize);
+        SqlMetrics.Run run = metrics.begin("batch insert", sql).batchSize(rows.size());
+        long affected = -1;
+        try (PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            long[] ids = new long[rows.size()];
+            Arrays.fill(ids, -1L);
+            long total = 0;
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                int to = Math.min(rows.size(), from + batchSize);
+                for (Object[] row : rows.subList(from, to)) {
+                    bind(ps, row);
+                    ps.addBatch();
+                }
+                for (int count : ps.executeBatch()) {
+                    if (count > 0) {
+                        total += count;
+                    }
+                }
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (int i = from; i < to && keys.next(); i++) {
+                        ids[i] = keys.getLong(1);
+                    }
+                }
+            }
+            affected = total;
+            return ids;
+        } catch (SQLException e) {
+            run.error(e);
             throw new JdbcException(sql, e);
+        } finally {
+            run.end(affected, rows.isEmpty() ? null : rows.get(0), rows.size());
+        }
+    }
+
+    private static void checkBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be >= 1");
         }
     }
 
+    /**
+     * Binds with the typed setter for the common parameter classes, sparing
+     * the driver the type inspection {@code setObject} does for each one.
+     */
     private static void bind(PreparedStatement ps, Object[] params) throws SQLException {
         for (int i = 0; i < params.length; i++) {
-            ps.setObject(i + 1, params[i]);
+            int index = i + 1;
+            switch (params[i]) {
+                case String value -> ps.setString(index, value);
+                case Long value -> ps.setLong(index, value);
+                case Integer value -> ps.setInt(index, value);
+                case Boolean value -> ps.setBoolean(index, value);
+                case Double value -> ps.setDouble(index, value);
+                case BigDecimal value -> ps.setBigDecimal(index, value);
+                case byte[] value -> ps.setBytes(index, value);
+                case null, default -> ps.setObject(index, params[i]);
+            }
         }
     }
 }
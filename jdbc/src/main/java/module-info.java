@@ -8,6 +8,9 @@ module com.ligero.jdbc {
     requires transitive java.sql;
     // JedisPool/HikariDataSource appear on the public DataSources factory.
     requires transitive com.zaxxer.hikari;
+    requires jdk.jfr;
 
     exports com.ligero.jdbc;
+
+    uses com.ligero.jdbc.RowMappers.Provider;
 }
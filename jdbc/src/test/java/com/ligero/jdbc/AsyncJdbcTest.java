@@ -0,0 +1,169 @@
+package com.ligero.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncJdbcTest {
+
+    private HikariDataSource ds;
+
+    @BeforeEach
+    void setup() {
+        String url = "jdbc:h2:mem:async" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        ds = DataSources.pooled(url, "sa", "", cfg -> cfg.setMaximumPoolSize(4));
+        new Jdbc(ds).update("create table items(id bigint primary key)");
+        new Jdbc(ds).update("insert into items(id) values (1), (2), (3)");
+    }
+
+    @AfterEach
+    void close() {
+        ds.close();
+    }
+
+    @Test
+    void runsIndependentQueriesAtOnce() {
+        Jdbc db = new Jdbc(ds);
+        CountDownLatch together = new CountDownLatch(3);
+        RowMapper<Long> meetOthers = r -> {
+            together.countDown();
+            try {
+                if (!together.await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("queries ran one after another");
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return r.getLong("id");
+        };
+
+        CompletableFuture<Optional<Long>> one = db.async().queryOne("select id from items where id = ?", meetOthers, 1);
+        CompletableFuture<List<Long>> two = db.async().query("select id from items where id = ?", meetOthers, 2);
+        CompletableFuture<Optional<Long>> three = db.async().queryOne("select id from items where id = ?", meetOthers, 3);
+        Jdbc.all(one, two, three);
+
+        assertThat(one.join()).contains(1L);
+        assertThat(two.join()).containsExactly(2L);
+        assertThat(three.join()).contains(3L);
+    }
+
+    @Test
+    void runsNoMoreCallsAtOnceThanThePoolHasConnections() {
+        Jdbc db = new Jdbc(ds);
+        assertThat(db.async()).isSameAs(db.async());
+        assertThat(db.async().parallelism()).isEqualTo(4);
+        assertThat(Jdbc.builder(ds).maxConcurrency(2, Duration.ofSeconds(5)).build().async().parallelism())
+            .isEqualTo(2);
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger most = new AtomicInteger();
+        List<CompletableFuture<List<Long>>> calls = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            calls.add(db.async().query("select id from items where id = 1", r -> {
+                most.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(20);
+                running.decrementAndGet();
+                return r.getLong("id");
+            }));
+        }
+        Jdbc.all(calls.toArray(CompletableFuture[]::new));
+
+        assertThat(most.get()).isBetween(1, 4);
+        assertThat(calls).allSatisfy(call -> assertThat(call.join()).containsExactly(1L));
+    }
+
+    @Test
+    void writesAndTransactionsCompleteTheirFutures() {
+        Jdbc db = new Jdbc(ds);
+
+        long inserted = db.async().insert("insert into items(id) values (?)", 4).join();
+        int updated = db.async().update("update items set id = ? where id = ?", 5, 4).join();
+        long count = db.async().tx(tx -> tx.queryOne("select count(*) n from items", r -> r.getLong("n")))
+            .join().orElseThrow();
+
+        assertThat(inserted).isEqualTo(4);
+        assertThat(updated).isEqualTo(1);
+        assertThat(count).isEqualTo(4);
+    }
+
+    @Test
+    void aFailureCancelsTheOthersAndIsRethrown() throws Exception {
+        Jdbc db = new Jdbc(ds);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<List<Long>> slow = db.async().query("select id from items where id = 1", r -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                Thread.currentThread().interrupt();
+            }
+            return r.getLong("id");
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<List<Long>> broken = db.async().query("select nope from items", r -> r.getLong("id"));
+
+        long begun = System.nanoTime();
+        assertThatThrownBy(() -> Jdbc.all(slow, broken)).isInstanceOf(JdbcException.class);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - begun)).isLessThan(Duration.ofSeconds(5));
+        assertThat(slow).isCancelled();
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void anInterruptedWaitCancelsEveryCall() throws Exception {
+        Jdbc db = new Jdbc(ds);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<Long>> blocked = db.async().query("select id from items where id = 1", r -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return r.getLong("id");
+        });
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread handler = Thread.ofVirtual().start(() -> {
+            try {
+                Jdbc.all(blocked);
+            } catch (RuntimeException e) {
+                thrown.set(e);
+            }
+        });
+
+        Thread.sleep(50);
+        handler.interrupt();
+        handler.join(5_000);
+
+        assertThat(thrown.get()).isInstanceOf(CancellationException.class);
+        assertThat(blocked).isCancelled();
+        // the interrupted call gave its connection back
+        assertThat(db.async().query("select id from items", r -> r.getLong("id")).join()).hasSize(3);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.ligero.jdbc;
+
+import com.ligero.cache.CacheStats;
+import com.ligero.cache.InMemoryCache;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingJdbcTest {
+
+    record Flag(String name, boolean enabled) {
+    }
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private final RowMapper<Flag> asFlag = r -> {
+        queries.incrementAndGet();
+        return new Flag(r.getString("name"), r.getBoolean("enabled"));
+    };
+
+    private final JdbcDataSource ds = new JdbcDataSource();
+    private CachingJdbc db;
+
+    @BeforeEach
+    void setup() {
+        ds.setURL("jdbc:h2:mem:cache" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        Jdbc jdbc = new Jdbc(ds);
+        jdbc.update("create table feature_flags(name varchar(40) primary key, enabled boolean)");
+        jdbc.update("create table audit(id bigint auto_increment primary key, note varchar(40))");
+        jdbc.update("insert into feature_flags(name, enabled) values ('dark-mode', false), ('beta', true)");
+        db = CachingJdbc.builder(jdbc).defaultTtl(Duration.ofMinutes(5)).build();
+    }
+
+    @Test
+    void servesRepeatedLookupsFromTheCachePerParameters() {
+        CachingJdbc.Query<Flag> flag = db.cached("select name, enabled from feature_flags where name = ?", asFlag);
+
+        assertThat(flag.one("dark-mode")).contains(new Flag("dark-mode", false));
+        assertThat(flag.one("dark-mode")).contains(new Flag("dark-mode", false));
+        assertThat(flag.one("beta")).contains(new Flag("beta", true));
+        assertThat(flag.one("missing")).isEmpty();
+        assertThat(flag.one("missing")).isEmpty();
+
+        assertThat(queries).hasValue(2);
+        assertThat(db.stats()).isEqualTo(new CacheStats(2, 3, 0));
+        assertThat(db.stats().hitRatio()).isEqualTo(0.4);
+    }
+
+    @Test
+    void writesToTheSameTableDropCachedResults() {
+        CachingJdbc.Query<Flag> all = db.cached("select name, enabled from Feature_Flags order by name", asFlag);
+        assertThat(all.list()).hasSize(2);
+
+        db.insert("insert into audit(note) values (?)", "unrelated");
+        assertThat(all.list()).hasSize(2);
+        assertThat(queries).hasValue(2);
+
+        db.update("update PUBLIC.\"FEATURE_FLAGS\" set enabled = ? where name = ?", true, "dark-mode");
+        assertThat(all.list()).extracting(Flag::enabled).containsExactly(true, true);
+        assertThat(queries).hasValue(4);
+        assertThat(db.stats().evictions()).isEqualTo(1);
+
+        db.query("select 1 as x", r -> r.getInt("x")); // reads pass through
+        db.invalidate("feature_flags");
+        assertThat(all.list()).hasSize(2);
+        assertThat(queries).hasValue(6);
+    }
+
+    @Test
+    void namedTablesOverrideTheParsedOnes() {
+        CachingJdbc.Query<Flag> viaAudit = db.cached("select name, enabled from feature_flags", asFlag)
+            .tables("audit");
+
+        viaAudit.list();
+        db.update("delete from feature_flags where name = ?", "beta");
+        assertThat(viaAudit.list()).hasSize(2);
+
+        db.insert("insert into audit(note) values (?)", "flags changed");
+        assertThat(viaAudit.list()).hasSize(1);
+        assertThatThrownBy(() -> db.cached("select 1", asFlag)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void cachesSqlWithoutTablesUnderTheTablesItIsGiven() {
+        AtomicInteger calls = new AtomicInteger();
+        assertThat(CachingJdbc.tables("select lower(?) l")).isEmpty();
+        CachingJdbc.Query<String> lower = db.cached("select lower(?) l", r -> {
+            calls.incrementAndGet();
+            return r.getString("l");
+        }, "audit");
+
+        assertThat(lower.one("ABC")).contains("abc");
+        assertThat(lower.one("ABC")).contains("abc");
+        assertThat(calls).hasValue(1);
+
+        db.insert("insert into audit(note) values (?)", "touched");
+        assertThat(lower.one("ABC")).contains("abc");
+        assertThat(calls).hasValue(2);
+        assertThatThrownBy(() -> db.cached("select lower(?) l", asFlag, new String[0]))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void writesWithoutTablesDropOurResultsButNotTheSharedCache() {
+        InMemoryCache<Object, Object> shared = new InMemoryCache<>();
+        shared.put("session:1", "kept");
+        CachingJdbc cached = CachingJdbc.builder(new Jdbc(ds)).cache(shared).build();
+        CachingJdbc.Query<Flag> all = cached.cached("select name, enabled from feature_flags", asFlag);
+        all.list();
+
+        cached.update("truncate table audit"); // no table the parser knows
+        all.list();
+        assertThat(queries).hasValue(4);
+        assertThat(shared.get("session:1")).contains("kept");
+    }
+
+    @Test
+    void concurrentMissesShareOneQuery() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        CachingJdbc.Query<Flag> slow = db.cached("select name, enabled from feature_flags where name = ?", r -> {
+            loads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return asFlag.map(r);
+        });
+
+        List<Thread> threads = new ArrayList<>();
+        List<Optional<Flag>> results = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 20; i++) {
+            threads.add(Thread.ofVirtual().start(() -> results.add(slow.one("beta"))));
+        }
+        Thread.sleep(100);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(results).hasSize(20).containsOnly(Optional.of(new Flag("beta", true)));
+    }
+
+    @Test
+    void aMissAfterAWriteDoesNotJoinAQueryStartedBeforeIt() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        CachingJdbc.Query<Flag> flag = db.cached("select name, enabled from feature_flags where name = ?", r -> {
+            if (loads.incrementAndGet() == 1) {
+                reading.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return asFlag.map(r);
+        });
+
+        List<Optional<Flag>> early = Collections.synchronizedList(new ArrayList<>());
+        Thread before = Thread.ofVirtual().start(() -> early.add(flag.one("dark-mode")));
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        db.update("update feature_flags set enabled = ? where name = ?", true, "dark-mode");
+        assertThat(flag.one("dark-mode")).contains(new Flag("dark-mode", true)); // the writer sees its write
+        release.countDown();
+        before.join();
+
+        assertThat(early).containsExactly(Optional.of(new Flag("dark-mode", false)));
+        assertThat(flag.one("dark-mode")).contains(new Flag("dark-mode", true));
+        assertThat(loads).hasValue(3); // the early result was stored behind the write, and read again
+    }
+
+    @Test
+    void findsTablesInTheSql() {
+        assertThat(CachingJdbc.tables("select * from orders o join customers as c on c.id = o.customer_id"))
+            .containsExactly("orders", "customers");
+        assertThat(CachingJdbc.tables("SELECT * FROM app.orders o, \"Items\" i WHERE i.order_id = o.id"))
+            .containsExactly("orders", "items");
+        assertThat(CachingJdbc.tables("insert into audit(note) values (?)")).containsExactly("audit");
+        assertThat(CachingJdbc.tables("update stock set qty = qty - 1")).containsExactly("stock");
+        assertThat(CachingJdbc.tables("select count(*) from (select id from users) u")).containsExactly("users");
+        assertThat(CachingJdbc.tables("select now()")).isEmpty();
+    }
+}
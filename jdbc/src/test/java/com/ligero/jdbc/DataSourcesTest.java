@@ -1,12 +1,16 @@
 package com.ligero.jdbc;
 
+import com.ligero.middleware.InMemoryMetricsCollector;
+
 import com.zaxxer.hikari.HikariDataSource;
 
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class DataSourcesTest {
 
@@ -35,4 +39,60 @@ class DataSourcesTest {
             assertThat(ds.getPoolName()).isEqualTo("ligero-pool");
         }
     }
+
+    @Test
+    void tunesPostgresAndMysqlDriversForBatchesAndStatementCaching() {
+        assertThat(DataSources.config("jdbc:postgresql://db/app", "app", "").getDataSourceProperties())
+            .containsEntry("reWriteBatchedInserts", "true");
+        assertThat(DataSources.config("jdbc:mysql://db/app", "app", "").getDataSourceProperties())
+            .containsEntry("rewriteBatchedStatements", "true")
+            .containsEntry("cachePrepStmts", "true");
+        assertThat(DataSources.config("jdbc:h2:mem:x", "sa", "").getDataSourceProperties()).isEmpty();
+    }
+
+    @Test
+    void reportsCheckoutsToTheMetricsCollector() {
+        InMemoryMetricsCollector metrics = new InMemoryMetricsCollector();
+        String url = "jdbc:h2:mem:pool" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        try (HikariDataSource ds = DataSources.pooled(url, "sa", "", cfg -> {
+            cfg.setPoolName("orders");
+            cfg.setMetricsTrackerFactory(DataSources.metrics(metrics));
+        })) {
+            Jdbc db = new Jdbc(ds);
+            db.query("select 1", AS_ONE);
+            db.query("select 1", AS_ONE);
+        }
+
+        assertThat(metrics.pools()).containsOnlyKeys("orders");
+        InMemoryMetricsCollector.PoolMetrics pool = metrics.pools().get("orders");
+        assertThat(pool.checkoutWait().count()).isGreaterThanOrEqualTo(2);
+        assertThat(pool.active() + pool.idle()).isPositive();
+    }
+
+    @Test
+    void poolCountsKeepMovingAfterTrafficStops() throws InterruptedException {
+        InMemoryMetricsCollector metrics = new InMemoryMetricsCollector();
+        String url = "jdbc:h2:mem:pool" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        try (HikariDataSource ds = DataSources.pooled(url, "sa", "", cfg -> {
+            cfg.setPoolName("idle");
+            cfg.setMetricsTrackerFactory(DataSources.metrics(metrics));
+        })) {
+            new Jdbc(ds).query("select 1", AS_ONE);
+            assertThat(metrics.pools().get("idle").checkoutWait().count()).isPositive();
+
+            // the last checkout saw its own connection active; Hikari refreshes its stats once a second
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+            while (metrics.pools().get("idle").active() != 0 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(metrics.pools().get("idle").active()).isZero();
+        }
+    }
+
+    @Test
+    void recommendsAPoolSizeFromDatabaseCores() {
+        assertThat(DataSources.recommendedPoolSize(4)).isEqualTo(9);
+        assertThatThrownBy(() -> DataSources.recommendedPoolSize(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
 }
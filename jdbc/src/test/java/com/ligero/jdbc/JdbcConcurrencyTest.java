@@ -0,0 +1,133 @@
+package com.ligero.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JdbcConcurrencyTest {
+
+    private static final RowMapper<Long> AS_ID = r -> r.getLong("id");
+
+    private HikariDataSource ds;
+
+    @BeforeEach
+    void setup() {
+        String url = "jdbc:h2:mem:limit" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        ds = DataSources.pooled(url, "sa", "", cfg -> cfg.setMaximumPoolSize(2));
+        new Jdbc(ds).update("create table items(id bigint primary key)");
+        new Jdbc(ds).update("insert into items(id) values (1), (2), (3)");
+    }
+
+    @AfterEach
+    void close() {
+        ds.close();
+    }
+
+    @Test
+    void failsFastWith503WhenEverySlotStaysTaken() {
+        Jdbc db = Jdbc.builder(ds).maxConcurrency(1, Duration.ofMillis(50)).build();
+
+        try (Stream<Long> open = db.stream("select id from items", AS_ID)) {
+            long started = System.nanoTime();
+            assertThatThrownBy(() -> db.query("select id from items", AS_ID))
+                .isInstanceOf(DatabaseBusyException.class)
+                .satisfies(e -> assertThat(((DatabaseBusyException) e).getStatus()).isEqualTo(503));
+            assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(5));
+            assertThat(open.findFirst()).isPresent();
+        }
+
+        // closing the stream gave its slot back
+        assertThat(db.query("select id from items", AS_ID)).hasSize(3);
+        int deleted = db.tx(tx -> tx.update("delete from items where id = ?", 3));
+        assertThat(deleted).isEqualTo(1);
+    }
+
+    @Test
+    void failedCallsGiveTheirSlotBack() {
+        Jdbc db = Jdbc.builder(ds).maxConcurrency(1, Duration.ofMillis(50)).build();
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> db.query("select nope from items", AS_ID)).isInstanceOf(JdbcException.class);
+            assertThatThrownBy(() -> db.stream("select nope from items", AS_ID)).isInstanceOf(JdbcException.class);
+            assertThatThrownBy(() -> db.tx(tx -> {
+                throw new IllegalStateException("boom");
+            })).isInstanceOf(IllegalStateException.class);
+        }
+
+        assertThat(db.queryOne("select id from items where id = ?", AS_ID, 2)).contains(2L);
+    }
+
+    @Test
+    void waitersGetTheSlotWhenItFreesUpInTime() throws Exception {
+        Jdbc db = Jdbc.builder(ds).maxConcurrency(1, Duration.ofSeconds(10)).build();
+        CountDownLatch holding = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> db.tx(tx -> {
+            holding.countDown();
+            sleep(100);
+            return null;
+        }));
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(db.query("select id from items", AS_ID)).hasSize(3);
+        holder.join();
+    }
+
+    @Test
+    void reportsPinningWithTheStatementsSql() throws Exception {
+        BlockingQueue<PinningDetector.Pinning> pinnings = new LinkedBlockingQueue<>();
+        Object lock = new Object();
+        RowMapper<Long> pinning = r -> {
+            synchronized (lock) {
+                sleep(30); // parks the virtual thread while it holds a monitor
+            }
+            return r.getLong("id");
+        };
+        Jdbc db = new Jdbc(ds);
+
+        PinningDetector.Pinning reported;
+        try (PinningDetector detector = PinningDetector.start(Duration.ofMillis(1), pinnings::add)) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+            do {
+                Thread.ofVirtual().start(() -> db.query("select id from items where id = 1", pinning)).join();
+                reported = pinnings.poll(500, TimeUnit.MILLISECONDS);
+            } while (reported == null && System.nanoTime() < deadline);
+            assertThat(detector.detected()).isPositive();
+        }
+
+        assertThat(reported).isNotNull();
+        assertThat(reported.sql()).isEqualTo("select id from items where id = 1");
+        assertThat(reported.duration()).isGreaterThanOrEqualTo(Duration.ofMillis(1));
+        assertThat(reported.stack()).contains("JdbcConcurrencyTest");
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> Jdbc.builder(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Jdbc.builder(ds).maxConcurrency(0, Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Jdbc.builder(ds).maxConcurrency(1, Duration.ofMillis(-1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PinningDetector.start(Duration.ZERO, null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
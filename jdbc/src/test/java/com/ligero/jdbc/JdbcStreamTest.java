@@ -0,0 +1,113 @@
+package com.ligero.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link SqlOps#stream} and {@link SqlOps#forEach} over a one-connection
+ * pool, so a cursor that does not give its connection back makes the next
+ * call time out.
+ */
+class JdbcStreamTest {
+
+    private static final RowMapper<Long> AS_ID = r -> r.getLong("id");
+
+    private HikariDataSource ds;
+    private Jdbc db;
+
+    @BeforeEach
+    void setup() {
+        String url = "jdbc:h2:mem:stream" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        ds = DataSources.pooled(url, "sa", "", cfg -> {
+            cfg.setMaximumPoolSize(1);
+            cfg.setConnectionTimeout(250);
+        });
+        db = new Jdbc(ds);
+        db.update("create table events(id bigint primary key)");
+        db.batch("insert into events(id) values (?)",
+            IntStream.rangeClosed(1, 2_000).mapToObj(i -> new Object[] {(long) i}).toList());
+    }
+
+    @AfterEach
+    void close() {
+        ds.close();
+    }
+
+    @Test
+    void streamsEveryRowAndGivesTheConnectionBack() {
+        try (Stream<Long> ids = db.stream("select id from events where id > ? order by id", AS_ID, 10)) {
+            assertThat(ids.mapToLong(Long::longValue).sum()).isEqualTo(2_001_000L - 55);
+        }
+
+        assertThat(db.query("select count(*) as id from events", AS_ID)).containsExactly(2_000L);
+    }
+
+    @Test
+    void closingEarlyReleasesTheCursorAndRestoresTheConnection() {
+        try (Stream<Long> ids = db.stream("select id from events order by id", AS_ID)) {
+            assertThat(ids.limit(3)).containsExactly(1L, 2L, 3L);
+        }
+
+        // back in auto-commit, read-write mode
+        db.update("delete from events where id = ?", 1);
+        assertThat(db.queryOne("select count(*) as id from events", AS_ID)).contains(1_999L);
+    }
+
+    @Test
+    void streamsNullsMappedFromNullColumns() {
+        RowMapper<String> evenOnly = r -> r.getString("label");
+        String sql = "select case when mod(id, 2) = 0 then cast(id as varchar) end as label from events "
+            + "where id <= ? order by id";
+        try (Stream<String> labels = db.stream(sql, evenOnly, 4)) {
+            assertThat(labels.spliterator().hasCharacteristics(Spliterator.NONNULL)).isFalse();
+        }
+        try (Stream<String> labels = db.stream(sql, evenOnly, 4)) {
+            assertThat(labels).containsExactly(null, "2", null, "4");
+        }
+    }
+
+    @Test
+    void forEachInsideATransactionSeesItsOwnWrites() {
+        AtomicLong seen = new AtomicLong();
+        db.tx(tx -> {
+            tx.update("insert into events(id) values (?)", 5_000);
+            tx.forEach("select id from events where id >= ?", AS_ID, seen::set, 5_000);
+            return null;
+        });
+
+        assertThat(seen).hasValue(5_000L);
+    }
+
+    @Test
+    void failuresAreWrappedAndReleaseTheConnection() {
+        assertThatThrownBy(() -> db.stream("select nope from events", AS_ID))
+            .isInstanceOf(JdbcException.class)
+            .hasMessageContaining("select nope from events");
+
+        List<Long> read = new ArrayList<>();
+        RowMapper<Long> failing = r -> {
+            if (r.getLong("id") == 3) {
+                throw new java.sql.SQLException("bad row");
+            }
+            return r.getLong("id");
+        };
+        assertThatThrownBy(() -> db.forEach("select id from events order by id", failing, read::add))
+            .isInstanceOf(JdbcException.class);
+        assertThat(read).containsExactly(1L, 2L);
+
+        assertThat(db.query("select count(*) as id from events", AS_ID)).containsExactly(2_000L);
+    }
+}
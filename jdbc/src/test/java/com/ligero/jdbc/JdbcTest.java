@@ -1,11 +1,23 @@
 package com.ligero.jdbc;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
 import org.h2.jdbcx.JdbcDataSource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -111,4 +123,109 @@ class JdbcTest {
         });
         assertThat(seen).extracting(Product::name).containsExactly("InTx");
     }
+
+    @Test
+    void compiledMappersResolveColumnsOncePerQuery() {
+        db.batch("insert into products(name) values (?)", names(3));
+        AtomicInteger compilations = new AtomicInteger();
+        RowMapper<Product> compiled = RowMapper.compiled(columns -> {
+            compilations.incrementAndGet();
+            int id = columns.index("ID");
+            int name = columns.index("name");
+            assertThat(columns.has("price")).isFalse();
+            return r -> new Product(r.getLong(id), r.getString(name));
+        });
+
+        assertThat(db.query("select id, name from products order by id", compiled))
+            .extracting(Product::name).containsExactly("p0", "p1", "p2");
+        try (Stream<Product> rows = db.stream("select name, id from products order by id", compiled)) {
+            assertThat(rows).extracting(Product::name).containsExactly("p0", "p1", "p2");
+        }
+        assertThat(compilations).hasValue(2);
+
+        // called through map alone, it still builds once per result
+        RowMapper<Product> wrapped = r -> compiled.map(r);
+        assertThat(db.query("select id, name from products order by id", wrapped)).hasSize(3);
+        assertThat(compilations).hasValue(3);
+
+        assertThatThrownBy(() -> db.query("select id from products", compiled))
+            .isInstanceOf(JdbcException.class)
+            .hasRootCauseMessage("Column not found: name");
+    }
+
+    @Test
+    void bindsParametersOfEveryCommonType() {
+        db.update("create table mixed(s varchar(10), l bigint, i int, b boolean, d double precision, "
+            + "n decimal(10, 2), bytes varbinary(4), born date, missing varchar(10))");
+        db.update("insert into mixed values (?, ?, ?, ?, ?, ?, ?, ?, ?)", "text", 7L, 3, true, 1.5,
+            new BigDecimal("9.99"), new byte[] {1, 2}, LocalDate.of(2026, 1, 2), null);
+
+        String row = db.queryOne("select * from mixed", r -> r.getString("s") + "," + r.getLong("l") + ","
+            + r.getInt("i") + "," + r.getBoolean("b") + "," + r.getDouble("d") + "," + r.getBigDecimal("n") + ","
+            + r.getBytes("bytes").length + "," + r.getObject("born", LocalDate.class) + "," + r.getString("missing"))
+            .orElseThrow();
+        assertThat(row).isEqualTo("text,7,3,true,1.5,9.99,2,2026-01-02,null");
+    }
+
+    private static List<Object[]> names(int count) {
+        return IntStream.range(0, count).mapToObj(i -> new Object[] {"p" + i}).toList();
+    }
+
+    @Test
+    void batchInsertReturnsTheGeneratedKeysOfEveryChunkInOrder() {
+        long[] ids = db.batchInsert("insert into products(name) values (?)", names(25), 10);
+
+        assertThat(ids).hasSize(25).doesNotContain(-1L);
+        assertThat(ids).isSorted();
+        assertThat(db.queryOne("select id, name from products where id = ?", AS_PRODUCT, ids[24]))
+            .map(Product::name).contains("p24");
+    }
+
+    @Test
+    void batchReturnsAffectedRowsAndRunsInsideATransaction() {
+        db.batch("insert into products(name) values (?)", names(5));
+
+        long renamed = db.tx(tx -> tx.batch("update products set name = ? where name = ?",
+            List.of(new Object[] {"a", "p0"}, new Object[] {"b", "p1"}, new Object[] {"c", "missing"}), 2));
+
+        assertThat(renamed).isEqualTo(2);
+        assertThat(db.query("select id, name from products order by id", AS_PRODUCT))
+            .extracting(Product::name).containsExactly("a", "b", "p2", "p3", "p4");
+    }
+
+    @Test
+    void aFailedBatchLeavesNothingBehind() {
+        List<Object[]> rows = new ArrayList<>(names(3));
+        rows.add(new Object[] {"x".repeat(200)}); // too long for varchar(100)
+
+        assertThatThrownBy(() -> db.batch("insert into products(name) values (?)", rows, 2))
+            .isInstanceOf(JdbcException.class)
+            .hasMessageContaining("insert into products");
+        assertThatThrownBy(() -> db.tx(tx -> tx.batchInsert("insert into products(name) values (?)", rows)))
+            .isInstanceOf(JdbcException.class);
+        assertThat(db.query("select id, name from products", AS_PRODUCT)).isEmpty();
+        assertThatThrownBy(() -> db.batch("insert into products(name) values (?)", rows, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void statementsAreRecordedAsFlightRecorderEvents(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("jdbc.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("ligero.JdbcQuery");
+            recording.start();
+            db.insert("insert into products(name) values (?)", "Keyboard");
+            db.query("select id, name from products", AS_PRODUCT);
+            assertThatThrownBy(() -> db.update("update nope set x = 1")).isInstanceOf(JdbcException.class);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+            .filter(e -> e.getEventType().getName().equals("ligero.JdbcQuery"))
+            .toList();
+        assertThat(events).extracting(e -> e.getString("operation") + " " + e.getLong("rows"))
+            .containsExactly("insert 1", "query 1", "update -1");
+        assertThat(events.get(1).getString("sql")).isEqualTo("select id, name from products");
+    }
 }
@@ -0,0 +1,211 @@
+package com.ligero.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Primary and replicas are separate in-memory databases, each with a
+ * one-row {@code node} table naming it, so a read shows where it was routed.
+ */
+class RoutingJdbcTest {
+
+    private static final RowMapper<String> AS_NAME = r -> r.getString("name");
+
+    /** A database that can be taken down, like a replica losing its network. */
+    private static final class Node implements DataSource {
+        private final JdbcDataSource h2 = new JdbcDataSource();
+        volatile boolean down;
+
+        Node(String name) {
+            h2.setURL("jdbc:h2:mem:" + name + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+            h2.setUser("sa");
+            Jdbc db = new Jdbc(this);
+            db.update("create table node(name varchar(20))");
+            db.update("insert into node(name) values (?)", name);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLNonTransientConnectionException("connection refused", "08001");
+            }
+            return h2.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String user, String password) throws SQLException {
+            return getConnection();
+        }
+
+        @Override
+        public PrintWriter getLogWriter() {
+            return null;
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) {
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) {
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return 0;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> type) throws SQLException {
+            throw new SQLException("not a wrapper");
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> type) {
+            return false;
+        }
+    }
+
+    private final Node primary = new Node("primary");
+    private final Node replica1 = new Node("replica-1");
+    private final Node replica2 = new Node("replica-2");
+
+    private RoutingJdbc.Builder routing() {
+        return RoutingJdbc.builder(primary).replica("replica-1", replica1).replica("replica-2", replica2);
+    }
+
+    private static String node(SqlOps db) {
+        return db.queryOne("select name from node", AS_NAME).orElseThrow();
+    }
+
+    @Test
+    void spreadsReadsOverReplicasAndWritesToThePrimary() {
+        RoutingJdbc db = routing().build();
+
+        List<String> reads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            reads.add(node(db));
+        }
+        assertThat(reads).containsOnly("replica-1", "replica-2").contains("replica-1", "replica-2");
+        try (Stream<String> names = db.stream("select name from node", AS_NAME)) {
+            assertThat(names.toList()).hasSize(1).allMatch(name -> name.startsWith("replica-"));
+        }
+
+        db.update("update node set name = ?", "primary-2");
+        assertThat(node(db.primary())).isEqualTo("primary-2");
+        Optional<String> inTx = db.tx(tx -> tx.queryOne("select name from node", AS_NAME));
+        assertThat(inTx).contains("primary-2");
+    }
+
+    @Test
+    void leastActiveAvoidsTheReplicaWithAnOpenStream() {
+        RoutingJdbc db = routing().balancing(RoutingJdbc.Balancing.LEAST_ACTIVE).build();
+
+        try (Stream<String> open = db.stream("select name from node", AS_NAME)) {
+            String busy = open.findFirst().orElseThrow();
+            for (int i = 0; i < 3; i++) {
+                assertThat(node(db)).isNotEqualTo(busy).startsWith("replica-");
+            }
+        }
+    }
+
+    @Test
+    void readsFromThePrimaryShortlyAfterAWriteOnTheSameThread() throws Exception {
+        RoutingJdbc db = routing().readYourWrites(Duration.ofMinutes(1)).build();
+        assertThat(node(db)).startsWith("replica-");
+
+        db.insert("insert into node(name) values (?)", "extra");
+        assertThat(db.query("select name from node order by name", AS_NAME)).containsExactly("extra", "primary");
+
+        List<String> other = new ArrayList<>();
+        Thread thread = Thread.ofVirtual().start(() -> other.add(node(db)));
+        thread.join();
+        assertThat(other).singleElement().asString().startsWith("replica-");
+    }
+
+    @Test
+    void failsOverToThePrimaryAndBackAfterAHealthCheck() {
+        RoutingJdbc db = routing().build();
+        replica1.down = true;
+
+        List<String> reads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            reads.add(node(db));
+        }
+        assertThat(reads).doesNotContain("replica-1").contains("replica-2");
+        assertThat(db.healthyReplicas()).containsExactly("replica-2");
+
+        replica2.down = true;
+        db.checkHealth();
+        assertThat(db.healthyReplicas()).isEmpty();
+        assertThat(node(db)).isEqualTo("primary");
+
+        replica1.down = false;
+        replica2.down = false;
+        db.checkHealth();
+        assertThat(db.healthyReplicas()).containsExactly("replica-1", "replica-2");
+        assertThat(node(db)).startsWith("replica-");
+    }
+
+    @Test
+    void otherReadFailuresAreNotRetried() {
+        RoutingJdbc db = routing().build();
+
+        assertThatThrownBy(() -> db.query("select nope from node", AS_NAME))
+            .isInstanceOf(JdbcException.class);
+        assertThat(db.healthyReplicas()).hasSize(2);
+    }
+
+    @Test
+    void aReplicaWhosePoolIsBusyStaysUp() {
+        try (HikariDataSource busy = DataSources.pooled("jdbc:h2:mem:busy" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+            "sa", "", cfg -> {
+                cfg.setMaximumPoolSize(1);
+                cfg.setConnectionTimeout(250);
+            })) {
+            new Jdbc(busy).update("create table node(name varchar(20))");
+            RoutingJdbc db = RoutingJdbc.builder(primary).replica("busy", busy).build();
+
+            try (Stream<String> open = db.stream("select name from node", AS_NAME)) { // holds the only connection
+                assertThatThrownBy(() -> node(db))
+                    .isInstanceOf(JdbcException.class)
+                    .hasCauseInstanceOf(SQLTransientConnectionException.class);
+            }
+            assertThat(db.healthyReplicas()).containsExactly("busy");
+        }
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> RoutingJdbc.builder(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> routing().replica("x", null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> routing().readYourWrites(Duration.ofSeconds(-1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> routing().healthTimeout(Duration.ofMillis(10)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,91 @@
+package com.ligero.jdbc;
+
+import com.ligero.middleware.InMemoryMetricsCollector;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SqlMetricsTest {
+
+    private static final RowMapper<Long> AS_ID = r -> r.getLong("id");
+
+    private final InMemoryMetricsCollector collector = new InMemoryMetricsCollector();
+
+    private Jdbc db() {
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:metrics" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        Jdbc db = Jdbc.builder(ds).metrics(collector).slowQueryThreshold(Duration.ofMillis(1)).build();
+        db.update("create table users(id bigint primary key, name varchar(20))");
+        return db;
+    }
+
+    @Test
+    void recordsEveryStatementUnderItsNormalizedId() {
+        Jdbc db = db();
+        db.batch("insert into users(id, name) values (?, ?)", List.of(new Object[] {1L, "ana"}, new Object[] {2L, "bo"}));
+        db.query("select id from users where id in (?, ?)", AS_ID, 1, 2);
+        db.query("select id from users where id in (1, 2, 3)", AS_ID);
+        db.queryOne("select id from users where name = 'ana'", AS_ID);
+        try (Stream<Long> ids = db.stream("select id from users", AS_ID)) {
+            assertThat(ids).hasSize(2);
+        }
+        db.tx(tx -> tx.update("update users set name = ? where id = ?", "cy", 2L));
+        assertThatThrownBy(() -> db.query("select nope from users", AS_ID)).isInstanceOf(JdbcException.class);
+
+        Map<String, InMemoryMetricsCollector.QueryMetrics> queries = collector.queries();
+        String in = SqlMetrics.Statement.of("select id from users where id in (?, ?)").id();
+        assertThat(queries.get(in).sql()).isEqualTo("select id from users where id in (?)");
+        assertThat(queries.get(in).count()).isEqualTo(2);
+        assertThat(queries.get(in).rows()).isEqualTo(4);
+        assertThat(queries.values()).extracting(InMemoryMetricsCollector.QueryMetrics::operation)
+            .contains("batch", "query", "stream", "update");
+        assertThat(queries.get(SqlMetrics.Statement.of("select nope from users").id()).errors()).isEqualTo(1);
+        assertThat(queries.get(SqlMetrics.Statement.of("select id from users").id()).rows()).isEqualTo(2);
+    }
+
+    @Test
+    void normalizesLiteralsCommentsAndWhitespace() {
+        SqlMetrics.Statement statement = SqlMetrics.Statement.of(
+            "select *\n  from orders -- recent\n where total > 10.5 and note = 'it''s' and id in (1,2) /* x */");
+
+        assertThat(statement.sql()).isEqualTo("select * from orders where total > ? and note = ? and id in (?)");
+        assertThat(statement.id()).hasSize(8)
+            .isEqualTo(SqlMetrics.Statement.of("select * from orders where total > ? and note = ? and id in (?)").id());
+        assertThat(SqlMetrics.Statement.of("select * from t2 where c1 = ?").sql())
+            .isEqualTo("select * from t2 where c1 = ?");
+        assertThat(SqlMetrics.Statement.of("select id from users")).isSameAs(SqlMetrics.Statement.of("select id from users"));
+    }
+
+    @Test
+    void keepsRememberingStatementsAfterManyDistinctStrings() {
+        for (int i = 0; i < 50_000; i++) {
+            SqlMetrics.Statement.of("select * from orders where id = " + i);
+        }
+        SqlMetrics.Statement late = SqlMetrics.Statement.of("select name from late_table");
+        assertThat(SqlMetrics.Statement.of("select name from late_table")).isSameAs(late);
+        assertThat(SqlMetrics.Statement.of("select * from orders where id = 49999").id())
+            .isEqualTo(SqlMetrics.Statement.of("select * from orders where id = 7").id());
+    }
+
+    @Test
+    void describesParametersByTypeOnly() {
+        assertThat(SqlMetrics.shapes(new Object[] {"secret", 42L, null, new byte[] {1}}, 0))
+            .isEqualTo("[String, Long, null, byte[]]");
+        assertThat(SqlMetrics.shapes(new Object[] {"a"}, 500)).isEqualTo("[String] x 500");
+        assertThat(SqlMetrics.shapes(null, 0)).isEqualTo("[]");
+    }
+
+    @Test
+    void rejectsANonPositiveSlowQueryThreshold() {
+        assertThatThrownBy(() -> Jdbc.builder(new JdbcDataSource()).slowQueryThreshold(Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
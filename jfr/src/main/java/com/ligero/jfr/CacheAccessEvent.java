@@ -0,0 +1,26 @@
+package com.ligero.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One operation on a cache wrapped with {@link JfrCache}. */
+@Name("ligero.CacheAccess")
+@Label("Cache Access")
+@Category({"Ligero", "Cache"})
+@StackTrace(false)
+public final class CacheAccessEvent extends jdk.jfr.Event {
+
+    @Label("Cache")
+    public String cache;
+
+    @Label("Operation")
+    @Description("get, load, getAll, put, evict or clear")
+    public String operation;
+
+    @Label("Hit")
+    @Description("Whether a get/load was served from the cache")
+    public boolean hit;
+}
@@ -0,0 +1,63 @@
+package com.ligero.jfr;
+
+import com.ligero.spi.EventRecorder;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One request served by Ligero, from the engine hand-off to the end of the response. */
+@Name("ligero.HttpRequest")
+@Label("HTTP Request")
+@Description("A request served by Ligero")
+@Category({"Ligero", "HTTP"})
+@StackTrace(false)
+public final class HttpRequestEvent extends jdk.jfr.Event implements EventRecorder.Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Route")
+    @Description("Matched route pattern, or null when no route matched")
+    public String route;
+
+    @Label("Status")
+    public int status;
+
+    @Label("Bytes In")
+    @Description("Declared request body size, or -1 when unknown")
+    @DataAmount
+    public long bytesIn;
+
+    @Label("Bytes Out")
+    @DataAmount
+    public long bytesOut;
+
+    @Override
+    public HttpRequestEvent set(String field, String value) {
+        switch (field) {
+            case "method" -> method = value;
+            case "path" -> path = value;
+            case "route" -> route = value;
+            default -> { }
+        }
+        return this;
+    }
+
+    @Override
+    public HttpRequestEvent set(String field, long value) {
+        switch (field) {
+            case "status" -> status = (int) value;
+            case "bytesIn" -> bytesIn = value;
+            case "bytesOut" -> bytesOut = value;
+            default -> { }
+        }
+        return this;
+    }
+}
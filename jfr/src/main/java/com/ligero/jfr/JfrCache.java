@@ -0,0 +1,149 @@
+package com.ligero.jfr;
+
+import com.ligero.cache.Cache;
+
+import jdk.jfr.EventType;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Decorates any {@link Cache} (in-memory, Redis, ...) so its synchronous
+ * operations emit {@link CacheAccessEvent ligero.CacheAccess} events, with
+ * whether each read was a hit. Asynchronous loads pass through unrecorded.
+ *
+ * <pre>{@code
+ * Cache<String, User> users = JfrCache.wrap("users", new InMemoryCache<>());
+ * }</pre>
+ *
+ * <p>While no recording has the event enabled, each call costs one
+ * {@link EventType#isEnabled()} check.</p>
+ */
+public final class JfrCache<K, V> implements Cache<K, V> {
+
+    private static final EventType TYPE = EventType.getEventType(CacheAccessEvent.class);
+
+    private final String name;
+    private final Cache<K, V> delegate;
+
+    private JfrCache(String name, Cache<K, V> delegate) {
+        this.name = name;
+        this.delegate = delegate;
+    }
+
+    public static <K, V> Cache<K, V> wrap(String name, Cache<K, V> cache) {
+        return new JfrCache<>(name, cache);
+    }
+
+    @Override
+    public Optional<V> get(K key) {
+        if (!TYPE.isEnabled()) {
+            return delegate.get(key);
+        }
+        CacheAccessEvent event = begin("get");
+        Optional<V> value = delegate.get(key);
+        event.hit = value.isPresent();
+        event.commit();
+        return value;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (!TYPE.isEnabled()) {
+            delegate.put(key, value);
+            return;
+        }
+        CacheAccessEvent event = begin("put");
+        delegate.put(key, value);
+        event.commit();
+    }
+
+    @Override
+    public void put(K key, V value, Duration ttl) {
+        if (!TYPE.isEnabled()) {
+            delegate.put(key, value, ttl);
+            return;
+        }
+        CacheAccessEvent event = begin("put");
+        delegate.put(key, value, ttl);
+        event.commit();
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return get(key, null, loader);
+    }
+
+    @Override
+    public V get(K key, Duration ttl, Function<? super K, ? extends V> loader) {
+        if (!TYPE.isEnabled()) {
+            return delegate.get(key, ttl, loader);
+        }
+        CacheAccessEvent event = begin("load");
+        boolean[] missed = new boolean[1];
+        V value = delegate.get(key, ttl, k -> {
+            missed[0] = true;
+            return loader.apply(k);
+        });
+        event.hit = !missed[0];
+        event.commit();
+        return value;
+    }
+
+    @Override
+    public CompletableFuture<V> getAsync(K key, Duration ttl, Function<? super K, ? extends V> loader) {
+        return delegate.getAsync(key, ttl, loader);
+    }
+
+    @Override
+    public Map<K, V> getAll(Collection<? extends K> keys, Duration ttl,
+                            Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> bulkLoader) {
+        if (!TYPE.isEnabled()) {
+            return delegate.getAll(keys, ttl, bulkLoader);
+        }
+        CacheAccessEvent event = begin("getAll");
+        boolean[] missed = new boolean[1];
+        Map<K, V> values = delegate.getAll(keys, ttl, missing -> {
+            missed[0] = true;
+            return bulkLoader.apply(missing);
+        });
+        event.hit = !missed[0];
+        event.commit();
+        return values;
+    }
+
+    @Override
+    public void evict(K key) {
+        if (!TYPE.isEnabled()) {
+            delegate.evict(key);
+            return;
+        }
+        CacheAccessEvent event = begin("evict");
+        delegate.evict(key);
+        event.commit();
+    }
+
+    @Override
+    public void clear() {
+        if (!TYPE.isEnabled()) {
+            delegate.clear();
+            return;
+        }
+        CacheAccessEvent event = begin("clear");
+        delegate.clear();
+        event.commit();
+    }
+
+    private CacheAccessEvent begin(String operation) {
+        CacheAccessEvent event = new CacheAccessEvent();
+        event.cache = name;
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,48 @@
+package com.ligero.jfr;
+
+import com.ligero.spi.EventRecorder;
+
+import jdk.jfr.EventType;
+
+/**
+ * {@link EventRecorder} backed by JDK Flight Recorder: the core's events
+ * become {@link HttpRequestEvent ligero.HttpRequest},
+ * {@link MiddlewareEvent ligero.Middleware} and
+ * {@link TemplateRenderEvent ligero.TemplateRender}.
+ *
+ * <p>Loaded by {@code Ligero} when {@code ligero.jfr=true} (or
+ * {@code LIGERO_JFR=true}). Events are only built while a recording has
+ * them enabled, e.g.
+ * {@code java -XX:StartFlightRecording:filename=app.jfr -jar app.jar}; with no
+ * recording running, each request costs a few {@link EventType#isEnabled()}
+ * checks.</p>
+ */
+public final class JfrEventRecorder implements EventRecorder {
+
+    private final EventType httpRequest = EventType.getEventType(HttpRequestEvent.class);
+    private final EventType middleware = EventType.getEventType(MiddlewareEvent.class);
+    private final EventType templateRender = EventType.getEventType(TemplateRenderEvent.class);
+
+    @Override
+    public boolean isEnabled(Type type) {
+        return switch (type) {
+            case HTTP_REQUEST -> httpRequest.isEnabled();
+            case MIDDLEWARE -> middleware.isEnabled();
+            case TEMPLATE_RENDER -> templateRender.isEnabled();
+        };
+    }
+
+    @Override
+    public Event begin(Type type) {
+        return switch (type) {
+            case HTTP_REQUEST -> begun(new HttpRequestEvent());
+            case MIDDLEWARE -> begun(new MiddlewareEvent());
+            case TEMPLATE_RENDER -> begun(new TemplateRenderEvent());
+        };
+    }
+
+    private static <E extends jdk.jfr.Event & Event> E begun(E event) {
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,40 @@
+package com.ligero.jfr;
+
+import com.ligero.spi.EventRecorder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One middleware's run; the duration includes the rest of the chain it wraps. */
+@Name("ligero.Middleware")
+@Label("Middleware")
+@Description("A middleware run, including the rest of the chain it wraps")
+@Category({"Ligero", "HTTP"})
+@StackTrace(false)
+public final class MiddlewareEvent extends jdk.jfr.Event implements EventRecorder.Event {
+
+    @Label("Middleware")
+    @Description("Middleware class name")
+    public String middleware;
+
+    @Label("Path")
+    public String path;
+
+    @Override
+    public MiddlewareEvent set(String field, String value) {
+        switch (field) {
+            case "middleware" -> middleware = value;
+            case "path" -> path = value;
+            default -> { }
+        }
+        return this;
+    }
+
+    @Override
+    public MiddlewareEvent set(String field, long value) {
+        return this;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ligero.jfr;
+
+import com.ligero.spi.EventRecorder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One {@code Context.render} call. */
+@Name("ligero.TemplateRender")
+@Label("Template Render")
+@Category({"Ligero", "HTTP"})
+@StackTrace(false)
+public final class TemplateRenderEvent extends jdk.jfr.Event implements EventRecorder.Event {
+
+    @Label("Template")
+    public String template;
+
+    @Label("Characters")
+    public long chars;
+
+    @Override
+    public TemplateRenderEvent set(String field, String value) {
+        if ("template".equals(field)) {
+            template = value;
+        }
+        return this;
+    }
+
+    @Override
+    public TemplateRenderEvent set(String field, long value) {
+        if ("chars".equals(field)) {
+            chars = value;
+        }
+        return this;
+    }
+}
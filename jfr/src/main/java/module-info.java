@@ -0,0 +1,9 @@
+/** Ligero EventRecorder adapter for JDK Flight Recorder. */
+module com.ligero.jfr {
+    requires transitive com.ligero.core;
+    requires transitive jdk.jfr;
+
+    exports com.ligero.jfr;
+
+    provides com.ligero.spi.EventRecorder with com.ligero.jfr.JfrEventRecorder;
+}
@@ -0,0 +1,147 @@
+package com.ligero.jfr;
+
+import com.ligero.Ligero;
+import com.ligero.cache.Cache;
+import com.ligero.cache.InMemoryCache;
+import com.ligero.config.LigeroConfig;
+import com.ligero.http.HttpHandler;
+import com.ligero.spi.EngineConfig;
+import com.ligero.spi.ServerEngine;
+import com.ligero.testutil.FakeRequest;
+import com.ligero.testutil.FakeResponse;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JfrEventRecorderTest {
+
+    /** Engine double that captures the root handler. */
+    static final class CapturingEngine implements ServerEngine {
+        HttpHandler rootHandler;
+
+        @Override
+        public void start(EngineConfig config, HttpHandler rootHandler) {
+            this.rootHandler = rootHandler;
+        }
+
+        @Override
+        public void stop(Duration grace) {
+        }
+
+        @Override
+        public int port() {
+            return 0;
+        }
+    }
+
+    @TempDir
+    Path dir;
+
+    private List<RecordedEvent> record(Runnable work) throws Exception {
+        Path file = dir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("ligero.*");
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+            .filter(event -> event.getEventType().getName().startsWith("ligero."))
+            .toList();
+    }
+
+    @Test
+    void recordsRequestMiddlewareAndTemplateEvents() throws Exception {
+        CapturingEngine engine = new CapturingEngine();
+        Ligero app = Ligero.create(LigeroConfig.builder().environment(Map.of()).secureDefaults(false).build())
+            .engine(engine)
+            .eventRecorder(new JfrEventRecorder())
+            .templateEngine((name, model) -> "<p>" + model.get("name") + "</p>")
+            .use((ctx, chain) -> chain.proceed());
+        app.get("/users/{id}", ctx -> ctx.render("user", Map.of("name", "ada")));
+        app.start();
+
+        FakeResponse response = new FakeResponse();
+        List<RecordedEvent> events = record(() -> {
+            try {
+                engine.rootHandler.handle(FakeRequest.of("POST", "/users/7").header("Content-Length", "0"), response);
+                engine.rootHandler.handle(FakeRequest.of("GET", "/users/7"), new FakeResponse());
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+
+        List<RecordedEvent> requests = events.stream()
+            .filter(e -> e.getEventType().getName().equals("ligero.HttpRequest")).toList();
+        assertThat(requests).hasSize(2);
+        RecordedEvent get = requests.get(1);
+        assertThat(get.getString("method")).isEqualTo("GET");
+        assertThat(get.getString("route")).isEqualTo("/users/{id}");
+        assertThat(get.getInt("status")).isEqualTo(200);
+        assertThat(get.getLong("bytesIn")).isEqualTo(-1);
+        assertThat(get.getLong("bytesOut")).isEqualTo("<p>ada</p>".length());
+        assertThat(requests.get(0).getInt("status")).isEqualTo(405);
+        assertThat(requests.get(0).getString("route")).isNull();
+        assertThat(events).anySatisfy(e -> {
+            assertThat(e.getEventType().getName()).isEqualTo("ligero.TemplateRender");
+            assertThat(e.getString("template")).isEqualTo("user");
+        });
+        assertThat(events).filteredOn(e -> e.getEventType().getName().equals("ligero.Middleware"))
+            .hasSize(2)
+            .allSatisfy(e -> assertThat(e.getString("path")).isEqualTo("/users/7"));
+        app.stop();
+    }
+
+    @Test
+    void recordsCacheHitsAndMisses() throws Exception {
+        Cache<String, String> cache = JfrCache.wrap("users", new InMemoryCache<>());
+
+        List<RecordedEvent> events = record(() -> {
+            cache.get("a");
+            cache.get("a", key -> "loaded");
+            cache.get("a", key -> "again");
+            cache.put("b", "b");
+            cache.put("c", "c", Duration.ofMinutes(1));
+            cache.getAll(List.of("b", "c"), keys -> Map.of());
+            cache.getAll(List.of("b", "d"), Duration.ofMinutes(1), keys -> Map.of("d", "d"));
+            cache.evict("a");
+            cache.clear();
+        });
+
+        assertThat(events).extracting(e -> e.getString("operation") + ":" + e.getBoolean("hit"))
+            .containsExactly("get:false", "load:false", "load:true", "put:false", "put:false",
+                "getAll:true", "getAll:false", "evict:false", "clear:false");
+        assertThat(events).allSatisfy(e -> assertThat(e.getString("cache")).isEqualTo("users"));
+    }
+
+    @Test
+    void nothingIsBuiltWhileNoRecordingWantsTheEvents() {
+        JfrEventRecorder recorder = new JfrEventRecorder();
+        Cache<String, String> cache = JfrCache.wrap("plain", new InMemoryCache<>());
+
+        cache.put("a", "1");
+        cache.put("b", "2", Duration.ofMinutes(1));
+        assertThat(cache.get("a")).contains("1");
+        assertThat(cache.get("c", key -> "3")).isEqualTo("3");
+        assertThat(cache.getAll(List.of("a", "b"), keys -> Map.of())).containsOnlyKeys("a", "b");
+        assertThat(cache.getAsync("a", key -> "x").join()).isEqualTo("1");
+        cache.evict("a");
+        cache.clear();
+        assertThat(cache.get("b")).isEmpty();
+        for (com.ligero.spi.EventRecorder.Type type : com.ligero.spi.EventRecorder.Type.values()) {
+            assertThat(recorder.isEnabled(type)).isFalse();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.ligero.jpa;
+
+import com.ligero.cache.Cache;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hibernate's second-level cache regions, all stored in one Ligero
+ * {@link Cache} under keys qualified by region. Clearing a region moves it to
+ * a new generation, so its old entries are never read again and leave the
+ * cache by its own TTL or size bound. The update-timestamps region is the
+ * exception: query results are trusted only while it remembers when their
+ * tables last changed, so it must never lose an entry, and it is kept in a
+ * map of its own (one entry per table). See {@link Jpa#secondLevelCache}.
+ */
+final class CacheRegionFactory extends RegionFactoryTemplate {
+
+    private final Cache<Object, Object> cache;
+
+    CacheRegionFactory(Cache<Object, Object> cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions options, Map<String, Object> configValues) {
+    }
+
+    /** The cache belongs to the application, which closes it if it needs closing. */
+    @Override
+    protected void releaseFromUse() {
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig config,
+                                                                   DomainDataRegionBuildingContext context) {
+        return new Region(qualify(config.getRegionName()));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor factory) {
+        return new Region(qualify(regionName));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor factory) {
+        return new Timestamps();
+    }
+
+    private record Key(String region, long generation, Object key) implements Serializable {
+    }
+
+    private final class Region implements DomainDataStorageAccess {
+        private final String name;
+        private final AtomicLong generation = new AtomicLong();
+
+        Region(String name) {
+            this.name = name;
+        }
+
+        private Key key(Object key) {
+            return new Key(name, generation.get(), key);
+        }
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return cache.get(key(key)).orElse(null);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            if (value == null) {
+                cache.evict(key(key));
+            } else {
+                cache.put(key(key), value);
+            }
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return cache.get(key(key)).isPresent();
+        }
+
+        @Override
+        public void evictData() {
+            generation.incrementAndGet();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            cache.evict(key(key));
+        }
+
+        @Override
+        public void release() {
+        }
+    }
+
+    /** Last update time per table, held in process memory so no eviction can drop one. */
+    private static final class Timestamps implements StorageAccess {
+        private final Map<Object, Object> timestamps = new ConcurrentHashMap<>();
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return timestamps.get(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            if (value == null) {
+                timestamps.remove(key);
+            } else {
+                timestamps.put(key, value);
+            }
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return timestamps.containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            timestamps.clear();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            timestamps.remove(key);
+        }
+
+        @Override
+        public void release() {
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.ligero.jpa;
+
+import com.ligero.cache.Cache;
+
+import jakarta.persistence.EntityManager;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+
+import java.util.Map;
+
+/**
+ * What {@link Jpa} does through Hibernate's own API when Hibernate is the
+ * provider. Kept apart so the other providers never load a Hibernate class.
+ */
+final class HibernateSupport {
+
+    static final boolean PRESENT = present();
+
+    private HibernateSupport() {
+    }
+
+    private static boolean present() {
+        try {
+            Class.forName("org.hibernate.Session", false, HibernateSupport.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /** Loads entities without dirty-checking snapshots and never flushes. */
+    static void readOnly(EntityManager em) {
+        if (em.getDelegate() instanceof Session session) {
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+        }
+    }
+
+    /** Sends this session's inserts and updates {@code size} statements per JDBC batch. */
+    static void jdbcBatchSize(EntityManager em, int size) {
+        if (em.getDelegate() instanceof Session session) {
+            session.setJdbcBatchSize(size);
+        }
+    }
+
+    static Map<String, Object> secondLevelCache(Cache<Object, Object> cache) {
+        return Map.of(
+            "hibernate.cache.use_second_level_cache", "true",
+            "hibernate.cache.region.factory_class", new CacheRegionFactory(cache));
+    }
+}
@@ -1,8 +1,11 @@
 package com.ligero.jpa;
 
+import com.ligero.cache.Cache;
+
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.FlushModeType;
 import jakarta.persistence.Persistence;
 
 import java.util.Map;
@@ -25,15 +28,28 @@ import java.util.function.Function;
  * // read without a transaction
  * List<Todo> all = jpa.read(em -> em.createQuery("select t from Todo t", Todo.class).getResultList());
  *
+ * // read-heavy endpoints: no dirty-checking snapshots, no flushes
+ * List<Todo> open = jpa.readOnly(em -> em.createQuery("select t from Todo t where not t.done", Todo.class)
+ *     .getResultList());
+ *
+ * // bulk imports: JDBC batches, flushed and cleared every 50 entities
+ * jpa.batch(imported, 50);
+ *
  * jpa.close();   // closes the factory on shutdown (AutoCloseable)
  * }</pre>
  *
+ * <p>With Hibernate, {@link #secondLevelCache} keeps its second-level cache in
+ * a Ligero {@link Cache}.</p>
+ *
  * <p>This is the "Ligero way": a small layer that keeps you in control of the
  * SQL/JPQL and the transaction boundaries. If you'd rather use jOOQ, Spring
  * Data or raw JDBC, bind that as a bean instead — nothing here is mandatory.</p>
  */
 public final class Jpa implements AutoCloseable {
 
+    /** Entities per flush in {@link #batch(Iterable)}; Hibernate recommends 10 to 50. */
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
     private final EntityManagerFactory factory;
 
     private Jpa(EntityManagerFactory factory) {
@@ -55,6 +71,34 @@ public final class Jpa implements AutoCloseable {
         return new Jpa(Persistence.createEntityManagerFactory(persistenceUnit, properties));
     }
 
+    /**
+     * Properties that store Hibernate's second-level cache in {@code cache},
+     * to add to those of {@link #forUnit(String, Map)}. Entities opt in with
+     * {@code @Cacheable} (or set {@code jakarta.persistence.sharedCache.mode}).
+     * Regions share the cache under qualified keys and expire with its TTL,
+     * except the query cache's update timestamps, which stay in this process
+     * so an eviction cannot make stale query results look current; a
+     * distributed cache shares entity data between instances, but each
+     * instance only invalidates its own entries when it writes.
+     *
+     * <pre>{@code
+     * Map<String, Object> properties = new HashMap<>(Jpa.secondLevelCache(new InMemoryCache<>(policy)));
+     * properties.put("jakarta.persistence.jdbc.url", config.get("db.url"));
+     * Jpa jpa = Jpa.forUnit("app", properties);
+     * }</pre>
+     *
+     * @throws IllegalStateException if Hibernate is not on the classpath
+     */
+    public static Map<String, Object> secondLevelCache(Cache<Object, Object> cache) {
+        if (cache == null) {
+            throw new IllegalArgumentException("cache must not be null");
+        }
+        if (!HibernateSupport.PRESENT) {
+            throw new IllegalStateException("The second-level cache needs Hibernate as the JPA provider");
+        }
+        return HibernateSupport.secondLevelCache(cache);
+    }
+
     /** The underlying factory, for advanced use. */
     public EntityManagerFactory factory() {
         return factory;
@@ -97,6 +141,58 @@ public final class Jpa implements AutoCloseable {
         }
     }
 
+    /**
+     * Like {@link #read}, for entities that will not be changed: the manager
+     * never flushes, and with Hibernate loads them read-only, so it keeps no
+     * snapshot of each for dirty checking.
+     */
+    public <T> T readOnly(Function<EntityManager, T> work) {
+        EntityManager em = factory.createEntityManager();
+        try {
+            em.setFlushMode(FlushModeType.COMMIT);
+            if (HibernateSupport.PRESENT) {
+                HibernateSupport.readOnly(em);
+            }
+            return work.apply(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    /** {@link #batch(Iterable, int) Persists} {@code entities}, {@link #DEFAULT_BATCH_SIZE} per flush. */
+    public long batch(Iterable<?> entities) {
+        return batch(entities, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Persists {@code entities} in one transaction, flushing and clearing the
+     * manager every {@code batchSize} so memory stays flat; with Hibernate
+     * each flush is sent as JDBC batches of {@code batchSize}. Hibernate
+     * cannot batch inserts of {@code IDENTITY} ids — use a sequence for bulk
+     * imports. Returns how many were persisted.
+     */
+    public long batch(Iterable<?> entities, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be >= 1");
+        }
+        return tx(em -> {
+            if (HibernateSupport.PRESENT) {
+                HibernateSupport.jdbcBatchSize(em, batchSize);
+            }
+            long count = 0;
+            for (Object entity : entities) {
+                em.persist(entity);
+                if (++count % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.flush();
+            em.clear();
+            return count;
+        });
+    }
+
     @Override
     public void close() {
         factory.close();
@@ -6,6 +6,7 @@
 module com.ligero.jpa {
     requires transitive com.ligero.core;
     requires transitive jakarta.persistence;
+    requires static org.hibernate.orm.core;
 
     exports com.ligero.jpa;
 }
@@ -1,10 +1,18 @@
 package com.ligero.jpa;
 
+import com.ligero.cache.InMemoryCache;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.support.StorageAccess;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -57,4 +65,78 @@ class JpaTest {
         assertThat(all()).hasSize((int) before)
             .extracting(TodoEntity::getTitle).doesNotContain("doomed");
     }
+
+    @Test
+    void readOnlyLoadsEntitiesWithoutDirtyCheckingOrFlushes() {
+        TodoEntity saved = jpa.tx(em -> {
+            TodoEntity todo = new TodoEntity("read me");
+            em.persist(todo);
+            return todo;
+        });
+
+        boolean readOnly = jpa.readOnly(em -> {
+            Session session = em.unwrap(Session.class);
+            assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.MANUAL);
+            return session.isReadOnly(em.find(TodoEntity.class, saved.getId()));
+        });
+
+        assertThat(readOnly).isTrue();
+    }
+
+    @Test
+    void batchPersistsEveryEntityInFlushedChunks() {
+        long before = all().size();
+        List<TodoEntity> imported = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            imported.add(new TodoEntity("imported " + i));
+        }
+
+        long persisted = jpa.batch(imported, 50);
+
+        assertThat(persisted).isEqualTo(120);
+        assertThat(imported).allSatisfy(todo -> assertThat(todo.getId()).isNotNull());
+        assertThat(all()).hasSize((int) before + 120);
+        assertThatThrownBy(() -> jpa.batch(imported, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void keepsTheSecondLevelCacheInALigeroCache() {
+        InMemoryCache<Object, Object> cache = new InMemoryCache<>();
+        Map<String, Object> properties = new HashMap<>(Jpa.secondLevelCache(cache));
+        properties.put("jakarta.persistence.jdbc.url", "jdbc:h2:mem:l2;DB_CLOSE_DELAY=-1");
+        properties.put("jakarta.persistence.sharedCache.mode", "ALL");
+
+        try (Jpa cached = Jpa.forUnit("test", properties)) {
+            TodoEntity saved = cached.tx(em -> {
+                TodoEntity todo = new TodoEntity("cache me");
+                em.persist(todo);
+                return todo;
+            });
+            jakarta.persistence.Cache secondLevel = cached.factory().getCache();
+            // IDENTITY inserts are not cached; the first load is
+            cached.readOnly(em -> em.find(TodoEntity.class, saved.getId()));
+            assertThat(secondLevel.contains(TodoEntity.class, saved.getId())).isTrue();
+            assertThat(cache.size()).isPositive();
+
+            secondLevel.evict(TodoEntity.class);
+            assertThat(secondLevel.contains(TodoEntity.class, saved.getId())).isFalse();
+
+            // loading it again puts it back
+            TodoEntity found = cached.readOnly(em -> em.find(TodoEntity.class, saved.getId()));
+            assertThat(found.getTitle()).isEqualTo("cache me");
+            assertThat(secondLevel.contains(TodoEntity.class, saved.getId())).isTrue();
+        }
+    }
+
+    @Test
+    void keepsUpdateTimestampsOutOfTheEvictableCache() {
+        InMemoryCache<Object, Object> cache = new InMemoryCache<>();
+        StorageAccess timestamps = new CacheRegionFactory(cache)
+            .createTimestampsRegionStorageAccess("default-update-timestamps-region", null);
+
+        timestamps.putIntoCache("todo", 42L, null);
+        cache.clear(); // what a size-bounded cache may do at any time
+        assertThat(timestamps.getFromCache("todo", null)).isEqualTo(42L);
+        assertThat(cache.size()).isZero();
+    }
 }
@@ -2,10 +2,20 @@ package com.ligero.metrics.micrometer;
 
 import com.ligero.spi.MetricsCollector;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.function.ToDoubleFunction;
 
 /**
  * {@link MetricsCollector} adapter publishing per-route request timers to a
@@ -15,22 +25,314 @@ import java.time.Duration;
  * MeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
  * app.use(new MetricsMiddleware(new MicrometerMetricsCollector(registry)));
  * }</pre>
+ *
+ * <p>Each {@code ligero.http.requests} timer is registered once per (method,
+ * route, status) and cached in lock-free maps, so a request costs a few hash
+ * lookups and the timer update — no builder, tags or registry lock. Timers
+ * publish a percentile histogram (bounded to the {@linkplain Builder#expectedRange
+ * expected range}) and any configured SLO buckets. At most {@code maxRoutes}
+ * (method, route) pairs get their own timers; requests for further routes —
+ * typically unmatched raw paths — are tagged {@code route=<other>}, and
+ * non-standard methods {@code method=OTHER}.</p>
+ *
+ * <p>Phase timings of sampled requests ({@code Ligero.requestTimings}) go to
+ * {@code ligero.http.phase} timers tagged by method, route and phase.
+ * Database pools reporting checkouts ({@code DataSources.metrics} in
+ * {@code ligero-jdbc}) get a {@code ligero.db.pool.wait} timer and
+ * {@code ligero.db.pool.connections} gauges tagged by pool and state, which
+ * read the pool's live counts when it registers them. SQL
+ * statements get a {@code ligero.db.query} timer and a
+ * {@code ligero.db.query.rows} counter tagged by statement id, operation and
+ * outcome, for at most {@link #MAX_STATEMENTS} statements.</p>
  */
 public final class MicrometerMetricsCollector implements MetricsCollector {
 
+    public static final String METER_NAME = "ligero.http.requests";
+    public static final String PHASE_METER_NAME = "ligero.http.phase";
+    public static final String POOL_WAIT_METER_NAME = "ligero.db.pool.wait";
+    public static final String POOL_CONNECTIONS_METER_NAME = "ligero.db.pool.connections";
+    public static final String QUERY_METER_NAME = "ligero.db.query";
+    public static final String QUERY_ROWS_METER_NAME = "ligero.db.query.rows";
+    /** Cap on SQL statements with their own meters; further ones are tagged {@code statement=<other>}. */
+    public static final int MAX_STATEMENTS = 1_000;
+    /** Default cap on (method, route) pairs with their own timers. */
+    public static final int DEFAULT_MAX_ROUTES = 1_000;
+    /** Route tag used once {@code maxRoutes} is reached. */
+    public static final String OVERFLOW_ROUTE = "<other>";
+    /** Method tag of requests whose method is not a standard one. */
+    public static final String OTHER_METHOD = "OTHER";
+
+    private static final Set<String> METHODS =
+        Set.of("GET", "HEAD", "POST", "PUT", "DELETE", "CONNECT", "OPTIONS", "TRACE", "PATCH");
+
+    private static final int MAX_STATUS = 599;
+    /** Boxed status codes, so a lookup never allocates an {@code Integer}. */
+    private static final Integer[] STATUS_KEYS = new Integer[MAX_STATUS + 1];
+
+    static {
+        for (int i = 0; i < STATUS_KEYS.length; i++) {
+            STATUS_KEYS[i] = i;
+        }
+    }
+
+    /** Timers of one (method, route) pair; both are tag values, possibly the overflow ones. */
+    private record RouteTimers(String method, String route, Map<Integer, Timer> byStatus, Map<String, Timer> byPhase) {
+
+        RouteTimers(String method, String route) {
+            this(method, route, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+
+    /** Meters of one connection pool; the gauges read its live counts once registered, else the last reported. */
+    private static final class PoolMeters {
+        final Timer checkoutWait;
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger idle = new AtomicInteger();
+        final AtomicInteger pending = new AtomicInteger();
+        volatile IntSupplier liveActive = active::get;
+        volatile IntSupplier liveIdle = idle::get;
+        volatile IntSupplier livePending = pending::get;
+
+        PoolMeters(Timer checkoutWait) {
+            this.checkoutWait = checkoutWait;
+        }
+    }
+
+    /** Meters of one SQL statement, by outcome. */
+    private record QueryMeters(Timer success, Timer error, Counter rows) {
+    }
+
     private final MeterRegistry registry;
+    private final boolean percentileHistogram;
+    private final double[] percentiles;
+    private final Duration[] slos;
+    private final Duration minExpected;
+    private final Duration maxExpected;
+    private final int maxRoutes;
+    /** method → route → status → timer. */
+    private final Map<String, Map<String, RouteTimers>> timers = new ConcurrentHashMap<>();
+    private final AtomicInteger routes = new AtomicInteger();
+    private final Map<String, PoolMeters> pools = new ConcurrentHashMap<>();
+    private final Map<String, QueryMeters> queries = new ConcurrentHashMap<>();
 
     public MicrometerMetricsCollector(MeterRegistry registry) {
-        this.registry = registry;
+        this(builder(registry));
+    }
+
+    private MicrometerMetricsCollector(Builder builder) {
+        this.registry = builder.registry;
+        this.percentileHistogram = builder.percentileHistogram;
+        this.percentiles = builder.percentiles;
+        this.slos = builder.slos.toArray(Duration[]::new);
+        this.minExpected = builder.minExpected;
+        this.maxExpected = builder.maxExpected;
+        this.maxRoutes = builder.maxRoutes;
+    }
+
+    public static Builder builder(MeterRegistry registry) {
+        return new Builder(registry);
     }
 
     @Override
     public void record(String method, String route, int status, long durationNanos) {
-        Timer.builder("ligero.http.requests")
+        timer(method, route, status).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordPhase(String method, String route, String phase, long nanos) {
+        RouteTimers routeTimers = routeTimers(method, route);
+        Timer timer = routeTimers.byPhase().get(phase);
+        if (timer == null) {
+            timer = routeTimers.byPhase().computeIfAbsent(phase, p -> Timer.builder(PHASE_METER_NAME)
+                .description("Time spent in each request phase (sampled requests)")
+                .tag("method", routeTimers.method())
+                .tag("route", routeTimers.route())
+                .tag("phase", p)
+                .register(registry));
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordPool(String pool, long waitNanos, int active, int idle, int pending) {
+        PoolMeters meters = pools.get(pool);
+        if (meters == null) {
+            meters = pools.computeIfAbsent(pool, this::registerPool);
+        }
+        meters.active.set(active);
+        meters.idle.set(idle);
+        meters.pending.set(pending);
+        meters.checkoutWait.record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void registerPool(String pool, IntSupplier active, IntSupplier idle, IntSupplier pending) {
+        PoolMeters meters = pools.computeIfAbsent(pool, this::registerPool);
+        meters.liveActive = active;
+        meters.liveIdle = idle;
+        meters.livePending = pending;
+    }
+
+    private PoolMeters registerPool(String pool) {
+        PoolMeters meters = new PoolMeters(Timer.builder(POOL_WAIT_METER_NAME)
+            .description("Time spent waiting for a pooled database connection")
+            .tag("pool", pool)
+            .register(registry));
+        gauge(pool, "active", meters, m -> m.liveActive.getAsInt());
+        gauge(pool, "idle", meters, m -> m.liveIdle.getAsInt());
+        gauge(pool, "pending", meters, m -> m.livePending.getAsInt());
+        return meters;
+    }
+
+    private void gauge(String pool, String state, PoolMeters meters, ToDoubleFunction<PoolMeters> value) {
+        Gauge.builder(POOL_CONNECTIONS_METER_NAME, meters, value)
+            .description("Database pool connections, by state")
+            .tag("pool", pool)
+            .tag("state", state)
+            .register(registry);
+    }
+
+    @Override
+    public void recordQuery(String statement, String sql, String operation, long nanos, long rows) {
+        QueryMeters meters = queries.get(statement);
+        if (meters == null) {
+            meters = queries.size() >= MAX_STATEMENTS
+                ? queries.computeIfAbsent(OVERFLOW_ROUTE, id -> registerQuery(id, ""))
+                : queries.computeIfAbsent(statement, id -> registerQuery(id, operation));
+        }
+        if (rows < 0) {
+            meters.error().record(nanos, TimeUnit.NANOSECONDS);
+        } else {
+            meters.success().record(nanos, TimeUnit.NANOSECONDS);
+            meters.rows().increment(rows);
+        }
+    }
+
+    private QueryMeters registerQuery(String statement, String operation) {
+        return new QueryMeters(queryTimer(statement, operation, "success"), queryTimer(statement, operation, "error"),
+            Counter.builder(QUERY_ROWS_METER_NAME)
+                .description("Rows read or affected by SQL statements")
+                .tag("statement", statement)
+                .tag("operation", operation)
+                .register(registry));
+    }
+
+    private Timer queryTimer(String statement, String operation, String outcome) {
+        return Timer.builder(QUERY_METER_NAME)
+            .description("SQL statement latency, by normalized statement id")
+            .tag("statement", statement)
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram(percentileHistogram)
+            .minimumExpectedValue(minExpected)
+            .maximumExpectedValue(maxExpected)
+            .register(registry);
+    }
+
+    private Timer timer(String method, String route, int status) {
+        RouteTimers routeTimers = routeTimers(method, route);
+        Integer key = STATUS_KEYS[Math.clamp(status, 0, MAX_STATUS)];
+        Timer timer = routeTimers.byStatus().get(key);
+        if (timer == null) {
+            timer = routeTimers.byStatus().computeIfAbsent(key,
+                s -> register(routeTimers.method(), routeTimers.route(), s));
+        }
+        return timer;
+    }
+
+    private RouteTimers routeTimers(String requestMethod, String route) {
+        String method = METHODS.contains(requestMethod) ? requestMethod : OTHER_METHOD;
+        Map<String, RouteTimers> byRoute = timers.get(method);
+        if (byRoute == null) {
+            byRoute = timers.computeIfAbsent(method, m -> new ConcurrentHashMap<>());
+        }
+        RouteTimers routeTimers = byRoute.get(route);
+        if (routeTimers == null) {
+            routeTimers = routes.get() >= maxRoutes
+                ? byRoute.computeIfAbsent(OVERFLOW_ROUTE, r -> new RouteTimers(method, r))
+                : byRoute.computeIfAbsent(route, r -> {
+                    routes.incrementAndGet();
+                    return new RouteTimers(method, r);
+                });
+        }
+        return routeTimers;
+    }
+
+    private Timer register(String method, String route, int status) {
+        Timer.Builder timer = Timer.builder(METER_NAME)
+            .description("Requests served by Ligero")
             .tag("method", method)
             .tag("route", route)
             .tag("status", String.valueOf(status))
-            .register(registry)
-            .record(Duration.ofNanos(durationNanos));
+            .publishPercentileHistogram(percentileHistogram)
+            .minimumExpectedValue(minExpected)
+            .maximumExpectedValue(maxExpected);
+        if (percentiles.length > 0) {
+            timer.publishPercentiles(percentiles);
+        }
+        if (slos.length > 0) {
+            timer.serviceLevelObjectives(slos);
+        }
+        return timer.register(registry);
+    }
+
+    public static final class Builder {
+        private final MeterRegistry registry;
+        private boolean percentileHistogram = true;
+        private double[] percentiles = {};
+        private List<Duration> slos = List.of();
+        private Duration minExpected = Duration.ofMillis(1);
+        private Duration maxExpected = Duration.ofSeconds(30);
+        private int maxRoutes = DEFAULT_MAX_ROUTES;
+
+        private Builder(MeterRegistry registry) {
+            this.registry = registry;
+        }
+
+        /** Publishes histogram buckets for server-side percentiles (default on). */
+        public Builder percentileHistogram(boolean enabled) {
+            this.percentileHistogram = enabled;
+            return this;
+        }
+
+        /** Client-side percentiles computed in-process (e.g. {@code 0.5, 0.99}); none by default. */
+        public Builder percentiles(double... percentiles) {
+            for (double p : percentiles) {
+                if (p < 0 || p > 1) {
+                    throw new IllegalArgumentException("percentiles must be within [0, 1]");
+                }
+            }
+            this.percentiles = percentiles.clone();
+            return this;
+        }
+
+        /** SLO boundaries published as extra histogram buckets (e.g. 100ms, 500ms). */
+        public Builder slo(Duration... boundaries) {
+            this.slos = List.of(boundaries);
+            return this;
+        }
+
+        /** Latency range the percentile histogram covers (default 1ms to 30s); fewer buckets when narrower. */
+        public Builder expectedRange(Duration min, Duration max) {
+            if (min.isNegative() || min.isZero() || max.compareTo(min) <= 0) {
+                throw new IllegalArgumentException("expected range must satisfy 0 < min < max");
+            }
+            this.minExpected = min;
+            this.maxExpected = max;
+            return this;
+        }
+
+        /** Cap on (method, route) pairs with their own timers (default 1000). */
+        public Builder maxRoutes(int maxRoutes) {
+            if (maxRoutes < 1) {
+                throw new IllegalArgumentException("maxRoutes must be >= 1");
+            }
+            this.maxRoutes = maxRoutes;
+            return this;
+        }
+
+        public MicrometerMetricsCollector build() {
+            return new MicrometerMetricsCollector(this);
+        }
     }
 }
@@ -1,11 +1,18 @@
 package com.ligero.metrics.micrometer;
 
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class MicrometerMetricsCollectorTest {
 
@@ -27,4 +34,120 @@ class MicrometerMetricsCollectorTest {
             .tags("method", "POST", "status", "500").timer();
         assertThat(error.count()).isEqualTo(1);
     }
+
+    @Test
+    void publishesConnectionPoolMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerMetricsCollector collector = new MicrometerMetricsCollector(registry);
+
+        collector.recordPool("replica-1", 3_000_000, 5, 2, 0);
+        collector.recordPool("replica-1", 1_000_000, 6, 1, 3);
+
+        assertThat(registry.get("ligero.db.pool.wait").tags("pool", "replica-1").timer().count()).isEqualTo(2);
+        assertThat(registry.get("ligero.db.pool.connections").tags("pool", "replica-1", "state", "active")
+            .gauge().value()).isEqualTo(6.0);
+        assertThat(registry.get("ligero.db.pool.connections").tags("state", "pending").gauge().value())
+            .isEqualTo(3.0);
+
+        collector.registerPool("replica-1", () -> 0, () -> 7, () -> 0); // live counts win from now on
+        assertThat(registry.get("ligero.db.pool.connections").tags("state", "active").gauge().value())
+            .isEqualTo(0.0);
+        assertThat(registry.get("ligero.db.pool.connections").tags("state", "idle").gauge().value())
+            .isEqualTo(7.0);
+    }
+
+    @Test
+    void publishesPerStatementQueryMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerMetricsCollector collector = new MicrometerMetricsCollector(registry);
+
+        collector.recordQuery("1a2b3c4d", "select * from users where id = ?", "query", 2_000_000, 1);
+        collector.recordQuery("1a2b3c4d", "select * from users where id = ?", "query", 4_000_000, 1);
+        collector.recordQuery("1a2b3c4d", "select * from users where id = ?", "query", 9_000_000, -1);
+
+        assertThat(registry.get("ligero.db.query").tags("statement", "1a2b3c4d", "operation", "query",
+            "outcome", "success").timer().count()).isEqualTo(2);
+        assertThat(registry.get("ligero.db.query").tags("outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(registry.get("ligero.db.query.rows").tags("statement", "1a2b3c4d").counter().count())
+            .isEqualTo(2.0);
+    }
+
+    @Test
+    void registersEachTimerOnceAndReusesIt() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerMetricsCollector collector = new MicrometerMetricsCollector(registry);
+
+        for (int i = 0; i < 100; i++) {
+            collector.record("GET", "/users/{id}", 200, 1_000_000);
+        }
+        collector.record("GET", "/users/{id}", 404, 1_000_000);
+
+        assertThat(registry.find("ligero.http.requests").timers()).hasSize(2);
+        assertThat(registry.get("ligero.http.requests").tags("status", "200").timer().count()).isEqualTo(100);
+    }
+
+    @Test
+    void foldsRoutesBeyondTheCapIntoOverflow() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerMetricsCollector collector = MicrometerMetricsCollector.builder(registry).maxRoutes(2).build();
+
+        collector.record("GET", "/a", 200, 1_000);
+        collector.record("GET", "/b", 200, 1_000);
+        for (int i = 0; i < 50; i++) {
+            collector.record("GET", "/scan/" + i, 404, 1_000);
+        }
+
+        assertThat(registry.find("ligero.http.requests").timers()).hasSize(3);
+        assertThat(registry.get("ligero.http.requests")
+            .tags("route", MicrometerMetricsCollector.OVERFLOW_ROUTE, "status", "404").timer().count())
+            .isEqualTo(50);
+    }
+
+    @Test
+    void foldsNonStandardMethodsIntoOneTag() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerMetricsCollector collector = new MicrometerMetricsCollector(registry);
+
+        collector.record("GET", "/a", 200, 1_000);
+        for (int i = 0; i < 50; i++) {
+            collector.record("X" + i, "/a", 405, 1_000);
+            collector.recordPhase("X" + i, "/a", "handler", 1_000);
+        }
+
+        assertThat(registry.find("ligero.http.requests").timers()).hasSize(2);
+        assertThat(registry.get("ligero.http.requests").tags("method", "OTHER").timer().count()).isEqualTo(50);
+        assertThat(registry.get("ligero.http.phase").tags("method", "OTHER").timer().count()).isEqualTo(50);
+    }
+
+    @Test
+    void publishesPercentileHistogramAndSloBuckets() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerMetricsCollector collector = MicrometerMetricsCollector.builder(registry)
+            .percentiles(0.99)
+            .slo(Duration.ofMillis(100), Duration.ofMillis(500))
+            .build();
+
+        collector.record("GET", "/", 200, 50_000_000);
+        collector.record("GET", "/", 200, 300_000_000);
+
+        HistogramSnapshot snapshot = registry.get("ligero.http.requests").timer().takeSnapshot();
+        assertThat(snapshot.percentileValues()).extracting(ValueAtPercentile::percentile).containsExactly(0.99);
+        assertThat(snapshot.histogramCounts())
+            .filteredOn(bucket -> bucket.bucket(TimeUnit.MILLISECONDS) == 100.0
+                || bucket.bucket(TimeUnit.MILLISECONDS) == 500.0)
+            .extracting(CountAtBucket::count)
+            .containsExactly(1.0, 2.0);
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        assertThatThrownBy(() -> MicrometerMetricsCollector.builder(registry).maxRoutes(0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MicrometerMetricsCollector.builder(registry).percentiles(1.5))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MicrometerMetricsCollector.builder(registry)
+                .expectedRange(Duration.ofSeconds(1), Duration.ofMillis(1)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
 }
@@ -4,11 +4,14 @@ import com.ligero.spi.Tracer;
 
 import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.SpanBuilder;
 import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.api.trace.StatusCode;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.context.propagation.TextMapGetter;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * {@link Tracer} adapter over the OpenTelemetry API. Vendor-neutral by
  * design: point your OTel SDK/agent at any backend (OTLP collector,
@@ -17,6 +20,10 @@ import io.opentelemetry.context.propagation.TextMapGetter;
  * <p>Discovered via ServiceLoader using {@link GlobalOpenTelemetry} (works
  * out of the box with the OTel Java agent), or construct it with an explicit
  * {@link OpenTelemetry} instance from your SDK setup.</p>
+ *
+ * <p>Spans are only handed to the SDK here; exporting them is the SDK's job,
+ * so configure a {@code BatchSpanProcessor} (the autoconfigure default) to
+ * keep export off the request thread.</p>
  */
 public final class OtelTracer implements Tracer {
 
@@ -33,6 +40,7 @@ public final class OtelTracer implements Tracer {
     };
 
     private final OpenTelemetry openTelemetry;
+    private final io.opentelemetry.api.trace.Tracer tracer;
 
     /** ServiceLoader constructor: uses the global OTel (SDK autoconfigure / agent). */
     public OtelTracer() {
@@ -41,23 +49,41 @@ public final class OtelTracer implements Tracer {
 
     public OtelTracer(OpenTelemetry openTelemetry) {
         this.openTelemetry = openTelemetry;
+        this.tracer = openTelemetry.getTracer("com.ligero");
     }
 
     @Override
     public Tracer.Span startSpan(String name, String traceparent) {
-        io.opentelemetry.api.trace.Tracer tracer = openTelemetry.getTracer("com.ligero");
+        return new OtelSpan(tracer, serverSpan(name, traceparent).startSpan());
+    }
+
+    @Override
+    public Tracer.Span startSpan(String name, String traceparent, long startEpochNanos) {
+        return new OtelSpan(tracer, serverSpan(name, traceparent)
+            .setStartTimestamp(startEpochNanos, TimeUnit.NANOSECONDS)
+            .startSpan());
+    }
+
+    private SpanBuilder serverSpan(String name, String traceparent) {
         Context parent = traceparent == null
             ? Context.current()
             : openTelemetry.getPropagators().getTextMapPropagator()
                 .extract(Context.current(), traceparent, TRACEPARENT_GETTER);
-        io.opentelemetry.api.trace.Span otelSpan = tracer.spanBuilder(name)
+        return tracer.spanBuilder(name)
             .setSpanKind(SpanKind.SERVER)
-            .setParent(parent)
-            .startSpan();
-        return new OtelSpan(otelSpan);
+            .setParent(parent);
     }
 
-    private record OtelSpan(io.opentelemetry.api.trace.Span span) implements Tracer.Span {
+    private record OtelSpan(io.opentelemetry.api.trace.Tracer tracer, io.opentelemetry.api.trace.Span span)
+            implements Tracer.Span {
+
+        @Override
+        public Tracer.Span startChild(String name) {
+            return new OtelSpan(tracer, tracer.spanBuilder(name)
+                .setSpanKind(SpanKind.INTERNAL)
+                .setParent(Context.current().with(span))
+                .startSpan());
+        }
 
         @Override
         public Tracer.Span setAttribute(String key, String value) {
@@ -54,6 +54,20 @@ class OtelTracerTest {
             .isEqualTo("00f067aa0ba902b7");
     }
 
+    @Test
+    void childSpansShareTheTraceAndLateSpansKeepTheirStartTime() {
+        long start = System.currentTimeMillis() * 1_000_000L - 5_000_000_000L;
+        try (Tracer.Span span = tracer.startSpan("GET /slow", null, start)) {
+            span.startChild("SELECT").close();
+        }
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertThat(spans).extracting(SpanData::getName).containsExactly("SELECT", "GET /slow");
+        assertThat(spans.get(0).getParentSpanId()).isEqualTo(spans.get(1).getSpanId());
+        assertThat(spans.get(0).getTraceId()).isEqualTo(spans.get(1).getTraceId());
+        assertThat(spans.get(1).getStartEpochNanos()).isEqualTo(start);
+    }
+
     @Test
     void tracingMiddlewareRecordsRouteStatusAndErrors() throws Exception {
         TracingMiddleware middleware = new TracingMiddleware(tracer);
@@ -8,15 +8,19 @@ import javax.lang.model.SourceVersion;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
+import javax.lang.model.element.RecordComponentElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
 import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
@@ -39,6 +43,13 @@ import java.util.Set;
  * returning every generated module, so an app starts with:</p>
  *
  * <pre>{@code Modules.install(app, GeneratedModules.all());}</pre>
+ *
+ * <p>For each {@code @Row} record (from {@code ligero-jdbc}) it emits
+ * {@code <Record>RowMapper.INSTANCE}, a {@code RowMapper} that resolves the
+ * record's columns to indexes once per query and calls the canonical
+ * constructor with typed getters, plus
+ * {@code com.ligero.generated.GeneratedRowMappers}, the {@code ServiceLoader}
+ * provider that registers them all in {@code RowMappers.global()}.</p>
  */
 @SupportedAnnotationTypes({
     "com.ligero.beans.stereotype.Component",
@@ -46,6 +57,7 @@ import java.util.Set;
     "com.ligero.beans.stereotype.Repository",
     "com.ligero.beans.stereotype.Controller",
     "com.ligero.beans.Provides",
+    "com.ligero.jdbc.Row",
 })
 @SupportedSourceVersion(SourceVersion.RELEASE_21)
 public final class LigeroProcessor extends AbstractProcessor {
@@ -59,10 +71,19 @@ public final class LigeroProcessor extends AbstractProcessor {
     private static final String LIGERO = "com.ligero.Ligero";
     private static final String GENERATED_MODULE = "LigeroGeneratedModule";
     private static final String AGGREGATOR = "com.ligero.generated.GeneratedModules";
+    private static final String ROW = "com.ligero.jdbc.Row";
+    private static final String ROW_PROVIDER = "com.ligero.generated.GeneratedRowMappers";
+    /** Getters for declared types that are read as-is with {@code getObject(index, Type.class)}. */
+    private static final Set<String> OBJECT_TYPES = Set.of(
+        "java.lang.Long", "java.lang.Integer", "java.lang.Short", "java.lang.Byte", "java.lang.Boolean",
+        "java.lang.Double", "java.lang.Float", "java.util.UUID", "java.time.LocalDate", "java.time.LocalTime",
+        "java.time.LocalDateTime", "java.time.OffsetDateTime");
 
     /** package name -> its collected bindings, gathered across rounds. */
     private final Map<String, PackageModel> packages = new LinkedHashMap<>();
+    private final List<RowModel> rows = new ArrayList<>();
     private boolean generated;
+    private boolean rowsGenerated;
 
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
@@ -80,6 +101,12 @@ public final class LigeroProcessor extends AbstractProcessor {
                 handleProvides((ExecutableElement) element);
             }
         }
+        TypeElement row = elements().getTypeElement(ROW);
+        if (row != null) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(row)) {
+                handleRow(element);
+            }
+        }
         // Generate as soon as the annotated classes are in hand (they all arrive
         // in the first round). Emitting early — not in the processingOver round —
         // lets hand-written code reference the generated GeneratedModules.
@@ -87,6 +114,10 @@ public final class LigeroProcessor extends AbstractProcessor {
             generated = true;
             writeSources();
         }
+        if (!rowsGenerated && !rows.isEmpty()) {
+            rowsGenerated = true;
+            writeRowMappers();
+        }
         return false;
     }
 
@@ -139,6 +170,83 @@ public final class LigeroProcessor extends AbstractProcessor {
             returnType, enclosing.getQualifiedName().toString(), method.getSimpleName().toString()));
     }
 
+    private void handleRow(Element element) {
+        if (element.getKind() != ElementKind.RECORD) {
+            error(element, "@Row must annotate a record");
+            return;
+        }
+        TypeElement type = (TypeElement) element;
+        if (type.getModifiers().contains(Modifier.PRIVATE)) {
+            error(type, "@Row records must not be private");
+            return;
+        }
+        String pkg = packageOf(type);
+        List<RowColumn> columns = new ArrayList<>();
+        for (RecordComponentElement component : type.getRecordComponents()) {
+            String name = component.getSimpleName().toString();
+            String read = readExpression(component.asType());
+            if (read == null) {
+                error(type, "component '" + name + "' has type " + component.asType()
+                    + ", which @Row cannot read from a column");
+                return;
+            }
+            columns.add(new RowColumn(name, snakeCase(name), read));
+        }
+        String binary = elements().getBinaryName(type).toString();
+        String simple = (pkg.isEmpty() ? binary : binary.substring(pkg.length() + 1)).replace('$', '_');
+        rows.add(new RowModel(pkg, simple + "RowMapper", type.getQualifiedName().toString(), columns));
+    }
+
+    /** Java reading column {@code %s} of {@code row}, or null if the type is not supported. */
+    private String readExpression(TypeMirror type) {
+        return switch (type.getKind()) {
+            case LONG -> "row.getLong(%s)";
+            case INT -> "row.getInt(%s)";
+            case SHORT -> "row.getShort(%s)";
+            case BYTE -> "row.getByte(%s)";
+            case BOOLEAN -> "row.getBoolean(%s)";
+            case DOUBLE -> "row.getDouble(%s)";
+            case FLOAT -> "row.getFloat(%s)";
+            case ARRAY -> ((ArrayType) type).getComponentType().getKind() == TypeKind.BYTE ? "row.getBytes(%s)" : null;
+            case DECLARED -> readExpression((DeclaredType) type);
+            default -> null;
+        };
+    }
+
+    private String readExpression(DeclaredType type) {
+        if (!type.getTypeArguments().isEmpty()) {
+            return null;
+        }
+        TypeElement element = (TypeElement) type.asElement();
+        String name = element.getQualifiedName().toString();
+        if (element.getKind() == ElementKind.ENUM) {
+            return "enumOf(" + name + ".class, row.getString(%s))";
+        }
+        return switch (name) {
+            case "java.lang.String" -> "row.getString(%s)";
+            case "java.math.BigDecimal" -> "row.getBigDecimal(%s)";
+            case "java.time.Instant" -> "instant(row.getTimestamp(%s))";
+            default -> OBJECT_TYPES.contains(name) ? "row.getObject(%s, " + name + ".class)" : null;
+        };
+    }
+
+    /** {@code createdOn} -> {@code created_on}. */
+    static String snakeCase(String name) {
+        StringBuilder out = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0) {
+                    out.append('_');
+                }
+                out.append(Character.toLowerCase(c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
     /** as() override, else the single implemented interface, else the class itself. */
     private String bindingKey(TypeElement type, String stereotype) {
         String explicit = asAttribute(type, stereotype);
@@ -272,6 +380,75 @@ public final class LigeroProcessor extends AbstractProcessor {
         write(AGGREGATOR, sb.toString());
     }
 
+    private void writeRowMappers() {
+        for (RowModel row : rows) {
+            writeRowMapper(row);
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("package com.ligero.generated;\n\n");
+        sb.append("// Generated by ligero-processor. Do not edit.\n");
+        sb.append("public final class GeneratedRowMappers implements com.ligero.jdbc.RowMappers.Provider {\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public void register(com.ligero.jdbc.RowMappers mappers) {\n");
+        for (RowModel row : rows) {
+            sb.append("        mappers.register(").append(row.record).append(".class, ")
+              .append(row.mapperClass()).append(".INSTANCE);\n");
+        }
+        sb.append("    }\n");
+        sb.append("}\n");
+        write(ROW_PROVIDER, sb.toString());
+        try (Writer writer = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                "META-INF/services/com.ligero.jdbc.RowMappers$Provider").openWriter()) {
+            writer.write(ROW_PROVIDER + "\n");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "ligero-processor could not register " + ROW_PROVIDER + ": " + e.getMessage());
+        }
+    }
+
+    private void writeRowMapper(RowModel row) {
+        boolean instants = false;
+        boolean enums = false;
+        StringBuilder sb = new StringBuilder();
+        if (!row.pkg.isEmpty()) {
+            sb.append("package ").append(row.pkg).append(";\n\n");
+        }
+        sb.append("// Generated by ligero-processor. Do not edit.\n");
+        sb.append("public final class ").append(row.mapper).append(" {\n\n");
+        sb.append("    public static final com.ligero.jdbc.RowMapper<").append(row.record)
+          .append("> INSTANCE = com.ligero.jdbc.RowMapper.compiled(columns -> {\n");
+        for (int i = 0; i < row.columns.size(); i++) {
+            RowColumn column = row.columns.get(i);
+            sb.append("        int c").append(i).append(" = columns.index(\"").append(column.name).append('"');
+            if (!column.snake.equals(column.name)) {
+                sb.append(", \"").append(column.snake).append('"');
+            }
+            sb.append(");\n");
+        }
+        sb.append("        return row -> new ").append(row.record).append('(');
+        for (int i = 0; i < row.columns.size(); i++) {
+            String read = row.columns.get(i).read;
+            instants |= read.startsWith("instant(");
+            enums |= read.startsWith("enumOf(");
+            sb.append(i > 0 ? ",\n            " : "\n            ").append(read.replace("%s", "c" + i));
+        }
+        sb.append(");\n");
+        sb.append("    });\n\n");
+        sb.append("    private ").append(row.mapper).append("() {\n    }\n");
+        if (instants) {
+            sb.append("\n    private static java.time.Instant instant(java.sql.Timestamp value) {\n");
+            sb.append("        return value == null ? null : value.toInstant();\n");
+            sb.append("    }\n");
+        }
+        if (enums) {
+            sb.append("\n    private static <E extends Enum<E>> E enumOf(Class<E> type, String name) {\n");
+            sb.append("        return name == null ? null : Enum.valueOf(type, name);\n");
+            sb.append("    }\n");
+        }
+        sb.append("}\n");
+        write(row.mapperClass(), sb.toString());
+    }
+
     private void write(String fqcn, String source) {
         try (Writer writer = processingEnv.getFiler().createSourceFile(fqcn).openWriter()) {
             writer.write(source);
@@ -332,4 +509,14 @@ public final class LigeroProcessor extends AbstractProcessor {
 
     private record ProvidesBinding(String returnType, String enclosing, String method) {
     }
+
+    private record RowModel(String pkg, String mapper, String record, List<RowColumn> columns) {
+        String mapperClass() {
+            return pkg.isEmpty() ? mapper : pkg + "." + mapper;
+        }
+    }
+
+    /** {@code read} is a format string taking the column index variable. */
+    private record RowColumn(String name, String snake, String read) {
+    }
 }
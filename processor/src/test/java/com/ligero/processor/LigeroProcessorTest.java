@@ -1,5 +1,9 @@
 package com.ligero.processor;
 
+import com.ligero.jdbc.Jdbc;
+import com.ligero.jdbc.RowMappers;
+
+import org.h2.jdbcx.JdbcDataSource;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -9,11 +13,15 @@ import javax.tools.StandardJavaFileManager;
 import javax.tools.ToolProvider;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.sql.Timestamp;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Compiles a sample layered package with the processor attached and checks
@@ -187,6 +195,76 @@ class LigeroProcessorTest {
         assertThat(diagnostics.toString()).contains("injectable");
     }
 
+    @Test
+    void generatesRowMappersThatMapByColumnIndex() throws Exception {
+        Path src = Files.createDirectories(dir.resolve("src/demo"));
+        write(src, "Status.java", "package demo; public enum Status { ACTIVE, BANNED }");
+        write(src, "Users.java", """
+            package demo;
+            import com.ligero.jdbc.Row;
+            import java.math.BigDecimal;
+            import java.time.Instant;
+            import java.time.LocalDate;
+            public class Users {
+                @Row public record User(long id, String name, Integer age, BigDecimal balance, Status status,
+                                        LocalDate bornOn, Instant createdAt, boolean admin) {}
+            }""");
+        Path gen = freshDir("generated");
+        Path out = freshDir("classes");
+
+        assertThat(compileWithProcessor(src, gen, out)).isTrue();
+        assertThat(Files.readString(gen.resolve("demo/Users_UserRowMapper.java")))
+            .contains("int c5 = columns.index(\"bornOn\", \"born_on\");")
+            .contains("row.getObject(c2, java.lang.Integer.class)")
+            .contains("enumOf(demo.Status.class, row.getString(c4))");
+        assertThat(Files.readString(gen.resolve("com/ligero/generated/GeneratedRowMappers.java")))
+            .contains("mappers.register(demo.Users.User.class, demo.Users_UserRowMapper.INSTANCE);");
+        assertThat(out.resolve("META-INF/services/com.ligero.jdbc.RowMappers$Provider")).exists();
+
+        JdbcDataSource ds = new JdbcDataSource();
+        ds.setURL("jdbc:h2:mem:rows" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {out.toUri().toURL()}, getClass().getClassLoader())) {
+            Jdbc db = new Jdbc(ds, RowMappers.load(loader));
+            db.update("create table users(id bigint, name varchar(20), age int, balance decimal(10, 2), "
+                + "status varchar(10), born_on date, created_at timestamp, admin boolean)");
+            db.update("insert into users values (1, 'ann', 30, 12.50, 'ACTIVE', date '1990-05-01', "
+                + "timestamp '2026-01-01 10:00:00', true)");
+            db.update("insert into users(id, name, admin) values (2, 'bob', false)");
+
+            Class<?> user = loader.loadClass("demo.Users$User");
+            List<?> users = db.query("select * from users order by id", user);
+            assertThat(users).extracting(Object::toString).containsExactly(
+                "User[id=1, name=ann, age=30, balance=12.50, status=ACTIVE, bornOn=1990-05-01, createdAt="
+                    + Timestamp.valueOf("2026-01-01 10:00:00").toInstant() + ", admin=true]",
+                "User[id=2, name=bob, age=null, balance=null, status=null, bornOn=null, createdAt=null, admin=false]");
+            assertThatThrownBy(() -> db.query("select * from users", String.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("@Row");
+        }
+    }
+
+    @Test
+    void rowRejectsClassesAndUnsupportedComponents() throws IOException {
+        Path src = Files.createDirectories(dir.resolve("src/demo"));
+        write(src, "NotARecord.java", """
+            package demo;
+            @com.ligero.jdbc.Row public class NotARecord {}""");
+        write(src, "Tags.java", """
+            package demo;
+            @com.ligero.jdbc.Row public record Tags(long id, java.util.List<String> tags) {}""");
+        StringWriter diagnostics = new StringWriter();
+
+        assertThat(compileWithProcessor(src, freshDir("generated"), freshDir("classes"), diagnostics)).isFalse();
+        assertThat(diagnostics.toString()).contains("must annotate a record").contains("component 'tags'");
+    }
+
+    @Test
+    void snakeCasesComponentNames() {
+        assertThat(LigeroProcessor.snakeCase("createdAt")).isEqualTo("created_at");
+        assertThat(LigeroProcessor.snakeCase("id")).isEqualTo("id");
+        assertThat(LigeroProcessor.snakeCase("userURL")).isEqualTo("user_u_r_l");
+    }
+
     private Path freshDir(String name) throws IOException {
         return Files.createDirectories(dir.resolve(name));
     }
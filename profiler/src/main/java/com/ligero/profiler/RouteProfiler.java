@@ -0,0 +1,304 @@
+package com.ligero.profiler;
+
+import com.ligero.Ligero;
+import com.ligero.http.Context;
+import com.ligero.middleware.Middleware;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Continuous sampling profiler that attributes samples to routes. While a
+ * request runs, its thread — platform or virtual — is registered together
+ * with the route it matched ({@link Ligero#MATCHED_ROUTE_ATTRIBUTE}); a
+ * daemon thread wakes up every {@link Builder#interval interval}, takes the
+ * stack of each registered thread and counts it under
+ * {@code "GET /users/{id};frame;…;leaf"}. The result is served in the
+ * collapsed-stack format read by {@code flamegraph.pl}, speedscope and
+ * async-profiler's converters:
+ *
+ * <pre>{@code
+ * app.use(RouteProfiler.builder()
+ *     .interval(Duration.ofMillis(20))
+ *     .build());
+ * }</pre>
+ *
+ * <p>{@code GET /admin/profile} returns every route's stacks,
+ * {@code ?route=GET%20/users/{id}} one route's, and
+ * {@code DELETE /admin/profile} starts over. Register it first, so that the
+ * samples cover the other middleware; frames below this middleware (the
+ * server's own) are left out.</p>
+ *
+ * <p>Only requests in flight are sampled — idle carrier and pool threads
+ * cost nothing — and by default only while {@code RUNNABLE}, so the counts
+ * approximate CPU time; {@link Builder#wallClock(boolean) wallClock(true)}
+ * also counts blocked and parked requests. Each tick samples at most
+ * {@link Builder#maxThreads maxThreads} requests (rotating through the rest),
+ * stacks are cut to their {@link Builder#maxDepth maxDepth} innermost
+ * frames, and distinct stacks past {@link Builder#maxStacks maxStacks} are
+ * counted as {@code route;[other]}, so the cost per tick and the memory held
+ * are bounded whatever the load.</p>
+ */
+public final class RouteProfiler implements Middleware, AutoCloseable {
+
+    static final String OTHER = "[other]";
+    static final String TRUNCATED = "[truncated]";
+    static final String NO_ROUTE = "[no route]";
+
+    /** A request in flight: its thread and, once matched, its route key. */
+    private static final class Active {
+        final Thread thread;
+        final String method;
+        volatile String route;
+
+        Active(Thread thread, String method, String route) {
+            this.thread = thread;
+            this.method = method;
+            this.route = route;
+        }
+
+        String key() {
+            return method + " " + (route != null ? route : NO_ROUTE);
+        }
+    }
+
+    private final String path;
+    private final long intervalNanos;
+    private final int maxDepth;
+    private final int maxStacks;
+    private final int maxThreads;
+    private final boolean wallClock;
+
+    private final Map<Active, Boolean> active = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> stacks = new ConcurrentHashMap<>();
+    private final LongAdder samples = new LongAdder();
+    private final Thread sampler;
+    private volatile boolean closed;
+
+    // sampler thread state
+    private final StringBuilder folded = new StringBuilder(1024);
+    private long tick;
+
+    private RouteProfiler(Builder builder) {
+        this.path = builder.path;
+        this.intervalNanos = builder.interval.toNanos();
+        this.maxDepth = builder.maxDepth;
+        this.maxStacks = builder.maxStacks;
+        this.maxThreads = builder.maxThreads;
+        this.wallClock = builder.wallClock;
+        this.sampler = new Thread(this::run, "ligero-profiler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Samples every 10ms and serves {@code /admin/profile}. */
+    public static RouteProfiler create() {
+        return builder().build();
+    }
+
+    @Override
+    public void handle(Context ctx, Chain chain) throws Exception {
+        if (path.equals(ctx.path())) {
+            if ("GET".equals(ctx.method())) {
+                ctx.status(200).text(collapsed(ctx.queryParam("route")));
+                return;
+            }
+            if ("DELETE".equals(ctx.method())) {
+                reset();
+                ctx.status(204).res().end();
+                return;
+            }
+        }
+        Active request = new Active(Thread.currentThread(), ctx.method(),
+            ctx.attribute(Ligero.MATCHED_ROUTE_ATTRIBUTE));
+        ctx.onRouteMatched(route -> request.route = route);
+        active.put(request, Boolean.TRUE);
+        try {
+            chain.proceed();
+        } finally {
+            active.remove(request);
+        }
+    }
+
+    /**
+     * Collapsed stacks, one {@code "route;frame;…;leaf count"} line each,
+     * sorted; only those of {@code routeKey} (e.g. {@code "GET /users/{id}"})
+     * when it is not {@code null}.
+     */
+    public String collapsed(String routeKey) {
+        Map<String, Long> sorted = new TreeMap<>();
+        String prefix = routeKey == null ? null : routeKey + ";";
+        stacks.forEach((stack, count) -> {
+            if (prefix == null || stack.startsWith(prefix)) {
+                sorted.put(stack, count.sum());
+            }
+        });
+        StringBuilder out = new StringBuilder(sorted.size() * 128);
+        sorted.forEach((stack, count) -> out.append(stack).append(' ').append(count).append('\n'));
+        return out.toString();
+    }
+
+    /** Stacks taken since the start or the last {@link #reset()}. */
+    public long samples() {
+        return samples.sum();
+    }
+
+    /** Forgets every sample, e.g. between two load-test runs. */
+    public void reset() {
+        stacks.clear();
+        samples.reset();
+    }
+
+    /** Stops the sampler thread; the collected stacks stay readable. */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(sampler);
+    }
+
+    private void run() {
+        while (!closed) {
+            LockSupport.parkNanos(intervalNanos);
+            if (!closed) {
+                sample();
+            }
+        }
+    }
+
+    /** One tick: at most {@link #maxThreads} requests, rotating the starting point. */
+    void sample() {
+        Active[] requests = active.keySet().toArray(new Active[0]);
+        int n = requests.length;
+        if (n == 0) {
+            return;
+        }
+        int count = Math.min(n, maxThreads);
+        int start = (int) (tick++ % n);
+        for (int i = 0; i < count; i++) {
+            Active request = requests[(start + i) % n];
+            Thread.State state = request.thread.getState();
+            if (!wallClock && state != Thread.State.RUNNABLE) {
+                continue;
+            }
+            StackTraceElement[] trace = request.thread.getStackTrace();
+            // the thread may have finished the request while we were taking its stack
+            if (trace.length > 0 && active.containsKey(request)) {
+                add(request.key(), trace);
+            }
+        }
+    }
+
+    private void add(String route, StackTraceElement[] trace) {
+        String key = fold(folded, route, trace, maxDepth);
+        LongAdder counter = stacks.get(key);
+        if (counter == null) {
+            counter = stacks.size() < maxStacks
+                ? stacks.computeIfAbsent(key, k -> new LongAdder())
+                : stacks.computeIfAbsent(route + ";" + OTHER, k -> new LongAdder());
+        }
+        counter.increment();
+        samples.increment();
+    }
+
+    /**
+     * {@code route;outermost;…;innermost} for a stack as returned by
+     * {@link Thread#getStackTrace()} (innermost first), dropping the frames
+     * below this middleware and keeping the {@code maxDepth} innermost ones.
+     */
+    static String fold(StringBuilder out, String route, StackTraceElement[] trace, int maxDepth) {
+        int bottom = trace.length;
+        for (int i = 0; i < trace.length; i++) {
+            if ("handle".equals(trace[i].getMethodName())
+                && RouteProfiler.class.getName().equals(trace[i].getClassName())) {
+                bottom = i;
+                break;
+            }
+        }
+        int top = Math.min(bottom, maxDepth);
+        out.setLength(0);
+        out.append(route);
+        if (top < bottom) {
+            out.append(';').append(TRUNCATED);
+        }
+        for (int i = top - 1; i >= 0; i--) {
+            out.append(';').append(trace[i].getClassName()).append('.').append(trace[i].getMethodName());
+        }
+        return out.toString();
+    }
+
+    public static final class Builder {
+        private String path = "/admin/profile";
+        private Duration interval = Duration.ofMillis(10);
+        private int maxDepth = 64;
+        private int maxStacks = 20_000;
+        private int maxThreads = 256;
+        private boolean wallClock;
+
+        private Builder() {
+        }
+
+        /** Path of the collapsed-stack endpoint (default {@code /admin/profile}). */
+        public Builder path(String path) {
+            if (path == null || !path.startsWith("/")) {
+                throw new IllegalArgumentException("path must start with '/'");
+            }
+            this.path = path;
+            return this;
+        }
+
+        /** Time between two ticks, 1ms to 1 minute (default 10ms). */
+        public Builder interval(Duration interval) {
+            if (interval == null || interval.compareTo(Duration.ofMillis(1)) < 0
+                || interval.compareTo(Duration.ofMinutes(1)) > 0) {
+                throw new IllegalArgumentException("interval must be between 1ms and 1 minute");
+            }
+            this.interval = interval;
+            return this;
+        }
+
+        /** Innermost frames kept per stack (default 64). */
+        public Builder maxDepth(int maxDepth) {
+            if (maxDepth < 1) {
+                throw new IllegalArgumentException("maxDepth must be >= 1");
+            }
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        /** Distinct stacks kept before the rest are counted as {@code route;[other]} (default 20,000). */
+        public Builder maxStacks(int maxStacks) {
+            if (maxStacks < 1) {
+                throw new IllegalArgumentException("maxStacks must be >= 1");
+            }
+            this.maxStacks = maxStacks;
+            return this;
+        }
+
+        /** Requests sampled per tick (default 256). */
+        public Builder maxThreads(int maxThreads) {
+            if (maxThreads < 1) {
+                throw new IllegalArgumentException("maxThreads must be >= 1");
+            }
+            this.maxThreads = maxThreads;
+            return this;
+        }
+
+        /** Also sample requests that are blocked, waiting or parked (default: running only). */
+        public Builder wallClock(boolean wallClock) {
+            this.wallClock = wallClock;
+            return this;
+        }
+
+        public RouteProfiler build() {
+            return new RouteProfiler(this);
+        }
+    }
+}
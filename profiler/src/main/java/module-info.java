@@ -0,0 +1,6 @@
+/** Ligero continuous sampling profiler with per-route collapsed stacks. */
+module com.ligero.profiler {
+    requires transitive com.ligero.core;
+
+    exports com.ligero.profiler;
+}
@@ -0,0 +1,208 @@
+package com.ligero.profiler;
+
+import com.ligero.http.Context;
+import com.ligero.testutil.FakeRequest;
+import com.ligero.testutil.FakeResponse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RouteProfilerTest {
+
+    /** Ticks only when the test calls {@link RouteProfiler#sample()}. */
+    private final RouteProfiler profiler = RouteProfiler.builder().interval(Duration.ofMinutes(1)).build();
+
+    @AfterEach
+    void close() {
+        profiler.close();
+    }
+
+    private static volatile long sink;
+
+    private static void spin(AtomicBoolean stop) {
+        long x = 0;
+        while (!stop.get()) {
+            x += System.nanoTime();
+        }
+        sink = x;
+    }
+
+    private Thread request(Thread.Builder threads, String route, CountDownLatch started, Runnable body) {
+        return threads.start(() -> {
+            Context ctx = new Context(FakeRequest.of("GET", "/x"), new FakeResponse(), "/", null, null);
+            try {
+                profiler.handle(ctx, () -> {
+                    ctx.routeMatched(route);
+                    started.countDown();
+                    body.run();
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @Test
+    void attributesRunningStacksToTheMatchedRoute() throws Exception {
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(1);
+        Thread thread = request(Thread.ofPlatform(), "/busy/{id}", started, () -> spin(stop));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 20; i++) {
+            profiler.sample();
+        }
+        stop.set(true);
+        thread.join();
+
+        assertThat(profiler.samples()).isPositive();
+        String collapsed = profiler.collapsed("GET /busy/{id}");
+        assertThat(collapsed).contains(";com.ligero.profiler.RouteProfilerTest.spin");
+        assertThat(collapsed.lines()).allSatisfy(line -> assertThat(line)
+            .startsWith("GET /busy/{id};")
+            .doesNotContain("RouteProfiler.handle")
+            .matches(".* \\d+"));
+        assertThat(profiler.collapsed("GET /other")).isEmpty();
+
+        profiler.sample(); // the request is over
+        assertThat(profiler.collapsed(null)).isEqualTo(collapsed);
+    }
+
+    @Test
+    void samplesParkedVirtualThreadsOnlyInWallClockMode() throws Exception {
+        RouteProfiler wall = RouteProfiler.builder().interval(Duration.ofMinutes(1)).wallClock(true).build();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        Runnable park = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        Thread.Builder virtual = Thread.ofVirtual();
+        Thread cpu = request(virtual, "/wait", started, park);
+        Thread walled = virtual.start(() -> {
+            Context ctx = new Context(FakeRequest.of("GET", "/x"), new FakeResponse(), "/", null, null);
+            try {
+                wall.handle(ctx, () -> {
+                    ctx.routeMatched("/wait");
+                    started.countDown();
+                    park.run();
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(50); // let both reach the latch
+
+        profiler.sample();
+        wall.sample();
+        release.countDown();
+        cpu.join();
+        walled.join();
+        wall.close();
+
+        assertThat(profiler.samples()).isZero();
+        assertThat(wall.collapsed("GET /wait")).contains("CountDownLatch.await");
+    }
+
+    @Test
+    void foldsStacksOutermostFirstAndKeepsTheInnermostFrames() {
+        StackTraceElement[] trace = {
+            new StackTraceElement("app.Repo", "find", null, 1),
+            new StackTraceElement("app.Service", "load", null, 1),
+            new StackTraceElement("app.Handler", "get", null, 1),
+            new StackTraceElement(RouteProfiler.class.getName(), "handle", null, 1),
+            new StackTraceElement("server.Engine", "serve", null, 1),
+        };
+
+        assertThat(RouteProfiler.fold(new StringBuilder(), "GET /a", trace, 10))
+            .isEqualTo("GET /a;app.Handler.get;app.Service.load;app.Repo.find");
+        assertThat(RouteProfiler.fold(new StringBuilder(), "GET /a", trace, 2))
+            .isEqualTo("GET /a;[truncated];app.Service.load;app.Repo.find");
+    }
+
+    @Test
+    void servesAndResetsTheCollapsedStacks() throws Exception {
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(1);
+        Thread thread = request(Thread.ofPlatform(), "/busy", started, () -> spin(stop));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 20; i++) {
+            profiler.sample();
+        }
+        stop.set(true);
+        thread.join();
+
+        FakeResponse res = new FakeResponse();
+        profiler.handle(new Context(FakeRequest.of("GET", "/admin/profile").queryParam("route", "GET /busy"),
+            res, "/", null, null), () -> { });
+        assertThat(res.getStatus()).isEqualTo(200);
+        assertThat(res.body()).startsWith("GET /busy;");
+
+        FakeResponse deleted = new FakeResponse();
+        profiler.handle(new Context(FakeRequest.of("DELETE", "/admin/profile"), deleted, "/", null, null), () -> { });
+        assertThat(deleted.getStatus()).isEqualTo(204);
+        assertThat(profiler.collapsed(null)).isEmpty();
+        assertThat(profiler.samples()).isZero();
+    }
+
+    @Test
+    void countsStacksPastTheLimitAsOther() throws Exception {
+        RouteProfiler small = RouteProfiler.builder().interval(Duration.ofMinutes(1)).maxStacks(1).maxDepth(1)
+            .wallClock(true).build();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        Thread[] threads = new Thread[2];
+        String[] routes = {"/a", "/b"};
+        for (int i = 0; i < 2; i++) {
+            String route = routes[i];
+            threads[i] = Thread.ofPlatform().start(() -> {
+                Context ctx = new Context(FakeRequest.of("GET", "/x"), new FakeResponse(), "/", null, null);
+                try {
+                    small.handle(ctx, () -> {
+                        ctx.routeMatched(route);
+                        started.countDown();
+                        release.await();
+                    });
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(50);
+        small.sample();
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        small.close();
+
+        assertThat(small.collapsed(null).lines()).hasSize(2).anyMatch(line -> line.contains(";[other] 1"));
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> RouteProfiler.builder().interval(Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RouteProfiler.builder().maxDepth(0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RouteProfiler.builder().maxStacks(0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RouteProfiler.builder().maxThreads(0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RouteProfiler.builder().path("admin"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
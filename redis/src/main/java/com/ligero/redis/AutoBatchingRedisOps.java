@@ -0,0 +1,212 @@
+package com.ligero.redis;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link RedisOps} decorator that coalesces concurrent single-key calls into
+ * pipelined round trips. Each call is queued and its thread parks; a flusher
+ * thread waits a short window (tens of microseconds) for other callers to join,
+ * then sends everything queued — up to {@code maxBatchSize} commands — through
+ * the delegate's {@link RedisOps#pipelined} and wakes each caller with its own
+ * result. Under load, hundreds of virtual threads share a handful of round
+ * trips and pool borrows; an idle app pays at most one window of extra latency.
+ *
+ * <pre>{@code
+ * RedisOps ops = AutoBatchingRedisOps.wrap(new JedisRedisOps(pool));
+ * RateLimiterStore limiter = new RedisRateLimiterStore(ops, 100, Duration.ofMinutes(1));
+ * }</pre>
+ *
+ * <p>Multi-key calls, {@link #pipelined} and pub/sub go straight to the
+ * delegate. After {@link #close()} every call does too.</p>
+ */
+public final class AutoBatchingRedisOps implements RedisOps, AutoCloseable {
+
+    /** Default wait for more callers before flushing. */
+    public static final Duration DEFAULT_WINDOW = Duration.ofNanos(50_000);
+    public static final int DEFAULT_MAX_BATCH_SIZE = 128;
+
+    private record Call<T>(Function<RedisBatch, CompletableFuture<T>> command, CompletableFuture<T> result) {
+        void stage(RedisBatch batch) {
+            command.apply(batch).whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
+    }
+
+    private final RedisOps delegate;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ConcurrentLinkedQueue<Call<?>> queue = new ConcurrentLinkedQueue<>();
+    private final Thread flusher;
+    private volatile boolean idle;
+    private volatile boolean closed;
+
+    public AutoBatchingRedisOps(RedisOps delegate, Duration window, int maxBatchSize) {
+        if (window.isNegative()) {
+            throw new IllegalArgumentException("window must not be negative");
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be >= 1");
+        }
+        this.delegate = delegate;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.flusher = Thread.ofPlatform().daemon().name("ligero-redis-batcher").start(this::flushLoop);
+    }
+
+    /** Wraps {@code delegate} with the default window and batch size. */
+    public static AutoBatchingRedisOps wrap(RedisOps delegate) {
+        return new AutoBatchingRedisOps(delegate, DEFAULT_WINDOW, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    private <T> T submit(Function<RedisBatch, CompletableFuture<T>> command, Function<RedisOps, T> direct) {
+        if (closed) {
+            return direct.apply(delegate);
+        }
+        Call<T> call = new Call<>(command, new CompletableFuture<>());
+        queue.add(call);
+        if (closed && queue.remove(call)) {
+            return direct.apply(delegate); // the flusher may already have exited
+        }
+        if (idle) {
+            LockSupport.unpark(flusher);
+        }
+        try {
+            return call.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void flushLoop() {
+        List<Call<?>> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            if (queue.isEmpty()) {
+                if (closed) {
+                    return;
+                }
+                idle = true;
+                if (queue.isEmpty() && !closed) { // re-check: a caller may have missed idle
+                    LockSupport.park(this);
+                }
+                idle = false;
+                continue;
+            }
+            if (windowNanos > 0) {
+                LockSupport.parkNanos(this, windowNanos); // let concurrent callers join
+            }
+            Call<?> next;
+            while (batch.size() < maxBatchSize && (next = queue.poll()) != null) {
+                batch.add(next);
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<Call<?>> batch) {
+        try {
+            delegate.pipelined(pipeline -> batch.forEach(call -> call.stage(pipeline)));
+        } catch (Throwable e) {
+            batch.forEach(call -> call.result().completeExceptionally(e)); // no-op for completed ones
+        }
+    }
+
+    @Override
+    public long incrementWithTtl(String key, long ttlSeconds) {
+        return submit(b -> b.incrementWithTtl(key, ttlSeconds), ops -> ops.incrementWithTtl(key, ttlSeconds));
+    }
+
+    @Override
+    public Map<String, String> hgetAll(String key) {
+        return submit(b -> b.hgetAll(key), ops -> ops.hgetAll(key));
+    }
+
+    @Override
+    public void hset(String key, Map<String, String> fields, long ttlSeconds) {
+        submit(b -> b.hset(key, fields, ttlSeconds), ops -> {
+            ops.hset(key, fields, ttlSeconds);
+            return null;
+        });
+    }
+
+    @Override
+    public void set(String key, String value, long ttlSeconds) {
+        submit(b -> b.set(key, value, ttlSeconds), ops -> {
+            ops.set(key, value, ttlSeconds);
+            return null;
+        });
+    }
+
+    @Override
+    public String get(String key) {
+        return submit(b -> b.get(key), ops -> ops.get(key));
+    }
+
+    @Override
+    public long ttl(String key) {
+        return submit(b -> b.ttl(key), ops -> ops.ttl(key));
+    }
+
+    @Override
+    public void delete(String key) {
+        submit(b -> b.delete(key), ops -> {
+            ops.delete(key);
+            return null;
+        });
+    }
+
+    @Override
+    public Object eval(RedisScript script, List<String> keys, List<String> args) {
+        return submit(b -> b.eval(script, keys, args), ops -> ops.eval(script, keys, args));
+    }
+
+    @Override
+    public List<String> mget(List<String> keys) {
+        return delegate.mget(keys);
+    }
+
+    @Override
+    public void mset(Map<String, String> values, long ttlSeconds) {
+        delegate.mset(values, ttlSeconds);
+    }
+
+    @Override
+    public void pipelined(Consumer<RedisBatch> commands) {
+        delegate.pipelined(commands);
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        delegate.publish(channel, message);
+    }
+
+    @Override
+    public AutoCloseable subscribe(String channel, Consumer<String> listener) {
+        return delegate.subscribe(channel, listener);
+    }
+
+    /** Flushes what is queued, stops the flusher thread and routes later calls directly. */
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        LockSupport.unpark(flusher);
+        flusher.join();
+    }
+}
@@ -0,0 +1,74 @@
+package com.ligero.redis;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Fallback {@link RedisBatch} for {@link RedisOps} implementations without real
+ * pipelining: runs each command immediately, one round trip each.
+ */
+final class DirectBatch implements RedisBatch {
+
+    private final RedisOps ops;
+
+    DirectBatch(RedisOps ops) {
+        this.ops = ops;
+    }
+
+    private static <T> CompletableFuture<T> run(Supplier<T> command) {
+        try {
+            return CompletableFuture.completedFuture(command.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static CompletableFuture<Void> run(Runnable command) {
+        return run(() -> {
+            command.run();
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> get(String key) {
+        return run(() -> ops.get(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> set(String key, String value, long ttlSeconds) {
+        return run(() -> ops.set(key, value, ttlSeconds));
+    }
+
+    @Override
+    public CompletableFuture<Long> incrementWithTtl(String key, long ttlSeconds) {
+        return run(() -> ops.incrementWithTtl(key, ttlSeconds));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> hgetAll(String key) {
+        return run(() -> ops.hgetAll(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> hset(String key, Map<String, String> fields, long ttlSeconds) {
+        return run(() -> ops.hset(key, fields, ttlSeconds));
+    }
+
+    @Override
+    public CompletableFuture<Long> ttl(String key) {
+        return run(() -> ops.ttl(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String key) {
+        return run(() -> ops.delete(key));
+    }
+
+    @Override
+    public CompletableFuture<Object> eval(RedisScript script, List<String> keys, List<String> args) {
+        return run(() -> ops.eval(script, keys, args));
+    }
+}
@@ -1,50 +1,87 @@
 package com.ligero.redis;
 
+import com.ligero.middleware.TracingMiddleware;
+import com.ligero.spi.Tracer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
-/** {@link RedisOps} over a Jedis connection pool. */
+/**
+ * {@link RedisOps} over a Jedis connection pool. Multi-key calls and
+ * {@link #pipelined} use one pooled connection and one round trip; scripts run
+ * with {@code EVALSHA}, loading them on first use.
+ */
 public final class JedisRedisOps implements RedisOps {
 
+    private static final Logger log = LoggerFactory.getLogger(JedisRedisOps.class);
+    private static final long RESUBSCRIBE_BACKOFF_MILLIS = 1_000L;
+
+    /** INCR + first-time EXPIRE in one atomic round trip. */
+    static final RedisScript INCREMENT_WITH_TTL = RedisScript.of(
+        "local v = redis.call('INCR', KEYS[1]) "
+            + "if v == 1 then redis.call('EXPIRE', KEYS[1], ARGV[1]) end "
+            + "return v");
+
     private final JedisPool pool;
+    /** SHA-1s this client has loaded; a server restart empties its cache, hence the NOSCRIPT fallback. */
+    private final Set<String> loadedScripts = ConcurrentHashMap.newKeySet();
 
     public JedisRedisOps(JedisPool pool) {
         this.pool = pool;
     }
 
+    /** A child of the current request's span for one command (or pipeline). */
+    private static Tracer.Span span(String command) {
+        Tracer.Span span = TracingMiddleware.currentSpan();
+        if (span == Tracer.Span.NOOP) {
+            return span;
+        }
+        return span.startChild("redis " + command)
+            .setAttribute("db.system.name", "redis")
+            .setAttribute("db.operation.name", command);
+    }
+
+    private static boolean isNoScript(RuntimeException e) {
+        return e instanceof JedisDataException && e.getMessage() != null && e.getMessage().startsWith("NOSCRIPT");
+    }
+
     @Override
     public long incrementWithTtl(String key, long ttlSeconds) {
-        try (Jedis jedis = pool.getResource()) {
-            long value = jedis.incr(key);
-            if (value == 1L) {
-                jedis.expire(key, ttlSeconds);
-            }
-            return value;
-        }
+        return (Long) eval(INCREMENT_WITH_TTL, List.of(key), List.of(Long.toString(ttlSeconds)));
     }
 
     @Override
     public Map<String, String> hgetAll(String key) {
-        try (Jedis jedis = pool.getResource()) {
+        try (Tracer.Span span = span("HGETALL"); Jedis jedis = pool.getResource()) {
             return jedis.hgetAll(key);
         }
     }
 
     @Override
     public void hset(String key, Map<String, String> fields, long ttlSeconds) {
-        try (Jedis jedis = pool.getResource()) {
-            if (!fields.isEmpty()) {
-                jedis.hset(key, fields);
-            }
-            jedis.expire(key, ttlSeconds);
-        }
+        pipelined(batch -> batch.hset(key, fields, ttlSeconds));
     }
 
     @Override
     public void set(String key, String value, long ttlSeconds) {
-        try (Jedis jedis = pool.getResource()) {
+        try (Tracer.Span span = span("SET"); Jedis jedis = pool.getResource()) {
             if (ttlSeconds > 0) {
                 jedis.setex(key, ttlSeconds, value);
             } else {
@@ -55,15 +92,273 @@ public final class JedisRedisOps implements RedisOps {
 
     @Override
     public String get(String key) {
-        try (Jedis jedis = pool.getResource()) {
+        try (Tracer.Span span = span("GET"); Jedis jedis = pool.getResource()) {
             return jedis.get(key);
         }
     }
 
+    @Override
+    public long ttl(String key) {
+        try (Tracer.Span span = span("TTL"); Jedis jedis = pool.getResource()) {
+            return jedis.ttl(key);
+        }
+    }
+
     @Override
     public void delete(String key) {
-        try (Jedis jedis = pool.getResource()) {
+        try (Tracer.Span span = span("DEL"); Jedis jedis = pool.getResource()) {
             jedis.del(key);
         }
     }
+
+    @Override
+    public List<String> mget(List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        try (Tracer.Span span = span("MGET"); Jedis jedis = pool.getResource()) {
+            return jedis.mget(keys.toArray(String[]::new));
+        }
+    }
+
+    @Override
+    public void mset(Map<String, String> values, long ttlSeconds) {
+        if (values.isEmpty()) {
+            return;
+        }
+        if (ttlSeconds > 0) { // MSET has no expiry: pipeline SETEX instead
+            pipelined(batch -> values.forEach((key, value) -> batch.set(key, value, ttlSeconds)));
+            return;
+        }
+        List<String> keysAndValues = new ArrayList<>(values.size() * 2);
+        values.forEach((key, value) -> {
+            keysAndValues.add(key);
+            keysAndValues.add(value);
+        });
+        try (Tracer.Span span = span("MSET"); Jedis jedis = pool.getResource()) {
+            jedis.mset(keysAndValues.toArray(String[]::new));
+        }
+    }
+
+    @Override
+    public Object eval(RedisScript script, List<String> keys, List<String> args) {
+        try (Tracer.Span span = span("EVALSHA"); Jedis jedis = pool.getResource()) {
+            try {
+                return jedis.evalsha(script.sha1(), keys, args);
+            } catch (RuntimeException e) {
+                if (!isNoScript(e)) {
+                    throw e;
+                }
+                return evalSource(jedis, script, keys, args);
+            }
+        }
+    }
+
+    /** Runs {@code script} by its source on {@code jedis}; EVAL also caches it server-side again. */
+    private Object evalSource(Jedis jedis, RedisScript script, List<String> keys, List<String> args) {
+        loadedScripts.remove(script.sha1());
+        Object result = jedis.eval(script.source(), keys, args);
+        loadedScripts.add(script.sha1());
+        return result;
+    }
+
+    @Override
+    public void pipelined(Consumer<RedisBatch> commands) {
+        PipelineBatch batch = new PipelineBatch();
+        commands.accept(batch);
+        if (batch.queued.isEmpty()) {
+            return;
+        }
+        try (Tracer.Span span = span("PIPELINE"); Jedis jedis = pool.getResource()) {
+            for (RedisScript script : batch.scripts) {
+                if (loadedScripts.add(script.sha1())) {
+                    jedis.scriptLoad(script.source());
+                }
+            }
+            Pipeline pipeline = jedis.pipelined();
+            List<Response<?>> responses = new ArrayList<>(batch.queued.size());
+            for (Queued<?> queued : batch.queued) {
+                responses.add(queued.send.apply(pipeline));
+            }
+            span.setAttribute("db.operation.batch.size", batch.queued.size());
+            pipeline.sync();
+            for (int i = 0; i < responses.size(); i++) {
+                batch.queued.get(i).complete(responses.get(i), jedis);
+            }
+        } catch (RuntimeException e) {
+            batch.queued.forEach(queued -> queued.future.completeExceptionally(e));
+            throw e;
+        }
+    }
+
+    /** One queued command: how to send it, and the future its response completes. */
+    private final class Queued<T> {
+        final Function<Pipeline, Response<?>> send;
+        final Function<Object, T> convert;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        /** Runs the command again outside the pipeline, on its connection; null if it cannot fail with NOSCRIPT. */
+        final Function<Jedis, T> retry;
+
+        Queued(Function<Pipeline, Response<?>> send, Function<Object, T> convert, Function<Jedis, T> retry) {
+            this.send = send;
+            this.convert = convert;
+            this.retry = retry;
+        }
+
+        /** Completes the future from {@code response}, read after the pipeline synced on {@code jedis}. */
+        void complete(Response<?> response, Jedis jedis) {
+            try {
+                future.complete(convert.apply(response.get()));
+            } catch (RuntimeException e) {
+                if (retry != null && isNoScript(e)) {
+                    completeByRetry(jedis);
+                } else {
+                    future.completeExceptionally(e);
+                }
+            }
+        }
+
+        /** The script was flushed since we loaded it; the pipeline's connection is still held, so use it. */
+        private void completeByRetry(Jedis jedis) {
+            try {
+                future.complete(retry.apply(jedis));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private final class PipelineBatch implements RedisBatch {
+        final List<Queued<?>> queued = new ArrayList<>();
+        final Set<RedisScript> scripts = new LinkedHashSet<>();
+
+        private <T> CompletableFuture<T> queue(Function<Pipeline, Response<?>> send, Function<Object, T> convert) {
+            return queue(send, convert, null);
+        }
+
+        private <T> CompletableFuture<T> queue(Function<Pipeline, Response<?>> send, Function<Object, T> convert,
+                                               Function<Jedis, T> retry) {
+            Queued<T> command = new Queued<>(send, convert, retry);
+            queued.add(command);
+            return command.future;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Function<Object, T> as() {
+            return value -> (T) value;
+        }
+
+        private static Function<Object, Void> ignore() {
+            return value -> null;
+        }
+
+        @Override
+        public CompletableFuture<String> get(String key) {
+            return queue(p -> p.get(key), as());
+        }
+
+        @Override
+        public CompletableFuture<Void> set(String key, String value, long ttlSeconds) {
+            return queue(p -> ttlSeconds > 0 ? p.setex(key, ttlSeconds, value) : p.set(key, value), ignore());
+        }
+
+        @Override
+        public CompletableFuture<Long> incrementWithTtl(String key, long ttlSeconds) {
+            List<String> keys = List.of(key);
+            List<String> args = List.of(Long.toString(ttlSeconds));
+            return eval(INCREMENT_WITH_TTL, keys, args).thenApply(Long.class::cast);
+        }
+
+        @Override
+        public CompletableFuture<Map<String, String>> hgetAll(String key) {
+            return queue(p -> p.hgetAll(key), as());
+        }
+
+        @Override
+        public CompletableFuture<Void> hset(String key, Map<String, String> fields, long ttlSeconds) {
+            return queue(p -> {
+                if (!fields.isEmpty()) {
+                    p.hset(key, fields);
+                }
+                return p.expire(key, ttlSeconds);
+            }, ignore());
+        }
+
+        @Override
+        public CompletableFuture<Long> ttl(String key) {
+            return queue(p -> p.ttl(key), as());
+        }
+
+        @Override
+        public CompletableFuture<Void> delete(String key) {
+            return queue(p -> p.del(key), ignore());
+        }
+
+        @Override
+        public CompletableFuture<Object> eval(RedisScript script, List<String> keys, List<String> args) {
+            scripts.add(script);
+            return queue(p -> p.evalsha(script.sha1(), keys, args), as(),
+                jedis -> evalSource(jedis, script, keys, args));
+        }
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        try (Tracer.Span span = span("PUBLISH"); Jedis jedis = pool.getResource()) {
+            jedis.publish(channel, message);
+        }
+    }
+
+    @Override
+    public AutoCloseable subscribe(String channel, Consumer<String> listener) {
+        Subscription subscription = new Subscription(listener);
+        // SUBSCRIBE blocks its connection; hold one on a virtual thread and
+        // re-subscribe after a dropped connection until closed.
+        Thread.ofVirtual().name("ligero-redis-sub-" + channel).start(() -> {
+            while (!subscription.closed) {
+                try (Jedis jedis = pool.getResource()) {
+                    jedis.subscribe(subscription, channel);
+                } catch (RuntimeException e) {
+                    if (subscription.closed) {
+                        return;
+                    }
+                    log.warn("Redis subscription to {} dropped; retrying", channel, e);
+                    try {
+                        Thread.sleep(RESUBSCRIBE_BACKOFF_MILLIS);
+                    } catch (InterruptedException ie) {
+                        return;
+                    }
+                }
+            }
+        });
+        return subscription::close;
+    }
+
+    private static final class Subscription extends JedisPubSub {
+        private final Consumer<String> listener;
+        private volatile boolean closed;
+
+        Subscription(Consumer<String> listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onMessage(String channel, String message) {
+            listener.accept(message);
+        }
+
+        @Override
+        public void onSubscribe(String channel, int subscribedChannels) {
+            if (closed) {
+                unsubscribe(); // closed before the subscription was confirmed
+            }
+        }
+
+        void close() {
+            closed = true;
+            if (isSubscribed()) {
+                unsubscribe();
+            }
+        }
+    }
 }
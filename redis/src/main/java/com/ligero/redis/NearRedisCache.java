@@ -0,0 +1,335 @@
+package com.ligero.redis;
+
+import com.ligero.cache.Cache;
+import com.ligero.cache.CachePolicy;
+import com.ligero.cache.CacheStats;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import redis.clients.jedis.JedisPool;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Two-level {@link Cache}: a bounded in-process copy in front of a
+ * {@link RedisCache}, so hot keys are served without a Redis round trip. Every
+ * write or eviction goes to Redis first and is then broadcast on a pub/sub
+ * channel; each node drops its local copy of that key as the message arrives
+ * (typically within a millisecond or two).
+ *
+ * <pre>{@code
+ * NearRedisCache cache = NearRedisCache.builder(new JedisRedisOps(pool))
+ *     .maxLocalEntries(10_000)
+ *     .localTtl(Duration.ofSeconds(30))
+ *     .build();
+ * String flags = cache.get("flags", Duration.ofMinutes(10), this::loadFlagsJson);
+ * double ratio = cache.stats().hitRatio();   // local tier
+ * }</pre>
+ *
+ * <p>The local TTL bounds staleness when a message is lost (a dropped
+ * subscription, or a background refresh on another node, which is not
+ * broadcast); a local entry never outlives the TTL it was written with. When
+ * the local tier is full an arbitrary entry is dropped — no LRU bookkeeping on
+ * the read path. Close it (or let the {@code Beans} container do so) to
+ * unsubscribe.</p>
+ */
+public final class NearRedisCache implements Cache<String, String>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(NearRedisCache.class);
+
+    /** Channel used for invalidation messages unless configured otherwise. */
+    public static final String DEFAULT_CHANNEL = "ligero:cache:invalidate";
+
+    private record Local(String value, long expiresAtNanos) {
+    }
+
+    private final RedisCache remote;
+    private final RedisOps ops;
+    private final String channel;
+    private final int maxLocalEntries;
+    private final long localTtlNanos;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentHashMap<String, Local> local = new ConcurrentHashMap<>();
+    /** Bumped on every invalidation, so a read racing one never repopulates stale data. */
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final AutoCloseable subscription;
+
+    private NearRedisCache(Builder builder) {
+        this.ops = builder.ops;
+        this.remote = new RedisCache(builder.ops, builder.prefix, builder.policy);
+        this.channel = builder.channel;
+        this.maxLocalEntries = builder.maxLocalEntries;
+        this.localTtlNanos = builder.localTtl.toNanos();
+        this.subscription = ops.subscribe(channel, this::onInvalidation);
+    }
+
+    public static Builder builder(RedisOps ops) {
+        return new Builder(ops);
+    }
+
+    /** Convenience factory over a Jedis pool, using the {@code cache:} prefix and default channel. */
+    public static NearRedisCache usingJedis(JedisPool pool, int maxLocalEntries, Duration localTtl) {
+        return builder(new JedisRedisOps(pool)).maxLocalEntries(maxLocalEntries).localTtl(localTtl).build();
+    }
+
+    // ---- local tier ----
+
+    private String localHit(String key) {
+        Local entry = local.get(key);
+        if (entry != null) {
+            if (System.nanoTime() < entry.expiresAtNanos()) {
+                hits.increment();
+                return entry.value();
+            }
+            local.remove(key, entry);
+        }
+        misses.increment();
+        return null;
+    }
+
+    private void storeLocal(String key, String value, Duration ttl, long readGeneration) {
+        if (value == null) {
+            return;
+        }
+        long ttlNanos = localTtlNanos;
+        if (ttl != null && !ttl.isZero() && !ttl.isNegative()) {
+            ttlNanos = Math.min(ttlNanos, ttl.toNanos());
+        }
+        Local entry = new Local(value, System.nanoTime() + ttlNanos);
+        local.put(key, entry);
+        // An invalidation bumps the generation before it removes the key, so one that
+        // landed since the read either removes this entry itself or is seen here.
+        if (generation.get() != readGeneration) {
+            local.remove(key, entry);
+            return;
+        }
+        if (local.size() > maxLocalEntries) {
+            trim();
+        }
+    }
+
+    private void trim() {
+        Iterator<String> keys = local.keySet().iterator();
+        while (local.size() > maxLocalEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            evictions.increment();
+        }
+    }
+
+    // ---- invalidation ----
+
+    private void invalidate(String key) {
+        generation.incrementAndGet();
+        local.remove(key);
+        try {
+            ops.publish(channel, nodeId + ":" + key);
+        } catch (RuntimeException e) {
+            log.warn("Could not broadcast invalidation of cache key {}; other nodes "
+                + "keep their copy until the local TTL", key, e);
+        }
+    }
+
+    private void onInvalidation(String message) {
+        int separator = message.indexOf(':');
+        if (separator < 0 || message.startsWith(nodeId + ":")) {
+            return; // malformed, or our own write echoed back
+        }
+        generation.incrementAndGet();
+        if (local.remove(message.substring(separator + 1)) != null) {
+            evictions.increment();
+        }
+    }
+
+    // ---- Cache ----
+
+    @Override
+    public Optional<String> get(String key) {
+        String hit = localHit(key);
+        if (hit != null) {
+            return Optional.of(hit);
+        }
+        long readGeneration = generation.get();
+        Optional<String> value = remote.get(key);
+        value.ifPresent(v -> storeLocal(key, v, null, readGeneration));
+        return value;
+    }
+
+    @Override
+    public void put(String key, String value) {
+        put(key, value, null);
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        remote.put(key, value, ttl);
+        invalidate(key);
+        storeLocal(key, value, ttl, generation.get());
+    }
+
+    @Override
+    public String get(String key, Function<? super String, ? extends String> loader) {
+        return get(key, null, loader);
+    }
+
+    @Override
+    public String get(String key, Duration ttl, Function<? super String, ? extends String> loader) {
+        String hit = localHit(key);
+        if (hit != null) {
+            return hit;
+        }
+        long readGeneration = generation.get();
+        String value = remote.get(key, ttl, loader);
+        storeLocal(key, value, ttl, readGeneration);
+        return value;
+    }
+
+    @Override
+    public CompletableFuture<String> getAsync(String key, Duration ttl,
+                                              Function<? super String, ? extends String> loader) {
+        String hit = localHit(key);
+        if (hit != null) {
+            return CompletableFuture.completedFuture(hit);
+        }
+        long readGeneration = generation.get();
+        return CompletableFuture.supplyAsync(() -> {
+            String value = remote.get(key, ttl, loader);
+            storeLocal(key, value, ttl, readGeneration);
+            return value;
+        }, Thread::startVirtualThread);
+    }
+
+    @Override
+    public Map<String, String> getAll(Collection<? extends String> keys, Duration ttl,
+                                      Function<? super Set<String>, ? extends Map<? extends String, ? extends String>> bulkLoader) {
+        Map<String, String> found = new LinkedHashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String key : keys) {
+            String hit = localHit(key);
+            if (hit != null) {
+                found.put(key, hit);
+            } else {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long readGeneration = generation.get();
+            remote.getAll(missing, ttl, bulkLoader).forEach((key, value) -> {
+                storeLocal(key, value, ttl, readGeneration);
+                found.put(key, value);
+            });
+        }
+        Map<String, String> ordered = new LinkedHashMap<>();
+        for (String key : keys) {
+            String value = found.get(key);
+            if (value != null) {
+                ordered.put(key, value);
+            }
+        }
+        return ordered;
+    }
+
+    @Override
+    public void evict(String key) {
+        remote.evict(key);
+        invalidate(key);
+    }
+
+    /** Unsupported, as for {@link RedisCache#clear()}; see {@link #clearLocal()}. */
+    @Override
+    public void clear() {
+        remote.clear();
+    }
+
+    /** Drops this node's local copies only (Redis and other nodes are untouched). */
+    public void clearLocal() {
+        generation.incrementAndGet();
+        local.clear();
+    }
+
+    /** Local-tier counters: hits served without Redis, misses that went to Redis. */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    /** Number of entries currently held locally (including not-yet-reaped expired ones). */
+    public int localSize() {
+        return local.size();
+    }
+
+    @Override
+    public void close() throws Exception {
+        subscription.close();
+        local.clear();
+    }
+
+    public static final class Builder {
+        private final RedisOps ops;
+        private String prefix = "cache:";
+        private String channel = DEFAULT_CHANNEL;
+        private int maxLocalEntries = 10_000;
+        private Duration localTtl = Duration.ofSeconds(30);
+        private CachePolicy policy = CachePolicy.defaults();
+
+        private Builder(RedisOps ops) {
+            this.ops = ops;
+        }
+
+        /** Redis key prefix ({@code cache:} by default). */
+        public Builder prefix(String prefix) {
+            this.prefix = prefix;
+            return this;
+        }
+
+        /** Pub/sub channel for invalidations; every node sharing the cache must use the same one. */
+        public Builder channel(String channel) {
+            this.channel = channel;
+            return this;
+        }
+
+        /** Upper bound on locally held entries (10 000 by default). */
+        public Builder maxLocalEntries(int maxLocalEntries) {
+            if (maxLocalEntries < 1) {
+                throw new IllegalArgumentException("maxLocalEntries must be >= 1");
+            }
+            this.maxLocalEntries = maxLocalEntries;
+            return this;
+        }
+
+        /** How long a local copy may be served before re-reading Redis (30 s by default). */
+        public Builder localTtl(Duration localTtl) {
+            if (localTtl.isZero() || localTtl.isNegative()) {
+                throw new IllegalArgumentException("localTtl must be positive");
+            }
+            this.localTtl = localTtl;
+            return this;
+        }
+
+        /** Refresh-ahead / negative caching for the Redis tier. */
+        public Builder policy(CachePolicy policy) {
+            this.policy = policy;
+            return this;
+        }
+
+        public NearRedisCache build() {
+            return new NearRedisCache(this);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.ligero.redis;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Commands queued inside {@link RedisOps#pipelined}. Nothing is sent until the
+ * callback returns; then every queued command goes out in one round trip and
+ * the returned futures complete. Don't block on them inside the callback.
+ */
+public interface RedisBatch {
+
+    CompletableFuture<String> get(String key);
+
+    CompletableFuture<Void> set(String key, String value, long ttlSeconds);
+
+    CompletableFuture<Long> incrementWithTtl(String key, long ttlSeconds);
+
+    CompletableFuture<Map<String, String>> hgetAll(String key);
+
+    CompletableFuture<Void> hset(String key, Map<String, String> fields, long ttlSeconds);
+
+    CompletableFuture<Long> ttl(String key);
+
+    CompletableFuture<Void> delete(String key);
+
+    CompletableFuture<Object> eval(RedisScript script, List<String> keys, List<String> args);
+}
@@ -1,11 +1,23 @@
 package com.ligero.redis;
 
 import com.ligero.cache.Cache;
+import com.ligero.cache.CachePolicy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import redis.clients.jedis.JedisPool;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
@@ -18,15 +30,33 @@ import java.util.function.Function;
  * Cache<String, String> cache = RedisCache.usingJedis(pool);
  * String user = cache.get(id, Duration.ofMinutes(10), this::loadUserJson);
  * }</pre>
+ *
+ * <p>A {@link CachePolicy} adds refresh-ahead and negative caching. Refresh-ahead
+ * applies to entries loaded with a TTL: a hit older than the refresh age (read
+ * from the key's remaining {@code TTL}, one extra round trip) is served as-is
+ * while one virtual thread per key and node reloads it. Absent results are
+ * stored as a reserved marker value, so they are shared across instances too.</p>
  */
 public final class RedisCache implements Cache<String, String> {
 
+    private static final Logger log = LoggerFactory.getLogger(RedisCache.class);
+
+    /** Stored in place of a {@code null} load when negative caching is on. */
+    static final String ABSENT = "\u0000ligero:absent";
+
     private final RedisOps ops;
     private final String prefix;
+    private final CachePolicy policy;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
 
     public RedisCache(RedisOps ops, String prefix) {
+        this(ops, prefix, CachePolicy.defaults());
+    }
+
+    public RedisCache(RedisOps ops, String prefix, CachePolicy policy) {
         this.ops = ops;
         this.prefix = prefix;
+        this.policy = policy;
     }
 
     /** Convenience factory over a Jedis pool, using the {@code cache:} prefix. */
@@ -42,9 +72,22 @@ public final class RedisCache implements Cache<String, String> {
         return ttl == null || ttl.isZero() || ttl.isNegative() ? 0L : ttl.toSeconds();
     }
 
+    private static String valueOf(String stored) {
+        return ABSENT.equals(stored) ? null : stored;
+    }
+
+    /** Stores a loaded value, or the absent marker when negative caching is on. */
+    private void store(String key, String loaded, Duration ttl) {
+        if (loaded != null) {
+            ops.set(key(key), loaded, ttlSeconds(ttl));
+        } else if (policy.cachesAbsent()) {
+            ops.set(key(key), ABSENT, Math.max(1L, ttlSeconds(policy.absentTtl())));
+        }
+    }
+
     @Override
     public Optional<String> get(String key) {
-        return Optional.ofNullable(ops.get(key(key)));
+        return Optional.ofNullable(valueOf(ops.get(key(key))));
     }
 
     @Override
@@ -66,15 +109,79 @@ public final class RedisCache implements Cache<String, String> {
     public String get(String key, Duration ttl, Function<? super String, ? extends String> loader) {
         String existing = ops.get(key(key));
         if (existing != null) {
-            return existing;
+            if (!ABSENT.equals(existing)) {
+                refreshIfStale(key, ttl, loader); // markers live by absentTtl, not ttl
+            }
+            return valueOf(existing);
         }
         String loaded = loader.apply(key);
-        if (loaded != null) {
-            ops.set(key(key), loaded, ttlSeconds(ttl));
-        }
+        store(key, loaded, ttl);
         return loaded;
     }
 
+    private void refreshIfStale(String key, Duration ttl, Function<? super String, ? extends String> loader) {
+        long ttlSeconds = ttlSeconds(ttl);
+        if (!policy.refreshes() || ttlSeconds == 0L) {
+            return;
+        }
+        long remaining = ops.ttl(key(key));
+        long ageNanos = Duration.ofSeconds(ttlSeconds - remaining).toNanos();
+        if (remaining < 0 || ageNanos < policy.refreshAfterNanos() || !refreshing.add(key)) {
+            return;
+        }
+        Thread.startVirtualThread(() -> {
+            try {
+                store(key, loader.apply(key), ttl);
+            } catch (RuntimeException e) {
+                log.warn("Background refresh of cache key {} failed; keeping the stale value", key, e);
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    /** One {@code MGET} for the lookups, and at most two {@code MSET}s for what the loader returns. */
+    @Override
+    public Map<String, String> getAll(Collection<? extends String> keys, Duration ttl,
+                                      Function<? super Set<String>, ? extends Map<? extends String, ? extends String>> bulkLoader) {
+        List<String> ordered = List.copyOf(new LinkedHashSet<String>(keys));
+        List<String> stored = ops.mget(ordered.stream().map(this::key).toList());
+        Map<String, String> found = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            String value = stored.get(i);
+            if (value == null) {
+                missing.add(ordered.get(i));
+            } else if (!ABSENT.equals(value)) {
+                found.put(ordered.get(i), value);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<? extends String, ? extends String> loaded = bulkLoader.apply(missing);
+            Map<String, String> values = new HashMap<>();
+            Map<String, String> absent = new HashMap<>();
+            for (String key : missing) {
+                String value = loaded.get(key);
+                if (value != null) {
+                    values.put(key(key), value);
+                    found.put(key, value);
+                } else if (policy.cachesAbsent()) {
+                    absent.put(key(key), ABSENT);
+                }
+            }
+            ops.mset(values, ttlSeconds(ttl));
+            ops.mset(absent, Math.max(1L, ttlSeconds(policy.absentTtl())));
+        }
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String key : ordered) {
+            String value = found.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
     @Override
     public void evict(String key) {
         ops.delete(key(key));
@@ -0,0 +1,163 @@
+package com.ligero.redis;
+
+import com.ligero.middleware.RateLimiterStore;
+
+import redis.clients.jedis.JedisPool;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Distributed {@link RateLimiterStore} using GCRA (the generic cell rate
+ * algorithm): a smooth "N requests per period, bursts of up to B" limit with no
+ * window edges, so it never admits the 2× burst a fixed window allows at a
+ * boundary. Each key costs one atomic {@code EVALSHA} that reads and advances
+ * the key's theoretical arrival time, using the Redis server clock so app
+ * instances with skewed clocks agree. Requires Redis 5+.
+ *
+ * <pre>{@code
+ * RateLimiterStore limiter =
+ *     RedisGcraRateLimiterStore.usingJedis(pool, 100, Duration.ofMinutes(1));
+ * app.use(RateLimitMiddleware.of(limiter, ctx -> ctx.header("X-Api-Key")));
+ * }</pre>
+ *
+ * <p><b>Local leases.</b> {@link #withLocalLeases} makes each instance take a
+ * block of tokens from Redis in one call and spend them in-process, going back
+ * to Redis only when the block runs out or expires. Redis traffic drops by
+ * roughly the lease size; the cluster-wide limit stays approximately right (an
+ * instance may hold up to one unspent block per key, and unspent tokens that
+ * expire are lost, which only ever makes the limit stricter).</p>
+ */
+public final class RedisGcraRateLimiterStore implements RateLimiterStore {
+
+    /**
+     * GCRA on microsecond timestamps. ARGV: emission interval, burst tolerance,
+     * tokens requested. Grants as many of the requested tokens as are available
+     * (possibly 0) and returns that count.
+     */
+    static final RedisScript GCRA = RedisScript.of("""
+        local t = redis.call('TIME')
+        local now = tonumber(t[1]) * 1000000 + tonumber(t[2])
+        local interval = tonumber(ARGV[1])
+        local tolerance = tonumber(ARGV[2])
+        local requested = tonumber(ARGV[3])
+        local tat = tonumber(redis.call('GET', KEYS[1]) or now)
+        if tat < now then tat = now end
+        local granted = math.min(requested, math.floor((now + tolerance - tat) / interval + 1e-9))
+        if granted <= 0 then return 0 end
+        tat = tat + granted * interval
+        redis.call('SET', KEYS[1], string.format('%.0f', tat), 'PX', math.ceil((tat - now) / 1000))
+        return granted
+        """);
+
+    private static final int MAX_LEASED_KEYS = 10_000;
+
+    private record Lease(AtomicLong remaining, long expiresAtNanos) {
+        boolean tryTake(long now) {
+            if (now >= expiresAtNanos) {
+                return false;
+            }
+            long left;
+            do {
+                left = remaining.get();
+                if (left <= 0) {
+                    return false;
+                }
+            } while (!remaining.compareAndSet(left, left - 1));
+            return true;
+        }
+    }
+
+    private final RedisOps ops;
+    private final int limit;
+    private final Duration period;
+    private final int burst;
+    private final String emissionIntervalMicros;
+    private final String toleranceMicros;
+    private final int leaseSize;
+    private final long leaseTtlNanos;
+    private final ConcurrentHashMap<String, Lease> leases = new ConcurrentHashMap<>();
+
+    /** {@code limit} requests per {@code period}, with bursts of up to {@code limit}. */
+    public RedisGcraRateLimiterStore(RedisOps ops, int limit, Duration period) {
+        this(ops, limit, period, limit);
+    }
+
+    /** {@code limit} requests per {@code period}, with bursts of up to {@code burst}. */
+    public RedisGcraRateLimiterStore(RedisOps ops, int limit, Duration period, int burst) {
+        this(ops, limit, period, burst, 1, Duration.ZERO);
+    }
+
+    private RedisGcraRateLimiterStore(RedisOps ops, int limit, Duration period, int burst,
+                                      int leaseSize, Duration leaseTtl) {
+        if (limit <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("limit and burst must be positive");
+        }
+        if (period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+        double interval = period.toNanos() / 1_000.0 / limit;
+        this.ops = ops;
+        this.limit = limit;
+        this.period = period;
+        this.burst = burst;
+        this.emissionIntervalMicros = Double.toString(interval);
+        this.toleranceMicros = Double.toString(interval * burst);
+        this.leaseSize = leaseSize;
+        this.leaseTtlNanos = leaseTtl.toNanos();
+    }
+
+    /** Convenience factory over a Jedis pool. */
+    public static RedisGcraRateLimiterStore usingJedis(JedisPool pool, int limit, Duration period) {
+        return new RedisGcraRateLimiterStore(new JedisRedisOps(pool), limit, period);
+    }
+
+    /**
+     * Leases {@code leaseSize} tokens per Redis call and spends them locally for
+     * at most {@code leaseTtl}. Keep {@code leaseSize} well below the burst, and
+     * {@code leaseTtl} short (a second or two) so idle instances don't sit on tokens.
+     */
+    public RedisGcraRateLimiterStore withLocalLeases(int leaseSize, Duration leaseTtl) {
+        if (leaseSize < 2) {
+            throw new IllegalArgumentException("leaseSize must be >= 2");
+        }
+        if (leaseTtl.isZero() || leaseTtl.isNegative()) {
+            throw new IllegalArgumentException("leaseTtl must be positive");
+        }
+        return new RedisGcraRateLimiterStore(ops, limit, period, burst, leaseSize, leaseTtl);
+    }
+
+    @Override
+    public boolean tryAcquire(String key) {
+        if (leaseSize == 1) {
+            return acquire(key, 1) > 0;
+        }
+        long now = System.nanoTime();
+        Lease lease = leases.get(key);
+        if (lease != null && lease.tryTake(now)) {
+            return true;
+        }
+        long granted = acquire(key, leaseSize);
+        if (granted == 0) {
+            return false;
+        }
+        if (granted > 1) {
+            if (leases.size() >= MAX_LEASED_KEYS) {
+                leases.values().removeIf(l -> now >= l.expiresAtNanos());
+                if (leases.size() >= MAX_LEASED_KEYS) {
+                    leases.clear(); // dropping prepaid tokens only makes the limit stricter
+                }
+            }
+            leases.put(key, new Lease(new AtomicLong(granted - 1), now + leaseTtlNanos));
+        }
+        return true;
+    }
+
+    private long acquire(String key, int tokens) {
+        Object granted = ops.eval(GCRA, List.of("ratelimit:gcra:" + key),
+            List.of(emissionIntervalMicros, toleranceMicros, Integer.toString(tokens)));
+        return ((Number) granted).longValue();
+    }
+}
@@ -1,15 +1,29 @@
 package com.ligero.redis;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * The small set of Redis operations the stores need. A thin seam so the store
  * logic is testable without a live Redis, and so a different client could be
  * substituted for {@link JedisRedisOps}.
+ *
+ * <p>Multi-key and pipelined operations have one-call-per-key defaults so a
+ * minimal implementation keeps working; {@link JedisRedisOps} sends each of
+ * them in a single round trip. {@link #ttl}, {@link #eval}, {@link #publish}
+ * and {@link #subscribe} came later and throw
+ * {@link UnsupportedOperationException} by default, so an implementation
+ * written before them still compiles and serves everything that does not
+ * need them (refresh-ahead, scripts, {@link NearRedisCache}).</p>
  */
 public interface RedisOps {
 
-    /** {@code INCR key}, setting {@code EXPIRE} when the counter is first created. */
+    /**
+     * {@code INCR key}, setting {@code EXPIRE} when the counter is first created.
+     * Implementations should do both atomically (one script call).
+     */
     long incrementWithTtl(String key, long ttlSeconds);
 
     /** {@code HGETALL key} (empty map when the key is absent). */
@@ -24,6 +38,64 @@ public interface RedisOps {
     /** {@code GET key} ({@code null} when the key is absent). */
     String get(String key);
 
+    /** {@code TTL key}: remaining seconds, {@code -1} without expiry, {@code -2} when absent. */
+    default long ttl(String key) {
+        throw unsupported("ttl");
+    }
+
     /** {@code DEL key}. */
     void delete(String key);
+
+    /** {@code MGET keys}: one value per key, in order, {@code null} where absent. */
+    default List<String> mget(List<String> keys) {
+        List<String> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            values.add(get(key));
+        }
+        return values;
+    }
+
+    /** Sets every entry, each with {@code EX ttlSeconds} when {@code ttlSeconds > 0}. */
+    default void mset(Map<String, String> values, long ttlSeconds) {
+        values.forEach((key, value) -> set(key, value, ttlSeconds));
+    }
+
+    /**
+     * Queues the commands issued on the batch and sends them together, in one
+     * round trip where the client supports pipelining. Commands are not atomic as
+     * a group; use {@link #eval} when they must be.
+     *
+     * <pre>{@code
+     * ops.pipelined(batch -> {
+     *     batch.set("a", "1", 60);
+     *     batch.incrementWithTtl("hits", 60).thenAccept(n -> log.debug("hits {}", n));
+     * });
+     * }</pre>
+     */
+    default void pipelined(Consumer<RedisBatch> commands) {
+        commands.accept(new DirectBatch(this));
+    }
+
+    /** Runs a Lua script atomically ({@code EVALSHA}, falling back to {@code EVAL}). */
+    default Object eval(RedisScript script, List<String> keys, List<String> args) {
+        throw unsupported("eval");
+    }
+
+    /** {@code PUBLISH channel message}. */
+    default void publish(String channel, String message) {
+        throw unsupported("publish");
+    }
+
+    /**
+     * {@code SUBSCRIBE channel} on a dedicated connection, delivering each message
+     * to {@code listener} on a background thread. Closing the handle unsubscribes.
+     */
+    default AutoCloseable subscribe(String channel, Consumer<String> listener) {
+        throw unsupported("subscribe");
+    }
+
+    private UnsupportedOperationException unsupported(String operation) {
+        return new UnsupportedOperationException(getClass().getName() + " does not implement RedisOps."
+            + operation + "; implement it (as JedisRedisOps does) to use the features that need it");
+    }
 }
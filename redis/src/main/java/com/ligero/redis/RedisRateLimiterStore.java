@@ -19,6 +19,10 @@ import java.util.function.LongSupplier;
  *     RedisRateLimiterStore.usingJedis(pool, 100, Duration.ofMinutes(1));
  * app.use(RateLimitMiddleware.of(limiter));   // 100 req/min per client, cluster-wide
  * }</pre>
+ *
+ * <p>A fixed window admits up to twice the limit across a window boundary. When
+ * that matters, use {@link RedisGcraRateLimiterStore}, which enforces a smooth
+ * rate and can lease tokens locally to cut Redis traffic.</p>
  */
 public final class RedisRateLimiterStore implements RateLimiterStore {
 
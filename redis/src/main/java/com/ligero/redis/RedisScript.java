@@ -0,0 +1,32 @@
+package com.ligero.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * A Lua script plus its SHA-1, so it can be run with {@code EVALSHA} (only the
+ * 40-character digest travels on each call) and fall back to {@code EVAL} when
+ * the server has not cached it yet. Create once, reuse for every call.
+ *
+ * <pre>{@code
+ * static final RedisScript GET_AND_TOUCH = RedisScript.of(
+ *     "local v = redis.call('GET', KEYS[1]) redis.call('EXPIRE', KEYS[1], ARGV[1]) return v");
+ * Object value = ops.eval(GET_AND_TOUCH, List.of(key), List.of("60"));
+ * }</pre>
+ *
+ * @param source the Lua source
+ * @param sha1   lowercase hex SHA-1 of {@code source}, as Redis computes it
+ */
+public record RedisScript(String source, String sha1) {
+
+    public static RedisScript of(String source) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(source.getBytes(StandardCharsets.UTF_8));
+            return new RedisScript(source, HexFormat.of().formatHex(digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.ligero.redis;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AutoBatchingRedisOpsTest {
+
+    private final FakeRedisOps fake = new FakeRedisOps();
+
+    @Test
+    void concurrentCallsShareRoundTrips() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            fake.set("k" + i, "v" + i, 0);
+        }
+        try (AutoBatchingRedisOps ops = new AutoBatchingRedisOps(fake, Duration.ofMillis(5), 64);
+             ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String key = "k" + i;
+                results.add(threads.submit(() -> {
+                    start.await();
+                    return ops.get(key);
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < 200; i++) {
+                assertThat(results.get(i).get()).isEqualTo("v" + i); // each caller gets its own answer
+            }
+        }
+        assertThat(fake.pipelines()).isLessThan(200).isGreaterThanOrEqualTo(4); // batches cap at 64
+    }
+
+    @Test
+    void everySingleKeyOperationGoesThroughTheBatcher() throws Exception {
+        RedisScript script = RedisScript.of("return ARGV[1]");
+        fake.script(script, (keys, args) -> args.get(0));
+        try (AutoBatchingRedisOps ops = new AutoBatchingRedisOps(fake, Duration.ZERO, 8)) {
+            ops.set("a", "1", 60);
+            assertThat(ops.get("a")).isEqualTo("1");
+            assertThat(ops.ttl("a")).isEqualTo(60L);
+            assertThat(ops.incrementWithTtl("n", 60)).isEqualTo(1L);
+            ops.hset("h", Map.of("f", "x"), 60);
+            assertThat(ops.hgetAll("h")).containsEntry("f", "x");
+            assertThat(ops.eval(script, List.of(), List.of("echo"))).isEqualTo("echo");
+            ops.delete("a");
+            assertThat(ops.get("a")).isNull();
+            assertThat(fake.pipelines()).isEqualTo(9);
+
+            // multi-key calls bypass the queue
+            ops.mset(Map.of("x", "1", "y", "2"), 0);
+            assertThat(ops.mget(List.of("x", "y", "z"))).containsExactly("1", "2", null);
+            assertThat(fake.pipelines()).isEqualTo(9);
+        }
+    }
+
+    @Test
+    void failuresReachTheCallerThatCausedThem() throws Exception {
+        try (AutoBatchingRedisOps ops = new AutoBatchingRedisOps(fake, Duration.ZERO, 8)) {
+            RedisScript unknown = RedisScript.of("return 1");
+            assertThatThrownBy(() -> ops.eval(unknown, List.of(), List.of()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("NOSCRIPT");
+            ops.set("k", "v", 0); // the batcher keeps working
+            assertThat(ops.get("k")).isEqualTo("v");
+        }
+    }
+
+    @Test
+    void callsAfterCloseGoDirectlyToTheDelegate() throws Exception {
+        AutoBatchingRedisOps ops = AutoBatchingRedisOps.wrap(fake);
+        ops.close();
+        ops.set("k", "v", 0);
+        assertThat(ops.get("k")).isEqualTo("v");
+        assertThat(fake.pipelines()).isZero();
+    }
+
+    @Test
+    void scriptShaMatchesRedisAndDefaultsFallBackToSingleCalls() {
+        // the digest Redis returns for SCRIPT LOAD "return 'hello moon'"
+        assertThat(RedisScript.of("return 'hello moon'").sha1())
+            .isEqualTo("8e3d8cfcbb6571ecf555cc0a7d6fb950b4437dc6");
+
+        fake.mset(Map.of("a", "1"), 30);
+        assertThat(fake.mget(List.of("a", "b"))).containsExactly("1", null);
+        assertThat(fake.ttl("a")).isEqualTo(30L);
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> new AutoBatchingRedisOps(fake, Duration.ofNanos(-1), 8))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AutoBatchingRedisOps(fake, Duration.ZERO, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
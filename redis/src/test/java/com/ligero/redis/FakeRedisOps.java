@@ -2,45 +2,118 @@ package com.ligero.redis;
 
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
-/** In-memory {@link RedisOps} for tests — no Redis server needed. */
+/** In-memory {@link RedisOps} for tests — no Redis server needed. Thread-safe (coarse lock). */
 final class FakeRedisOps implements RedisOps {
 
     private final Map<String, Long> counters = new HashMap<>();
     private final Map<String, Map<String, String>> hashes = new LinkedHashMap<>();
     private final Map<String, String> values = new HashMap<>();
+    private final Map<String, Long> ttls = new HashMap<>();
+    private final Map<String, List<Consumer<String>>> subscribers = new HashMap<>();
+    private final Map<String, BiFunction<List<String>, List<String>, Object>> scripts = new HashMap<>();
+    private int gets;
+    private int pipelines;
 
     @Override
-    public long incrementWithTtl(String key, long ttlSeconds) {
+    public synchronized long incrementWithTtl(String key, long ttlSeconds) {
         return counters.merge(key, 1L, Long::sum);
     }
 
     @Override
-    public Map<String, String> hgetAll(String key) {
+    public synchronized Map<String, String> hgetAll(String key) {
         Map<String, String> hash = hashes.get(key);
         return hash == null ? Map.of() : new LinkedHashMap<>(hash);
     }
 
     @Override
-    public void hset(String key, Map<String, String> fields, long ttlSeconds) {
+    public synchronized void hset(String key, Map<String, String> fields, long ttlSeconds) {
         hashes.computeIfAbsent(key, k -> new LinkedHashMap<>()).putAll(fields);
     }
 
     @Override
-    public void set(String key, String value, long ttlSeconds) {
+    public synchronized void set(String key, String value, long ttlSeconds) {
         values.put(key, value);
+        ttls.put(key, ttlSeconds > 0 ? ttlSeconds : -1L);
     }
 
     @Override
-    public String get(String key) {
+    public synchronized String get(String key) {
+        gets++;
         return values.get(key);
     }
 
     @Override
-    public void delete(String key) {
+    public synchronized long ttl(String key) {
+        return ttls.getOrDefault(key, -2L);
+    }
+
+    @Override
+    public synchronized void delete(String key) {
         counters.remove(key);
         hashes.remove(key);
         values.remove(key);
+        ttls.remove(key);
+    }
+
+    @Override
+    public synchronized Object eval(RedisScript script, List<String> keys, List<String> args) {
+        BiFunction<List<String>, List<String>, Object> emulation = scripts.get(script.sha1());
+        if (emulation == null) {
+            throw new IllegalStateException("NOSCRIPT no emulation registered for " + script.sha1());
+        }
+        return emulation.apply(keys, args);
+    }
+
+    @Override
+    public void pipelined(Consumer<RedisBatch> commands) {
+        synchronized (this) {
+            pipelines++;
+        }
+        RedisOps.super.pipelined(commands);
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        List<Consumer<String>> listeners;
+        synchronized (this) {
+            listeners = List.copyOf(subscribers.getOrDefault(channel, List.of()));
+        }
+        listeners.forEach(listener -> listener.accept(message)); // delivered synchronously
+    }
+
+    @Override
+    public synchronized AutoCloseable subscribe(String channel, Consumer<String> listener) {
+        subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(listener);
+        return () -> {
+            synchronized (this) {
+                subscribers.get(channel).remove(listener);
+            }
+        };
+    }
+
+    /** Registers a Java stand-in for a Lua script (the fake cannot run Lua). */
+    synchronized void script(RedisScript script, BiFunction<List<String>, List<String>, Object> emulation) {
+        scripts.put(script.sha1(), emulation);
+    }
+
+    /** Number of {@link #pipelined} round trips so far. */
+    synchronized int pipelines() {
+        return pipelines;
+    }
+
+    /** Number of {@code GET} round trips so far. */
+    synchronized int gets() {
+        return gets;
+    }
+
+    /** Simulates {@code seconds} passing for a key's TTL (the fake never expires keys itself). */
+    synchronized void elapse(String key, long seconds) {
+        ttls.computeIfPresent(key, (k, ttl) -> ttl < 0 ? ttl : ttl - seconds);
     }
 }
@@ -0,0 +1,139 @@
+package com.ligero.redis;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NearRedisCacheTest {
+
+    private final FakeRedisOps ops = new FakeRedisOps();
+
+    private NearRedisCache node(Duration localTtl, int maxLocalEntries) {
+        return NearRedisCache.builder(ops).localTtl(localTtl).maxLocalEntries(maxLocalEntries).build();
+    }
+
+    @Test
+    void repeatedReadsAreServedLocally() {
+        NearRedisCache cache = node(Duration.ofMinutes(1), 100);
+        cache.put("k", "v");
+        int before = ops.gets();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(cache.get("k")).contains("v");
+        }
+        assertThat(ops.gets()).isEqualTo(before); // no Redis round trip
+        assertThat(cache.stats().hits()).isEqualTo(100);
+        assertThat(cache.stats().hitRatio()).isEqualTo(1.0);
+    }
+
+    @Test
+    void writesOnOneNodeInvalidateTheOthers() {
+        NearRedisCache a = node(Duration.ofMinutes(1), 100);
+        NearRedisCache b = node(Duration.ofMinutes(1), 100);
+        a.put("k", "v1");
+        assertThat(b.get("k")).contains("v1"); // b now holds a local copy
+
+        a.put("k", "v2");
+        assertThat(b.get("k")).contains("v2");
+        assertThat(a.get("k")).contains("v2"); // the writer keeps its own fresh copy
+
+        b.evict("k");
+        assertThat(a.get("k")).isEmpty();
+        assertThat(a.stats().evictions()).isEqualTo(1); // b's eviction reached a
+        assertThat(b.stats().evictions()).isEqualTo(1); // a's v2 write reached b
+    }
+
+    @Test
+    void invalidationDuringALoadKeepsTheResultOutOfTheLocalTier() {
+        NearRedisCache writer = node(Duration.ofMinutes(1), 100);
+        NearRedisCache reader = node(Duration.ofMinutes(1), 100);
+        String loaded = reader.get("k", Duration.ofMinutes(5), k -> {
+            writer.evict("k"); // lands after the reader noted the generation, before it stores
+            return "v";
+        });
+        assertThat(loaded).isEqualTo("v");
+        assertThat(reader.localSize()).isZero();
+
+        int before = ops.gets();
+        assertThat(reader.get("k")).contains("v");
+        assertThat(ops.gets()).isEqualTo(before + 1); // served from Redis, then kept
+        assertThat(reader.localSize()).isEqualTo(1);
+    }
+
+    @Test
+    void loadThroughPopulatesBothTiers() {
+        NearRedisCache cache = node(Duration.ofMinutes(1), 100);
+        assertThat(cache.get("id", Duration.ofMinutes(5), k -> "loaded")).isEqualTo("loaded");
+        assertThat(ops.get("cache:id")).isEqualTo("loaded");
+        assertThat(cache.get("id", Duration.ofMinutes(5), k -> { throw new AssertionError("cached"); }))
+            .isEqualTo("loaded");
+    }
+
+    @Test
+    void localCopiesExpireAfterTheLocalTtl() throws InterruptedException {
+        NearRedisCache cache = node(Duration.ofMillis(20), 100);
+        cache.put("k", "v");
+        Thread.sleep(40);
+        int before = ops.gets();
+        assertThat(cache.get("k")).contains("v");
+        assertThat(ops.gets()).isEqualTo(before + 1); // went back to Redis
+    }
+
+    @Test
+    void localTierIsBounded() {
+        NearRedisCache cache = node(Duration.ofMinutes(1), 10);
+        for (int i = 0; i < 50; i++) {
+            cache.put("k" + i, "v" + i);
+        }
+        assertThat(cache.localSize()).isLessThanOrEqualTo(10);
+        assertThat(cache.stats().evictions()).isEqualTo(40);
+        assertThat(cache.get("k3")).contains("v3"); // still readable through Redis
+    }
+
+    @Test
+    void getAllAndGetAsyncUseTheLocalTier() throws Exception {
+        NearRedisCache cache = node(Duration.ofMinutes(1), 100);
+        cache.put("a", "1");
+        Map<String, String> all = cache.getAll(List.of("a", "b"), missing -> Map.of("b", "2"));
+        assertThat(all).containsExactly(Map.entry("a", "1"), Map.entry("b", "2"));
+
+        int before = ops.gets();
+        assertThat(cache.getAsync("b", k -> "x").getNow(null)).isEqualTo("2");
+        assertThat(cache.getAsync("c", k -> "3").get(1, TimeUnit.SECONDS)).isEqualTo("3");
+        assertThat(cache.get("c")).contains("3");
+        assertThat(ops.gets()).isEqualTo(before + 1); // only the miss on "c"
+    }
+
+    @Test
+    void closeUnsubscribesAndClearLocalKeepsRedis() throws Exception {
+        NearRedisCache a = node(Duration.ofMinutes(1), 100);
+        NearRedisCache b = node(Duration.ofMinutes(1), 100);
+        a.put("k", "v1");
+        b.get("k");
+        b.close();
+        a.put("k", "v2"); // b no longer listens, and has dropped its copies
+        assertThat(b.stats().evictions()).isZero();
+        assertThat(b.localSize()).isZero();
+
+        NearRedisCache c = node(Duration.ofMinutes(1), 100);
+        c.put("x", "1");
+        c.clearLocal();
+        assertThat(c.localSize()).isZero();
+        assertThat(c.get("x")).contains("1");
+        assertThatThrownBy(c::clear).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> NearRedisCache.builder(ops).maxLocalEntries(0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> NearRedisCache.builder(ops).localTtl(Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
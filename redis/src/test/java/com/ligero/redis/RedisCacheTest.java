@@ -1,8 +1,15 @@
 package com.ligero.redis;
 
+import com.ligero.cache.CachePolicy;
+
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -38,4 +45,121 @@ class RedisCacheTest {
     void clearIsUnsupportedOnSharedRedis() {
         assertThatThrownBy(cache::clear).isInstanceOf(UnsupportedOperationException.class);
     }
+
+    @Test
+    void negativeCachingStoresASharedAbsentMarker() {
+        RedisCache negative = new RedisCache(ops, "cache:", CachePolicy.defaults().cacheAbsent(Duration.ofSeconds(30)));
+        AtomicInteger loads = new AtomicInteger();
+        assertThat(negative.get("missing", k -> { loads.incrementAndGet(); return null; })).isNull();
+        assertThat(negative.get("missing", k -> { loads.incrementAndGet(); return null; })).isNull();
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(negative.get("missing")).isEmpty();
+        assertThat(ops.ttl("cache:missing")).isEqualTo(30L);
+
+        // without the policy, null loads are not stored
+        cache.get("other", k -> null);
+        assertThat(ops.get("cache:other")).isNull();
+    }
+
+    @Test
+    void refreshAfterWriteReloadsAgedEntriesInTheBackground() throws Exception {
+        RedisCache refreshing = new RedisCache(ops, "cache:", CachePolicy.defaults().refreshAfterWrite(Duration.ofSeconds(60)));
+        Duration ttl = Duration.ofSeconds(100);
+        refreshing.get("k", ttl, k -> "v1");
+
+        // young entry: served, no reload
+        assertThat(refreshing.get("k", ttl, k -> { throw new AssertionError("not stale yet"); })).isEqualTo("v1");
+
+        ops.elapse("cache:k", 70);
+        CountDownLatch reloaded = new CountDownLatch(1);
+        assertThat(refreshing.get("k", ttl, k -> {
+            reloaded.countDown();
+            return "v2";
+        })).isEqualTo("v1"); // stale value served immediately
+        assertThat(reloaded.await(1, TimeUnit.SECONDS)).isTrue();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!"v2".equals(ops.get("cache:k")) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(ops.get("cache:k")).isEqualTo("v2");
+        assertThat(ops.ttl("cache:k")).isEqualTo(100L);
+    }
+
+    @Test
+    void absentMarkersAreNotRefreshedAhead() throws Exception {
+        RedisCache both = new RedisCache(ops, "cache:", CachePolicy.defaults()
+            .refreshAfterWrite(Duration.ofSeconds(60))
+            .cacheAbsent(Duration.ofSeconds(30)));
+        Duration ttl = Duration.ofMinutes(10);
+        AtomicInteger loads = new AtomicInteger();
+        assertThat(both.get("missing", ttl, k -> { loads.incrementAndGet(); return null; })).isNull();
+
+        // a fresh marker has 30 s left, which against the 10 min ttl would look 9.5 min old
+        assertThat(both.get("missing", ttl, k -> { loads.incrementAndGet(); return null; })).isNull();
+        Thread.sleep(50);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void anImplementationWithoutTheLaterOperationsStillCaches() {
+        RedisOps minimal = new RedisOps() { // only what RedisOps first required
+            @Override
+            public long incrementWithTtl(String key, long ttlSeconds) {
+                return ops.incrementWithTtl(key, ttlSeconds);
+            }
+
+            @Override
+            public Map<String, String> hgetAll(String key) {
+                return ops.hgetAll(key);
+            }
+
+            @Override
+            public void hset(String key, Map<String, String> fields, long ttlSeconds) {
+                ops.hset(key, fields, ttlSeconds);
+            }
+
+            @Override
+            public void set(String key, String value, long ttlSeconds) {
+                ops.set(key, value, ttlSeconds);
+            }
+
+            @Override
+            public String get(String key) {
+                return ops.get(key);
+            }
+
+            @Override
+            public void delete(String key) {
+                ops.delete(key);
+            }
+        };
+        RedisCache plain = new RedisCache(minimal, "cache:");
+        assertThat(plain.get("k", Duration.ofMinutes(1), k -> "v")).isEqualTo("v");
+        assertThat(plain.get("k")).contains("v");
+        assertThatThrownBy(() -> minimal.publish("channel", "message"))
+            .isInstanceOf(UnsupportedOperationException.class)
+            .hasMessageContaining("RedisOps.publish");
+    }
+
+    @Test
+    void getAllBulkLoadsMissesOnce() {
+        cache.put("a", "1");
+        AtomicInteger calls = new AtomicInteger();
+        Map<String, String> result = cache.getAll(List.of("a", "b", "c"), Duration.ofMinutes(1), missing -> {
+            calls.incrementAndGet();
+            assertThat(missing).containsExactly("b", "c");
+            return Map.of("b", "2");
+        });
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(result).containsExactly(Map.entry("a", "1"), Map.entry("b", "2"));
+        assertThat(ops.get("cache:b")).isEqualTo("2");
+    }
+
+    @Test
+    void getAsyncLoadsOffTheCallingThread() throws Exception {
+        CompletableFuture<String> future = cache.getAsync("k", k -> Thread.currentThread().isVirtual() ? "virtual" : "platform");
+        assertThat(future.get(1, TimeUnit.SECONDS)).isEqualTo("virtual");
+        assertThat(cache.get("k")).contains("virtual");
+    }
 }
@@ -0,0 +1,112 @@
+package com.ligero.redis;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RedisGcraRateLimiterStoreTest {
+
+    private final FakeRedisOps ops = new FakeRedisOps();
+    private final AtomicLong nowMicros = new AtomicLong(1_000_000_000L);
+    private final AtomicInteger scriptCalls = new AtomicInteger();
+
+    /** The Lua script, line for line, against the fake's values and a test clock. */
+    @BeforeEach
+    void emulateScript() {
+        ops.script(RedisGcraRateLimiterStore.GCRA, (keys, args) -> {
+            scriptCalls.incrementAndGet();
+            double now = nowMicros.get();
+            double interval = Double.parseDouble(args.get(0));
+            double tolerance = Double.parseDouble(args.get(1));
+            long requested = Long.parseLong(args.get(2));
+            String stored = ops.get(keys.get(0));
+            double tat = stored == null ? now : Double.parseDouble(stored);
+            tat = Math.max(tat, now);
+            long granted = Math.min(requested, (long) Math.floor((now + tolerance - tat) / interval + 1e-9));
+            if (granted <= 0) {
+                return 0L;
+            }
+            tat += granted * interval;
+            ops.set(keys.get(0), String.format("%.0f", tat), (long) Math.ceil((tat - now) / 1_000_000));
+            return granted;
+        });
+    }
+
+    @Test
+    void admitsTheBurstThenOneRequestPerEmissionInterval() {
+        // 10 per second, burst 3: one token every 100 ms
+        RedisGcraRateLimiterStore limiter = new RedisGcraRateLimiterStore(ops, 10, Duration.ofSeconds(1), 3);
+        assertThat(limiter.tryAcquire("ip")).isTrue();
+        assertThat(limiter.tryAcquire("ip")).isTrue();
+        assertThat(limiter.tryAcquire("ip")).isTrue();
+        assertThat(limiter.tryAcquire("ip")).isFalse();
+
+        nowMicros.addAndGet(50_000);               // half an interval: still nothing
+        assertThat(limiter.tryAcquire("ip")).isFalse();
+        nowMicros.addAndGet(50_000);               // one interval: exactly one more
+        assertThat(limiter.tryAcquire("ip")).isTrue();
+        assertThat(limiter.tryAcquire("ip")).isFalse();
+    }
+
+    @Test
+    void hasNoWindowEdgeDoubleBurst() {
+        RedisGcraRateLimiterStore limiter = new RedisGcraRateLimiterStore(ops, 5, Duration.ofSeconds(10));
+        int admitted = 0;
+        for (int step = 0; step < 20; step++) {   // hammer across what would be a window boundary
+            for (int i = 0; i < 5; i++) {
+                admitted += limiter.tryAcquire("ip") ? 1 : 0;
+            }
+            nowMicros.addAndGet(500_000);          // 10 s total
+        }
+        assertThat(admitted).isLessThanOrEqualTo(5 + 5); // the burst plus what accrued over 10 s
+    }
+
+    @Test
+    void countsPerKeyIndependently() {
+        RedisGcraRateLimiterStore limiter = new RedisGcraRateLimiterStore(ops, 1, Duration.ofMinutes(1));
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("b")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isFalse();
+    }
+
+    @Test
+    void localLeasesSpendTokensWithoutRedis() {
+        RedisGcraRateLimiterStore limiter = new RedisGcraRateLimiterStore(ops, 100, Duration.ofSeconds(1), 50)
+            .withLocalLeases(10, Duration.ofSeconds(1));
+        for (int i = 0; i < 50; i++) {
+            assertThat(limiter.tryAcquire("ip")).isTrue();
+        }
+        assertThat(scriptCalls.get()).isEqualTo(5);  // one Redis call per block of 10
+        assertThat(limiter.tryAcquire("ip")).isFalse(); // the burst is used up cluster-wide
+    }
+
+    @Test
+    void aLeaseShorterThanRequestedIsStillSpent() {
+        RedisGcraRateLimiterStore limiter = new RedisGcraRateLimiterStore(ops, 1, Duration.ofSeconds(1), 3)
+            .withLocalLeases(10, Duration.ofSeconds(1));
+        assertThat(limiter.tryAcquire("ip")).isTrue();  // Redis grants the 3 available
+        assertThat(limiter.tryAcquire("ip")).isTrue();
+        assertThat(limiter.tryAcquire("ip")).isTrue();
+        assertThat(limiter.tryAcquire("ip")).isFalse();
+        assertThat(scriptCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> new RedisGcraRateLimiterStore(ops, 0, Duration.ofMinutes(1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RedisGcraRateLimiterStore(ops, 1, Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+        RedisGcraRateLimiterStore limiter = new RedisGcraRateLimiterStore(ops, 1, Duration.ofMinutes(1));
+        assertThatThrownBy(() -> limiter.withLocalLeases(1, Duration.ofSeconds(1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> limiter.withLocalLeases(5, Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -14,12 +14,16 @@ import java.util.function.Supplier;
  * String body = breaker.call(() -> http.get(url));
  * }</pre>
  *
+ * <p>State changes are recorded as {@code ligero.CircuitBreakerTransition}
+ * JDK Flight Recorder events, tagged with the breaker's name.</p>
+ *
  * <p>Thread-safe.</p>
  */
 public final class CircuitBreaker {
 
     public enum State { CLOSED, OPEN, HALF_OPEN }
 
+    private final String name;
     private final int failureThreshold;
     private final long openMillis;
 
@@ -28,9 +32,15 @@ public final class CircuitBreaker {
     private State state = State.CLOSED;
 
     public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this("circuit-breaker", failureThreshold, openDuration);
+    }
+
+    /** A breaker named {@code name} in its JFR events (e.g. the downstream service). */
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
         if (failureThreshold < 1) {
             throw new IllegalArgumentException("failureThreshold must be >= 1");
         }
+        this.name = name;
         this.failureThreshold = failureThreshold;
         this.openMillis = openDuration.toMillis();
     }
@@ -54,7 +64,7 @@ public final class CircuitBreaker {
     private synchronized void acquire() {
         if (state == State.OPEN) {
             if (System.currentTimeMillis() - openedAt >= openMillis) {
-                state = State.HALF_OPEN; // allow a single trial
+                transition(State.HALF_OPEN); // allow a single trial
             } else {
                 throw new CircuitOpenException("Circuit is open");
             }
@@ -63,14 +73,27 @@ public final class CircuitBreaker {
 
     private synchronized void onSuccess() {
         consecutiveFailures = 0;
-        state = State.CLOSED;
+        transition(State.CLOSED);
     }
 
     private synchronized void onFailure() {
         consecutiveFailures++;
         if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
-            state = State.OPEN;
+            transition(State.OPEN);
             openedAt = System.currentTimeMillis();
         }
     }
+
+    /** Caller holds the lock. */
+    private void transition(State next) {
+        if (next != state && CircuitBreakerTransitionEvent.TYPE.isEnabled()) {
+            CircuitBreakerTransitionEvent event = new CircuitBreakerTransitionEvent();
+            event.name = name;
+            event.from = state.name();
+            event.to = next.name();
+            event.consecutiveFailures = consecutiveFailures;
+            event.commit();
+        }
+        state = next;
+    }
 }
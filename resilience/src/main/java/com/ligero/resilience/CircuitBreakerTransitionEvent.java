@@ -0,0 +1,32 @@
+package com.ligero.resilience;
+
+import jdk.jfr.Category;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event for a {@link CircuitBreaker} changing state,
+ * recorded whenever a JFR recording enables
+ * {@code ligero.CircuitBreakerTransition}. The stack trace shows the call
+ * that tripped or closed the breaker.
+ */
+@Name("ligero.CircuitBreakerTransition")
+@Label("Circuit Breaker Transition")
+@Category({"Ligero", "Resilience"})
+final class CircuitBreakerTransitionEvent extends jdk.jfr.Event {
+
+    static final EventType TYPE = EventType.getEventType(CircuitBreakerTransitionEvent.class);
+
+    @Label("Circuit Breaker")
+    String name;
+
+    @Label("From")
+    String from;
+
+    @Label("To")
+    String to;
+
+    @Label("Consecutive Failures")
+    int consecutiveFailures;
+}
@@ -1,7 +1,12 @@
 package com.ligero.resilience;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -61,6 +66,27 @@ class ResilienceTest {
         assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
     }
 
+    @Test
+    void stateChangesAreRecordedAsFlightRecorderEvents(@TempDir Path dir) throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("billing", 1, Duration.ofMillis(20));
+        Path file = dir.resolve("breaker.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("ligero.CircuitBreakerTransition");
+            recording.start();
+            assertThatThrownBy(() -> breaker.call(() -> { throw new RuntimeException("down"); }))
+                .isInstanceOf(RuntimeException.class);
+            Thread.sleep(40);
+            breaker.call(() -> "back");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        assertThat(RecordingFile.readAllEvents(file))
+            .filteredOn(e -> e.getEventType().getName().equals("ligero.CircuitBreakerTransition"))
+            .extracting(e -> e.getString("name") + ":" + e.getString("from") + "->" + e.getString("to"))
+            .containsExactly("billing:CLOSED->OPEN", "billing:OPEN->HALF_OPEN", "billing:HALF_OPEN->CLOSED");
+    }
+
     // ---- Timeout ------------------------------------------------------------
 
     @Test
@@ -52,7 +52,7 @@ public final class Scheduler implements AutoCloseable {
     public ScheduledTask fixedRate(Duration period, Runnable task) {
         long ms = period.toMillis();
         ScheduledFuture<?> future =
-            timer.scheduleAtFixedRate(() -> runAsync(task), ms, ms, MILLISECONDS);
+            timer.scheduleAtFixedRate(() -> runAsync("fixedRate", task), ms, ms, MILLISECONDS);
         return new ScheduledTask(future);
     }
 
@@ -65,9 +65,7 @@ public final class Scheduler implements AutoCloseable {
             public void run() {
                 Thread.startVirtualThread(() -> {
                     try {
-                        task.run();
-                    } catch (Throwable t) {
-                        log.error("Scheduled task failed", t);
+                        execute("fixedDelay", task);
                     } finally {
                         if (!handle.isCancelled()) {
                             handle.reset(timer.schedule(this, ms, MILLISECONDS));
@@ -82,7 +80,7 @@ public final class Scheduler implements AutoCloseable {
 
     /** Runs {@code task} once, {@code after} the given delay. */
     public ScheduledTask once(Duration after, Runnable task) {
-        return new ScheduledTask(timer.schedule(() -> runAsync(task), after.toMillis(), MILLISECONDS));
+        return new ScheduledTask(timer.schedule(() -> runAsync("once", task), after.toMillis(), MILLISECONDS));
     }
 
     /** Runs {@code task} every day at {@code time} in the given zone. */
@@ -94,18 +92,35 @@ public final class Scheduler implements AutoCloseable {
         }
         long initialDelay = Duration.between(now, next).toMillis();
         ScheduledFuture<?> future = timer.scheduleAtFixedRate(
-            () -> runAsync(task), initialDelay, Duration.ofDays(1).toMillis(), MILLISECONDS);
+            () -> runAsync("dailyAt", task), initialDelay, Duration.ofDays(1).toMillis(), MILLISECONDS);
         return new ScheduledTask(future);
     }
 
-    private void runAsync(Runnable task) {
-        Thread.startVirtualThread(() -> {
-            try {
-                task.run();
-            } catch (Throwable t) {
-                log.error("Scheduled task failed", t);
+    private void runAsync(String schedule, Runnable task) {
+        Thread.startVirtualThread(() -> execute(schedule, task));
+    }
+
+    /** Runs one task, logging failures and recording a {@code ligero.SchedulerTask} event when enabled. */
+    private static void execute(String schedule, Runnable task) {
+        SchedulerTaskEvent event = null;
+        if (SchedulerTaskEvent.TYPE.isEnabled()) {
+            event = new SchedulerTaskEvent();
+            event.task = task.getClass().getName();
+            event.schedule = schedule;
+            event.begin();
+        }
+        try {
+            task.run();
+        } catch (Throwable t) {
+            if (event != null) {
+                event.failed = true;
             }
-        });
+            log.error("Scheduled task failed", t);
+        } finally {
+            if (event != null) {
+                event.commit();
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,32 @@
+package com.ligero.scheduler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event for one run of a scheduled task, recorded
+ * whenever a JFR recording enables {@code ligero.SchedulerTask}.
+ */
+@Name("ligero.SchedulerTask")
+@Label("Scheduler Task")
+@Category({"Ligero", "Scheduler"})
+@StackTrace(false)
+final class SchedulerTaskEvent extends jdk.jfr.Event {
+
+    static final EventType TYPE = EventType.getEventType(SchedulerTaskEvent.class);
+
+    @Label("Task")
+    @Description("Class of the task's Runnable")
+    String task;
+
+    @Label("Schedule")
+    @Description("fixedRate, fixedDelay, once or dailyAt")
+    String schedule;
+
+    @Label("Failed")
+    boolean failed;
+}
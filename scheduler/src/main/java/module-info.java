@@ -4,6 +4,7 @@
  */
 module com.ligero.scheduler {
     requires org.slf4j;
+    requires jdk.jfr;
 
     exports com.ligero.scheduler;
 }
@@ -60,6 +60,16 @@ final class JettyHttpRequest implements HttpRequest {
         return headers;
     }
 
+    @Override
+    public long receivedAtNanos() {
+        return request.getBeginNanoTime();
+    }
+
+    @Override
+    public long headerReadNanos() {
+        return Math.max(0L, request.getHeadersNanoTime() - request.getBeginNanoTime());
+    }
+
     @Override
     public Map<String, List<String>> getQueryParams() {
         if (queryParams == null) {
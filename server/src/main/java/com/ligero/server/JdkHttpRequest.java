@@ -28,6 +28,8 @@ final class JdkHttpRequest implements HttpRequest {
 
     private final HttpExchange exchange;
     private final long maxBodyBytes;
+    private final long receivedAtNanos = System.nanoTime();
+    private long headerReadNanos;
     private Map<String, List<String>> headers;
     private Map<String, List<String>> queryParams;
     private byte[] cachedBodyBytes;
@@ -56,14 +58,27 @@ final class JdkHttpRequest implements HttpRequest {
     @Override
     public Map<String, List<String>> getHeaders() {
         if (headers == null) {
+            long start = System.nanoTime();
             Map<String, List<String>> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
             exchange.getRequestHeaders().forEach((name, values) ->
                 map.put(name, List.copyOf(values)));
             headers = Collections.unmodifiableMap(map);
+            headerReadNanos = System.nanoTime() - start;
         }
         return headers;
     }
 
+    @Override
+    public long receivedAtNanos() {
+        return receivedAtNanos;
+    }
+
+    /** The JDK server parses headers before hand-off; this is only the cost of copying them. */
+    @Override
+    public long headerReadNanos() {
+        return headerReadNanos;
+    }
+
     @Override
     public Map<String, List<String>> getQueryParams() {
         if (queryParams == null) {